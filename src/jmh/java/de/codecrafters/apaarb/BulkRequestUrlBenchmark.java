@@ -0,0 +1,83 @@
+package de.codecrafters.apaarb;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark of the creation of the request urls for many item IDs, sequentially using the
+ * {@link ItemLookupRequestTemplate} and in parallel using the {@link BulkRequestUrlGenerator}.
+ *
+ * @author ISchwarz
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BulkRequestUrlBenchmark {
+
+    private static final AmazonWebServiceAuthentication AUTHENTICATION =
+            AmazonWebServiceAuthentication.create("AssociateTag", "AccessKey", "SecretKey");
+    private static final int ITEM_COUNT = 100000;
+
+    @Param({"true", "false"})
+    public boolean preservingOrder;
+
+    private List<ItemId> itemIds;
+    private ItemLookupRequestTemplate template;
+    private BulkRequestUrlGenerator generator;
+
+    @Setup
+    public void setUp() {
+        itemIds = new ArrayList<>(ITEM_COUNT);
+        for (int i = 0; i < ITEM_COUNT; i++) {
+            itemIds.add(ItemId.createAsin(String.format("B%09d", i)));
+        }
+        template = ItemLookupRequest.forItem(itemIds.get(0))
+                .withInformationAbout(ItemInformation.OFFERS)
+                .compile(AmazonWebServiceLocation.COM, AUTHENTICATION);
+        generator = BulkRequestUrlGenerator.builder(template)
+                .preservingOrder(preservingOrder)
+                .build();
+    }
+
+    @TearDown
+    public void tearDown() {
+        generator.shutdown();
+    }
+
+    @Benchmark
+    public void sequentialRequestUrls(final Blackhole blackhole) {
+        final Iterator<String> requestUrls = template.createSecureRequestUrlsFor(itemIds.iterator());
+        while (requestUrls.hasNext()) {
+            blackhole.consume(requestUrls.next());
+        }
+    }
+
+    @Benchmark
+    public void parallelRequestUrls(final Blackhole blackhole) throws InterruptedException {
+        generator.generate(itemIds.iterator(), new BulkRequestUrlGenerator.RequestUrlConsumer() {
+            @Override
+            public void accept(final String requestUrl) {
+                blackhole.consume(requestUrl);
+            }
+        });
+    }
+}
@@ -0,0 +1,50 @@
+package de.codecrafters.apaarb;
+
+import java.util.Set;
+
+/**
+ * A request to the Amazon Product Advertising API, which can be signed for any Amazon service. Every call of the
+ * {@code create...} methods creates a newly signed request url with the current timestamp, so the same request can be
+ * signed again when it is sent later or retried.
+ *
+ * @author ISchwarz
+ */
+public interface AdvertisingApiRequest {
+
+    /**
+     * Creates the signed request http-url for the given service using the given {@link AmazonWebServiceAuthentication}.
+     *
+     * @param serviceLocation The location of the Amazon service that shall be used.
+     * @param authentication  The {@link AmazonWebServiceAuthentication} that shall be used.
+     * @return The created signed request url.
+     */
+    String createRequestUrlFor(AmazonWebServiceLocation serviceLocation, AmazonWebServiceAuthentication authentication);
+
+    /**
+     * Creates the signed request https-url for the given service using the given {@link AmazonWebServiceAuthentication}.
+     *
+     * @param serviceLocation The location of the Amazon service that shall be used.
+     * @param authentication  The {@link AmazonWebServiceAuthentication} that shall be used.
+     * @return The created signed request url.
+     */
+    String createSecureRequestUrlFor(AmazonWebServiceLocation serviceLocation,
+                                     AmazonWebServiceAuthentication authentication);
+
+    /**
+     * Gives the canonical parameters of this request, which don't depend on the authentication and the time of the
+     * request (e.g. "Condition=All&amp;IdType=ASIN&amp;ItemId=..."). Two requests with equal canonical parameters
+     * are answered with the same content by the same Amazon service.
+     *
+     * @return The canonical parameters of this request.
+     */
+    String getCanonicalParameters();
+
+    /**
+     * Gives the {@link ItemInformation} that is requested. If no {@link ItemInformation} was added,
+     * {@link ItemInformation#ATTRIBUTES} is requested.
+     *
+     * @return The requested {@link ItemInformation}.
+     */
+    Set<ItemInformation> getResponseGroup();
+
+}
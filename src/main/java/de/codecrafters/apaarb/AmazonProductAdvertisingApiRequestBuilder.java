@@ -1,7 +1,11 @@
 package de.codecrafters.apaarb;
 
-import java.text.SimpleDateFormat;
-import java.util.*;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
 
 /**
  * A builder that simplifies the creation of URLs for requesting the Amazon Product Advertising API.
@@ -10,18 +14,19 @@ import java.util.*;
  */
 public final class AmazonProductAdvertisingApiRequestBuilder {
 
-    private static final SimpleDateFormat DATE_FORMATTER = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss.SSS'Z'");
-    private static final String DATE_FORMATTER_TIME_ZONE = "GMT";
-    private static final String SERVICE = "AWSECommerceService";
-    private static final String VERSION = "2011-08-01";
+    static final String SERVICE = "AWSECommerceService";
+    static final String VERSION = "2011-08-01";
 
-    private static final String HTTP_PROTOCOL = "http://";
-    private static final String HTTPS_PROTOCOL = "https://";
-    private static final String ROUTE = "/onca/xml";
+    static final String HTTP_PROTOCOL = "http://";
+    static final String HTTPS_PROTOCOL = "https://";
+    static final String ROUTE = "/onca/xml";
 
-    static {
-        DATE_FORMATTER.setTimeZone(TimeZone.getTimeZone(DATE_FORMATTER_TIME_ZONE));
-    }
+    /**
+     * The maximum number of item IDs that can be looked up in a single ItemLookup request.
+     */
+    public static final int MAX_ITEM_IDS_PER_LOOKUP = 10;
+
+    static final String ENCODED_LIST_SEPARATOR = "%2C";
 
 
     private AmazonProductAdvertisingApiRequestBuilder() {
@@ -46,7 +51,23 @@ public final class AmazonProductAdvertisingApiRequestBuilder {
      * @return A new {@link AdvertisingApiItemLookupRequestBuilder} for creating an ItemLookup request for the item with the given ID.
      */
     public static AdvertisingApiItemLookupRequestBuilder forItemLookup(final ItemId itemId) {
-        return new AdvertisingApiItemLookupRequestBuilder(itemId);
+        return new AdvertisingApiItemLookupRequestBuilder(Collections.singletonList(itemId));
+    }
+
+    /**
+     * Creates an {@link AdvertisingApiItemLookupRequestBuilder} for creating an ItemLookup request for all items with
+     * the given IDs. A single request can look up at most {@link #MAX_ITEM_IDS_PER_LOOKUP} items, which all need to
+     * have IDs of the same {@link ItemId.Type}. Use the {@link ItemIdPartitioner} to split bigger amounts of IDs.
+     *
+     * @param itemIds The IDs of the items to get the information for.
+     * @return A new {@link AdvertisingApiItemLookupRequestBuilder} for creating an ItemLookup request for all items
+     * with the given IDs.
+     * @throws IllegalArgumentException If no, too many or IDs of different types are given.
+     */
+    public static AdvertisingApiItemLookupRequestBuilder forItemLookup(final Collection<ItemId> itemIds) {
+        final List<ItemId> itemIdList = new ArrayList<>(itemIds);
+        checkItemIds(itemIdList);
+        return new AdvertisingApiItemLookupRequestBuilder(Collections.unmodifiableList(itemIdList));
     }
 
     /**
@@ -60,21 +81,22 @@ public final class AmazonProductAdvertisingApiRequestBuilder {
     }
 
     /**
-     * A builder that simplifies the creation of URLs for ItemSearch requests.
+     * A builder that simplifies the creation of URLs for ItemSearch requests. The builder is mutable and must not be
+     * shared between threads; use {@link #build()} to get an immutable {@link ItemSearchRequest} that can be shared.
      *
      * @author ISchwarz
      */
-    public static final class AdvertisingApiItemSearchRequestBuilder {
+    public static final class AdvertisingApiItemSearchRequestBuilder implements AdvertisingApiRequest {
 
-        private static final String OPERATION = "ItemSearch";
-
-        private final List<ItemInformation> responseGroup = new ArrayList<>();
         private final String keywords;
 
+        private int responseGroup = ResponseGroup.EMPTY;
         private ItemCondition itemCondition = ItemCondition.ALL;
         private ItemCategory itemCategory = ItemCategory.ALL;
         private int maximumPrice = -1;
         private int minimumPrice = -1;
+        private int itemPage = ItemSearchRequest.FIRST_ITEM_PAGE;
+        private RequestClock clock = RequestClock.SYSTEM;
 
 
         private AdvertisingApiItemSearchRequestBuilder(final String keywords) {
@@ -99,7 +121,7 @@ public final class AmazonProductAdvertisingApiRequestBuilder {
          * @return The current {@link AdvertisingApiItemSearchRequestBuilder}.
          */
         public AdvertisingApiItemSearchRequestBuilder includeInformationAbout(final ItemInformation itemInformation) {
-            responseGroup.add(itemInformation);
+            responseGroup |= ResponseGroup.of(itemInformation);
             return this;
         }
 
@@ -138,6 +160,42 @@ public final class AmazonProductAdvertisingApiRequestBuilder {
             return this;
         }
 
+        /**
+         * Specifies the page of the matching items that shall be returned. Every page contains up to 10 items. By
+         * default the first page is returned.
+         *
+         * @param itemPage The page of the matching items, starting with 1.
+         * @return The current {@link AdvertisingApiItemSearchRequestBuilder}.
+         * @throws IllegalArgumentException If the given page is smaller than 1 or bigger than
+         *                                  {@link ItemSearchRequest#MAX_ITEM_PAGE}.
+         */
+        public AdvertisingApiItemSearchRequestBuilder atItemPage(final int itemPage) {
+            this.itemPage = ItemSearchRequest.checkItemPage(itemPage);
+            return this;
+        }
+
+        /**
+         * Sets the {@link RequestClock} that gives the time used as timestamp of the created requests. By default the
+         * {@link RequestClock#SYSTEM} clock is used.
+         *
+         * @param clock The {@link RequestClock} that gives the time used as timestamp of the created requests.
+         * @return The current {@link AdvertisingApiItemSearchRequestBuilder}.
+         */
+        public AdvertisingApiItemSearchRequestBuilder usingClock(final RequestClock clock) {
+            this.clock = clock;
+            return this;
+        }
+
+        /**
+         * Creates an immutable {@link ItemSearchRequest} with the current configuration of this builder.
+         *
+         * @return The created {@link ItemSearchRequest}.
+         */
+        public ItemSearchRequest build() {
+            return ItemSearchRequest.create(keywords, itemCondition, itemCategory, responseGroup, maximumPrice,
+                    minimumPrice, itemPage, clock);
+        }
+
         /**
          * Creates the signed request http-url for the given service using the given {@link AmazonWebServiceAuthentication}.
          *
@@ -145,10 +203,11 @@ public final class AmazonProductAdvertisingApiRequestBuilder {
          * @param authentication  The {@link AmazonWebServiceAuthentication} that shall be used.
          * @return The created signed request url.
          */
+        @Override
         public String createRequestUrlFor(final AmazonWebServiceLocation serviceLocation,
                                           final AmazonWebServiceAuthentication authentication) {
 
-            return createRequestUrlFor(serviceLocation, authentication, HTTP_PROTOCOL);
+            return build().createRequestUrlFor(serviceLocation, authentication);
         }
 
         /**
@@ -158,55 +217,73 @@ public final class AmazonProductAdvertisingApiRequestBuilder {
          * @param authentication  The {@link AmazonWebServiceAuthentication} that shall be used.
          * @return The created signed request url.
          */
+        @Override
         public String createSecureRequestUrlFor(final AmazonWebServiceLocation serviceLocation,
                                                 final AmazonWebServiceAuthentication authentication) {
 
-            return createRequestUrlFor(serviceLocation, authentication, HTTPS_PROTOCOL);
-        }
-
-        private String createRequestUrlFor(final AmazonWebServiceLocation serviceLocation,
-                                           final AmazonWebServiceAuthentication authentication, final String protocol) {
-
-            final Map<String, String> requestParams = new LinkedHashMap<>();
-            requestParams.put("AWSAccessKeyId", authentication.getAwsAccessKey());
-            requestParams.put("AssociateTag", authentication.getAssociateTag());
-            requestParams.put("Condition", itemCondition.getRequestValue());
-            requestParams.put("Keywords", keywords);
-            requestParams.put("Operation", OPERATION);
-            requestParams.put("ResponseGroup", createResponseGroupRequestValue(responseGroup));
-            requestParams.put("SearchIndex", itemCategory.getRequestValue());
-            requestParams.put("Service", SERVICE);
-            requestParams.put("Timestamp", DATE_FORMATTER.format(new Date()));
-            requestParams.put("Version", VERSION);
-            if (maximumPrice != -1) {
-                requestParams.put("MaximumPrice", "" + maximumPrice);
-            }
-            if (minimumPrice != -1) {
-                requestParams.put("MinimumPrice", "" + minimumPrice);
-            }
+            return build().createSecureRequestUrlFor(serviceLocation, authentication);
+        }
+
+        @Override
+        public String getCanonicalParameters() {
+            return build().getCanonicalParameters();
+        }
+
+        @Override
+        public Set<ItemInformation> getResponseGroup() {
+            return ResponseGroup.toSet(responseGroup);
+        }
+
+        /**
+         * Writes the path and query of the signed request for the given service using the given
+         * {@link AmazonWebServiceAuthentication} as US-ASCII bytes into the given {@link ByteBuffer}.
+         *
+         * @param serviceLocation The location of the Amazon service that shall be used.
+         * @param authentication  The {@link AmazonWebServiceAuthentication} that shall be used.
+         * @param target          The {@link ByteBuffer} the path and query shall be written to.
+         * @return The number of written bytes.
+         * @throws java.nio.BufferOverflowException If the remaining space of the given {@link ByteBuffer} is too
+         *                                          small. In this case nothing is written.
+         */
+        public int writeRequestPathTo(final AmazonWebServiceLocation serviceLocation,
+                                      final AmazonWebServiceAuthentication authentication, final ByteBuffer target) {
 
-            return RequestUrlUtils.createSignedRequestUrl(protocol, serviceLocation.getWebServiceUrl(), ROUTE,
-                    requestParams, authentication.getAwsSecretKey());
+            return build().writeRequestPathTo(serviceLocation, authentication, target);
+        }
+
+        /**
+         * Writes the path and query of the signed request for the given service using the given
+         * {@link AmazonWebServiceAuthentication} as US-ASCII bytes into the given {@link RequestSink}.
+         *
+         * @param serviceLocation The location of the Amazon service that shall be used.
+         * @param authentication  The {@link AmazonWebServiceAuthentication} that shall be used.
+         * @param target          The {@link RequestSink} the path and query shall be written to.
+         * @return The number of written bytes.
+         */
+        public int writeRequestPathTo(final AmazonWebServiceLocation serviceLocation,
+                                      final AmazonWebServiceAuthentication authentication, final RequestSink target) {
+
+            return build().writeRequestPathTo(serviceLocation, authentication, target);
         }
     }
 
     /**
-     * A builder that simplifies the creation of URLs for ItemLookup requests.
+     * A builder that simplifies the creation of URLs for ItemLookup requests. The builder is mutable and must not be
+     * shared between threads; use {@link #build()} to get an immutable {@link ItemLookupRequest} that can be shared.
      *
      * @author ISchwarz
      */
-    public static final class AdvertisingApiItemLookupRequestBuilder {
+    public static final class AdvertisingApiItemLookupRequestBuilder implements AdvertisingApiRequest {
 
-        private static final String OPERATION = "ItemLookup";
-
-        private final List<ItemInformation> responseGroup = new ArrayList<>();
-        private final ItemId itemId;
+        private final List<ItemId> itemIds;
 
+        private int responseGroup = ResponseGroup.EMPTY;
         private ItemCondition itemCondition = ItemCondition.ALL;
+        private RequestClock clock = RequestClock.SYSTEM;
 
 
-        private AdvertisingApiItemLookupRequestBuilder(final ItemId itemId) {
-            this.itemId = itemId;
+        private AdvertisingApiItemLookupRequestBuilder(final List<ItemId> itemIds) {
+            this.itemIds = itemIds;
         }
 
         /**
@@ -216,7 +293,7 @@ public final class AmazonProductAdvertisingApiRequestBuilder {
          * @return The current {@link AdvertisingApiItemLookupRequestBuilder}.
          */
         public AdvertisingApiItemLookupRequestBuilder includeInformationAbout(final ItemInformation itemInformation) {
-            responseGroup.add(itemInformation);
+            responseGroup |= ResponseGroup.of(itemInformation);
             return this;
         }
 
@@ -231,6 +308,27 @@ public final class AmazonProductAdvertisingApiRequestBuilder {
             return this;
         }
 
+        /**
+         * Sets the {@link RequestClock} that gives the time used as timestamp of the created requests. By default the
+         * {@link RequestClock#SYSTEM} clock is used.
+         *
+         * @param clock The {@link RequestClock} that gives the time used as timestamp of the created requests.
+         * @return The current {@link AdvertisingApiItemLookupRequestBuilder}.
+         */
+        public AdvertisingApiItemLookupRequestBuilder usingClock(final RequestClock clock) {
+            this.clock = clock;
+            return this;
+        }
+
+        /**
+         * Creates an immutable {@link ItemLookupRequest} with the current configuration of this builder.
+         *
+         * @return The created {@link ItemLookupRequest}.
+         */
+        public ItemLookupRequest build() {
+            return ItemLookupRequest.create(itemIds, itemCondition, responseGroup, clock);
+        }
+
         /**
          * Creates the signed request http-url for the given service using the given {@link AmazonWebServiceAuthentication}.
          *
@@ -238,10 +336,11 @@ public final class AmazonProductAdvertisingApiRequestBuilder {
          * @param authentication  The {@link AmazonWebServiceAuthentication} that shall be used.
          * @return The created signed request url.
          */
+        @Override
         public String createRequestUrlFor(final AmazonWebServiceLocation serviceLocation,
                                           final AmazonWebServiceAuthentication authentication) {
 
-            return createRequestUrlFor(serviceLocation, authentication, HTTP_PROTOCOL);
+            return build().createRequestUrlFor(serviceLocation, authentication);
         }
 
         /**
@@ -251,45 +350,127 @@ public final class AmazonProductAdvertisingApiRequestBuilder {
          * @param authentication  The {@link AmazonWebServiceAuthentication} that shall be used.
          * @return The created signed request url.
          */
+        @Override
         public String createSecureRequestUrlFor(final AmazonWebServiceLocation serviceLocation,
                                                 final AmazonWebServiceAuthentication authentication) {
 
-            return createRequestUrlFor(serviceLocation, authentication, HTTPS_PROTOCOL);
+            return build().createSecureRequestUrlFor(serviceLocation, authentication);
         }
 
-        private String createRequestUrlFor(final AmazonWebServiceLocation serviceLocation,
-                                           final AmazonWebServiceAuthentication authentication, final String protocol) {
+        @Override
+        public String getCanonicalParameters() {
+            return build().getCanonicalParameters();
+        }
 
-            final Map<String, String> requestParams = new LinkedHashMap<>();
-            requestParams.put("AWSAccessKeyId", authentication.getAwsAccessKey());
-            requestParams.put("AssociateTag", authentication.getAssociateTag());
-            requestParams.put("Condition", itemCondition.getRequestValue());
-            requestParams.put("IdType", itemId.getType().getRequestValue());
-            requestParams.put("ItemId", itemId.getValue());
-            requestParams.put("Operation", OPERATION);
-            requestParams.put("ResponseGroup", createResponseGroupRequestValue(responseGroup));
-            requestParams.put("Service", SERVICE);
-            requestParams.put("Timestamp", DATE_FORMATTER.format(new Date()));
-            requestParams.put("Version", VERSION);
+        @Override
+        public Set<ItemInformation> getResponseGroup() {
+            return ResponseGroup.toSet(responseGroup);
+        }
 
-            return RequestUrlUtils.createSignedRequestUrl(protocol, serviceLocation.getWebServiceUrl(), ROUTE,
-                    requestParams, authentication.getAwsSecretKey());
+        /**
+         * Compiles this request into an {@link ItemLookupRequestTemplate} for the given service using the given
+         * {@link AmazonWebServiceAuthentication}. The template encodes all constant parts of the request only once, so
+         * it should be used if many requests are created that only differ in the looked up {@link ItemId}.
+         *
+         * @param serviceLocation The location of the Amazon service that shall be used.
+         * @param authentication  The {@link AmazonWebServiceAuthentication} that shall be used.
+         * @return The compiled {@link ItemLookupRequestTemplate}.
+         */
+        public ItemLookupRequestTemplate compile(final AmazonWebServiceLocation serviceLocation,
+                                                 final AmazonWebServiceAuthentication authentication) {
+
+            return build().compile(serviceLocation, authentication);
+        }
+
+        /**
+         * Writes the path and query of the signed request for the given service using the given
+         * {@link AmazonWebServiceAuthentication} as US-ASCII bytes into the given {@link ByteBuffer}.
+         *
+         * @param serviceLocation The location of the Amazon service that shall be used.
+         * @param authentication  The {@link AmazonWebServiceAuthentication} that shall be used.
+         * @param target          The {@link ByteBuffer} the path and query shall be written to.
+         * @return The number of written bytes.
+         * @throws java.nio.BufferOverflowException If the remaining space of the given {@link ByteBuffer} is too
+         *                                          small. In this case nothing is written.
+         */
+        public int writeRequestPathTo(final AmazonWebServiceLocation serviceLocation,
+                                      final AmazonWebServiceAuthentication authentication, final ByteBuffer target) {
+
+            return build().writeRequestPathTo(serviceLocation, authentication, target);
+        }
+
+        /**
+         * Writes the path and query of the signed request for the given service using the given
+         * {@link AmazonWebServiceAuthentication} as US-ASCII bytes into the given {@link RequestSink}.
+         *
+         * @param serviceLocation The location of the Amazon service that shall be used.
+         * @param authentication  The {@link AmazonWebServiceAuthentication} that shall be used.
+         * @param target          The {@link RequestSink} the path and query shall be written to.
+         * @return The number of written bytes.
+         */
+        public int writeRequestPathTo(final AmazonWebServiceLocation serviceLocation,
+                                      final AmazonWebServiceAuthentication authentication, final RequestSink target) {
+
+            return build().writeRequestPathTo(serviceLocation, authentication, target);
+        }
+    }
+
+    /**
+     * Checks whether the given IDs can be looked up in a single ItemLookup request.
+     *
+     * @param itemIds The IDs that shall be checked.
+     * @throws IllegalArgumentException If no, too many or IDs of different types are given.
+     */
+    static void checkItemIds(final List<ItemId> itemIds) {
+        if (itemIds.isEmpty()) {
+            throw new IllegalArgumentException("At least one item ID is required!");
+        }
+        if (itemIds.size() > MAX_ITEM_IDS_PER_LOOKUP) {
+            throw new IllegalArgumentException("At most " + MAX_ITEM_IDS_PER_LOOKUP + " item IDs can be looked up in "
+                    + "a single request, but " + itemIds.size() + " were given!");
+        }
+        final ItemId.Type idType = itemIds.get(0).getType();
+        for (final ItemId itemId : itemIds) {
+            if (itemId.getType() != idType) {
+                throw new IllegalArgumentException("All item IDs need to be of the same type, but " + idType + " and "
+                        + itemId.getType() + " were given!");
+            }
         }
     }
 
-    private static String createResponseGroupRequestValue(final List<ItemInformation> responseGroup) {
-        // add item attributes to response group if none was selected
-        if (responseGroup.size() == 0) {
-            responseGroup.add(ItemInformation.ATTRIBUTES);
+    /**
+     * Appends the comma separated values of the given IDs percent-encoded to the given {@link AsciiBuffer}.
+     *
+     * @param target  The {@link AsciiBuffer} the values shall be appended to.
+     * @param itemIds The IDs whose values shall be appended.
+     */
+    static void appendItemIds(final AsciiBuffer target, final List<ItemId> itemIds) {
+        for (int i = 0; i < itemIds.size(); i++) {
+            if (i != 0) {
+                target.append(ENCODED_LIST_SEPARATOR);
+            }
+            target.appendPercentEncoded(itemIds.get(i).getValue());
         }
+    }
+
+    /**
+     * Appends the comma separated IDs contained in the given ranges of the given {@link ByteBuffer} percent-encoded
+     * to the given {@link AsciiBuffer}.
+     *
+     * @param target  The {@link AsciiBuffer} the IDs shall be appended to.
+     * @param source  The {@link ByteBuffer} containing the US-ASCII or UTF-8 bytes of the IDs.
+     * @param offsets The indexes of the first bytes of the IDs.
+     * @param lengths The number of bytes of the IDs.
+     * @param count   The number of IDs.
+     */
+    static void appendItemIds(final AsciiBuffer target, final ByteBuffer source, final int[] offsets,
+                              final int[] lengths, final int count) {
 
-        String responseGroupRequestValue = "";
-        for (int i = 0; i < responseGroup.size(); i++) {
+        for (int i = 0; i < count; i++) {
             if (i != 0) {
-                responseGroupRequestValue += ",";
+                target.append(ENCODED_LIST_SEPARATOR);
             }
-            responseGroupRequestValue += responseGroup.get(i).getRequestValue();
+            target.appendPercentEncoded(source, offsets[i], lengths[i]);
         }
-        return responseGroupRequestValue;
     }
 }
@@ -11,6 +11,8 @@ public final class AmazonWebServiceAuthentication {
     private final String awsAccessKey;
     private final String awsSecretKey;
 
+    private volatile RequestSigner requestSigner;
+
     private AmazonWebServiceAuthentication(final String associateTag, final String awsAccessKey, final String awsSecretKey) {
         this.associateTag = associateTag;
         this.awsAccessKey = awsAccessKey;
@@ -55,4 +57,19 @@ public final class AmazonWebServiceAuthentication {
     public String getAwsSecretKey() {
         return awsSecretKey;
     }
+
+    /**
+     * Gives the {@link RequestSigner} for the secret key of this authentication. The signer is created on first use
+     * and reused for all following requests.
+     *
+     * @return The {@link RequestSigner} for the secret key of this authentication.
+     */
+    RequestSigner getRequestSigner() {
+        RequestSigner signer = requestSigner;
+        if (signer == null) {
+            signer = new RequestSigner(awsSecretKey);
+            requestSigner = signer;
+        }
+        return signer;
+    }
 }
@@ -0,0 +1,44 @@
+package de.codecrafters.apaarb;
+
+import java.io.IOException;
+
+/**
+ * Signals that an Amazon service answered a request with an error status code.
+ *
+ * @author ISchwarz
+ */
+public final class AmazonWebServiceException extends IOException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final AmazonWebServiceResponse response;
+
+
+    /**
+     * Creates a new {@link AmazonWebServiceException} for the given error response.
+     *
+     * @param response The error response of the Amazon service.
+     */
+    public AmazonWebServiceException(final AmazonWebServiceResponse response) {
+        super("Request failed with status code " + response.getStatusCode());
+        this.response = response;
+    }
+
+    /**
+     * Gives the error response of the Amazon service.
+     *
+     * @return The error response of the Amazon service.
+     */
+    public AmazonWebServiceResponse getResponse() {
+        return response;
+    }
+
+    /**
+     * Gives the HTTP status code of the error response.
+     *
+     * @return The HTTP status code of the error response.
+     */
+    public int getStatusCode() {
+        return response.getStatusCode();
+    }
+}
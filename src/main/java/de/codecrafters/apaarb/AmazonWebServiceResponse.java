@@ -0,0 +1,96 @@
+package de.codecrafters.apaarb;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * The response of the Amazon service to a signed request.
+ *
+ * @author ISchwarz
+ */
+public final class AmazonWebServiceResponse {
+
+    private final String requestUrl;
+    private final int statusCode;
+    private final byte[] body;
+
+
+    private AmazonWebServiceResponse(final String requestUrl, final int statusCode, final byte[] body) {
+        this.requestUrl = requestUrl;
+        this.statusCode = statusCode;
+        this.body = body;
+    }
+
+    /**
+     * Creates a new {@link AmazonWebServiceResponse} for the given data. The given body is not copied, so it must not
+     * be modified afterwards.
+     *
+     * @param requestUrl The url of the request that was answered.
+     * @param statusCode The HTTP status code of the response.
+     * @param body       The body of the response.
+     * @return The created {@link AmazonWebServiceResponse}.
+     */
+    public static AmazonWebServiceResponse create(final String requestUrl, final int statusCode, final byte[] body) {
+        return new AmazonWebServiceResponse(requestUrl, statusCode, body);
+    }
+
+    /**
+     * Gives the url of the request that was answered with this response.
+     *
+     * @return The url of the request that was answered with this response.
+     */
+    public String getRequestUrl() {
+        return requestUrl;
+    }
+
+    /**
+     * Gives the HTTP status code of this response.
+     *
+     * @return The HTTP status code of this response.
+     */
+    public int getStatusCode() {
+        return statusCode;
+    }
+
+    /**
+     * Checks whether this response has a successful (2xx) HTTP status code.
+     *
+     * @return True if this response has a successful HTTP status code.
+     */
+    public boolean isSuccessful() {
+        return statusCode >= 200 && statusCode < 300;
+    }
+
+    /**
+     * Gives the length of the body of this response in bytes.
+     *
+     * @return The length of the body of this response in bytes.
+     */
+    public int getBodyLength() {
+        return body.length;
+    }
+
+    /**
+     * Gives a new {@link InputStream} for reading the body of this response.
+     *
+     * @return A new {@link InputStream} for reading the body of this response.
+     */
+    public InputStream getBodyAsStream() {
+        return new ByteArrayInputStream(body);
+    }
+
+    /**
+     * Gives the body of this response decoded as UTF-8 text.
+     *
+     * @return The body of this response decoded as UTF-8 text.
+     */
+    public String getBodyAsString() {
+        return new String(body, StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public String toString() {
+        return "AmazonWebServiceResponse{statusCode=" + statusCode + ", bodyLength=" + body.length + "}";
+    }
+}
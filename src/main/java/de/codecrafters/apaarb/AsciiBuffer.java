@@ -0,0 +1,267 @@
+package de.codecrafters.apaarb;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * A growable byte buffer for the US-ASCII text of request URLs. Besides plain ASCII text it is able to append values
+ * percent-encoded as specified in <a href="https://tools.ietf.org/html/rfc3986#section-2">RFC 3986</a>, without the
+ * creation of any intermediate strings. Values that only consist of unreserved characters are copied as they are.
+ *
+ * @author ISchwarz
+ */
+final class AsciiBuffer {
+
+    private static final byte[] HEX_DIGITS = {
+            '0', '1', '2', '3', '4', '5', '6', '7', '8', '9', 'A', 'B', 'C', 'D', 'E', 'F'
+    };
+
+    private static final char REPLACEMENT_CHARACTER = '?';
+
+    private byte[] bytes;
+    private int length;
+
+
+    AsciiBuffer(final int initialCapacity) {
+        this.bytes = new byte[initialCapacity];
+    }
+
+    /**
+     * Checks whether the given character is an unreserved character as defined in RFC 3986 and therefore doesn't
+     * have to be percent-encoded.
+     *
+     * @param c The character to check.
+     * @return True if the given character doesn't have to be percent-encoded.
+     */
+    static boolean isUnreserved(final int c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9')
+                || c == '-' || c == '_' || c == '.' || c == '~';
+    }
+
+    /**
+     * Checks whether the given value only consists of unreserved characters and therefore doesn't have to be
+     * percent-encoded.
+     *
+     * @param value The value to check.
+     * @return True if the given value doesn't have to be percent-encoded.
+     */
+    static boolean isUnreserved(final CharSequence value) {
+        for (int i = 0; i < value.length(); i++) {
+            if (!isUnreserved(value.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Gives the number of bytes contained in this buffer.
+     *
+     * @return The number of bytes contained in this buffer.
+     */
+    int length() {
+        return length;
+    }
+
+    /**
+     * Gives the backing array of this buffer. Only the first {@link AsciiBuffer#length()} bytes are valid.
+     *
+     * @return The backing array of this buffer.
+     */
+    byte[] array() {
+        return bytes;
+    }
+
+    /**
+     * Truncates this buffer to the given length.
+     *
+     * @param newLength The new length of this buffer. Must not be bigger than the current length.
+     * @return The current {@link AsciiBuffer}.
+     */
+    AsciiBuffer truncate(final int newLength) {
+        length = newLength;
+        return this;
+    }
+
+    /**
+     * Appends the given ASCII character.
+     *
+     * @param c The ASCII character that shall be appended.
+     * @return The current {@link AsciiBuffer}.
+     */
+    AsciiBuffer append(final char c) {
+        ensureCapacity(1);
+        bytes[length++] = (byte) c;
+        return this;
+    }
+
+    /**
+     * Appends the given ASCII text without encoding it.
+     *
+     * @param ascii The ASCII text that shall be appended.
+     * @return The current {@link AsciiBuffer}.
+     */
+    AsciiBuffer append(final CharSequence ascii) {
+        final int textLength = ascii.length();
+        ensureCapacity(textLength);
+        for (int i = 0; i < textLength; i++) {
+            bytes[length++] = (byte) ascii.charAt(i);
+        }
+        return this;
+    }
+
+    /**
+     * Appends the given bytes without encoding them.
+     *
+     * @param source The bytes that shall be appended.
+     * @return The current {@link AsciiBuffer}.
+     */
+    AsciiBuffer append(final byte[] source) {
+        ensureCapacity(source.length);
+        System.arraycopy(source, 0, bytes, length, source.length);
+        length += source.length;
+        return this;
+    }
+
+    /**
+     * Appends the given value percent-encoded as specified in RFC 3986. Characters that are not unreserved are
+     * encoded using their UTF-8 representation.
+     *
+     * @param value The value that shall be appended percent-encoded.
+     * @return The current {@link AsciiBuffer}.
+     */
+    AsciiBuffer appendPercentEncoded(final CharSequence value) {
+        final int valueLength = value.length();
+        ensureCapacity(valueLength);
+
+        int i = 0;
+        // fast path: copy all leading unreserved characters
+        while (i < valueLength) {
+            final char c = value.charAt(i);
+            if (!isUnreserved(c)) {
+                break;
+            }
+            bytes[length++] = (byte) c;
+            i++;
+        }
+
+        while (i < valueLength) {
+            final char c = value.charAt(i++);
+            if (isUnreserved(c)) {
+                append(c);
+            } else if (c < 0x80) {
+                appendEscaped(c);
+            } else if (c < 0x800) {
+                appendEscaped(0xC0 | (c >> 6));
+                appendEscaped(0x80 | (c & 0x3F));
+            } else if (!Character.isSurrogate(c)) {
+                appendEscaped(0xE0 | (c >> 12));
+                appendEscaped(0x80 | ((c >> 6) & 0x3F));
+                appendEscaped(0x80 | (c & 0x3F));
+            } else if (Character.isHighSurrogate(c) && i < valueLength && Character.isLowSurrogate(value.charAt(i))) {
+                final int codePoint = Character.toCodePoint(c, value.charAt(i++));
+                appendEscaped(0xF0 | (codePoint >> 18));
+                appendEscaped(0x80 | ((codePoint >> 12) & 0x3F));
+                appendEscaped(0x80 | ((codePoint >> 6) & 0x3F));
+                appendEscaped(0x80 | (codePoint & 0x3F));
+            } else {
+                // malformed surrogates are replaced the same way the UTF-8 charset encoder does it
+                appendEscaped(REPLACEMENT_CHARACTER);
+            }
+        }
+        return this;
+    }
+
+    /**
+     * Appends the given ASCII bytes percent-encoded as specified in RFC 3986.
+     *
+     * @param ascii The ASCII bytes that shall be appended percent-encoded.
+     * @return The current {@link AsciiBuffer}.
+     */
+    AsciiBuffer appendPercentEncoded(final byte[] ascii) {
+        ensureCapacity(ascii.length);
+        for (final byte b : ascii) {
+            if (isUnreserved(b)) {
+                append((char) b);
+            } else {
+                appendEscaped(b & 0xFF);
+            }
+        }
+        return this;
+    }
+
+    /**
+     * Appends the given range of US-ASCII or UTF-8 bytes percent-encoded as specified in RFC 3986. The position of the
+     * given {@link ByteBuffer} isn't changed, so it can be read by multiple threads at the same time.
+     *
+     * @param source The {@link ByteBuffer} containing the bytes that shall be appended percent-encoded.
+     * @param offset The index of the first byte.
+     * @param count  The number of bytes.
+     * @return The current {@link AsciiBuffer}.
+     */
+    AsciiBuffer appendPercentEncoded(final ByteBuffer source, final int offset, final int count) {
+        ensureCapacity(count);
+        for (int i = offset; i < offset + count; i++) {
+            final byte b = source.get(i);
+            if (isUnreserved(b)) {
+                append((char) b);
+            } else {
+                appendEscaped(b & 0xFF);
+            }
+        }
+        return this;
+    }
+
+    /**
+     * Appends the content of the given range of this buffer to the given {@link StringBuilder}.
+     *
+     * @param target The {@link StringBuilder} the content shall be appended to.
+     * @param from   The index of the first byte (inclusive).
+     * @param to     The index of the last byte (exclusive).
+     */
+    void appendTo(final StringBuilder target, final int from, final int to) {
+        for (int i = from; i < to; i++) {
+            target.append((char) bytes[i]);
+        }
+    }
+
+    /**
+     * Creates a copy of the content of this buffer.
+     *
+     * @return The created copy of the content of this buffer.
+     */
+    byte[] toByteArray() {
+        return Arrays.copyOf(bytes, length);
+    }
+
+    /**
+     * Creates a string containing the given range of this buffer.
+     *
+     * @param from The index of the first byte (inclusive).
+     * @param to   The index of the last byte (exclusive).
+     * @return The created string.
+     */
+    String toString(final int from, final int to) {
+        return new String(bytes, from, to - from, StandardCharsets.US_ASCII);
+    }
+
+    @Override
+    public String toString() {
+        return toString(0, length);
+    }
+
+    private void appendEscaped(final int b) {
+        ensureCapacity(3);
+        bytes[length++] = '%';
+        bytes[length++] = HEX_DIGITS[(b >> 4) & 0x0F];
+        bytes[length++] = HEX_DIGITS[b & 0x0F];
+    }
+
+    private void ensureCapacity(final int additionalBytes) {
+        final int requiredCapacity = length + additionalBytes;
+        if (requiredCapacity > bytes.length) {
+            bytes = Arrays.copyOf(bytes, Math.max(requiredCapacity, bytes.length * 2));
+        }
+    }
+}
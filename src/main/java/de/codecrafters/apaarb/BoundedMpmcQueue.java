@@ -0,0 +1,137 @@
+package de.codecrafters.apaarb;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * A bounded lock-free queue for multiple producers and consumers based on an array of slots, which carry a sequence
+ * number telling whether they can be written or read in the current round. Producers and consumers only compete for
+ * the tail or head counter respectively, so they don't block each other.
+ *
+ * @param <E> The type of the elements.
+ * @author ISchwarz
+ */
+final class BoundedMpmcQueue<E> {
+
+    private final AtomicReferenceArray<E> elements;
+    private final AtomicLongArray sequences;
+    private final int capacity;
+    private final AtomicLong head = new AtomicLong();
+    private final AtomicLong tail = new AtomicLong();
+
+
+    /**
+     * Creates an empty {@link BoundedMpmcQueue} with the given capacity.
+     *
+     * @param capacity The maximum number of elements.
+     * @throws IllegalArgumentException If the given capacity is smaller than 1.
+     */
+    BoundedMpmcQueue(final int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("The capacity needs to be at least 1, but " + capacity
+                    + " was given!");
+        }
+        this.capacity = capacity;
+        this.elements = new AtomicReferenceArray<>(capacity);
+        this.sequences = new AtomicLongArray(capacity);
+        for (int i = 0; i < capacity; i++) {
+            sequences.set(i, i);
+        }
+    }
+
+    /**
+     * Adds the given element at the tail of this queue, if it isn't full.
+     *
+     * @param element The element that shall be added.
+     * @return True if the element was added, false if this queue is full.
+     */
+    boolean offer(final E element) {
+        while (true) {
+            final long position = tail.get();
+            final int index = indexOf(position);
+            final long difference = sequences.get(index) - position;
+            if (difference == 0) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    elements.set(index, element);
+                    // publishes the element to the consumers
+                    sequences.set(index, position + 1);
+                    return true;
+                }
+            } else if (difference < 0) {
+                return false;
+            }
+        }
+    }
+
+    /**
+     * Removes the element at the head of this queue.
+     *
+     * @return The removed element or null if this queue is empty.
+     */
+    E poll() {
+        while (true) {
+            final long position = head.get();
+            final int index = indexOf(position);
+            final long difference = sequences.get(index) - (position + 1);
+            if (difference == 0) {
+                if (head.compareAndSet(position, position + 1)) {
+                    final E element = elements.get(index);
+                    elements.set(index, null);
+                    // releases the slot for the next round of the producers
+                    sequences.set(index, position + capacity);
+                    return element;
+                }
+            } else if (difference < 0) {
+                return null;
+            }
+        }
+    }
+
+    /**
+     * Gives the element at the head of this queue without removing it. As other threads may remove it concurrently,
+     * the result is only a snapshot.
+     *
+     * @return The element at the head or null if this queue is empty.
+     */
+    E peek() {
+        while (true) {
+            final long position = head.get();
+            final int index = indexOf(position);
+            final long difference = sequences.get(index) - (position + 1);
+            if (difference == 0) {
+                final E element = elements.get(index);
+                // the element is only valid if it wasn't removed while reading it
+                if (element != null && head.get() == position) {
+                    return element;
+                }
+            } else if (difference < 0) {
+                return null;
+            }
+        }
+    }
+
+    /**
+     * Gives the number of elements in this queue. As other threads may change it concurrently, the result is only a
+     * snapshot.
+     *
+     * @return The number of elements in this queue.
+     */
+    int size() {
+        final long size = tail.get() - head.get();
+        return (int) Math.max(0, Math.min(size, capacity));
+    }
+
+    /**
+     * Gives the maximum number of elements of this queue.
+     *
+     * @return The capacity of this queue.
+     */
+    int capacity() {
+        return capacity;
+    }
+
+    private int indexOf(final long position) {
+        return (int) (position % capacity);
+    }
+}
@@ -0,0 +1,423 @@
+package de.codecrafters.apaarb;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.RecursiveAction;
+
+import static de.codecrafters.apaarb.AmazonProductAdvertisingApiRequestBuilder.MAX_ITEM_IDS_PER_LOOKUP;
+
+/**
+ * A generator that creates the signed request urls for huge amounts of {@link ItemId}s in parallel using an
+ * {@link ItemLookupRequestTemplate}. The IDs are packed into as few requests as possible using the
+ * {@link ItemIdPartitioner} and handed in chunks to a {@link ForkJoinPool}, whose workers split the chunks further and
+ * create the request urls. As the template keeps its signers and buffers per thread, every worker reuses them for all
+ * of its requests. Only a limited number of chunks is processed at the same time, so the IDs are read lazily.
+ * <p>
+ * The created request urls are always passed to the {@link RequestUrlConsumer} from the thread calling
+ * {@link #generate(Iterator, RequestUrlConsumer)}, either in the order of the IDs or in the order the chunks are
+ * completed.
+ *
+ * @author ISchwarz
+ */
+public final class BulkRequestUrlGenerator {
+
+    /**
+     * The default number of requests that are handed to the {@link ForkJoinPool} at once.
+     */
+    public static final int DEFAULT_CHUNK_SIZE = 256;
+
+    private static final int LEAF_SIZE = 16;
+    private static final int ESTIMATED_LINE_LENGTH = 12;
+    private static final int PENDING_CHUNKS_PER_WORKER = 4;
+
+    private final ItemLookupRequestTemplate template;
+    private final ForkJoinPool pool;
+    private final boolean ownsPool;
+    private final String protocol;
+    private final boolean preservingOrder;
+    private final int chunkSize;
+    private final boolean rejectingInvalidIds;
+
+
+    private BulkRequestUrlGenerator(final Builder builder) {
+        this.template = builder.template;
+        this.ownsPool = builder.pool == null;
+        this.pool = ownsPool ? new ForkJoinPool(builder.parallelism) : builder.pool;
+        this.protocol = builder.secure
+                ? AmazonProductAdvertisingApiRequestBuilder.HTTPS_PROTOCOL
+                : AmazonProductAdvertisingApiRequestBuilder.HTTP_PROTOCOL;
+        this.preservingOrder = builder.preservingOrder;
+        this.chunkSize = builder.chunkSize;
+        this.rejectingInvalidIds = builder.rejectingInvalidIds;
+    }
+
+    /**
+     * Creates a {@link Builder} for a {@link BulkRequestUrlGenerator} that creates the request urls using the given
+     * {@link ItemLookupRequestTemplate}.
+     *
+     * @param template The {@link ItemLookupRequestTemplate} that shall be used.
+     * @return A new {@link Builder} for a {@link BulkRequestUrlGenerator}.
+     */
+    public static Builder builder(final ItemLookupRequestTemplate template) {
+        return new Builder(template);
+    }
+
+    /**
+     * Creates a {@link BulkRequestUrlGenerator} with the default configuration that creates the request urls using
+     * the given {@link ItemLookupRequestTemplate}.
+     *
+     * @param template The {@link ItemLookupRequestTemplate} that shall be used.
+     * @return The created {@link BulkRequestUrlGenerator}.
+     */
+    public static BulkRequestUrlGenerator create(final ItemLookupRequestTemplate template) {
+        return builder(template).build();
+    }
+
+    /**
+     * Creates the signed request urls for all items with the given IDs and passes them to the given
+     * {@link RequestUrlConsumer}. This method returns when all request urls are passed to the consumer.
+     *
+     * @param itemIds  The IDs of the items to get the information for.
+     * @param consumer The {@link RequestUrlConsumer} the created request urls shall be passed to.
+     * @throws InterruptedException If the calling thread is interrupted while waiting for the request urls.
+     */
+    public void generate(final Iterator<ItemId> itemIds, final RequestUrlConsumer consumer)
+            throws InterruptedException {
+
+        final Iterator<List<ItemId>> partitions = ItemIdPartitioner.partition(
+                rejectingInvalidIds ? ItemIdValidator.filterValid(itemIds) : itemIds);
+        processChunks(new Iterator<Callable<String[]>>() {
+            @Override
+            public boolean hasNext() {
+                return partitions.hasNext();
+            }
+
+            @Override
+            public Callable<String[]> next() {
+                return createChunk(partitions);
+            }
+
+            @Override
+            public void remove() {
+                throw new UnsupportedOperationException("remove");
+            }
+        }, consumer);
+    }
+
+    /**
+     * Creates the signed request urls for all items whose IDs are contained in the given {@link ItemIdFile} and
+     * passes them to the given {@link RequestUrlConsumer}. The file is split into ranges of about
+     * {@link Builder#chunkSize(int)} requests, which are read by the workers directly from the mapped file. The IDs of
+     * every range are packed on their own, so the last request of a range may contain less IDs. This method returns
+     * when all request urls are passed to the consumer.
+     *
+     * @param itemIdFile The {@link ItemIdFile} containing the IDs of the items to get the information for.
+     * @param consumer   The {@link RequestUrlConsumer} the created request urls shall be passed to.
+     * @throws InterruptedException If the calling thread is interrupted while waiting for the request urls.
+     */
+    public void generate(final ItemIdFile itemIdFile, final RequestUrlConsumer consumer)
+            throws InterruptedException {
+
+        final int rangeSize = (int) Math.min(Integer.MAX_VALUE,
+                (long) chunkSize * MAX_ITEM_IDS_PER_LOOKUP * ESTIMATED_LINE_LENGTH);
+        final Iterator<ItemIdFile.Range> ranges = itemIdFile.splitBySize(rangeSize).iterator();
+        processChunks(new Iterator<Callable<String[]>>() {
+            @Override
+            public boolean hasNext() {
+                return ranges.hasNext();
+            }
+
+            @Override
+            public Callable<String[]> next() {
+                return createChunk(itemIdFile, ranges.next());
+            }
+
+            @Override
+            public void remove() {
+                throw new UnsupportedOperationException("remove");
+            }
+        }, consumer);
+    }
+
+    /**
+     * Creates the signed request urls for all items with the given IDs.
+     *
+     * @param itemIds The IDs of the items to get the information for.
+     * @return A list containing the created request urls.
+     * @throws InterruptedException If the calling thread is interrupted while waiting for the request urls.
+     */
+    public List<String> generate(final Iterable<ItemId> itemIds) throws InterruptedException {
+        final List<String> requestUrls = new ArrayList<>();
+        generate(itemIds.iterator(), new RequestUrlConsumer() {
+            @Override
+            public void accept(final String requestUrl) {
+                requestUrls.add(requestUrl);
+            }
+        });
+        return requestUrls;
+    }
+
+    /**
+     * Shuts down the {@link ForkJoinPool} of this generator, if it was created by this generator.
+     */
+    public void shutdown() {
+        if (ownsPool) {
+            pool.shutdown();
+        }
+    }
+
+    private void processChunks(final Iterator<Callable<String[]>> chunks, final RequestUrlConsumer consumer)
+            throws InterruptedException {
+
+        final int maxPendingChunks = pool.getParallelism() * PENDING_CHUNKS_PER_WORKER;
+        final Queue<Future<String[]>> pendingChunks = new ArrayDeque<>(maxPendingChunks);
+        final CompletionService<String[]> completionService = new ExecutorCompletionService<>(pool);
+
+        try {
+            while (chunks.hasNext()) {
+                if (pendingChunks.size() == maxPendingChunks) {
+                    takeCompletedChunk(pendingChunks, completionService, consumer);
+                }
+                final Callable<String[]> chunk = chunks.next();
+                pendingChunks.add(preservingOrder ? pool.submit(chunk) : completionService.submit(chunk));
+            }
+            while (!pendingChunks.isEmpty()) {
+                takeCompletedChunk(pendingChunks, completionService, consumer);
+            }
+        } finally {
+            for (final Future<String[]> pendingChunk : pendingChunks) {
+                pendingChunk.cancel(false);
+            }
+        }
+    }
+
+    private Callable<String[]> createChunk(final ItemIdFile itemIdFile, final ItemIdFile.Range range) {
+        return new Callable<String[]>() {
+            @Override
+            public String[] call() {
+                final List<String> requestUrls = new ArrayList<>(chunkSize);
+                final RequestUrlConsumer requestUrlCollector = new RequestUrlConsumer() {
+                    @Override
+                    public void accept(final String requestUrl) {
+                        requestUrls.add(requestUrl);
+                    }
+                };
+                itemIdFile.createRequestUrlsFor(range, template, protocol, rejectingInvalidIds, requestUrlCollector);
+                return requestUrls.toArray(new String[requestUrls.size()]);
+            }
+        };
+    }
+
+    private Callable<String[]> createChunk(final Iterator<List<ItemId>> partitions) {
+        final List<List<ItemId>> chunk = new ArrayList<>(chunkSize);
+        while (chunk.size() < chunkSize && partitions.hasNext()) {
+            chunk.add(partitions.next());
+        }
+        return new Callable<String[]>() {
+            @Override
+            public String[] call() {
+                final String[] requestUrls = new String[chunk.size()];
+                new ChunkTask(chunk, requestUrls, 0, requestUrls.length).invoke();
+                return requestUrls;
+            }
+        };
+    }
+
+    private void takeCompletedChunk(final Queue<Future<String[]>> pendingChunks,
+                                    final CompletionService<String[]> completionService,
+                                    final RequestUrlConsumer consumer) throws InterruptedException {
+
+        final Future<String[]> chunk;
+        if (preservingOrder) {
+            chunk = pendingChunks.poll();
+        } else {
+            chunk = completionService.take();
+            pendingChunks.remove(chunk);
+        }
+
+        final String[] requestUrls;
+        try {
+            requestUrls = chunk.get();
+        } catch (final ExecutionException e) {
+            final Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new IllegalStateException("Creating the request urls failed!", cause);
+        }
+        for (final String requestUrl : requestUrls) {
+            consumer.accept(requestUrl);
+        }
+    }
+
+    private final class ChunkTask extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final List<List<ItemId>> partitions;
+        private final String[] requestUrls;
+        private final int from;
+        private final int to;
+
+        private ChunkTask(final List<List<ItemId>> partitions, final String[] requestUrls, final int from,
+                          final int to) {
+
+            this.partitions = partitions;
+            this.requestUrls = requestUrls;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= LEAF_SIZE) {
+                for (int i = from; i < to; i++) {
+                    requestUrls[i] = template.createRequestUrlFor(partitions.get(i), protocol);
+                }
+                return;
+            }
+            final int middle = (from + to) >>> 1;
+            invokeAll(new ChunkTask(partitions, requestUrls, from, middle),
+                    new ChunkTask(partitions, requestUrls, middle, to));
+        }
+    }
+
+    /**
+     * A consumer of the request urls created by a {@link BulkRequestUrlGenerator}.
+     *
+     * @author ISchwarz
+     */
+    public interface RequestUrlConsumer {
+
+        /**
+         * Called for every created request url. It is always called from the thread that started the generation.
+         *
+         * @param requestUrl The created signed request url.
+         */
+        void accept(String requestUrl);
+
+    }
+
+    /**
+     * A builder for the configuration of a {@link BulkRequestUrlGenerator}.
+     *
+     * @author ISchwarz
+     */
+    public static final class Builder {
+
+        private final ItemLookupRequestTemplate template;
+
+        private ForkJoinPool pool;
+        private int parallelism = Runtime.getRuntime().availableProcessors();
+        private int chunkSize = DEFAULT_CHUNK_SIZE;
+        private boolean preservingOrder = true;
+        private boolean secure = true;
+        private boolean rejectingInvalidIds;
+
+
+        private Builder(final ItemLookupRequestTemplate template) {
+            this.template = template;
+        }
+
+        /**
+         * Sets the {@link ForkJoinPool} that shall be used to create the request urls. By default a pool with one
+         * worker per available processor is created.
+         *
+         * @param pool The {@link ForkJoinPool} that shall be used.
+         * @return The current {@link Builder}.
+         */
+        public Builder usingPool(final ForkJoinPool pool) {
+            this.pool = pool;
+            return this;
+        }
+
+        /**
+         * Sets the number of workers of the {@link ForkJoinPool} that is created if no pool is given.
+         *
+         * @param parallelism The number of workers.
+         * @return The current {@link Builder}.
+         * @throws IllegalArgumentException If the given parallelism is smaller than 1.
+         */
+        public Builder parallelism(final int parallelism) {
+            if (parallelism < 1) {
+                throw new IllegalArgumentException("The parallelism needs to be at least 1, but " + parallelism
+                        + " was given!");
+            }
+            this.parallelism = parallelism;
+            return this;
+        }
+
+        /**
+         * Sets the number of requests that are handed to the {@link ForkJoinPool} at once.
+         *
+         * @param chunkSize The number of requests per chunk.
+         * @return The current {@link Builder}.
+         * @throws IllegalArgumentException If the given chunk size is smaller than 1.
+         */
+        public Builder chunkSize(final int chunkSize) {
+            if (chunkSize < 1) {
+                throw new IllegalArgumentException("The chunk size needs to be at least 1, but " + chunkSize
+                        + " was given!");
+            }
+            this.chunkSize = chunkSize;
+            return this;
+        }
+
+        /**
+         * Sets whether the request urls are passed to the consumer in the order of the IDs. Otherwise they are passed
+         * as soon as their chunk is completed, which avoids waiting for slow chunks. By default the order is
+         * preserved.
+         *
+         * @param preservingOrder True if the order of the IDs shall be preserved.
+         * @return The current {@link Builder}.
+         */
+        public Builder preservingOrder(final boolean preservingOrder) {
+            this.preservingOrder = preservingOrder;
+            return this;
+        }
+
+        /**
+         * Sets whether https-urls shall be created. By default https-urls are created.
+         *
+         * @param secure True if https-urls shall be created, false for http-urls.
+         * @return The current {@link Builder}.
+         */
+        public Builder usingSecureRequests(final boolean secure) {
+            this.secure = secure;
+            return this;
+        }
+
+        /**
+         * Sets whether IDs that aren't valid according to the {@link ItemIdValidator} shall be dropped before any
+         * request url is created, so they don't waste requests that would fail anyway. By default all IDs are used.
+         *
+         * @param rejectingInvalidIds True if invalid IDs shall be dropped.
+         * @return The current {@link Builder}.
+         */
+        public Builder rejectingInvalidIds(final boolean rejectingInvalidIds) {
+            this.rejectingInvalidIds = rejectingInvalidIds;
+            return this;
+        }
+
+        /**
+         * Creates the {@link BulkRequestUrlGenerator} with the current configuration.
+         *
+         * @return The created {@link BulkRequestUrlGenerator}.
+         */
+        public BulkRequestUrlGenerator build() {
+            return new BulkRequestUrlGenerator(this);
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package de.codecrafters.apaarb;
+
+import java.io.IOException;
+
+/**
+ * The transport that is used by the {@link RequestExecutor} to send signed requests to the Amazon service. Every
+ * implementation has to be thread safe, as the {@link RequestExecutor} sends multiple requests concurrently.
+ *
+ * @author ISchwarz
+ */
+public interface HttpTransport {
+
+    /**
+     * Sends a GET request for the given url and reads the whole response.
+     *
+     * @param requestUrl The signed request url.
+     * @return The received {@link AmazonWebServiceResponse}. Responses with error status codes are returned as well.
+     * @throws IOException If the request could not be sent or the response could not be read.
+     */
+    AmazonWebServiceResponse execute(String requestUrl) throws IOException;
+
+}
@@ -0,0 +1,294 @@
+package de.codecrafters.apaarb;
+
+import de.codecrafters.apaarb.BulkRequestUrlGenerator.RequestUrlConsumer;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static de.codecrafters.apaarb.AmazonProductAdvertisingApiRequestBuilder.HTTPS_PROTOCOL;
+import static de.codecrafters.apaarb.AmazonProductAdvertisingApiRequestBuilder.HTTP_PROTOCOL;
+import static de.codecrafters.apaarb.AmazonProductAdvertisingApiRequestBuilder.MAX_ITEM_IDS_PER_LOOKUP;
+
+/**
+ * A memory-mapped file containing one item ID per line. The IDs are read directly from the mapped bytes and passed
+ * to an {@link ItemLookupRequestTemplate}, so no {@link String}s or {@link ItemId}s are created for them. The file can
+ * be split into {@link Range}s of whole lines, which can be processed by multiple threads at the same time. Leading
+ * and trailing whitespace of a line as well as empty lines are ignored.
+ * <p>
+ * The file is mapped in segments of at most 1 GB. The mappings stay valid until this object is garbage collected, so
+ * the file must not be modified while it is used.
+ *
+ * @author ISchwarz
+ */
+public final class ItemIdFile {
+
+    static final int MAX_SEGMENT_SIZE = 1 << 30;
+
+    private final ItemId.Type idType;
+    private final long size;
+    private final List<ByteBuffer> segments;
+    private final long[] segmentOffsets;
+
+
+    private ItemIdFile(final ItemId.Type idType, final long size, final List<ByteBuffer> segments,
+                       final long[] segmentOffsets) {
+
+        this.idType = idType;
+        this.size = size;
+        this.segments = segments;
+        this.segmentOffsets = segmentOffsets;
+    }
+
+    /**
+     * Maps the given file containing one ID of the given {@link ItemId.Type} per line into memory.
+     *
+     * @param file   The file containing the IDs.
+     * @param idType The type of the contained IDs.
+     * @return The mapped {@link ItemIdFile}.
+     * @throws IOException If the file can't be read or contains a line longer than a segment.
+     */
+    public static ItemIdFile open(final File file, final ItemId.Type idType) throws IOException {
+        return open(file, idType, MAX_SEGMENT_SIZE);
+    }
+
+    static ItemIdFile open(final File file, final ItemId.Type idType, final int maxSegmentSize) throws IOException {
+        try (final RandomAccessFile randomAccessFile = new RandomAccessFile(file, "r")) {
+            final FileChannel channel = randomAccessFile.getChannel();
+            final long size = channel.size();
+            final List<ByteBuffer> segments = new ArrayList<>();
+            final List<Long> segmentOffsets = new ArrayList<>();
+
+            long offset = 0;
+            while (offset < size) {
+                final MappedByteBuffer mapping = channel.map(FileChannel.MapMode.READ_ONLY, offset,
+                        Math.min(maxSegmentSize, size - offset));
+                // segments end after a line break, so no ID is split between two segments
+                int segmentSize = mapping.limit();
+                if (offset + segmentSize < size) {
+                    while (segmentSize > 0 && mapping.get(segmentSize - 1) != '\n') {
+                        segmentSize--;
+                    }
+                    if (segmentSize == 0) {
+                        throw new IOException("The lines of an item ID file must not be longer than " + maxSegmentSize
+                                + " bytes, but a longer line was found at " + offset + "!");
+                    }
+                }
+                mapping.limit(segmentSize);
+                segments.add(mapping);
+                segmentOffsets.add(offset);
+                offset += segmentSize;
+            }
+
+            final long[] offsets = new long[segmentOffsets.size()];
+            for (int i = 0; i < offsets.length; i++) {
+                offsets[i] = segmentOffsets.get(i);
+            }
+            return new ItemIdFile(idType, size, Collections.unmodifiableList(segments), offsets);
+        }
+    }
+
+    /**
+     * Gives the type of the IDs contained in this file.
+     *
+     * @return The type of the IDs contained in this file.
+     */
+    public ItemId.Type getIdType() {
+        return idType;
+    }
+
+    /**
+     * Gives the size of this file in bytes.
+     *
+     * @return The size of this file in bytes.
+     */
+    public long size() {
+        return size;
+    }
+
+    /**
+     * Gives the {@link Range}s covering the whole file, which are one range per mapped segment.
+     *
+     * @return The ranges covering the whole file.
+     */
+    public List<Range> getRanges() {
+        return splitBySize(Integer.MAX_VALUE);
+    }
+
+    /**
+     * Splits this file into about the given number of {@link Range}s of similar size, which only contain whole lines.
+     *
+     * @param rangeCount The number of ranges the file shall be split into.
+     * @return The ranges covering the whole file in the order of the file.
+     * @throws IllegalArgumentException If the given range count is smaller than 1.
+     */
+    public List<Range> split(final int rangeCount) {
+        if (rangeCount < 1) {
+            throw new IllegalArgumentException("The file needs to be split into at least 1 range, but " + rangeCount
+                    + " was given!");
+        }
+        return splitBySize((int) Math.min(Integer.MAX_VALUE, Math.max(1, (size + rangeCount - 1) / rangeCount)));
+    }
+
+    /**
+     * Splits this file into {@link Range}s of at most the given size, which only contain whole lines. Ranges containing
+     * a line longer than the given size are bigger.
+     *
+     * @param maxRangeSize The maximum number of bytes per range.
+     * @return The ranges covering the whole file in the order of the file.
+     */
+    List<Range> splitBySize(final int maxRangeSize) {
+        final List<Range> ranges = new ArrayList<>();
+        for (int segmentIndex = 0; segmentIndex < segments.size(); segmentIndex++) {
+            final ByteBuffer segment = segments.get(segmentIndex);
+            final int segmentSize = segment.limit();
+            int from = 0;
+            while (from < segmentSize) {
+                int to = (int) Math.min(segmentSize, (long) from + maxRangeSize);
+                while (to < segmentSize && segment.get(to - 1) != '\n') {
+                    to++;
+                }
+                ranges.add(new Range(segmentIndex, from, to));
+                from = to;
+            }
+        }
+        return ranges;
+    }
+
+    /**
+     * Creates the signed request http-urls for all items whose IDs are contained in the given {@link Range} and
+     * passes them to the given {@link RequestUrlConsumer}. Every request contains up to
+     * {@link AmazonProductAdvertisingApiRequestBuilder#MAX_ITEM_IDS_PER_LOOKUP} IDs.
+     *
+     * @param range    The {@link Range} of this file containing the IDs.
+     * @param template The {@link ItemLookupRequestTemplate} that shall be used to create the request urls.
+     * @param consumer The {@link RequestUrlConsumer} the created request urls shall be passed to.
+     * @return The number of created request urls.
+     */
+    public int createRequestUrlsFor(final Range range, final ItemLookupRequestTemplate template,
+                                    final RequestUrlConsumer consumer) {
+
+        return createRequestUrlsFor(range, template, HTTP_PROTOCOL, false, consumer);
+    }
+
+    /**
+     * Creates the signed request https-urls for all items whose IDs are contained in the given {@link Range} and
+     * passes them to the given {@link RequestUrlConsumer}. Every request contains up to
+     * {@link AmazonProductAdvertisingApiRequestBuilder#MAX_ITEM_IDS_PER_LOOKUP} IDs.
+     *
+     * @param range    The {@link Range} of this file containing the IDs.
+     * @param template The {@link ItemLookupRequestTemplate} that shall be used to create the request urls.
+     * @param consumer The {@link RequestUrlConsumer} the created request urls shall be passed to.
+     * @return The number of created request urls.
+     */
+    public int createSecureRequestUrlsFor(final Range range, final ItemLookupRequestTemplate template,
+                                          final RequestUrlConsumer consumer) {
+
+        return createRequestUrlsFor(range, template, HTTPS_PROTOCOL, false, consumer);
+    }
+
+    int createRequestUrlsFor(final Range range, final ItemLookupRequestTemplate template, final String protocol,
+                             final boolean skippingInvalidIds, final RequestUrlConsumer consumer) {
+
+        if (range.getFile() != this) {
+            throw new IllegalArgumentException("Only ranges of this file can be read, but " + range + " of another "
+                    + "file was given!");
+        }
+        final ByteBuffer segment = segments.get(range.segmentIndex);
+        final int[] offsets = new int[MAX_ITEM_IDS_PER_LOOKUP];
+        final int[] lengths = new int[MAX_ITEM_IDS_PER_LOOKUP];
+        final ItemIdValidator.ByteSequence view = skippingInvalidIds ? new ItemIdValidator.ByteSequence() : null;
+        int idCount = 0;
+        int requestUrlCount = 0;
+
+        int position = range.from;
+        while (position < range.to) {
+            if (isWhitespace(segment.get(position))) {
+                position++;
+                continue;
+            }
+            final int start = position;
+            while (position < range.to && segment.get(position) != '\n') {
+                position++;
+            }
+            int end = position;
+            while (isWhitespace(segment.get(end - 1))) {
+                end--;
+            }
+            if (skippingInvalidIds && !ItemIdValidator.isValid(view, segment, start, end - start, idType)) {
+                continue;
+            }
+
+            offsets[idCount] = start;
+            lengths[idCount] = end - start;
+            if (++idCount == MAX_ITEM_IDS_PER_LOOKUP) {
+                consumer.accept(template.createRequestUrlFor(idType, segment, offsets, lengths, idCount, protocol));
+                requestUrlCount++;
+                idCount = 0;
+            }
+        }
+        if (idCount != 0) {
+            consumer.accept(template.createRequestUrlFor(idType, segment, offsets, lengths, idCount, protocol));
+            requestUrlCount++;
+        }
+        return requestUrlCount;
+    }
+
+    private static boolean isWhitespace(final byte b) {
+        return b == ' ' || b == '\t' || b == '\r' || b == '\n';
+    }
+
+    /**
+     * A range of an {@link ItemIdFile} that only contains whole lines.
+     *
+     * @author ISchwarz
+     */
+    public final class Range {
+
+        private final int segmentIndex;
+        private final int from;
+        private final int to;
+
+        private Range(final int segmentIndex, final int from, final int to) {
+            this.segmentIndex = segmentIndex;
+            this.from = from;
+            this.to = to;
+        }
+
+        /**
+         * Gives the position of the first byte of this range in the file.
+         *
+         * @return The position of the first byte of this range in the file.
+         */
+        public long getStart() {
+            return segmentOffsets[segmentIndex] + from;
+        }
+
+        /**
+         * Gives the position after the last byte of this range in the file.
+         *
+         * @return The position after the last byte of this range in the file.
+         */
+        public long getEnd() {
+            return segmentOffsets[segmentIndex] + to;
+        }
+
+        private ItemIdFile getFile() {
+            return ItemIdFile.this;
+        }
+
+        @Override
+        public String toString() {
+            return "Range{" +
+                    "start=" + getStart() +
+                    ", end=" + getEnd() +
+                    '}';
+        }
+    }
+}
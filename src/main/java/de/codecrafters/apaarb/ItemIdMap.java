@@ -0,0 +1,224 @@
+package de.codecrafters.apaarb;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * A map from {@link ItemId}s to values that stores the IDs packed by {@link PackedItemId} in an open-addressing hash
+ * table of {@code long}s, so it needs no object per contained ID besides the values. IDs that can't be packed are kept
+ * in a regular {@link Map}. Null values are not supported. The map is not thread-safe.
+ *
+ * @param <V> The type of the values.
+ * @author ISchwarz
+ */
+public final class ItemIdMap<V> {
+
+    private static final int DEFAULT_EXPECTED_SIZE = 16;
+
+    private final Map<ItemId, V> unpackedIds = new HashMap<>();
+
+    private long[] keys;
+    private Object[] values;
+    private int packedSize;
+
+
+    /**
+     * Creates an empty {@link ItemIdMap}.
+     */
+    public ItemIdMap() {
+        this(DEFAULT_EXPECTED_SIZE);
+    }
+
+    /**
+     * Creates an empty {@link ItemIdMap} that can hold the given number of IDs without growing.
+     *
+     * @param expectedSize The expected number of IDs.
+     */
+    public ItemIdMap(final int expectedSize) {
+        final int capacity = OpenAddressing.capacityFor(expectedSize);
+        this.keys = new long[capacity];
+        this.values = new Object[capacity];
+    }
+
+    /**
+     * Associates the given value with the given {@link ItemId}.
+     *
+     * @param itemId The {@link ItemId} the value shall be associated with.
+     * @param value  The value that shall be associated.
+     * @return The value that was associated with the ID before or null if there was none.
+     * @throws NullPointerException If the given value is null.
+     */
+    public V put(final ItemId itemId, final V value) {
+        final long packedId = PackedItemId.pack(itemId);
+        if (packedId == PackedItemId.NONE) {
+            return unpackedIds.put(itemId, checkValue(value));
+        }
+        return put(packedId, value);
+    }
+
+    /**
+     * Associates the given value with the given packed ID.
+     *
+     * @param packedId The ID packed by {@link PackedItemId} the value shall be associated with.
+     * @param value    The value that shall be associated.
+     * @return The value that was associated with the ID before or null if there was none.
+     * @throws IllegalArgumentException If the given ID isn't a packed ID.
+     * @throws NullPointerException     If the given value is null.
+     */
+    public V put(final long packedId, final V value) {
+        OpenAddressing.checkKey(packedId);
+        checkValue(value);
+        final int index = OpenAddressing.indexOf(keys, packedId);
+        final V previousValue = valueAt(index);
+        values[index] = value;
+        if (keys[index] != packedId) {
+            keys[index] = packedId;
+            if (++packedSize > OpenAddressing.maxSize(keys.length)) {
+                grow();
+            }
+        }
+        return previousValue;
+    }
+
+    /**
+     * Gives the value associated with the given {@link ItemId}.
+     *
+     * @param itemId The {@link ItemId} whose value shall be returned.
+     * @return The associated value or null if there is none.
+     */
+    public V get(final ItemId itemId) {
+        final long packedId = PackedItemId.pack(itemId);
+        return packedId == PackedItemId.NONE ? unpackedIds.get(itemId) : get(packedId);
+    }
+
+    /**
+     * Gives the value associated with the given packed ID.
+     *
+     * @param packedId The ID packed by {@link PackedItemId} whose value shall be returned.
+     * @return The associated value or null if there is none.
+     */
+    public V get(final long packedId) {
+        return packedId == PackedItemId.NONE ? null : valueAt(OpenAddressing.indexOf(keys, packedId));
+    }
+
+    /**
+     * Checks whether a value is associated with the given {@link ItemId}.
+     *
+     * @param itemId The {@link ItemId} to check.
+     * @return True if a value is associated with the given ID.
+     */
+    public boolean containsKey(final ItemId itemId) {
+        return get(itemId) != null;
+    }
+
+    /**
+     * Checks whether a value is associated with the given packed ID.
+     *
+     * @param packedId The ID packed by {@link PackedItemId} to check.
+     * @return True if a value is associated with the given ID.
+     */
+    public boolean containsKey(final long packedId) {
+        return get(packedId) != null;
+    }
+
+    /**
+     * Removes the value associated with the given {@link ItemId}.
+     *
+     * @param itemId The {@link ItemId} whose value shall be removed.
+     * @return The removed value or null if there was none.
+     */
+    public V remove(final ItemId itemId) {
+        final long packedId = PackedItemId.pack(itemId);
+        return packedId == PackedItemId.NONE ? unpackedIds.remove(itemId) : remove(packedId);
+    }
+
+    /**
+     * Removes the value associated with the given packed ID.
+     *
+     * @param packedId The ID packed by {@link PackedItemId} whose value shall be removed.
+     * @return The removed value or null if there was none.
+     */
+    public V remove(final long packedId) {
+        if (packedId == PackedItemId.NONE) {
+            return null;
+        }
+        final int index = OpenAddressing.indexOf(keys, packedId);
+        final V value = valueAt(index);
+        if (value != null) {
+            OpenAddressing.removeAt(keys, values, index);
+            packedSize--;
+        }
+        return value;
+    }
+
+    /**
+     * Gives the number of IDs contained in this map.
+     *
+     * @return The number of IDs contained in this map.
+     */
+    public int size() {
+        return packedSize + unpackedIds.size();
+    }
+
+    /**
+     * Checks whether this map is empty.
+     *
+     * @return True if this map contains no IDs.
+     */
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    /**
+     * Removes all IDs from this map.
+     */
+    public void clear() {
+        Arrays.fill(keys, PackedItemId.NONE);
+        Arrays.fill(values, null);
+        packedSize = 0;
+        unpackedIds.clear();
+    }
+
+    /**
+     * Creates a {@link Map} containing all entries of this map, which creates an {@link ItemId} per contained ID.
+     *
+     * @return A new map containing all entries of this map.
+     */
+    public Map<ItemId, V> toMap() {
+        final Map<ItemId, V> map = new HashMap<>(size() * 2);
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != PackedItemId.NONE) {
+                map.put(PackedItemId.unpack(keys[i]), valueAt(i));
+            }
+        }
+        map.putAll(unpackedIds);
+        return map;
+    }
+
+    @SuppressWarnings("unchecked")
+    private V valueAt(final int index) {
+        return (V) values[index];
+    }
+
+    private void grow() {
+        final long[] oldKeys = keys;
+        final Object[] oldValues = values;
+        keys = new long[oldKeys.length * 2];
+        values = new Object[oldKeys.length * 2];
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != PackedItemId.NONE) {
+                final int index = OpenAddressing.indexOf(keys, oldKeys[i]);
+                keys[index] = oldKeys[i];
+                values[index] = oldValues[i];
+            }
+        }
+    }
+
+    private static <V> V checkValue(final V value) {
+        if (value == null) {
+            throw new NullPointerException("The value of an item ID must not be null!");
+        }
+        return value;
+    }
+}
@@ -0,0 +1,115 @@
+package de.codecrafters.apaarb;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import static de.codecrafters.apaarb.AmazonProductAdvertisingApiRequestBuilder.MAX_ITEM_IDS_PER_LOOKUP;
+
+/**
+ * A partitioner that splits any amount of {@link ItemId}s into partitions, which can be looked up in a single
+ * ItemLookup request. Every partition contains at most
+ * {@link AmazonProductAdvertisingApiRequestBuilder#MAX_ITEM_IDS_PER_LOOKUP} IDs of the same {@link ItemId.Type}. The
+ * IDs are collected per type and a partition is emitted as soon as it is full, so the given IDs are packed into the
+ * lowest possible number of partitions while only holding a few IDs in memory.
+ *
+ * @author ISchwarz
+ */
+public final class ItemIdPartitioner {
+
+    private ItemIdPartitioner() {
+        //no instance
+    }
+
+    /**
+     * Splits the given {@link ItemId}s into partitions that can be looked up in a single ItemLookup request. The
+     * partitions are created lazily while iterating.
+     *
+     * @param itemIds The IDs that shall be split into partitions.
+     * @return An {@link Iterator} over the created partitions.
+     */
+    public static Iterator<List<ItemId>> partition(final Iterator<ItemId> itemIds) {
+        return new PartitionIterator(itemIds);
+    }
+
+    /**
+     * Splits the given {@link ItemId}s into partitions that can be looked up in a single ItemLookup request.
+     *
+     * @param itemIds The IDs that shall be split into partitions.
+     * @return A list containing the created partitions.
+     */
+    public static List<List<ItemId>> partition(final Iterable<ItemId> itemIds) {
+        final List<List<ItemId>> partitions = new ArrayList<>();
+        final Iterator<List<ItemId>> partitionIterator = partition(itemIds.iterator());
+        while (partitionIterator.hasNext()) {
+            partitions.add(partitionIterator.next());
+        }
+        return partitions;
+    }
+
+    private static final class PartitionIterator implements Iterator<List<ItemId>> {
+
+        private final Iterator<ItemId> itemIds;
+        private final List<List<ItemId>> pendingByIdType = new ArrayList<>();
+        private List<ItemId> nextPartition;
+        private int nextPendingIdType;
+
+        private PartitionIterator(final Iterator<ItemId> itemIds) {
+            this.itemIds = itemIds;
+            for (int i = 0; i < ItemId.Type.values().length; i++) {
+                pendingByIdType.add(new ArrayList<ItemId>(MAX_ITEM_IDS_PER_LOOKUP));
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (nextPartition == null) {
+                nextPartition = findNextPartition();
+            }
+            return nextPartition != null;
+        }
+
+        @Override
+        public List<ItemId> next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            final List<ItemId> partition = nextPartition;
+            nextPartition = null;
+            return partition;
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException("remove");
+        }
+
+        private List<ItemId> findNextPartition() {
+            while (itemIds.hasNext()) {
+                final ItemId itemId = itemIds.next();
+                final List<ItemId> pending = pendingByIdType.get(itemId.getType().ordinal());
+                pending.add(itemId);
+                if (pending.size() == MAX_ITEM_IDS_PER_LOOKUP) {
+                    return takePending(pending);
+                }
+            }
+
+            // all ids are consumed, so the partially filled partitions are emitted
+            while (nextPendingIdType < pendingByIdType.size()) {
+                final List<ItemId> pending = pendingByIdType.get(nextPendingIdType++);
+                if (!pending.isEmpty()) {
+                    return takePending(pending);
+                }
+            }
+            return null;
+        }
+
+        private static List<ItemId> takePending(final List<ItemId> pending) {
+            final List<ItemId> partition = Collections.unmodifiableList(new ArrayList<>(pending));
+            pending.clear();
+            return partition;
+        }
+    }
+}
@@ -0,0 +1,176 @@
+package de.codecrafters.apaarb;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * A set of {@link ItemId}s that stores the IDs packed by {@link PackedItemId} in an open-addressing hash table of
+ * {@code long}s, so it needs no object per contained ID. IDs that can't be packed are kept in a regular {@link Set}.
+ * The set is not thread-safe.
+ *
+ * @author ISchwarz
+ */
+public final class ItemIdSet {
+
+    private static final int DEFAULT_EXPECTED_SIZE = 16;
+
+    private final Set<ItemId> unpackedIds = new HashSet<>();
+
+    private long[] table;
+    private int packedSize;
+
+
+    /**
+     * Creates an empty {@link ItemIdSet}.
+     */
+    public ItemIdSet() {
+        this(DEFAULT_EXPECTED_SIZE);
+    }
+
+    /**
+     * Creates an empty {@link ItemIdSet} that can hold the given number of IDs without growing.
+     *
+     * @param expectedSize The expected number of IDs.
+     */
+    public ItemIdSet(final int expectedSize) {
+        this.table = new long[OpenAddressing.capacityFor(expectedSize)];
+    }
+
+    /**
+     * Adds the given {@link ItemId} to this set.
+     *
+     * @param itemId The {@link ItemId} that shall be added.
+     * @return True if the ID wasn't contained before.
+     */
+    public boolean add(final ItemId itemId) {
+        final long packedId = PackedItemId.pack(itemId);
+        return packedId == PackedItemId.NONE ? unpackedIds.add(itemId) : add(packedId);
+    }
+
+    /**
+     * Adds the given packed ID to this set.
+     *
+     * @param packedId The ID packed by {@link PackedItemId} that shall be added.
+     * @return True if the ID wasn't contained before.
+     * @throws IllegalArgumentException If the given value isn't a packed ID.
+     */
+    public boolean add(final long packedId) {
+        OpenAddressing.checkKey(packedId);
+        final int index = OpenAddressing.indexOf(table, packedId);
+        if (table[index] == packedId) {
+            return false;
+        }
+        table[index] = packedId;
+        if (++packedSize > OpenAddressing.maxSize(table.length)) {
+            grow();
+        }
+        return true;
+    }
+
+    /**
+     * Checks whether the given {@link ItemId} is contained in this set.
+     *
+     * @param itemId The {@link ItemId} to check.
+     * @return True if the given ID is contained in this set.
+     */
+    public boolean contains(final ItemId itemId) {
+        final long packedId = PackedItemId.pack(itemId);
+        return packedId == PackedItemId.NONE ? unpackedIds.contains(itemId) : contains(packedId);
+    }
+
+    /**
+     * Checks whether the given packed ID is contained in this set.
+     *
+     * @param packedId The ID packed by {@link PackedItemId} to check.
+     * @return True if the given ID is contained in this set.
+     */
+    public boolean contains(final long packedId) {
+        return packedId != PackedItemId.NONE && table[OpenAddressing.indexOf(table, packedId)] == packedId;
+    }
+
+    /**
+     * Removes the given {@link ItemId} from this set.
+     *
+     * @param itemId The {@link ItemId} that shall be removed.
+     * @return True if the ID was contained before.
+     */
+    public boolean remove(final ItemId itemId) {
+        final long packedId = PackedItemId.pack(itemId);
+        return packedId == PackedItemId.NONE ? unpackedIds.remove(itemId) : remove(packedId);
+    }
+
+    /**
+     * Removes the given packed ID from this set.
+     *
+     * @param packedId The ID packed by {@link PackedItemId} that shall be removed.
+     * @return True if the ID was contained before.
+     */
+    public boolean remove(final long packedId) {
+        if (packedId == PackedItemId.NONE) {
+            return false;
+        }
+        final int index = OpenAddressing.indexOf(table, packedId);
+        if (table[index] != packedId) {
+            return false;
+        }
+        OpenAddressing.removeAt(table, null, index);
+        packedSize--;
+        return true;
+    }
+
+    /**
+     * Gives the number of IDs contained in this set.
+     *
+     * @return The number of IDs contained in this set.
+     */
+    public int size() {
+        return packedSize + unpackedIds.size();
+    }
+
+    /**
+     * Checks whether this set is empty.
+     *
+     * @return True if this set contains no IDs.
+     */
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    /**
+     * Removes all IDs from this set.
+     */
+    public void clear() {
+        Arrays.fill(table, PackedItemId.NONE);
+        packedSize = 0;
+        unpackedIds.clear();
+    }
+
+    /**
+     * Creates {@link ItemId}s for all IDs contained in this set.
+     *
+     * @return A new list containing all IDs of this set in no particular order.
+     */
+    public List<ItemId> toList() {
+        final List<ItemId> itemIds = new ArrayList<>(size());
+        for (final long packedId : table) {
+            if (packedId != PackedItemId.NONE) {
+                itemIds.add(PackedItemId.unpack(packedId));
+            }
+        }
+        itemIds.addAll(unpackedIds);
+        return itemIds;
+    }
+
+    private void grow() {
+        final long[] oldTable = table;
+        table = new long[oldTable.length * 2];
+        for (final long packedId : oldTable) {
+            if (packedId != PackedItemId.NONE) {
+                table[OpenAddressing.indexOf(table, packedId)] = packedId;
+            }
+        }
+    }
+}
@@ -0,0 +1,348 @@
+package de.codecrafters.apaarb;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * Utility class to validate and normalize {@link ItemId}s locally, so malformed IDs are rejected before a request is
+ * signed and sent. The validation doesn't allocate any objects:
+ * <ul>
+ * <li>ASINs need to consist of 10 digits or upper case letters.</li>
+ * <li>ISBNs need to be valid ISBN-10s (including the check character 'X') or ISBN-13s starting with 978 or 979.</li>
+ * <li>EANs need to be valid EAN-13s or EAN-8s.</li>
+ * <li>UPCs need to be valid UPC-As.</li>
+ * </ul>
+ *
+ * @author ISchwarz
+ */
+public final class ItemIdValidator {
+
+    private static final int ASIN_LENGTH = 10;
+    private static final int ISBN_10_LENGTH = 10;
+    private static final int ISBN_13_LENGTH = 13;
+    private static final int EAN_8_LENGTH = 8;
+    private static final int EAN_13_LENGTH = 13;
+    private static final int UPC_A_LENGTH = 12;
+    private static final String ISBN_13_PREFIX = "978";
+
+
+    private ItemIdValidator() {
+        //no instance
+    }
+
+    /**
+     * Checks whether the given {@link ItemId} is well-formed and has a valid check digit.
+     *
+     * @param itemId The {@link ItemId} to check.
+     * @return True if the given ID is valid.
+     */
+    public static boolean isValid(final ItemId itemId) {
+        return isValid(itemId.getValue(), itemId.getType());
+    }
+
+    /**
+     * Checks whether the given value is a well-formed ID of the given {@link ItemId.Type} with a valid check digit.
+     *
+     * @param value  The value of the ID.
+     * @param idType The type of the ID.
+     * @return True if the given ID is valid.
+     */
+    public static boolean isValid(final CharSequence value, final ItemId.Type idType) {
+        switch (idType) {
+            case ASIN:
+                return isValidAsin(value);
+            case ISBN:
+                return isValidIsbn10(value) || isValidIsbn13(value);
+            case EAN:
+                return (value.length() == EAN_13_LENGTH || value.length() == EAN_8_LENGTH)
+                        && hasValidGtinCheckDigit(value);
+            case UPC:
+                return value.length() == UPC_A_LENGTH && hasValidGtinCheckDigit(value);
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * Normalizes the given {@link ItemId} by removing hyphens and spaces from EANs, UPCs and ISBNs and by converting
+     * the letters of ASINs and the check character of ISBN-10s to upper case. The normalized ID isn't validated.
+     *
+     * @param itemId The {@link ItemId} that shall be normalized.
+     * @return The normalized {@link ItemId} or the given one if it is already normalized.
+     */
+    public static ItemId normalize(final ItemId itemId) {
+        final String value = itemId.getValue();
+        final StringBuilder normalizedValue = new StringBuilder(value.length());
+        for (int i = 0; i < value.length(); i++) {
+            final char c = value.charAt(i);
+            if (itemId.getType() != ItemId.Type.ASIN && (c == '-' || c == ' ')) {
+                continue;
+            }
+            normalizedValue.append(c >= 'a' && c <= 'z' ? (char) (c - 'a' + 'A') : c);
+        }
+        if (normalizedValue.length() == value.length() && value.contentEquals(normalizedValue)) {
+            return itemId;
+        }
+        return ItemId.create(normalizedValue.toString(), itemId.getType());
+    }
+
+    /**
+     * Converts the given ISBN into an ISBN-13.
+     *
+     * @param isbn The ISBN-10 or ISBN-13 that shall be converted.
+     * @return The ISBN-13 or the given ID if it already is an ISBN-13.
+     * @throws IllegalArgumentException If the given ID isn't a valid ISBN.
+     */
+    public static ItemId toIsbn13(final ItemId isbn) {
+        final String value = checkIsbn(isbn);
+        if (value.length() == ISBN_13_LENGTH) {
+            return isbn;
+        }
+        final StringBuilder isbn13 = new StringBuilder(ISBN_13_LENGTH)
+                .append(ISBN_13_PREFIX)
+                .append(value, 0, ISBN_10_LENGTH - 1);
+        isbn13.append((char) ('0' + computeGtinCheckDigit(isbn13, isbn13.length())));
+        return ItemId.createIsbn(isbn13.toString());
+    }
+
+    /**
+     * Converts the given ISBN into an ISBN-10. Only ISBN-13s starting with 978 can be converted.
+     *
+     * @param isbn The ISBN-10 or ISBN-13 that shall be converted.
+     * @return The ISBN-10 or the given ID if it already is an ISBN-10.
+     * @throws IllegalArgumentException If the given ID isn't a valid ISBN or can't be converted.
+     */
+    public static ItemId toIsbn10(final ItemId isbn) {
+        final String value = checkIsbn(isbn);
+        if (value.length() == ISBN_10_LENGTH) {
+            return isbn;
+        }
+        if (!value.startsWith(ISBN_13_PREFIX)) {
+            throw new IllegalArgumentException("Only ISBN-13s starting with " + ISBN_13_PREFIX + " can be converted "
+                    + "into ISBN-10s, but " + value + " was given!");
+        }
+        final String body = value.substring(ISBN_13_PREFIX.length(), ISBN_13_LENGTH - 1);
+        final int checkDigit = computeIsbn10CheckDigit(body);
+        return ItemId.createIsbn(body + (checkDigit == 10 ? 'X' : (char) ('0' + checkDigit)));
+    }
+
+    /**
+     * Gives the valid IDs of the given {@link ItemId}s. The IDs are checked lazily while iterating.
+     *
+     * @param itemIds The IDs that shall be filtered.
+     * @return An {@link Iterator} over the valid IDs.
+     */
+    public static Iterator<ItemId> filterValid(final Iterator<ItemId> itemIds) {
+        return filterValid(itemIds, null);
+    }
+
+    /**
+     * Gives the valid IDs of the given {@link ItemId}s and adds the invalid ones to the given collection. The IDs are
+     * checked lazily while iterating.
+     *
+     * @param itemIds    The IDs that shall be filtered.
+     * @param invalidIds The collection the invalid IDs shall be added to or null if they shall be dropped.
+     * @return An {@link Iterator} over the valid IDs.
+     */
+    public static Iterator<ItemId> filterValid(final Iterator<ItemId> itemIds, final Collection<ItemId> invalidIds) {
+        return new ValidIdIterator(itemIds, invalidIds);
+    }
+
+    /**
+     * Gives the valid IDs of the given {@link ItemId}s and adds the invalid ones to the given collection.
+     *
+     * @param itemIds    The IDs that shall be filtered.
+     * @param invalidIds The collection the invalid IDs shall be added to or null if they shall be dropped.
+     * @return A new list containing the valid IDs.
+     */
+    public static List<ItemId> filterValid(final Iterable<ItemId> itemIds, final Collection<ItemId> invalidIds) {
+        final List<ItemId> validIds = new ArrayList<>();
+        final Iterator<ItemId> validIdIterator = filterValid(itemIds.iterator(), invalidIds);
+        while (validIdIterator.hasNext()) {
+            validIds.add(validIdIterator.next());
+        }
+        return validIds;
+    }
+
+    /**
+     * Checks whether the ASCII characters in the given range of the {@link ByteBuffer} are a valid ID of the given
+     * {@link ItemId.Type}. The given {@link ByteSequence} is used as view on the range, so no object is created.
+     *
+     * @param view   The {@link ByteSequence} that shall be used as view on the range.
+     * @param buffer The {@link ByteBuffer} containing the ID.
+     * @param offset The absolute index of the first character of the ID.
+     * @param length The number of characters of the ID.
+     * @param idType The type of the ID.
+     * @return True if the given ID is valid.
+     */
+    static boolean isValid(final ByteSequence view, final ByteBuffer buffer, final int offset, final int length,
+                           final ItemId.Type idType) {
+        view.buffer = buffer;
+        view.offset = offset;
+        view.length = length;
+        return isValid(view, idType);
+    }
+
+    private static boolean isValidAsin(final CharSequence value) {
+        if (value.length() != ASIN_LENGTH) {
+            return false;
+        }
+        for (int i = 0; i < ASIN_LENGTH; i++) {
+            final char c = value.charAt(i);
+            if (!isDigit(c) && (c < 'A' || c > 'Z')) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isValidIsbn10(final CharSequence value) {
+        if (value.length() != ISBN_10_LENGTH) {
+            return false;
+        }
+        final int checkDigit = computeIsbn10CheckDigit(value);
+        final char checkCharacter = value.charAt(ISBN_10_LENGTH - 1);
+        return checkDigit >= 0 && (checkDigit == 10 ? checkCharacter == 'X' : checkCharacter == '0' + checkDigit);
+    }
+
+    private static boolean isValidIsbn13(final CharSequence value) {
+        return value.length() == ISBN_13_LENGTH && value.charAt(0) == '9' && value.charAt(1) == '7'
+                && (value.charAt(2) == '8' || value.charAt(2) == '9') && hasValidGtinCheckDigit(value);
+    }
+
+    private static boolean hasValidGtinCheckDigit(final CharSequence value) {
+        final int lastIndex = value.length() - 1;
+        final int checkDigit = computeGtinCheckDigit(value, lastIndex);
+        return checkDigit >= 0 && value.charAt(lastIndex) == '0' + checkDigit;
+    }
+
+    /**
+     * Computes the check digit of a GTIN (EAN, UPC or ISBN-13), whose digits are weighted alternately by 3 and 1
+     * starting with the rightmost one.
+     *
+     * @param value  The GTIN, of which only the digits before the check digit are used.
+     * @param length The number of digits before the check digit.
+     * @return The check digit or -1 if these digits contain other characters than digits.
+     */
+    private static int computeGtinCheckDigit(final CharSequence value, final int length) {
+        int sum = 0;
+        for (int i = 0; i < length; i++) {
+            final char c = value.charAt(i);
+            if (!isDigit(c)) {
+                return -1;
+            }
+            sum += (c - '0') * ((length - i) % 2 == 1 ? 3 : 1);
+        }
+        return (10 - sum % 10) % 10;
+    }
+
+    /**
+     * Computes the check digit of an ISBN-10, whose digits are weighted by 10 to 2.
+     *
+     * @param value The ISBN-10, of which only the first 9 characters are used.
+     * @return The check digit, which is 10 for the check character 'X', or -1 if the first 9 characters contain other
+     * characters than digits.
+     */
+    private static int computeIsbn10CheckDigit(final CharSequence value) {
+        int sum = 0;
+        for (int i = 0; i < ISBN_10_LENGTH - 1; i++) {
+            final char c = value.charAt(i);
+            if (!isDigit(c)) {
+                return -1;
+            }
+            sum += (c - '0') * (ISBN_10_LENGTH - i);
+        }
+        return (11 - sum % 11) % 11;
+    }
+
+    private static boolean isDigit(final char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    private static String checkIsbn(final ItemId isbn) {
+        if (isbn.getType() != ItemId.Type.ISBN || !isValid(isbn)) {
+            throw new IllegalArgumentException("A valid ISBN is required, but " + isbn + " was given!");
+        }
+        return isbn.getValue();
+    }
+
+    private static final class ValidIdIterator implements Iterator<ItemId> {
+
+        private final Iterator<ItemId> itemIds;
+        private final Collection<ItemId> invalidIds;
+        private ItemId nextValidId;
+
+        private ValidIdIterator(final Iterator<ItemId> itemIds, final Collection<ItemId> invalidIds) {
+            this.itemIds = itemIds;
+            this.invalidIds = invalidIds;
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (nextValidId == null && itemIds.hasNext()) {
+                final ItemId itemId = itemIds.next();
+                if (isValid(itemId)) {
+                    nextValidId = itemId;
+                } else if (invalidIds != null) {
+                    invalidIds.add(itemId);
+                }
+            }
+            return nextValidId != null;
+        }
+
+        @Override
+        public ItemId next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            final ItemId itemId = nextValidId;
+            nextValidId = null;
+            return itemId;
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException("remove");
+        }
+    }
+
+    /**
+     * A reusable {@link CharSequence} view on ASCII characters contained in a {@link ByteBuffer}.
+     *
+     * @author ISchwarz
+     */
+    static final class ByteSequence implements CharSequence {
+
+        private ByteBuffer buffer;
+        private int offset;
+        private int length;
+
+        @Override
+        public int length() {
+            return length;
+        }
+
+        @Override
+        public char charAt(final int index) {
+            return (char) (buffer.get(offset + index) & 0xFF);
+        }
+
+        @Override
+        public CharSequence subSequence(final int start, final int end) {
+            return toString().subSequence(start, end);
+        }
+
+        @Override
+        public String toString() {
+            final StringBuilder value = new StringBuilder(length);
+            for (int i = 0; i < length; i++) {
+                value.append(charAt(i));
+            }
+            return value.toString();
+        }
+    }
+}
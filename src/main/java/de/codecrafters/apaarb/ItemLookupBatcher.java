@@ -0,0 +1,422 @@
+package de.codecrafters.apaarb;
+
+import de.codecrafters.apaarb.AmazonProductAdvertisingApiRequestBuilder.AdvertisingApiItemLookupRequestBuilder;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static de.codecrafters.apaarb.AmazonProductAdvertisingApiRequestBuilder.MAX_ITEM_IDS_PER_LOOKUP;
+
+/**
+ * A dispatcher that combines concurrent lookups of single items into ItemLookup requests for up to
+ * {@link AmazonProductAdvertisingApiRequestBuilder#MAX_ITEM_IDS_PER_LOOKUP} items. Lookups with the same
+ * {@link ItemId.Type}, {@link ItemCondition}, response group and {@link AmazonWebServiceLocation} are collected until
+ * the batch is full or the maximum delay after the first lookup has passed. The combined request is sent using a
+ * {@link RequestExecutor} and the parsed {@link ItemRecord} of every item is passed to the {@link ResponseFuture} of
+ * its lookup.
+ * <p>
+ * The items of a response are matched to the lookups by their normalized ID, so e.g. an ISBN-10 also matches the
+ * ISBN-13 the service answers with, and EANs and UPCs match regardless of leading zeros. Only the ASIN is always part
+ * of a response, so {@link ItemInformation#ATTRIBUTES} is added to the response group of lookups by other ID types.
+ *
+ * @author ISchwarz
+ */
+public final class ItemLookupBatcher {
+
+    /**
+     * The default maximum time a lookup waits for further lookups to be combined with.
+     */
+    public static final long DEFAULT_MAX_DELAY_MILLIS = 20;
+
+    private final Map<BatchKey, Batch> openBatches = new HashMap<>();
+    private final AtomicLong batchCount = new AtomicLong();
+    private final AtomicLong lookupCount = new AtomicLong();
+    private final RequestExecutor executor;
+    private final ScheduledExecutorService scheduler;
+    private final long maxDelayNanos;
+    private final int maxBatchSize;
+
+
+    private ItemLookupBatcher(final Builder builder) {
+        this.executor = builder.executor;
+        this.maxDelayNanos = builder.maxDelayNanos;
+        this.maxBatchSize = builder.maxBatchSize;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+            @Override
+            public Thread newThread(final Runnable runnable) {
+                final Thread thread = new Thread(runnable, "apaarb-batcher");
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+    }
+
+    /**
+     * Creates a {@link Builder} for an {@link ItemLookupBatcher} that sends the combined requests using the given
+     * {@link RequestExecutor}.
+     *
+     * @param executor The {@link RequestExecutor} that shall be used.
+     * @return A new {@link Builder} for an {@link ItemLookupBatcher}.
+     */
+    public static Builder builder(final RequestExecutor executor) {
+        return new Builder(executor);
+    }
+
+    /**
+     * Creates an {@link ItemLookupBatcher} with the default configuration that sends the combined requests using the
+     * given {@link RequestExecutor}.
+     *
+     * @param executor The {@link RequestExecutor} that shall be used.
+     * @return The created {@link ItemLookupBatcher}.
+     */
+    public static ItemLookupBatcher create(final RequestExecutor executor) {
+        return builder(executor).build();
+    }
+
+    /**
+     * Looks up the item with the given ID with the default condition and response group.
+     *
+     * @param itemId          The ID of the item to look up.
+     * @param serviceLocation The location of the Amazon service the item shall be looked up at.
+     * @return A {@link ResponseFuture} for the {@link ItemRecord} of the item. It fails with an
+     * {@link ItemNotReturnedException} if the item is not contained in the response.
+     */
+    public ResponseFuture<ItemRecord> lookup(final ItemId itemId, final AmazonWebServiceLocation serviceLocation) {
+        return lookup(ItemLookupRequest.forItem(itemId), serviceLocation);
+    }
+
+    /**
+     * Looks up the item of the given ItemLookup request. The request is combined with other requests that only differ
+     * in the looked up item.
+     *
+     * @param request         The ItemLookup request for a single item.
+     * @param serviceLocation The location of the Amazon service the item shall be looked up at.
+     * @return A {@link ResponseFuture} for the {@link ItemRecord} of the item. It fails with an
+     * {@link ItemNotReturnedException} if the item is not contained in the response.
+     * @throws IllegalArgumentException If the given request looks up more than one item.
+     */
+    public ResponseFuture<ItemRecord> lookup(final AdvertisingApiItemLookupRequestBuilder request,
+                                             final AmazonWebServiceLocation serviceLocation) {
+
+        return lookup(request.build(), serviceLocation);
+    }
+
+    /**
+     * Looks up the item of the given ItemLookup request. The request is combined with other requests that only differ
+     * in the looked up item.
+     *
+     * @param request         The ItemLookup request for a single item.
+     * @param serviceLocation The location of the Amazon service the item shall be looked up at.
+     * @return A {@link ResponseFuture} for the {@link ItemRecord} of the item. It fails with an
+     * {@link ItemNotReturnedException} if the item is not contained in the response.
+     * @throws IllegalArgumentException If the given request looks up more than one item.
+     */
+    public ResponseFuture<ItemRecord> lookup(final ItemLookupRequest request,
+                                             final AmazonWebServiceLocation serviceLocation) {
+
+        final List<ItemId> itemIds = request.getItemIds();
+        if (itemIds.size() != 1) {
+            throw new IllegalArgumentException("Only requests for a single item can be combined, but "
+                    + itemIds.size() + " items were given!");
+        }
+        final ItemId itemId = itemIds.get(0);
+        final BatchKey key = new BatchKey(itemId.getType(), request.getItemCondition(),
+                request.getResponseGroupMask(), serviceLocation);
+        final ResponseFuture<ItemRecord> result = new ResponseFuture<>();
+        lookupCount.incrementAndGet();
+
+        Batch rejectedBatch = null;
+        final Batch fullBatch;
+        synchronized (openBatches) {
+            Batch batch = openBatches.get(key);
+            if (batch == null) {
+                batch = new Batch(key);
+                if (scheduleDispatch(batch)) {
+                    openBatches.put(key, batch);
+                } else {
+                    rejectedBatch = batch;
+                }
+            }
+            batch.add(itemId, result);
+            fullBatch = rejectedBatch == null && batch.size() >= maxBatchSize ? openBatches.remove(key) : null;
+        }
+        if (rejectedBatch != null) {
+            rejectedBatch.fail(new RejectedExecutionException("The batcher was shut down"));
+        } else if (fullBatch != null) {
+            dispatch(fullBatch);
+        }
+        return result;
+    }
+
+    /**
+     * Gives the number of combined requests that were sent.
+     *
+     * @return The number of combined requests that were sent.
+     */
+    public long getBatchCount() {
+        return batchCount.get();
+    }
+
+    /**
+     * Gives the number of lookups that were requested.
+     *
+     * @return The number of lookups that were requested.
+     */
+    public long getLookupCount() {
+        return lookupCount.get();
+    }
+
+    /**
+     * Sends all open batches immediately and stops the timer of this batcher. The {@link RequestExecutor} is not shut
+     * down.
+     */
+    public void shutdown() {
+        final List<Batch> batches;
+        synchronized (openBatches) {
+            batches = new ArrayList<>(openBatches.values());
+            openBatches.clear();
+        }
+        for (final Batch batch : batches) {
+            dispatch(batch);
+        }
+        scheduler.shutdown();
+    }
+
+    private boolean scheduleDispatch(final Batch batch) {
+        try {
+            scheduler.schedule(new Runnable() {
+                @Override
+                public void run() {
+                    final boolean open;
+                    synchronized (openBatches) {
+                        open = openBatches.get(batch.key) == batch;
+                        if (open) {
+                            openBatches.remove(batch.key);
+                        }
+                    }
+                    if (open) {
+                        dispatch(batch);
+                    }
+                }
+            }, maxDelayNanos, TimeUnit.NANOSECONDS);
+            return true;
+        } catch (final RejectedExecutionException e) {
+            return false;
+        }
+    }
+
+    private void dispatch(final Batch batch) {
+        batchCount.incrementAndGet();
+        final ItemLookupRequest request = ItemLookupRequest.create(batch.resultsById.keySet(),
+                batch.key.itemCondition, batch.key.responseGroup, RequestClock.SYSTEM);
+        final ItemResponseParser parser =
+                ItemResponseParser.forResponseGroup(ResponseGroup.toSet(batch.key.responseGroup));
+        final ResponseFuture<AmazonWebServiceResponse> pendingResponse =
+                executor.execute(request, batch.key.serviceLocation);
+        pendingResponse.addCallback(new ResponseCallback<AmazonWebServiceResponse>() {
+            @Override
+            public void onSuccess(final AmazonWebServiceResponse response) {
+                if (!response.isSuccessful()) {
+                    batch.fail(new AmazonWebServiceException(response));
+                    return;
+                }
+                try {
+                    batch.complete(parser.parse(response));
+                } catch (final Exception e) {
+                    batch.fail(e);
+                }
+            }
+
+            @Override
+            public void onFailure(final Throwable cause) {
+                batch.fail(cause);
+            }
+        });
+    }
+
+    private static final class Batch {
+
+        private final Map<ItemId, List<ResponseFuture<ItemRecord>>> resultsById = new LinkedHashMap<>();
+        private final BatchKey key;
+
+        private Batch(final BatchKey key) {
+            this.key = key;
+        }
+
+        private void add(final ItemId itemId, final ResponseFuture<ItemRecord> result) {
+            List<ResponseFuture<ItemRecord>> results = resultsById.get(itemId);
+            if (results == null) {
+                results = new ArrayList<>(1);
+                resultsById.put(itemId, results);
+            }
+            results.add(result);
+        }
+
+        private int size() {
+            return resultsById.size();
+        }
+
+        private void complete(final ItemResponse response) {
+            final Map<String, ItemRecord> itemById = new HashMap<>();
+            for (final ItemRecord item : response.getItems()) {
+                final String id = item.getId(key.idType);
+                if (id != null) {
+                    final String normalizedId = normalize(ItemId.create(id, key.idType));
+                    if (!itemById.containsKey(normalizedId)) {
+                        itemById.put(normalizedId, item);
+                    }
+                }
+            }
+            for (final Map.Entry<ItemId, List<ResponseFuture<ItemRecord>>> entry : resultsById.entrySet()) {
+                final ItemRecord item = itemById.get(normalize(entry.getKey()));
+                for (final ResponseFuture<ItemRecord> result : entry.getValue()) {
+                    if (item != null) {
+                        result.complete(item);
+                    } else {
+                        result.fail(new ItemNotReturnedException(entry.getKey()));
+                    }
+                }
+            }
+        }
+
+        /**
+         * Gives the value an ID is matched by: ISBNs are converted into ISBN-13s, and leading zeros are removed from
+         * EANs and UPCs, as both are GTINs that are padded differently.
+         */
+        private static String normalize(final ItemId itemId) {
+            final ItemId normalizedId = ItemIdValidator.normalize(itemId);
+            switch (normalizedId.getType()) {
+                case ISBN:
+                    return ItemIdValidator.isValid(normalizedId)
+                            ? ItemIdValidator.toIsbn13(normalizedId).getValue() : normalizedId.getValue();
+                case EAN:
+                case UPC:
+                    final String value = normalizedId.getValue();
+                    int start = 0;
+                    while (start < value.length() - 1 && value.charAt(start) == '0') {
+                        start++;
+                    }
+                    return value.substring(start);
+                default:
+                    return normalizedId.getValue();
+            }
+        }
+
+        private void fail(final Throwable cause) {
+            for (final List<ResponseFuture<ItemRecord>> results : resultsById.values()) {
+                for (final ResponseFuture<ItemRecord> result : results) {
+                    result.fail(cause);
+                }
+            }
+        }
+    }
+
+    private static final class BatchKey {
+
+        private final ItemId.Type idType;
+        private final ItemCondition itemCondition;
+        private final int responseGroup;
+        private final AmazonWebServiceLocation serviceLocation;
+
+        private BatchKey(final ItemId.Type idType, final ItemCondition itemCondition, final int responseGroup,
+                         final AmazonWebServiceLocation serviceLocation) {
+
+            this.idType = idType;
+            this.itemCondition = itemCondition;
+            // the IDs of other types than ASIN are only contained in the item attributes, which are also requested
+            // by an empty response group
+            if (responseGroup == ResponseGroup.EMPTY || idType != ItemId.Type.ASIN) {
+                this.responseGroup = responseGroup | ResponseGroup.of(ItemInformation.ATTRIBUTES);
+            } else {
+                this.responseGroup = responseGroup;
+            }
+            this.serviceLocation = serviceLocation;
+        }
+
+        @Override
+        public boolean equals(final Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof BatchKey)) {
+                return false;
+            }
+            final BatchKey that = (BatchKey) o;
+            return idType == that.idType && itemCondition == that.itemCondition
+                    && serviceLocation == that.serviceLocation && responseGroup == that.responseGroup;
+        }
+
+        @Override
+        public int hashCode() {
+            int result = idType.hashCode();
+            result = 31 * result + itemCondition.hashCode();
+            result = 31 * result + responseGroup;
+            return 31 * result + serviceLocation.hashCode();
+        }
+    }
+
+    /**
+     * A builder for the configuration of an {@link ItemLookupBatcher}.
+     *
+     * @author ISchwarz
+     */
+    public static final class Builder {
+
+        private final RequestExecutor executor;
+
+        private long maxDelayNanos = TimeUnit.MILLISECONDS.toNanos(DEFAULT_MAX_DELAY_MILLIS);
+        private int maxBatchSize = MAX_ITEM_IDS_PER_LOOKUP;
+
+
+        private Builder(final RequestExecutor executor) {
+            this.executor = executor;
+        }
+
+        /**
+         * Sets the maximum time a lookup waits for further lookups to be combined with.
+         *
+         * @param maxDelay The maximum delay in the given unit.
+         * @param unit     The unit of the given delay.
+         * @return The current {@link Builder}.
+         */
+        public Builder maxDelay(final long maxDelay, final TimeUnit unit) {
+            this.maxDelayNanos = unit.toNanos(maxDelay);
+            return this;
+        }
+
+        /**
+         * Sets the maximum number of items that are combined into a single request.
+         *
+         * @param maxBatchSize The maximum number of items per request.
+         * @return The current {@link Builder}.
+         * @throws IllegalArgumentException If the given size is smaller than 1 or bigger than
+         *                                  {@link AmazonProductAdvertisingApiRequestBuilder#MAX_ITEM_IDS_PER_LOOKUP}.
+         */
+        public Builder maxBatchSize(final int maxBatchSize) {
+            if (maxBatchSize < 1 || maxBatchSize > MAX_ITEM_IDS_PER_LOOKUP) {
+                throw new IllegalArgumentException("The batch size needs to be between 1 and "
+                        + MAX_ITEM_IDS_PER_LOOKUP + ", but " + maxBatchSize + " was given!");
+            }
+            this.maxBatchSize = maxBatchSize;
+            return this;
+        }
+
+        /**
+         * Creates the {@link ItemLookupBatcher} with the current configuration.
+         *
+         * @return The created {@link ItemLookupBatcher}.
+         */
+        public ItemLookupBatcher build() {
+            return new ItemLookupBatcher(this);
+        }
+    }
+}
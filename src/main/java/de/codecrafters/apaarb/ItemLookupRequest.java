@@ -0,0 +1,267 @@
+package de.codecrafters.apaarb;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+import static de.codecrafters.apaarb.AmazonProductAdvertisingApiRequestBuilder.HTTPS_PROTOCOL;
+import static de.codecrafters.apaarb.AmazonProductAdvertisingApiRequestBuilder.HTTP_PROTOCOL;
+import static de.codecrafters.apaarb.AmazonProductAdvertisingApiRequestBuilder.ROUTE;
+import static de.codecrafters.apaarb.AmazonProductAdvertisingApiRequestBuilder.SERVICE;
+import static de.codecrafters.apaarb.AmazonProductAdvertisingApiRequestBuilder.VERSION;
+
+/**
+ * An immutable ItemLookup request. All encoded parameter values are computed once when the request is created, so a
+ * single instance can be shared by any number of threads creating request urls concurrently. The {@code with...}
+ * methods create modified copies of the request.
+ *
+ * @author ISchwarz
+ */
+public final class ItemLookupRequest implements AdvertisingApiRequest {
+
+    static final String OPERATION = "ItemLookup";
+
+    private final List<ItemId> itemIds;
+    private final String encodedItemIds;
+    private final ItemCondition itemCondition;
+    private final int responseGroup;
+    private final String encodedResponseGroup;
+    private final RequestClock clock;
+
+    private volatile String canonicalParameters;
+
+
+    private ItemLookupRequest(final List<ItemId> itemIds, final String encodedItemIds,
+                              final ItemCondition itemCondition, final int responseGroup,
+                              final RequestClock clock) {
+
+        this.itemIds = itemIds;
+        this.encodedItemIds = encodedItemIds;
+        this.itemCondition = itemCondition;
+        this.responseGroup = responseGroup;
+        this.encodedResponseGroup = ResponseGroup.encode(responseGroup);
+        this.clock = clock;
+    }
+
+    /**
+     * Creates an {@link ItemLookupRequest} for the item with the given ID.
+     *
+     * @param itemId The ID of the item to get the information for.
+     * @return The created {@link ItemLookupRequest}.
+     */
+    public static ItemLookupRequest forItem(final ItemId itemId) {
+        return forItems(Collections.singletonList(itemId));
+    }
+
+    /**
+     * Creates an {@link ItemLookupRequest} for all items with the given IDs. A single request can look up at most
+     * {@link AmazonProductAdvertisingApiRequestBuilder#MAX_ITEM_IDS_PER_LOOKUP} items, which all need to have IDs of
+     * the same {@link ItemId.Type}.
+     *
+     * @param itemIds The IDs of the items to get the information for.
+     * @return The created {@link ItemLookupRequest}.
+     * @throws IllegalArgumentException If no, too many or IDs of different types are given.
+     */
+    public static ItemLookupRequest forItems(final Collection<ItemId> itemIds) {
+        return create(itemIds, ItemCondition.ALL, ResponseGroup.EMPTY, RequestClock.SYSTEM);
+    }
+
+    static ItemLookupRequest create(final Collection<ItemId> itemIds, final ItemCondition itemCondition,
+                                    final int responseGroup, final RequestClock clock) {
+
+        final List<ItemId> itemIdList = Collections.unmodifiableList(new ArrayList<>(itemIds));
+        AmazonProductAdvertisingApiRequestBuilder.checkItemIds(itemIdList);
+        final AsciiBuffer encodedItemIds = new AsciiBuffer(itemIdList.size() * 13);
+        AmazonProductAdvertisingApiRequestBuilder.appendItemIds(encodedItemIds, itemIdList);
+        return new ItemLookupRequest(itemIdList, encodedItemIds.toString(), itemCondition, responseGroup, clock);
+    }
+
+    /**
+     * Creates a copy of this request that looks up the item with the given ID.
+     *
+     * @param itemId The ID of the item to get the information for.
+     * @return The created copy of this request.
+     */
+    public ItemLookupRequest withItemId(final ItemId itemId) {
+        return withItemIds(Collections.singletonList(itemId));
+    }
+
+    /**
+     * Creates a copy of this request that looks up the items with the given IDs.
+     *
+     * @param itemIds The IDs of the items to get the information for.
+     * @return The created copy of this request.
+     * @throws IllegalArgumentException If no, too many or IDs of different types are given.
+     */
+    public ItemLookupRequest withItemIds(final Collection<ItemId> itemIds) {
+        return create(itemIds, itemCondition, responseGroup, clock);
+    }
+
+    /**
+     * Creates a copy of this request that filters the returned items by the given {@link ItemCondition}.
+     *
+     * @param itemCondition The {@link ItemCondition} to filter the returned items.
+     * @return The created copy of this request.
+     */
+    public ItemLookupRequest withCondition(final ItemCondition itemCondition) {
+        return new ItemLookupRequest(itemIds, encodedItemIds, itemCondition, responseGroup, clock);
+    }
+
+    /**
+     * Creates a copy of this request that additionally includes the given {@link ItemInformation} in the response.
+     *
+     * @param itemInformation The {@link ItemInformation} that shall be added to the response group.
+     * @return The created copy of this request.
+     */
+    public ItemLookupRequest withInformationAbout(final ItemInformation itemInformation) {
+        return new ItemLookupRequest(itemIds, encodedItemIds, itemCondition,
+                responseGroup | ResponseGroup.of(itemInformation), clock);
+    }
+
+    /**
+     * Creates a copy of this request that uses the given {@link RequestClock} for the timestamps.
+     *
+     * @param clock The {@link RequestClock} that gives the time used as timestamp of the created requests.
+     * @return The created copy of this request.
+     */
+    public ItemLookupRequest withClock(final RequestClock clock) {
+        return new ItemLookupRequest(itemIds, encodedItemIds, itemCondition, responseGroup, clock);
+    }
+
+    /**
+     * Gives the IDs of the looked up items.
+     *
+     * @return An unmodifiable list of the IDs of the looked up items.
+     */
+    public List<ItemId> getItemIds() {
+        return itemIds;
+    }
+
+    /**
+     * Gives the {@link ItemCondition} the returned items are filtered by.
+     *
+     * @return The {@link ItemCondition} the returned items are filtered by.
+     */
+    public ItemCondition getItemCondition() {
+        return itemCondition;
+    }
+
+    int getResponseGroupMask() {
+        return responseGroup;
+    }
+
+    @Override
+    public Set<ItemInformation> getResponseGroup() {
+        return ResponseGroup.toSet(responseGroup);
+    }
+
+    @Override
+    public String getCanonicalParameters() {
+        String parameters = canonicalParameters;
+        if (parameters == null) {
+            parameters = new AsciiBuffer(encodedItemIds.length() + encodedResponseGroup.length() + 64)
+                    .append("Condition=").append(itemCondition.getRequestValue())
+                    .append("&IdType=").append(itemIds.get(0).getType().getRequestValue())
+                    .append("&ItemId=").append(encodedItemIds)
+                    .append("&Operation=").append(OPERATION)
+                    .append("&ResponseGroup=").append(encodedResponseGroup)
+                    .toString();
+            canonicalParameters = parameters;
+        }
+        return parameters;
+    }
+
+    @Override
+    public String createRequestUrlFor(final AmazonWebServiceLocation serviceLocation,
+                                      final AmazonWebServiceAuthentication authentication) {
+
+        return createRequestUrlFor(serviceLocation, authentication, HTTP_PROTOCOL);
+    }
+
+    @Override
+    public String createSecureRequestUrlFor(final AmazonWebServiceLocation serviceLocation,
+                                            final AmazonWebServiceAuthentication authentication) {
+
+        return createRequestUrlFor(serviceLocation, authentication, HTTPS_PROTOCOL);
+    }
+
+    /**
+     * Compiles this request into an {@link ItemLookupRequestTemplate} for the given service using the given
+     * {@link AmazonWebServiceAuthentication}. The template encodes all constant parts of the request only once, so it
+     * should be used if many requests are created that only differ in the looked up {@link ItemId}.
+     *
+     * @param serviceLocation The location of the Amazon service that shall be used.
+     * @param authentication  The {@link AmazonWebServiceAuthentication} that shall be used.
+     * @return The compiled {@link ItemLookupRequestTemplate}.
+     */
+    public ItemLookupRequestTemplate compile(final AmazonWebServiceLocation serviceLocation,
+                                             final AmazonWebServiceAuthentication authentication) {
+
+        return new ItemLookupRequestTemplate(serviceLocation, authentication, itemIds, OPERATION, itemCondition,
+                encodedResponseGroup, clock);
+    }
+
+    /**
+     * Writes the path and query of the signed request for the given service using the given
+     * {@link AmazonWebServiceAuthentication} as US-ASCII bytes into the given {@link ByteBuffer}.
+     *
+     * @param serviceLocation The location of the Amazon service that shall be used.
+     * @param authentication  The {@link AmazonWebServiceAuthentication} that shall be used.
+     * @param target          The {@link ByteBuffer} the path and query shall be written to.
+     * @return The number of written bytes.
+     * @throws java.nio.BufferOverflowException If the remaining space of the given {@link ByteBuffer} is too small.
+     *                                          In this case nothing is written.
+     */
+    public int writeRequestPathTo(final AmazonWebServiceLocation serviceLocation,
+                                  final AmazonWebServiceAuthentication authentication, final ByteBuffer target) {
+
+        final AsciiBuffer signedRequest = createStringToSign(serviceLocation, authentication);
+        RequestUrlUtils.appendSignature(signedRequest, authentication.getRequestSigner());
+        return RequestUrlUtils.writeRequestPath(serviceLocation.getWebServiceUrl(), ROUTE, signedRequest, target);
+    }
+
+    /**
+     * Writes the path and query of the signed request for the given service using the given
+     * {@link AmazonWebServiceAuthentication} as US-ASCII bytes into the given {@link RequestSink}.
+     *
+     * @param serviceLocation The location of the Amazon service that shall be used.
+     * @param authentication  The {@link AmazonWebServiceAuthentication} that shall be used.
+     * @param target          The {@link RequestSink} the path and query shall be written to.
+     * @return The number of written bytes.
+     */
+    public int writeRequestPathTo(final AmazonWebServiceLocation serviceLocation,
+                                  final AmazonWebServiceAuthentication authentication, final RequestSink target) {
+
+        final AsciiBuffer signedRequest = createStringToSign(serviceLocation, authentication);
+        RequestUrlUtils.appendSignature(signedRequest, authentication.getRequestSigner());
+        return RequestUrlUtils.writeRequestPath(serviceLocation.getWebServiceUrl(), ROUTE, signedRequest, target);
+    }
+
+    private String createRequestUrlFor(final AmazonWebServiceLocation serviceLocation,
+                                       final AmazonWebServiceAuthentication authentication, final String protocol) {
+
+        return RequestUrlUtils.createSignedRequestUrl(protocol, serviceLocation.getWebServiceUrl(), ROUTE,
+                createStringToSign(serviceLocation, authentication), authentication.getRequestSigner());
+    }
+
+    private AsciiBuffer createStringToSign(final AmazonWebServiceLocation serviceLocation,
+                                           final AmazonWebServiceAuthentication authentication) {
+
+        // the request parameters have to be appended in lexicographical order
+        final AsciiBuffer stringToSign = RequestUrlUtils.beginStringToSign(serviceLocation.getWebServiceUrl(), ROUTE);
+        stringToSign.append("AWSAccessKeyId=").appendPercentEncoded(authentication.getAwsAccessKey())
+                .append("&AssociateTag=").appendPercentEncoded(authentication.getAssociateTag())
+                .append("&Condition=").append(itemCondition.getRequestValue())
+                .append("&IdType=").append(itemIds.get(0).getType().getRequestValue())
+                .append("&ItemId=").append(encodedItemIds)
+                .append("&Operation=").append(OPERATION)
+                .append("&ResponseGroup=").append(encodedResponseGroup)
+                .append("&Service=").append(SERVICE)
+                .append("&Timestamp=");
+        TimestampFormatter.appendPercentEncoded(stringToSign, clock.currentTimeMillis());
+        return stringToSign.append("&Version=").append(VERSION);
+    }
+}
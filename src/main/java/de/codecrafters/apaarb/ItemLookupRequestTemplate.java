@@ -0,0 +1,376 @@
+package de.codecrafters.apaarb;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+
+import static de.codecrafters.apaarb.AmazonProductAdvertisingApiRequestBuilder.HTTPS_PROTOCOL;
+import static de.codecrafters.apaarb.AmazonProductAdvertisingApiRequestBuilder.ENCODED_LIST_SEPARATOR;
+import static de.codecrafters.apaarb.AmazonProductAdvertisingApiRequestBuilder.HTTP_PROTOCOL;
+import static de.codecrafters.apaarb.AmazonProductAdvertisingApiRequestBuilder.MAX_ITEM_IDS_PER_LOOKUP;
+import static de.codecrafters.apaarb.AmazonProductAdvertisingApiRequestBuilder.ROUTE;
+import static de.codecrafters.apaarb.AmazonProductAdvertisingApiRequestBuilder.SERVICE;
+import static de.codecrafters.apaarb.AmazonProductAdvertisingApiRequestBuilder.VERSION;
+
+/**
+ * An immutable, precompiled ItemLookup request for a specific Amazon service and {@link AmazonWebServiceAuthentication}.
+ * All parts of the request that don't depend on the looked up {@link ItemId}s are encoded once, so creating a request
+ * url only encodes the item ids and the timestamp and signs the request. As the signature calculation of the constant
+ * request prefix is done in advance, only the variable part of the request is fed into the signature calculation.
+ * A template can be shared by multiple threads.
+ *
+ * @author ISchwarz
+ */
+public final class ItemLookupRequestTemplate {
+
+    private final String webServiceUrl;
+    private final RequestClock clock;
+    private final List<ItemId> itemIds;
+
+    private final byte[][] prefixByIdType;
+    private final RequestSigner.PrefixSigner[] signerByIdType;
+    private final byte[] infix;
+    private final byte[] suffix;
+
+
+    ItemLookupRequestTemplate(final AmazonWebServiceLocation serviceLocation,
+                              final AmazonWebServiceAuthentication authentication, final List<ItemId> itemIds,
+                              final String operation, final ItemCondition itemCondition,
+                              final String encodedResponseGroup, final RequestClock clock) {
+
+        this.webServiceUrl = serviceLocation.getWebServiceUrl();
+        this.clock = clock;
+        this.itemIds = itemIds;
+
+        // the request parameters have to be in lexicographical order
+        final ItemId.Type[] idTypes = ItemId.Type.values();
+        this.prefixByIdType = new byte[idTypes.length][];
+        this.signerByIdType = new RequestSigner.PrefixSigner[idTypes.length];
+        for (final ItemId.Type idType : idTypes) {
+            prefixByIdType[idType.ordinal()] = RequestUrlUtils.beginStringToSign(webServiceUrl, ROUTE)
+                    .append("AWSAccessKeyId=").appendPercentEncoded(authentication.getAwsAccessKey())
+                    .append("&AssociateTag=").appendPercentEncoded(authentication.getAssociateTag())
+                    .append("&Condition=").append(itemCondition.getRequestValue())
+                    .append("&IdType=").append(idType.getRequestValue())
+                    .append("&ItemId=")
+                    .toByteArray();
+            signerByIdType[idType.ordinal()] =
+                    authentication.getRequestSigner().withPrefix(prefixByIdType[idType.ordinal()]);
+        }
+        this.infix = RequestUrlUtils.threadLocalBuffer()
+                .append("&Operation=").append(operation)
+                .append("&ResponseGroup=").append(encodedResponseGroup)
+                .append("&Service=").append(SERVICE)
+                .append("&Timestamp=")
+                .toByteArray();
+        this.suffix = RequestUrlUtils.threadLocalBuffer()
+                .append("&Version=").append(VERSION)
+                .toByteArray();
+    }
+
+    /**
+     * Creates the signed request http-url for the items this template was compiled for.
+     *
+     * @return The created signed request url.
+     */
+    public String createRequestUrl() {
+        return createRequestUrlFor(itemIds, HTTP_PROTOCOL);
+    }
+
+    /**
+     * Creates the signed request https-url for the items this template was compiled for.
+     *
+     * @return The created signed request url.
+     */
+    public String createSecureRequestUrl() {
+        return createRequestUrlFor(itemIds, HTTPS_PROTOCOL);
+    }
+
+    /**
+     * Creates the signed request http-url for the item with the given ID.
+     *
+     * @param itemId The ID of the item to get the information for.
+     * @return The created signed request url.
+     */
+    public String createRequestUrlFor(final ItemId itemId) {
+        return createRequestUrlFor(Collections.singletonList(itemId), HTTP_PROTOCOL);
+    }
+
+    /**
+     * Creates the signed request https-url for the item with the given ID.
+     *
+     * @param itemId The ID of the item to get the information for.
+     * @return The created signed request url.
+     */
+    public String createSecureRequestUrlFor(final ItemId itemId) {
+        return createRequestUrlFor(Collections.singletonList(itemId), HTTPS_PROTOCOL);
+    }
+
+    /**
+     * Creates the signed request http-url for the items with the given IDs. At most
+     * {@link AmazonProductAdvertisingApiRequestBuilder#MAX_ITEM_IDS_PER_LOOKUP} IDs of the same {@link ItemId.Type}
+     * can be given.
+     *
+     * @param itemIds The IDs of the items to get the information for.
+     * @return The created signed request url.
+     * @throws IllegalArgumentException If no, too many or IDs of different types are given.
+     */
+    public String createRequestUrlFor(final Collection<ItemId> itemIds) {
+        return createCheckedRequestUrlFor(itemIds, HTTP_PROTOCOL);
+    }
+
+    /**
+     * Creates the signed request https-url for the items with the given IDs. At most
+     * {@link AmazonProductAdvertisingApiRequestBuilder#MAX_ITEM_IDS_PER_LOOKUP} IDs of the same {@link ItemId.Type}
+     * can be given.
+     *
+     * @param itemIds The IDs of the items to get the information for.
+     * @return The created signed request url.
+     * @throws IllegalArgumentException If no, too many or IDs of different types are given.
+     */
+    public String createSecureRequestUrlFor(final Collection<ItemId> itemIds) {
+        return createCheckedRequestUrlFor(itemIds, HTTPS_PROTOCOL);
+    }
+
+    /**
+     * Creates the signed request http-url for the items with the given IDs packed by {@link PackedItemId}, without
+     * creating {@link ItemId}s for them. At most
+     * {@link AmazonProductAdvertisingApiRequestBuilder#MAX_ITEM_IDS_PER_LOOKUP} IDs of the same {@link ItemId.Type}
+     * can be given.
+     *
+     * @param packedItemIds The array containing the packed IDs of the items to get the information for.
+     * @param offset        The index of the first ID in the given array.
+     * @param count         The number of IDs.
+     * @return The created signed request url.
+     * @throws IllegalArgumentException If no, too many, invalid or IDs of different types are given.
+     */
+    public String createRequestUrlFor(final long[] packedItemIds, final int offset, final int count) {
+        return createRequestUrlFor(packedItemIds, offset, count, HTTP_PROTOCOL);
+    }
+
+    /**
+     * Creates the signed request https-url for the items with the given IDs packed by {@link PackedItemId}, without
+     * creating {@link ItemId}s for them. At most
+     * {@link AmazonProductAdvertisingApiRequestBuilder#MAX_ITEM_IDS_PER_LOOKUP} IDs of the same {@link ItemId.Type}
+     * can be given.
+     *
+     * @param packedItemIds The array containing the packed IDs of the items to get the information for.
+     * @param offset        The index of the first ID in the given array.
+     * @param count         The number of IDs.
+     * @return The created signed request url.
+     * @throws IllegalArgumentException If no, too many, invalid or IDs of different types are given.
+     */
+    public String createSecureRequestUrlFor(final long[] packedItemIds, final int offset, final int count) {
+        return createRequestUrlFor(packedItemIds, offset, count, HTTPS_PROTOCOL);
+    }
+
+    /**
+     * Creates the signed request http-urls for all items with the given IDs. The IDs are packed into as few requests
+     * as possible using the {@link ItemIdPartitioner}. The request urls are created lazily while iterating.
+     *
+     * @param itemIds The IDs of the items to get the information for.
+     * @return An {@link Iterator} over the created signed request urls.
+     */
+    public Iterator<String> createRequestUrlsFor(final Iterator<ItemId> itemIds) {
+        return new RequestUrlIterator(ItemIdPartitioner.partition(itemIds), HTTP_PROTOCOL);
+    }
+
+    /**
+     * Creates the signed request https-urls for all items with the given IDs. The IDs are packed into as few requests
+     * as possible using the {@link ItemIdPartitioner}. The request urls are created lazily while iterating.
+     *
+     * @param itemIds The IDs of the items to get the information for.
+     * @return An {@link Iterator} over the created signed request urls.
+     */
+    public Iterator<String> createSecureRequestUrlsFor(final Iterator<ItemId> itemIds) {
+        return new RequestUrlIterator(ItemIdPartitioner.partition(itemIds), HTTPS_PROTOCOL);
+    }
+
+    /**
+     * Writes the path and query of the signed request for the items this template was compiled for as US-ASCII bytes
+     * into the given {@link ByteBuffer}.
+     *
+     * @param target The {@link ByteBuffer} the path and query shall be written to.
+     * @return The number of written bytes.
+     * @throws java.nio.BufferOverflowException If the remaining space of the given {@link ByteBuffer} is too small.
+     *                                          In this case nothing is written.
+     */
+    public int writeRequestPathTo(final ByteBuffer target) {
+        return RequestUrlUtils.writeRequestPath(webServiceUrl, ROUTE, createSignedRequest(itemIds), target);
+    }
+
+    /**
+     * Writes the path and query of the signed request for the items this template was compiled for as US-ASCII bytes
+     * into the given {@link RequestSink}.
+     *
+     * @param target The {@link RequestSink} the path and query shall be written to.
+     * @return The number of written bytes.
+     */
+    public int writeRequestPathTo(final RequestSink target) {
+        return RequestUrlUtils.writeRequestPath(webServiceUrl, ROUTE, createSignedRequest(itemIds), target);
+    }
+
+    /**
+     * Writes the path and query of the signed request for the item with the given ID as US-ASCII bytes into the given
+     * {@link ByteBuffer}.
+     *
+     * @param itemId The ID of the item to get the information for.
+     * @param target The {@link ByteBuffer} the path and query shall be written to.
+     * @return The number of written bytes.
+     * @throws java.nio.BufferOverflowException If the remaining space of the given {@link ByteBuffer} is too small.
+     *                                          In this case nothing is written.
+     */
+    public int writeRequestPathTo(final ItemId itemId, final ByteBuffer target) {
+        final AsciiBuffer signedRequest = createSignedRequest(Collections.singletonList(itemId));
+        return RequestUrlUtils.writeRequestPath(webServiceUrl, ROUTE, signedRequest, target);
+    }
+
+    /**
+     * Writes the path and query of the signed request for the item with the given ID as US-ASCII bytes into the given
+     * {@link RequestSink}.
+     *
+     * @param itemId The ID of the item to get the information for.
+     * @param target The {@link RequestSink} the path and query shall be written to.
+     * @return The number of written bytes.
+     */
+    public int writeRequestPathTo(final ItemId itemId, final RequestSink target) {
+        final AsciiBuffer signedRequest = createSignedRequest(Collections.singletonList(itemId));
+        return RequestUrlUtils.writeRequestPath(webServiceUrl, ROUTE, signedRequest, target);
+    }
+
+    /**
+     * Writes the path and query of the signed request for the items with the given IDs as US-ASCII bytes into the
+     * given {@link ByteBuffer}. At most {@link AmazonProductAdvertisingApiRequestBuilder#MAX_ITEM_IDS_PER_LOOKUP} IDs
+     * of the same {@link ItemId.Type} can be given.
+     *
+     * @param itemIds The IDs of the items to get the information for.
+     * @param target  The {@link ByteBuffer} the path and query shall be written to.
+     * @return The number of written bytes.
+     * @throws IllegalArgumentException         If no, too many or IDs of different types are given.
+     * @throws java.nio.BufferOverflowException If the remaining space of the given {@link ByteBuffer} is too small.
+     *                                          In this case nothing is written.
+     */
+    public int writeRequestPathTo(final Collection<ItemId> itemIds, final ByteBuffer target) {
+        final AsciiBuffer signedRequest = createSignedRequest(checkItemIds(itemIds));
+        return RequestUrlUtils.writeRequestPath(webServiceUrl, ROUTE, signedRequest, target);
+    }
+
+    /**
+     * Writes the path and query of the signed request for the items with the given IDs as US-ASCII bytes into the
+     * given {@link RequestSink}. At most {@link AmazonProductAdvertisingApiRequestBuilder#MAX_ITEM_IDS_PER_LOOKUP} IDs
+     * of the same {@link ItemId.Type} can be given.
+     *
+     * @param itemIds The IDs of the items to get the information for.
+     * @param target  The {@link RequestSink} the path and query shall be written to.
+     * @return The number of written bytes.
+     * @throws IllegalArgumentException If no, too many or IDs of different types are given.
+     */
+    public int writeRequestPathTo(final Collection<ItemId> itemIds, final RequestSink target) {
+        final AsciiBuffer signedRequest = createSignedRequest(checkItemIds(itemIds));
+        return RequestUrlUtils.writeRequestPath(webServiceUrl, ROUTE, signedRequest, target);
+    }
+
+    private static List<ItemId> checkItemIds(final Collection<ItemId> itemIds) {
+        final List<ItemId> itemIdList = new ArrayList<>(itemIds);
+        AmazonProductAdvertisingApiRequestBuilder.checkItemIds(itemIdList);
+        return itemIdList;
+    }
+
+    private String createCheckedRequestUrlFor(final Collection<ItemId> itemIds, final String protocol) {
+        return createRequestUrlFor(checkItemIds(itemIds), protocol);
+    }
+
+    String createRequestUrlFor(final List<ItemId> itemIds, final String protocol) {
+        return RequestUrlUtils.createRequestUrl(protocol, webServiceUrl, ROUTE, createSignedRequest(itemIds));
+    }
+
+    /**
+     * Creates the signed request url for the items whose IDs are contained in the given ranges of the given
+     * {@link ByteBuffer}, without creating {@link ItemId}s for them.
+     *
+     * @param idType   The type of the IDs.
+     * @param source   The {@link ByteBuffer} containing the US-ASCII or UTF-8 bytes of the IDs.
+     * @param offsets  The indexes of the first bytes of the IDs.
+     * @param lengths  The number of bytes of the IDs.
+     * @param count    The number of IDs, which must not be bigger than
+     *                 {@link AmazonProductAdvertisingApiRequestBuilder#MAX_ITEM_IDS_PER_LOOKUP}.
+     * @param protocol The protocol of the request url.
+     * @return The created signed request url.
+     */
+    String createRequestUrlFor(final ItemId.Type idType, final ByteBuffer source, final int[] offsets,
+                               final int[] lengths, final int count, final String protocol) {
+
+        final AsciiBuffer stringToSign = RequestUrlUtils.threadLocalBuffer().append(prefixByIdType[idType.ordinal()]);
+        AmazonProductAdvertisingApiRequestBuilder.appendItemIds(stringToSign, source, offsets, lengths, count);
+        return RequestUrlUtils.createRequestUrl(protocol, webServiceUrl, ROUTE,
+                finishSignedRequest(stringToSign, idType.ordinal()));
+    }
+
+    private String createRequestUrlFor(final long[] packedItemIds, final int offset, final int count,
+                                       final String protocol) {
+
+        if (count < 1 || count > MAX_ITEM_IDS_PER_LOOKUP) {
+            throw new IllegalArgumentException("Between 1 and " + MAX_ITEM_IDS_PER_LOOKUP + " item IDs can be looked "
+                    + "up in a single request, but " + count + " were given!");
+        }
+        final ItemId.Type idType = PackedItemId.getType(packedItemIds[offset]);
+        final AsciiBuffer stringToSign = RequestUrlUtils.threadLocalBuffer().append(prefixByIdType[idType.ordinal()]);
+        for (int i = offset; i < offset + count; i++) {
+            if (PackedItemId.getType(packedItemIds[i]) != idType) {
+                throw new IllegalArgumentException("All item IDs need to be of the same type, but " + idType + " and "
+                        + PackedItemId.getType(packedItemIds[i]) + " were given!");
+            }
+            if (i != offset) {
+                stringToSign.append(ENCODED_LIST_SEPARATOR);
+            }
+            PackedItemId.appendValue(stringToSign, packedItemIds[i]);
+        }
+        return RequestUrlUtils.createRequestUrl(protocol, webServiceUrl, ROUTE,
+                finishSignedRequest(stringToSign, idType.ordinal()));
+    }
+
+    private AsciiBuffer createSignedRequest(final List<ItemId> itemIds) {
+        final int idTypeIndex = itemIds.get(0).getType().ordinal();
+        final AsciiBuffer stringToSign = RequestUrlUtils.threadLocalBuffer().append(prefixByIdType[idTypeIndex]);
+        AmazonProductAdvertisingApiRequestBuilder.appendItemIds(stringToSign, itemIds);
+        return finishSignedRequest(stringToSign, idTypeIndex);
+    }
+
+    private AsciiBuffer finishSignedRequest(final AsciiBuffer stringToSign, final int idTypeIndex) {
+        stringToSign.append(infix);
+        TimestampFormatter.appendPercentEncoded(stringToSign, clock.currentTimeMillis());
+        stringToSign.append(suffix);
+
+        RequestUrlUtils.appendSignature(stringToSign, signerByIdType[idTypeIndex]);
+        return stringToSign;
+    }
+
+    private final class RequestUrlIterator implements Iterator<String> {
+
+        private final Iterator<List<ItemId>> partitions;
+        private final String protocol;
+
+        private RequestUrlIterator(final Iterator<List<ItemId>> partitions, final String protocol) {
+            this.partitions = partitions;
+            this.protocol = protocol;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return partitions.hasNext();
+        }
+
+        @Override
+        public String next() {
+            return createRequestUrlFor(partitions.next(), protocol);
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException("remove");
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package de.codecrafters.apaarb;
+
+import java.io.IOException;
+
+/**
+ * Signals that an Amazon service answered a lookup successfully, but the looked up item is not contained in the
+ * response, e.g. because the ID is unknown at the service.
+ *
+ * @author ISchwarz
+ */
+public final class ItemNotReturnedException extends IOException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final ItemId itemId;
+
+
+    /**
+     * Creates a new {@link ItemNotReturnedException} for the item with the given ID.
+     *
+     * @param itemId The ID of the item that is not contained in the response.
+     */
+    public ItemNotReturnedException(final ItemId itemId) {
+        super("The item " + itemId.getValue() + " was not returned by the service");
+        this.itemId = itemId;
+    }
+
+    /**
+     * Gives the ID of the item that is not contained in the response.
+     *
+     * @return The ID of the item that is not contained in the response.
+     */
+    public ItemId getItemId() {
+        return itemId;
+    }
+}
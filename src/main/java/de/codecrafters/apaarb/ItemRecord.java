@@ -0,0 +1,187 @@
+package de.codecrafters.apaarb;
+
+/**
+ * A compact record of the information about a single item contained in a response of the Amazon service. Only the
+ * values that are part of the requested response group are set. Prices are given in the lowest currency denomination,
+ * e.g. 3241 is $32.41. Missing numeric values are given as {@link #NO_VALUE}.
+ *
+ * @author ISchwarz
+ */
+public final class ItemRecord {
+
+    /**
+     * The value of numeric fields that are not contained in the response.
+     */
+    public static final long NO_VALUE = -1;
+
+    private final String asin;
+    private final String parentAsin;
+    private final String title;
+    private final String ean;
+    private final String upc;
+    private final String isbn;
+    private final String currencyCode;
+    private final long listPrice;
+    private final long lowestNewPrice;
+    private final long lowestUsedPrice;
+    private final long offerPrice;
+    private final long salesRank;
+
+
+    ItemRecord(final String asin, final String parentAsin, final String title, final String ean, final String upc,
+               final String isbn, final String currencyCode, final long listPrice, final long lowestNewPrice,
+               final long lowestUsedPrice, final long offerPrice, final long salesRank) {
+
+        this.asin = asin;
+        this.parentAsin = parentAsin;
+        this.title = title;
+        this.ean = ean;
+        this.upc = upc;
+        this.isbn = isbn;
+        this.currencyCode = currencyCode;
+        this.listPrice = listPrice;
+        this.lowestNewPrice = lowestNewPrice;
+        this.lowestUsedPrice = lowestUsedPrice;
+        this.offerPrice = offerPrice;
+        this.salesRank = salesRank;
+    }
+
+    /**
+     * Gives the ASIN of the item.
+     *
+     * @return The ASIN of the item.
+     */
+    public String getAsin() {
+        return asin;
+    }
+
+    /**
+     * Gives the ASIN of the parent item, if the item is a variation. Requires one of the variation response groups.
+     *
+     * @return The ASIN of the parent item or null.
+     */
+    public String getParentAsin() {
+        return parentAsin;
+    }
+
+    /**
+     * Gives the title of the item. Requires {@link ItemInformation#ATTRIBUTES}.
+     *
+     * @return The title of the item or null.
+     */
+    public String getTitle() {
+        return title;
+    }
+
+    /**
+     * Gives the EAN of the item. Requires {@link ItemInformation#ATTRIBUTES}.
+     *
+     * @return The EAN of the item or null.
+     */
+    public String getEan() {
+        return ean;
+    }
+
+    /**
+     * Gives the UPC of the item. Requires {@link ItemInformation#ATTRIBUTES}.
+     *
+     * @return The UPC of the item or null.
+     */
+    public String getUpc() {
+        return upc;
+    }
+
+    /**
+     * Gives the ISBN of the item. Requires {@link ItemInformation#ATTRIBUTES}.
+     *
+     * @return The ISBN of the item or null.
+     */
+    public String getIsbn() {
+        return isbn;
+    }
+
+    /**
+     * Gives the ID of the item of the given {@link ItemId.Type}.
+     *
+     * @param idType The {@link ItemId.Type} of the requested ID.
+     * @return The ID of the item of the given type or null.
+     */
+    String getId(final ItemId.Type idType) {
+        switch (idType) {
+            case ASIN:
+                return asin;
+            case EAN:
+                return ean;
+            case UPC:
+                return upc;
+            case ISBN:
+                return isbn;
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * Gives the currency code of the prices of the item (e.g. "EUR").
+     *
+     * @return The currency code of the prices or null.
+     */
+    public String getCurrencyCode() {
+        return currencyCode;
+    }
+
+    /**
+     * Gives the list price of the item in the lowest currency denomination. Requires
+     * {@link ItemInformation#ATTRIBUTES}.
+     *
+     * @return The list price of the item or {@link #NO_VALUE}.
+     */
+    public long getListPrice() {
+        return listPrice;
+    }
+
+    /**
+     * Gives the lowest price of the item in new condition in the lowest currency denomination. Requires
+     * {@link ItemInformation#OFFER_SUMMARY}, {@link ItemInformation#OFFERS} or {@link ItemInformation#OFFER_FULL}.
+     *
+     * @return The lowest new price of the item or {@link #NO_VALUE}.
+     */
+    public long getLowestNewPrice() {
+        return lowestNewPrice;
+    }
+
+    /**
+     * Gives the lowest price of the item in used condition in the lowest currency denomination. Requires
+     * {@link ItemInformation#OFFER_SUMMARY}, {@link ItemInformation#OFFERS} or {@link ItemInformation#OFFER_FULL}.
+     *
+     * @return The lowest used price of the item or {@link #NO_VALUE}.
+     */
+    public long getLowestUsedPrice() {
+        return lowestUsedPrice;
+    }
+
+    /**
+     * Gives the price of the first offer of the item in the lowest currency denomination. Requires
+     * {@link ItemInformation#OFFERS} or {@link ItemInformation#OFFER_FULL}.
+     *
+     * @return The price of the first offer of the item or {@link #NO_VALUE}.
+     */
+    public long getOfferPrice() {
+        return offerPrice;
+    }
+
+    /**
+     * Gives the sales rank of the item. Requires {@link ItemInformation#SALES_RANK}.
+     *
+     * @return The sales rank of the item or {@link #NO_VALUE}.
+     */
+    public long getSalesRank() {
+        return salesRank;
+    }
+
+    @Override
+    public String toString() {
+        return "ItemRecord{asin=" + asin + ", title=" + title + ", offerPrice=" + offerPrice + ", salesRank="
+                + salesRank + "}";
+    }
+}
@@ -0,0 +1,72 @@
+package de.codecrafters.apaarb;
+
+import java.util.List;
+
+/**
+ * The result of parsing a response of the Amazon service using the {@link ItemResponseParser}.
+ *
+ * @author ISchwarz
+ */
+public final class ItemResponse {
+
+    private final List<ItemRecord> items;
+    private final List<String> errorCodes;
+    private final long totalResults;
+    private final long totalPages;
+
+
+    ItemResponse(final List<ItemRecord> items, final List<String> errorCodes, final long totalResults,
+                 final long totalPages) {
+
+        this.items = items;
+        this.errorCodes = errorCodes;
+        this.totalResults = totalResults;
+        this.totalPages = totalPages;
+    }
+
+    /**
+     * Gives the records of the items contained in the response. If the items were passed to an
+     * {@link ItemResponseParser.ItemRecordConsumer} while parsing, the returned list is empty.
+     *
+     * @return The records of the items contained in the response.
+     */
+    public List<ItemRecord> getItems() {
+        return items;
+    }
+
+    /**
+     * Gives the codes of the errors contained in the response (e.g. "AWS.InvalidParameterValue").
+     *
+     * @return The codes of the errors contained in the response.
+     */
+    public List<String> getErrorCodes() {
+        return errorCodes;
+    }
+
+    /**
+     * Checks whether the response contains any errors.
+     *
+     * @return True if the response contains any errors.
+     */
+    public boolean hasErrors() {
+        return !errorCodes.isEmpty();
+    }
+
+    /**
+     * Gives the total number of items matching an ItemSearch request.
+     *
+     * @return The total number of matching items or {@link ItemRecord#NO_VALUE} for ItemLookup responses.
+     */
+    public long getTotalResults() {
+        return totalResults;
+    }
+
+    /**
+     * Gives the total number of result pages of an ItemSearch request.
+     *
+     * @return The total number of result pages or {@link ItemRecord#NO_VALUE} for ItemLookup responses.
+     */
+    public long getTotalPages() {
+        return totalPages;
+    }
+}
@@ -0,0 +1,391 @@
+package de.codecrafters.apaarb;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+import static de.codecrafters.apaarb.ItemRecord.NO_VALUE;
+
+/**
+ * A streaming parser for the XML responses of ItemLookup and ItemSearch requests, which creates compact
+ * {@link ItemRecord}s without building a document tree. It only reads the elements that belong to the
+ * {@link ItemInformation} of the requested response group and skips all other elements, e.g. the variations or
+ * similar products. A parser is immutable and can be shared between threads.
+ *
+ * @author ISchwarz
+ */
+public final class ItemResponseParser {
+
+    private static final ThreadLocal<XMLInputFactory> THREAD_LOCAL_FACTORY = new ThreadLocal<XMLInputFactory>() {
+        @Override
+        protected XMLInputFactory initialValue() {
+            final XMLInputFactory factory = XMLInputFactory.newInstance();
+            factory.setProperty(XMLInputFactory.IS_NAMESPACE_AWARE, false);
+            factory.setProperty(XMLInputFactory.IS_COALESCING, false);
+            factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+            factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+            return factory;
+        }
+    };
+
+    private final boolean readAttributes;
+    private final boolean readOfferSummary;
+    private final boolean readOffers;
+    private final boolean readSalesRank;
+    private final boolean readVariations;
+
+
+    private ItemResponseParser(final Set<ItemInformation> responseGroup) {
+        this.readAttributes = responseGroup.contains(ItemInformation.ATTRIBUTES);
+        this.readOffers = responseGroup.contains(ItemInformation.OFFERS)
+                || responseGroup.contains(ItemInformation.OFFER_FULL);
+        this.readOfferSummary = readOffers || responseGroup.contains(ItemInformation.OFFER_SUMMARY);
+        this.readSalesRank = responseGroup.contains(ItemInformation.SALES_RANK);
+        this.readVariations = responseGroup.contains(ItemInformation.VARIATIONS)
+                || responseGroup.contains(ItemInformation.VARIATION_SUMMARY)
+                || responseGroup.contains(ItemInformation.VARIATION_MATRIX);
+    }
+
+    /**
+     * Creates an {@link ItemResponseParser} for responses to requests with the given response group. If no
+     * {@link ItemInformation} is given, {@link ItemInformation#ATTRIBUTES} is assumed like for the requests.
+     *
+     * @param responseGroup The {@link ItemInformation} that was requested.
+     * @return The created {@link ItemResponseParser}.
+     */
+    public static ItemResponseParser forResponseGroup(final ItemInformation... responseGroup) {
+        return forResponseGroup(Arrays.asList(responseGroup));
+    }
+
+    /**
+     * Creates an {@link ItemResponseParser} for responses to requests with the given response group. If no
+     * {@link ItemInformation} is given, {@link ItemInformation#ATTRIBUTES} is assumed like for the requests.
+     *
+     * @param responseGroup The {@link ItemInformation} that was requested.
+     * @return The created {@link ItemResponseParser}.
+     */
+    public static ItemResponseParser forResponseGroup(final Collection<ItemInformation> responseGroup) {
+        return new ItemResponseParser(responseGroup.isEmpty()
+                ? EnumSet.of(ItemInformation.ATTRIBUTES) : EnumSet.copyOf(responseGroup));
+    }
+
+    /**
+     * Parses the body of the given {@link AmazonWebServiceResponse}.
+     *
+     * @param response The {@link AmazonWebServiceResponse} that shall be parsed.
+     * @return The parsed {@link ItemResponse}.
+     * @throws XMLStreamException If the body of the response is no valid XML.
+     */
+    public ItemResponse parse(final AmazonWebServiceResponse response) throws XMLStreamException {
+        return parse(response.getBodyAsStream());
+    }
+
+    /**
+     * Parses the given XML response and collects all contained {@link ItemRecord}s.
+     *
+     * @param response The {@link InputStream} of the XML response. It is not closed by this method.
+     * @return The parsed {@link ItemResponse}.
+     * @throws XMLStreamException If the response is no valid XML.
+     */
+    public ItemResponse parse(final InputStream response) throws XMLStreamException {
+        final List<ItemRecord> items = new ArrayList<>();
+        return parse(response, new ItemRecordConsumer() {
+            @Override
+            public void accept(final ItemRecord itemRecord) {
+                items.add(itemRecord);
+            }
+        }, items);
+    }
+
+    /**
+     * Parses the given XML response and passes every contained {@link ItemRecord} to the given
+     * {@link ItemRecordConsumer} as soon as it is read. The items are not collected in the returned
+     * {@link ItemResponse}.
+     *
+     * @param response The {@link InputStream} of the XML response. It is not closed by this method.
+     * @param consumer The {@link ItemRecordConsumer} the item records shall be passed to.
+     * @return The parsed {@link ItemResponse} without items.
+     * @throws XMLStreamException If the response is no valid XML.
+     */
+    public ItemResponse parse(final InputStream response, final ItemRecordConsumer consumer)
+            throws XMLStreamException {
+
+        return parse(response, consumer, Collections.<ItemRecord>emptyList());
+    }
+
+    private ItemResponse parse(final InputStream response, final ItemRecordConsumer consumer,
+                               final List<ItemRecord> items) throws XMLStreamException {
+
+        final XMLStreamReader reader = THREAD_LOCAL_FACTORY.get().createXMLStreamReader(response);
+        try {
+            final List<String> errorCodes = new ArrayList<>(0);
+            long totalResults = NO_VALUE;
+            long totalPages = NO_VALUE;
+            while (reader.hasNext()) {
+                if (reader.next() != XMLStreamConstants.START_ELEMENT) {
+                    continue;
+                }
+                switch (reader.getLocalName()) {
+                    case "Item":
+                        consumer.accept(readItem(reader));
+                        break;
+                    case "TotalResults":
+                        totalResults = readNumber(reader);
+                        break;
+                    case "TotalPages":
+                        totalPages = readNumber(reader);
+                        break;
+                    case "Code":
+                        errorCodes.add(reader.getElementText());
+                        break;
+                    case "OperationRequest":
+                    case "Arguments":
+                    case "ItemLookupRequest":
+                    case "ItemSearchRequest":
+                        skipElement(reader);
+                        break;
+                    default:
+                        // descend into all other elements, e.g. "Items", "Request", "Errors" and "Error"
+                        break;
+                }
+            }
+            return new ItemResponse(items, errorCodes, totalResults, totalPages);
+        } finally {
+            reader.close();
+        }
+    }
+
+    private ItemRecord readItem(final XMLStreamReader reader) throws XMLStreamException {
+        final ItemValues values = new ItemValues();
+        while (reader.nextTag() == XMLStreamConstants.START_ELEMENT) {
+            switch (reader.getLocalName()) {
+                case "ASIN":
+                    values.asin = reader.getElementText();
+                    break;
+                case "ParentASIN":
+                    if (readVariations) {
+                        values.parentAsin = reader.getElementText();
+                    } else {
+                        skipElement(reader);
+                    }
+                    break;
+                case "ItemAttributes":
+                    if (readAttributes) {
+                        readItemAttributes(reader, values);
+                    } else {
+                        skipElement(reader);
+                    }
+                    break;
+                case "OfferSummary":
+                    if (readOfferSummary) {
+                        readOfferSummary(reader, values);
+                    } else {
+                        skipElement(reader);
+                    }
+                    break;
+                case "Offers":
+                    if (readOffers) {
+                        readOffers(reader, values);
+                    } else {
+                        skipElement(reader);
+                    }
+                    break;
+                case "SalesRank":
+                    if (readSalesRank) {
+                        values.salesRank = readNumber(reader);
+                    } else {
+                        skipElement(reader);
+                    }
+                    break;
+                default:
+                    skipElement(reader);
+                    break;
+            }
+        }
+        return values.toItemRecord();
+    }
+
+    private static void readItemAttributes(final XMLStreamReader reader, final ItemValues values)
+            throws XMLStreamException {
+
+        while (reader.nextTag() == XMLStreamConstants.START_ELEMENT) {
+            switch (reader.getLocalName()) {
+                case "Title":
+                    values.title = reader.getElementText();
+                    break;
+                case "EAN":
+                    values.ean = reader.getElementText();
+                    break;
+                case "UPC":
+                    values.upc = reader.getElementText();
+                    break;
+                case "ISBN":
+                    values.isbn = reader.getElementText();
+                    break;
+                case "ListPrice":
+                    values.listPrice = readPrice(reader, values);
+                    break;
+                default:
+                    skipElement(reader);
+                    break;
+            }
+        }
+    }
+
+    private static void readOfferSummary(final XMLStreamReader reader, final ItemValues values)
+            throws XMLStreamException {
+
+        while (reader.nextTag() == XMLStreamConstants.START_ELEMENT) {
+            switch (reader.getLocalName()) {
+                case "LowestNewPrice":
+                    values.lowestNewPrice = readPrice(reader, values);
+                    break;
+                case "LowestUsedPrice":
+                    values.lowestUsedPrice = readPrice(reader, values);
+                    break;
+                default:
+                    skipElement(reader);
+                    break;
+            }
+        }
+    }
+
+    private static void readOffers(final XMLStreamReader reader, final ItemValues values) throws XMLStreamException {
+        while (reader.nextTag() == XMLStreamConstants.START_ELEMENT) {
+            // only the price of the first offer listing is read, all following offers are skipped
+            if (values.offerPrice == NO_VALUE && "Offer".equals(reader.getLocalName())) {
+                readFirstOfferPrice(reader, values);
+            } else {
+                skipElement(reader);
+            }
+        }
+    }
+
+    private static void readFirstOfferPrice(final XMLStreamReader reader, final ItemValues values)
+            throws XMLStreamException {
+
+        while (reader.nextTag() == XMLStreamConstants.START_ELEMENT) {
+            if (values.offerPrice == NO_VALUE && "OfferListing".equals(reader.getLocalName())) {
+                while (reader.nextTag() == XMLStreamConstants.START_ELEMENT) {
+                    if ("Price".equals(reader.getLocalName())) {
+                        values.offerPrice = readPrice(reader, values);
+                    } else {
+                        skipElement(reader);
+                    }
+                }
+            } else {
+                skipElement(reader);
+            }
+        }
+    }
+
+    private static long readPrice(final XMLStreamReader reader, final ItemValues values) throws XMLStreamException {
+        long amount = NO_VALUE;
+        while (reader.nextTag() == XMLStreamConstants.START_ELEMENT) {
+            switch (reader.getLocalName()) {
+                case "Amount":
+                    amount = readNumber(reader);
+                    break;
+                case "CurrencyCode":
+                    if (values.currencyCode == null) {
+                        values.currencyCode = reader.getElementText();
+                    } else {
+                        skipElement(reader);
+                    }
+                    break;
+                default:
+                    skipElement(reader);
+                    break;
+            }
+        }
+        return amount;
+    }
+
+    /**
+     * Reads the non-negative integer content of the current element directly from the character buffer of the
+     * reader, without creating a string. The reader is positioned on the end of the element afterwards.
+     */
+    private static long readNumber(final XMLStreamReader reader) throws XMLStreamException {
+        long number = 0;
+        boolean hasDigits = false;
+        int event;
+        while ((event = reader.next()) != XMLStreamConstants.END_ELEMENT) {
+            if (event == XMLStreamConstants.CHARACTERS) {
+                final char[] text = reader.getTextCharacters();
+                final int end = reader.getTextStart() + reader.getTextLength();
+                for (int i = reader.getTextStart(); i < end; i++) {
+                    final char c = text[i];
+                    if (c >= '0' && c <= '9') {
+                        number = number * 10 + (c - '0');
+                        hasDigits = true;
+                    }
+                }
+            } else if (event == XMLStreamConstants.START_ELEMENT) {
+                skipElement(reader);
+            }
+        }
+        return hasDigits ? number : NO_VALUE;
+    }
+
+    /**
+     * Skips the current element including all children. The reader is positioned on the end of the element
+     * afterwards.
+     */
+    private static void skipElement(final XMLStreamReader reader) throws XMLStreamException {
+        int depth = 1;
+        while (depth > 0) {
+            final int event = reader.next();
+            if (event == XMLStreamConstants.START_ELEMENT) {
+                depth++;
+            } else if (event == XMLStreamConstants.END_ELEMENT) {
+                depth--;
+            }
+        }
+    }
+
+    private static final class ItemValues {
+
+        private String asin;
+        private String parentAsin;
+        private String title;
+        private String ean;
+        private String upc;
+        private String isbn;
+        private String currencyCode;
+        private long listPrice = NO_VALUE;
+        private long lowestNewPrice = NO_VALUE;
+        private long lowestUsedPrice = NO_VALUE;
+        private long offerPrice = NO_VALUE;
+        private long salesRank = NO_VALUE;
+
+        private ItemRecord toItemRecord() {
+            return new ItemRecord(asin, parentAsin, title, ean, upc, isbn, currencyCode, listPrice, lowestNewPrice,
+                    lowestUsedPrice, offerPrice, salesRank);
+        }
+    }
+
+    /**
+     * A consumer of the {@link ItemRecord}s read by an {@link ItemResponseParser}.
+     *
+     * @author ISchwarz
+     */
+    public interface ItemRecordConsumer {
+
+        /**
+         * Called for every {@link ItemRecord} as soon as it is read.
+         *
+         * @param itemRecord The read {@link ItemRecord}.
+         */
+        void accept(ItemRecord itemRecord);
+
+    }
+}
@@ -0,0 +1,181 @@
+package de.codecrafters.apaarb;
+
+import javax.xml.stream.XMLStreamException;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Iterates lazily over the result pages of an {@link ItemSearchRequest}. The pages are sent through a
+ * {@link RequestExecutor}, so they are signed by the same cached signer and respect its rate limit. While the caller
+ * processes a page, the next page is already requested and parsed in the background. The iteration stops at the last
+ * page of the result or at the highest page the API allows for the searched {@link ItemCategory}, whichever comes
+ * first. The first page is requested as soon as the {@link ItemSearchPages} are created.
+ * <p>
+ * An instance of this class must not be shared between threads.
+ *
+ * @author ISchwarz
+ */
+public final class ItemSearchPages {
+
+    private final RequestExecutor executor;
+    private final ItemSearchRequest request;
+    private final AmazonWebServiceLocation serviceLocation;
+    private final ItemResponseParser parser;
+
+    private int pageLimit;
+    private int nextItemPage;
+    private ResponseFuture<ItemResponse> nextPage;
+
+
+    private ItemSearchPages(final RequestExecutor executor, final ItemSearchRequest request,
+                            final AmazonWebServiceLocation serviceLocation, final int pageLimit) {
+
+        this.executor = executor;
+        this.request = request;
+        this.serviceLocation = serviceLocation;
+        this.parser = ItemResponseParser.forResponseGroup(request.getResponseGroup());
+        this.pageLimit = pageLimit;
+        this.nextItemPage = request.getItemPage();
+        this.nextPage = requestPage(executor, request.withItemPage(nextItemPage), serviceLocation, parser);
+    }
+
+    /**
+     * Creates {@link ItemSearchPages} for all pages of the given request, starting with its item page.
+     *
+     * @param executor        The {@link RequestExecutor} that shall be used to send the requests.
+     * @param request         The {@link ItemSearchRequest} whose pages shall be requested.
+     * @param serviceLocation The location of the Amazon service the requests shall be sent to.
+     * @return The created {@link ItemSearchPages}.
+     */
+    public static ItemSearchPages create(final RequestExecutor executor, final ItemSearchRequest request,
+                                         final AmazonWebServiceLocation serviceLocation) {
+
+        return create(executor, request, serviceLocation, request.getMaxItemPage());
+    }
+
+    /**
+     * Creates {@link ItemSearchPages} for the pages of the given request, starting with its item page and ending at
+     * the given page at the latest.
+     *
+     * @param executor        The {@link RequestExecutor} that shall be used to send the requests.
+     * @param request         The {@link ItemSearchRequest} whose pages shall be requested.
+     * @param serviceLocation The location of the Amazon service the requests shall be sent to.
+     * @param lastItemPage    The last page that shall be requested. It is limited to the highest page the API allows.
+     * @return The created {@link ItemSearchPages}.
+     * @throws IllegalArgumentException If the given last page is smaller than the item page of the request.
+     */
+    public static ItemSearchPages create(final RequestExecutor executor, final ItemSearchRequest request,
+                                         final AmazonWebServiceLocation serviceLocation, final int lastItemPage) {
+
+        if (lastItemPage < request.getItemPage()) {
+            throw new IllegalArgumentException("The last item page needs to be at least " + request.getItemPage()
+                    + ", but " + lastItemPage + " was given!");
+        }
+        return new ItemSearchPages(executor, request, serviceLocation,
+                Math.min(lastItemPage, request.getMaxItemPage()));
+    }
+
+    /**
+     * Checks whether there is another page. Before the first page is received, it is assumed that the result has
+     * enough pages; afterwards the total number of pages given by the Amazon service is respected.
+     *
+     * @return True if there is another page.
+     */
+    public boolean hasNextPage() {
+        return nextPage != null;
+    }
+
+    /**
+     * Gives the next page and requests the page after it in the background.
+     *
+     * @return The parsed {@link ItemResponse} of the next page.
+     * @throws InterruptedException If the calling thread is interrupted while waiting for the page.
+     * @throws ExecutionException   If the page could not be received or parsed. If the Amazon service answered with
+     *                              an error status code, the cause is an {@link AmazonWebServiceException}.
+     * @throws NoSuchElementException If there is no other page.
+     */
+    public ItemResponse nextPage() throws InterruptedException, ExecutionException {
+        if (nextPage == null) {
+            throw new NoSuchElementException("There are no more pages of " + request.getKeywords());
+        }
+        final ResponseFuture<ItemResponse> page = nextPage;
+        nextPage = null;
+        final ItemResponse response = page.get();
+
+        pageLimit = (int) Math.min(pageLimit, response.getTotalPages());
+        if (++nextItemPage <= pageLimit) {
+            nextPage = requestPage(executor, request.withItemPage(nextItemPage), serviceLocation, parser);
+        }
+        return response;
+    }
+
+    /**
+     * Gives the number of the page that will be returned by {@link #nextPage()}.
+     *
+     * @return The number of the next page, starting with 1.
+     */
+    public int getNextItemPage() {
+        return nextItemPage;
+    }
+
+    /**
+     * Stops the iteration and cancels the request of the next page, if it wasn't sent yet.
+     */
+    public void cancel() {
+        if (nextPage != null) {
+            nextPage.cancel(false);
+            nextPage = null;
+        }
+    }
+
+    /**
+     * Sends the given request through the given {@link RequestExecutor} and parses the response in the thread that
+     * receives it. Responses with an error status code fail the returned future with an
+     * {@link AmazonWebServiceException}. Cancelling the returned future cancels the request, if it wasn't sent yet.
+     *
+     * @param executor        The {@link RequestExecutor} that shall be used to send the request.
+     * @param request         The request that shall be sent.
+     * @param serviceLocation The location of the Amazon service the request shall be sent to.
+     * @param parser          The {@link ItemResponseParser} that shall be used to parse the response.
+     * @return A {@link ResponseFuture} for the parsed response.
+     */
+    static ResponseFuture<ItemResponse> requestPage(final RequestExecutor executor, final ItemSearchRequest request,
+                                                    final AmazonWebServiceLocation serviceLocation,
+                                                    final ItemResponseParser parser) {
+
+        final ResponseFuture<ItemResponse> page = new ResponseFuture<>();
+        final ResponseFuture<AmazonWebServiceResponse> response = executor.execute(request, serviceLocation);
+        response.addCallback(new ResponseCallback<AmazonWebServiceResponse>() {
+            @Override
+            public void onSuccess(final AmazonWebServiceResponse result) {
+                if (!result.isSuccessful()) {
+                    page.fail(new AmazonWebServiceException(result));
+                    return;
+                }
+                try {
+                    page.complete(parser.parse(result));
+                } catch (final XMLStreamException e) {
+                    page.fail(e);
+                }
+            }
+
+            @Override
+            public void onFailure(final Throwable cause) {
+                page.fail(cause);
+            }
+        });
+        page.addCallback(new ResponseCallback<ItemResponse>() {
+            @Override
+            public void onSuccess(final ItemResponse result) {
+                // nothing to do
+            }
+
+            @Override
+            public void onFailure(final Throwable cause) {
+                // cancelling the page cancels the request, if it wasn't sent yet
+                response.cancel(false);
+            }
+        });
+        return page;
+    }
+}
@@ -0,0 +1,305 @@
+package de.codecrafters.apaarb;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A planner that collects the complete result of an ItemSearch, although the API only returns the first
+ * {@link ItemSearchRequest#MAX_ITEM_PAGE} pages of every query. A query whose result has more pages than can be
+ * requested is split into disjoint sub-queries: a search in {@link ItemCategory#ALL} is split into a search per
+ * category, and a search in a single category is split into two price bands, which are bisected again as long as they
+ * are still too big. Queries whose result fits into the allowed pages are read completely. All requests are sent in
+ * parallel through a {@link RequestExecutor}, which limits the concurrent requests, and the found items are
+ * deduplicated by their ASIN.
+ * <p>
+ * As the first page of a query already tells whether it needs to be split, no request is wasted: queries that fit are
+ * never split, and the items of the first page of a split query are kept. Once a category is split into price bands,
+ * items without a price are not found anymore.
+ *
+ * @author ISchwarz
+ */
+public final class ItemSearchPlanner {
+
+    /**
+     * The default price in the lowest currency denomination at which a search without maximum price is split first.
+     */
+    public static final int DEFAULT_INITIAL_SPLIT_PRICE = 10000;
+
+    private static final int NO_PRICE = -1;
+    private static final String NO_MATCHES_ERROR = "AWS.ECommerceService.NoExactMatches";
+    private static final String INVALID_CATEGORY_ERROR = "AWS.InvalidEnumeratedParameter";
+
+    private final RequestExecutor executor;
+    private final Set<ItemCategory> categories;
+    private final int initialSplitPrice;
+    private final int minimumPriceBandWidth;
+    private final AtomicLong requestCount = new AtomicLong();
+
+
+    private ItemSearchPlanner(final Builder builder) {
+        this.executor = builder.executor;
+        this.categories = EnumSet.copyOf(builder.categories);
+        this.initialSplitPrice = builder.initialSplitPrice;
+        this.minimumPriceBandWidth = builder.minimumPriceBandWidth;
+    }
+
+    /**
+     * Creates a {@link Builder} for an {@link ItemSearchPlanner} that sends its requests using the given
+     * {@link RequestExecutor}.
+     *
+     * @param executor The {@link RequestExecutor} that shall be used to send the requests.
+     * @return A new {@link Builder} for an {@link ItemSearchPlanner}.
+     */
+    public static Builder builder(final RequestExecutor executor) {
+        return new Builder(executor);
+    }
+
+    /**
+     * Creates an {@link ItemSearchPlanner} with the default configuration that sends its requests using the given
+     * {@link RequestExecutor}.
+     *
+     * @param executor The {@link RequestExecutor} that shall be used to send the requests.
+     * @return The created {@link ItemSearchPlanner}.
+     */
+    public static ItemSearchPlanner create(final RequestExecutor executor) {
+        return builder(executor).build();
+    }
+
+    /**
+     * Searches all items matching the given request. The item page of the request is ignored.
+     *
+     * @param request         The {@link ItemSearchRequest} whose complete result shall be collected.
+     * @param serviceLocation The location of the Amazon service the requests shall be sent to.
+     * @return A {@link ResponseFuture} for the found items, which contains every ASIN only once. It fails with the
+     * first failure of a request, e.g. an {@link AmazonWebServiceException}, or with an {@link IOException} if a
+     * response contains an error code other than "no exact matches" or an unavailable category of a split search.
+     * Cancelling it stops sending further requests.
+     */
+    public ResponseFuture<List<ItemRecord>> search(final ItemSearchRequest request,
+                                                   final AmazonWebServiceLocation serviceLocation) {
+
+        final Search search = new Search(request, serviceLocation);
+        search.start();
+        return search.result;
+    }
+
+    /**
+     * Gives the number of requests sent by this planner.
+     *
+     * @return The number of requests sent by this planner.
+     */
+    public long getRequestCount() {
+        return requestCount.get();
+    }
+
+    /**
+     * The state of a single search. Every sent request increments the number of pending requests and decrements it
+     * when its response is processed, after the requests following from it are sent. So the search is complete as
+     * soon as no request is pending anymore.
+     */
+    private final class Search {
+
+        private final ItemSearchRequest request;
+        private final AmazonWebServiceLocation serviceLocation;
+        private final ItemResponseParser parser;
+        private final ResponseFuture<List<ItemRecord>> result = new ResponseFuture<>();
+        private final AtomicInteger pendingRequests = new AtomicInteger();
+        private final ItemIdSet foundAsins = new ItemIdSet();
+        private final List<ItemRecord> foundItems = new ArrayList<>();
+
+        private Search(final ItemSearchRequest request, final AmazonWebServiceLocation serviceLocation) {
+            this.request = request.withItemPage(ItemSearchRequest.FIRST_ITEM_PAGE);
+            this.serviceLocation = serviceLocation;
+            this.parser = ItemResponseParser.forResponseGroup(request.getResponseGroup());
+        }
+
+        private void start() {
+            pendingRequests.incrementAndGet();
+            send(request, true);
+            requestCompleted();
+        }
+
+        private void send(final ItemSearchRequest pageRequest, final boolean firstPage) {
+            if (result.isDone()) {
+                return;
+            }
+            pendingRequests.incrementAndGet();
+            requestCount.incrementAndGet();
+            ItemSearchPages.requestPage(executor, pageRequest, serviceLocation, parser)
+                    .addCallback(new ResponseCallback<ItemResponse>() {
+                        @Override
+                        public void onSuccess(final ItemResponse response) {
+                            if (!response.hasErrors()) {
+                                addItems(response.getItems());
+                                if (firstPage) {
+                                    plan(pageRequest, response.getTotalPages());
+                                }
+                            } else if (!hasNoResult(pageRequest, response.getErrorCodes())) {
+                                result.fail(new IOException("The search failed with the errors "
+                                        + response.getErrorCodes()));
+                                return;
+                            }
+                            requestCompleted();
+                        }
+
+                        @Override
+                        public void onFailure(final Throwable cause) {
+                            result.fail(cause);
+                        }
+                    });
+        }
+
+        private boolean hasNoResult(final ItemSearchRequest query, final List<String> errorCodes) {
+            for (final String errorCode : errorCodes) {
+                if (!NO_MATCHES_ERROR.equals(errorCode) && !(INVALID_CATEGORY_ERROR.equals(errorCode)
+                        && query.getItemCategory() != request.getItemCategory())) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private void plan(final ItemSearchRequest query, final long totalPages) {
+            if (totalPages > query.getMaxItemPage() && split(query)) {
+                return;
+            }
+            final long lastPage = Math.min(totalPages, query.getMaxItemPage());
+            for (int itemPage = ItemSearchRequest.FIRST_ITEM_PAGE + 1; itemPage <= lastPage; itemPage++) {
+                send(query.withItemPage(itemPage), false);
+            }
+        }
+
+        private boolean split(final ItemSearchRequest query) {
+            if (query.getItemCategory() == ItemCategory.ALL) {
+                for (final ItemCategory category : categories) {
+                    send(query.withCategory(category), true);
+                }
+                return true;
+            }
+
+            final int minimumPrice = Math.max(query.getMinimumPrice(), 0);
+            final int maximumPrice = query.getMaximumPrice();
+            final int splitPrice;
+            if (maximumPrice == NO_PRICE) {
+                if (minimumPrice > Integer.MAX_VALUE / 2) {
+                    return false;
+                }
+                splitPrice = Math.max(minimumPrice * 2, initialSplitPrice);
+            } else {
+                if (maximumPrice - minimumPrice < minimumPriceBandWidth) {
+                    return false;
+                }
+                splitPrice = minimumPrice + (maximumPrice - minimumPrice) / 2;
+            }
+            send(query.withMinimumPrice(minimumPrice).withMaximumPrice(splitPrice), true);
+            send(query.withMinimumPrice(splitPrice + 1).withMaximumPrice(maximumPrice), true);
+            return true;
+        }
+
+        private void addItems(final List<ItemRecord> items) {
+            synchronized (foundItems) {
+                for (final ItemRecord item : items) {
+                    if (item.getAsin() != null && foundAsins.add(ItemId.createAsin(item.getAsin()))) {
+                        foundItems.add(item);
+                    }
+                }
+            }
+        }
+
+        private void requestCompleted() {
+            if (pendingRequests.decrementAndGet() == 0) {
+                synchronized (foundItems) {
+                    result.complete(new ArrayList<>(foundItems));
+                }
+            }
+        }
+    }
+
+    /**
+     * A builder for the configuration of an {@link ItemSearchPlanner}.
+     *
+     * @author ISchwarz
+     */
+    public static final class Builder {
+
+        private final RequestExecutor executor;
+
+        private Collection<ItemCategory> categories = EnumSet.complementOf(EnumSet.of(ItemCategory.ALL));
+        private int initialSplitPrice = DEFAULT_INITIAL_SPLIT_PRICE;
+        private int minimumPriceBandWidth = 1;
+
+
+        private Builder(final RequestExecutor executor) {
+            this.executor = executor;
+        }
+
+        /**
+         * Sets the categories a search in {@link ItemCategory#ALL} is split into. By default all categories are used.
+         * A request is sent for every category, so categories that are not available at the service location cost one
+         * request each. Their error response is treated as an empty result.
+         *
+         * @param categories The categories a search in all categories shall be split into.
+         * @return The current {@link Builder}.
+         * @throws IllegalArgumentException If no category or {@link ItemCategory#ALL} is given.
+         */
+        public Builder splittingInto(final ItemCategory... categories) {
+            final List<ItemCategory> categoryList = Arrays.asList(categories);
+            if (categoryList.isEmpty() || categoryList.contains(ItemCategory.ALL)) {
+                throw new IllegalArgumentException("At least one category besides ALL is required, but "
+                        + categoryList + " was given!");
+            }
+            this.categories = categoryList;
+            return this;
+        }
+
+        /**
+         * Sets the price at which a search without maximum price is split first. Prices appear in the lowest currency
+         * denomination. For example, 3241 is $32.41. By default {@link #DEFAULT_INITIAL_SPLIT_PRICE} is used.
+         *
+         * @param initialSplitPrice The price at which a search without maximum price is split first.
+         * @return The current {@link Builder}.
+         * @throws IllegalArgumentException If the given price is smaller than 1.
+         */
+        public Builder initialSplitPrice(final int initialSplitPrice) {
+            if (initialSplitPrice < 1) {
+                throw new IllegalArgumentException("The initial split price needs to be at least 1, but "
+                        + initialSplitPrice + " was given!");
+            }
+            this.initialSplitPrice = initialSplitPrice;
+            return this;
+        }
+
+        /**
+         * Sets the smallest width of a price band that is still split. The result of smaller price bands is cut off
+         * after the last page that can be requested. By default price bands are split down to a single price.
+         *
+         * @param minimumPriceBandWidth The smallest width of a price band that is still split.
+         * @return The current {@link Builder}.
+         * @throws IllegalArgumentException If the given width is smaller than 1.
+         */
+        public Builder minimumPriceBandWidth(final int minimumPriceBandWidth) {
+            if (minimumPriceBandWidth < 1) {
+                throw new IllegalArgumentException("The minimum price band width needs to be at least 1, but "
+                        + minimumPriceBandWidth + " was given!");
+            }
+            this.minimumPriceBandWidth = minimumPriceBandWidth;
+            return this;
+        }
+
+        /**
+         * Creates the {@link ItemSearchPlanner} with the current configuration.
+         *
+         * @return The created {@link ItemSearchPlanner}.
+         */
+        public ItemSearchPlanner build() {
+            return new ItemSearchPlanner(this);
+        }
+    }
+}
@@ -0,0 +1,364 @@
+package de.codecrafters.apaarb;
+
+import java.nio.ByteBuffer;
+import java.util.Set;
+
+import static de.codecrafters.apaarb.AmazonProductAdvertisingApiRequestBuilder.HTTPS_PROTOCOL;
+import static de.codecrafters.apaarb.AmazonProductAdvertisingApiRequestBuilder.HTTP_PROTOCOL;
+import static de.codecrafters.apaarb.AmazonProductAdvertisingApiRequestBuilder.ROUTE;
+import static de.codecrafters.apaarb.AmazonProductAdvertisingApiRequestBuilder.SERVICE;
+import static de.codecrafters.apaarb.AmazonProductAdvertisingApiRequestBuilder.VERSION;
+
+/**
+ * An immutable ItemSearch request. All encoded parameter values are computed once when the request is created, so a
+ * single instance can be shared by any number of threads creating request urls concurrently. The {@code with...}
+ * methods create modified copies of the request.
+ *
+ * @author ISchwarz
+ */
+public final class ItemSearchRequest implements AdvertisingApiRequest {
+
+    /**
+     * The highest item page that can be requested.
+     */
+    public static final int MAX_ITEM_PAGE = 10;
+
+    /**
+     * The highest item page that can be requested when searching in {@link ItemCategory#ALL}.
+     */
+    public static final int MAX_ITEM_PAGE_OF_ALL_CATEGORIES = 5;
+
+    static final int FIRST_ITEM_PAGE = 1;
+
+    private static final String OPERATION = "ItemSearch";
+    private static final int NO_PRICE = -1;
+
+    private final String keywords;
+    private final String encodedKeywords;
+    private final ItemCondition itemCondition;
+    private final ItemCategory itemCategory;
+    private final int responseGroup;
+    private final String encodedResponseGroup;
+    private final int maximumPrice;
+    private final int minimumPrice;
+    private final int itemPage;
+    private final RequestClock clock;
+
+    private volatile String canonicalParameters;
+
+
+    private ItemSearchRequest(final String keywords, final String encodedKeywords, final ItemCondition itemCondition,
+                              final ItemCategory itemCategory, final int responseGroup,
+                              final int maximumPrice, final int minimumPrice, final int itemPage,
+                              final RequestClock clock) {
+
+        this.keywords = keywords;
+        this.encodedKeywords = encodedKeywords;
+        this.itemCondition = itemCondition;
+        this.itemCategory = itemCategory;
+        this.responseGroup = responseGroup;
+        this.encodedResponseGroup = ResponseGroup.encode(responseGroup);
+        this.maximumPrice = maximumPrice;
+        this.minimumPrice = minimumPrice;
+        this.itemPage = itemPage;
+        this.clock = clock;
+    }
+
+    /**
+     * Creates an {@link ItemSearchRequest} for the items matching the given keywords.
+     *
+     * @param keywords The keywords that shall be used to search for items.
+     * @return The created {@link ItemSearchRequest}.
+     */
+    public static ItemSearchRequest forKeywords(final String keywords) {
+        return create(keywords, ItemCondition.ALL, ItemCategory.ALL, ResponseGroup.EMPTY,
+                NO_PRICE, NO_PRICE, FIRST_ITEM_PAGE, RequestClock.SYSTEM);
+    }
+
+    static ItemSearchRequest create(final String keywords, final ItemCondition itemCondition,
+                                    final ItemCategory itemCategory, final int responseGroup,
+                                    final int maximumPrice, final int minimumPrice, final int itemPage,
+                                    final RequestClock clock) {
+
+        return new ItemSearchRequest(keywords, RequestUrlUtils.percentEncodeRfc3986(keywords), itemCondition,
+                itemCategory, responseGroup, maximumPrice, minimumPrice, checkItemPage(itemPage), clock);
+    }
+
+    /**
+     * Creates a copy of this request that searches for the given keywords.
+     *
+     * @param keywords The keywords that shall be used to search for items.
+     * @return The created copy of this request.
+     */
+    public ItemSearchRequest withKeywords(final String keywords) {
+        return new ItemSearchRequest(keywords, RequestUrlUtils.percentEncodeRfc3986(keywords), itemCondition,
+                itemCategory, responseGroup, maximumPrice, minimumPrice, itemPage, clock);
+    }
+
+    /**
+     * Creates a copy of this request that filters the returned items by the given {@link ItemCondition}.
+     *
+     * @param itemCondition The {@link ItemCondition} to filter the returned items.
+     * @return The created copy of this request.
+     */
+    public ItemSearchRequest withCondition(final ItemCondition itemCondition) {
+        return new ItemSearchRequest(keywords, encodedKeywords, itemCondition, itemCategory, responseGroup,
+                maximumPrice, minimumPrice, itemPage, clock);
+    }
+
+    /**
+     * Creates a copy of this request that searches in the given {@link ItemCategory}.
+     *
+     * @param itemCategory The {@link ItemCategory} that will be searched.
+     * @return The created copy of this request.
+     */
+    public ItemSearchRequest withCategory(final ItemCategory itemCategory) {
+        return new ItemSearchRequest(keywords, encodedKeywords, itemCondition, itemCategory, responseGroup,
+                maximumPrice, minimumPrice, itemPage, clock);
+    }
+
+    /**
+     * Creates a copy of this request that additionally includes the given {@link ItemInformation} in the response.
+     *
+     * @param itemInformation The {@link ItemInformation} that shall be added to the response group.
+     * @return The created copy of this request.
+     */
+    public ItemSearchRequest withInformationAbout(final ItemInformation itemInformation) {
+        return new ItemSearchRequest(keywords, encodedKeywords, itemCondition, itemCategory,
+                responseGroup | ResponseGroup.of(itemInformation), maximumPrice, minimumPrice, itemPage, clock);
+    }
+
+    /**
+     * Creates a copy of this request with the given maximum item price. Prices appear in the lowest currency
+     * denomination. For example, 3241 is $32.41.
+     *
+     * @param maximumPrice The maximum item price in the lowest currency denomination.
+     * @return The created copy of this request.
+     */
+    public ItemSearchRequest withMaximumPrice(final int maximumPrice) {
+        return new ItemSearchRequest(keywords, encodedKeywords, itemCondition, itemCategory, responseGroup,
+                maximumPrice, minimumPrice, itemPage, clock);
+    }
+
+    /**
+     * Creates a copy of this request with the given minimum item price. Prices appear in the lowest currency
+     * denomination. For example, 3241 is $32.41.
+     *
+     * @param minimumPrice The minimum item price in the lowest currency denomination.
+     * @return The created copy of this request.
+     */
+    public ItemSearchRequest withMinimumPrice(final int minimumPrice) {
+        return new ItemSearchRequest(keywords, encodedKeywords, itemCondition, itemCategory, responseGroup,
+                maximumPrice, minimumPrice, itemPage, clock);
+    }
+
+    /**
+     * Creates a copy of this request that requests the given page of the matching items. Every page contains up to 10
+     * items. The highest page that can be requested is {@link #MAX_ITEM_PAGE}, or
+     * {@link #MAX_ITEM_PAGE_OF_ALL_CATEGORIES} when searching in {@link ItemCategory#ALL}.
+     *
+     * @param itemPage The page of the matching items, starting with 1.
+     * @return The created copy of this request.
+     * @throws IllegalArgumentException If the given page is smaller than 1 or bigger than {@link #MAX_ITEM_PAGE}.
+     */
+    public ItemSearchRequest withItemPage(final int itemPage) {
+        return new ItemSearchRequest(keywords, encodedKeywords, itemCondition, itemCategory, responseGroup,
+                maximumPrice, minimumPrice, checkItemPage(itemPage), clock);
+    }
+
+    /**
+     * Creates a copy of this request that uses the given {@link RequestClock} for the timestamps.
+     *
+     * @param clock The {@link RequestClock} that gives the time used as timestamp of the created requests.
+     * @return The created copy of this request.
+     */
+    public ItemSearchRequest withClock(final RequestClock clock) {
+        return new ItemSearchRequest(keywords, encodedKeywords, itemCondition, itemCategory, responseGroup,
+                maximumPrice, minimumPrice, itemPage, clock);
+    }
+
+    /**
+     * Gives the keywords that are used to search for items.
+     *
+     * @return The keywords that are used to search for items.
+     */
+    public String getKeywords() {
+        return keywords;
+    }
+
+    /**
+     * Gives the {@link ItemCondition} the returned items are filtered by.
+     *
+     * @return The {@link ItemCondition} the returned items are filtered by.
+     */
+    public ItemCondition getItemCondition() {
+        return itemCondition;
+    }
+
+    /**
+     * Gives the {@link ItemCategory} that is searched.
+     *
+     * @return The {@link ItemCategory} that is searched.
+     */
+    public ItemCategory getItemCategory() {
+        return itemCategory;
+    }
+
+    /**
+     * Gives the maximum item price in the lowest currency denomination.
+     *
+     * @return The maximum item price or -1 if the price is not limited.
+     */
+    public int getMaximumPrice() {
+        return maximumPrice;
+    }
+
+    /**
+     * Gives the minimum item price in the lowest currency denomination.
+     *
+     * @return The minimum item price or -1 if the price is not limited.
+     */
+    public int getMinimumPrice() {
+        return minimumPrice;
+    }
+
+    /**
+     * Gives the page of the matching items that is requested.
+     *
+     * @return The requested page, starting with 1.
+     */
+    public int getItemPage() {
+        return itemPage;
+    }
+
+    /**
+     * Gives the highest page of the matching items that can be requested for the searched {@link ItemCategory}.
+     *
+     * @return The highest page that can be requested.
+     */
+    public int getMaxItemPage() {
+        return itemCategory == ItemCategory.ALL ? MAX_ITEM_PAGE_OF_ALL_CATEGORIES : MAX_ITEM_PAGE;
+    }
+
+    @Override
+    public Set<ItemInformation> getResponseGroup() {
+        return ResponseGroup.toSet(responseGroup);
+    }
+
+    @Override
+    public String getCanonicalParameters() {
+        String parameters = canonicalParameters;
+        if (parameters == null) {
+            final AsciiBuffer buffer = new AsciiBuffer(encodedKeywords.length() + encodedResponseGroup.length() + 96)
+                    .append("Condition=").append(itemCondition.getRequestValue());
+            if (itemPage != FIRST_ITEM_PAGE) {
+                buffer.append("&ItemPage=").append(Integer.toString(itemPage));
+            }
+            buffer.append("&Keywords=").append(encodedKeywords);
+            if (maximumPrice != NO_PRICE) {
+                buffer.append("&MaximumPrice=").append(Integer.toString(maximumPrice));
+            }
+            if (minimumPrice != NO_PRICE) {
+                buffer.append("&MinimumPrice=").append(Integer.toString(minimumPrice));
+            }
+            parameters = buffer.append("&Operation=").append(OPERATION)
+                    .append("&ResponseGroup=").append(encodedResponseGroup)
+                    .append("&SearchIndex=").append(itemCategory.getRequestValue())
+                    .toString();
+            canonicalParameters = parameters;
+        }
+        return parameters;
+    }
+
+    @Override
+    public String createRequestUrlFor(final AmazonWebServiceLocation serviceLocation,
+                                      final AmazonWebServiceAuthentication authentication) {
+
+        return createRequestUrlFor(serviceLocation, authentication, HTTP_PROTOCOL);
+    }
+
+    @Override
+    public String createSecureRequestUrlFor(final AmazonWebServiceLocation serviceLocation,
+                                            final AmazonWebServiceAuthentication authentication) {
+
+        return createRequestUrlFor(serviceLocation, authentication, HTTPS_PROTOCOL);
+    }
+
+    /**
+     * Writes the path and query of the signed request for the given service using the given
+     * {@link AmazonWebServiceAuthentication} as US-ASCII bytes into the given {@link ByteBuffer}.
+     *
+     * @param serviceLocation The location of the Amazon service that shall be used.
+     * @param authentication  The {@link AmazonWebServiceAuthentication} that shall be used.
+     * @param target          The {@link ByteBuffer} the path and query shall be written to.
+     * @return The number of written bytes.
+     * @throws java.nio.BufferOverflowException If the remaining space of the given {@link ByteBuffer} is too small.
+     *                                          In this case nothing is written.
+     */
+    public int writeRequestPathTo(final AmazonWebServiceLocation serviceLocation,
+                                  final AmazonWebServiceAuthentication authentication, final ByteBuffer target) {
+
+        final AsciiBuffer signedRequest = createStringToSign(serviceLocation, authentication);
+        RequestUrlUtils.appendSignature(signedRequest, authentication.getRequestSigner());
+        return RequestUrlUtils.writeRequestPath(serviceLocation.getWebServiceUrl(), ROUTE, signedRequest, target);
+    }
+
+    /**
+     * Writes the path and query of the signed request for the given service using the given
+     * {@link AmazonWebServiceAuthentication} as US-ASCII bytes into the given {@link RequestSink}.
+     *
+     * @param serviceLocation The location of the Amazon service that shall be used.
+     * @param authentication  The {@link AmazonWebServiceAuthentication} that shall be used.
+     * @param target          The {@link RequestSink} the path and query shall be written to.
+     * @return The number of written bytes.
+     */
+    public int writeRequestPathTo(final AmazonWebServiceLocation serviceLocation,
+                                  final AmazonWebServiceAuthentication authentication, final RequestSink target) {
+
+        final AsciiBuffer signedRequest = createStringToSign(serviceLocation, authentication);
+        RequestUrlUtils.appendSignature(signedRequest, authentication.getRequestSigner());
+        return RequestUrlUtils.writeRequestPath(serviceLocation.getWebServiceUrl(), ROUTE, signedRequest, target);
+    }
+
+    private String createRequestUrlFor(final AmazonWebServiceLocation serviceLocation,
+                                       final AmazonWebServiceAuthentication authentication, final String protocol) {
+
+        return RequestUrlUtils.createSignedRequestUrl(protocol, serviceLocation.getWebServiceUrl(), ROUTE,
+                createStringToSign(serviceLocation, authentication), authentication.getRequestSigner());
+    }
+
+    private AsciiBuffer createStringToSign(final AmazonWebServiceLocation serviceLocation,
+                                           final AmazonWebServiceAuthentication authentication) {
+
+        // the request parameters have to be appended in lexicographical order
+        final AsciiBuffer stringToSign = RequestUrlUtils.beginStringToSign(serviceLocation.getWebServiceUrl(), ROUTE);
+        stringToSign.append("AWSAccessKeyId=").appendPercentEncoded(authentication.getAwsAccessKey())
+                .append("&AssociateTag=").appendPercentEncoded(authentication.getAssociateTag())
+                .append("&Condition=").append(itemCondition.getRequestValue());
+        if (itemPage != FIRST_ITEM_PAGE) {
+            stringToSign.append("&ItemPage=").append(Integer.toString(itemPage));
+        }
+        stringToSign.append("&Keywords=").append(encodedKeywords);
+        if (maximumPrice != NO_PRICE) {
+            stringToSign.append("&MaximumPrice=").append(Integer.toString(maximumPrice));
+        }
+        if (minimumPrice != NO_PRICE) {
+            stringToSign.append("&MinimumPrice=").append(Integer.toString(minimumPrice));
+        }
+        stringToSign.append("&Operation=").append(OPERATION)
+                .append("&ResponseGroup=").append(encodedResponseGroup)
+                .append("&SearchIndex=").append(itemCategory.getRequestValue())
+                .append("&Service=").append(SERVICE)
+                .append("&Timestamp=");
+        TimestampFormatter.appendPercentEncoded(stringToSign, clock.currentTimeMillis());
+        return stringToSign.append("&Version=").append(VERSION);
+    }
+
+    static int checkItemPage(final int itemPage) {
+        if (itemPage < FIRST_ITEM_PAGE || itemPage > MAX_ITEM_PAGE) {
+            throw new IllegalArgumentException("The item page needs to be between " + FIRST_ITEM_PAGE + " and "
+                    + MAX_ITEM_PAGE + ", but " + itemPage + " was given!");
+        }
+        return itemPage;
+    }
+}
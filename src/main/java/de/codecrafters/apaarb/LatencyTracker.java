@@ -0,0 +1,61 @@
+package de.codecrafters.apaarb;
+
+import java.util.Arrays;
+
+/**
+ * Tracks the latencies of the most recent requests to a service and gives a percentile of them. The percentile is
+ * recomputed only every few recorded latencies, so reading it is cheap. This class is thread-safe.
+ *
+ * @author ISchwarz
+ */
+final class LatencyTracker {
+
+    static final int WINDOW_SIZE = 256;
+    static final int MIN_SAMPLE_COUNT = 16;
+
+    private final long[] latencies = new long[WINDOW_SIZE];
+    private final double percentile;
+
+    private long sampleCount;
+    private volatile long percentileNanos;
+
+
+    /**
+     * Creates a {@link LatencyTracker} for the given percentile.
+     *
+     * @param percentile The percentile that shall be tracked, e.g. 0.95.
+     * @throws IllegalArgumentException If the given percentile isn't between 0 and 1.
+     */
+    LatencyTracker(final double percentile) {
+        if (!(percentile > 0 && percentile <= 1)) {
+            throw new IllegalArgumentException("The percentile needs to be between 0 and 1, but " + percentile
+                    + " was given!");
+        }
+        this.percentile = percentile;
+    }
+
+    /**
+     * Records the given latency.
+     *
+     * @param latencyNanos The latency of a request in nanoseconds.
+     */
+    synchronized void record(final long latencyNanos) {
+        latencies[(int) (sampleCount % WINDOW_SIZE)] = latencyNanos;
+        sampleCount++;
+        if (sampleCount >= MIN_SAMPLE_COUNT && sampleCount % MIN_SAMPLE_COUNT == 0) {
+            final int count = (int) Math.min(sampleCount, WINDOW_SIZE);
+            final long[] sortedLatencies = Arrays.copyOf(latencies, count);
+            Arrays.sort(sortedLatencies);
+            percentileNanos = sortedLatencies[(int) Math.ceil(percentile * count) - 1];
+        }
+    }
+
+    /**
+     * Gives the tracked percentile of the recent latencies.
+     *
+     * @return The percentile in nanoseconds or 0 if less than {@link #MIN_SAMPLE_COUNT} latencies were recorded.
+     */
+    long getPercentileNanos() {
+        return percentileNanos;
+    }
+}
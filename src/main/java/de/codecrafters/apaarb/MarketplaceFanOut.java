@@ -0,0 +1,218 @@
+package de.codecrafters.apaarb;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Sends the same request to multiple Amazon marketplaces in parallel, e.g. to compare the prices of an item. The
+ * requests are signed and sent by a {@link RequestExecutor}, so the concurrency limits and the rate limit configured
+ * per {@link AmazonWebServiceLocation} at the executor are respected. The responses are merged as soon as all
+ * marketplaces answered or the timeout elapsed, so a slow marketplace doesn't block the others.
+ *
+ * @author ISchwarz
+ */
+public final class MarketplaceFanOut {
+
+    /**
+     * The default time in milliseconds to wait for the responses of all marketplaces.
+     */
+    public static final long DEFAULT_TIMEOUT_MILLIS = 10000;
+
+    private final RequestExecutor executor;
+    private final Set<AmazonWebServiceLocation> serviceLocations;
+    private final long timeoutNanos;
+
+
+    private MarketplaceFanOut(final Builder builder) {
+        this.executor = builder.executor;
+        this.serviceLocations = EnumSet.copyOf(builder.serviceLocations);
+        this.timeoutNanos = builder.timeoutNanos;
+    }
+
+    /**
+     * Creates a {@link Builder} for a {@link MarketplaceFanOut} that sends its requests using the given
+     * {@link RequestExecutor}.
+     *
+     * @param executor The {@link RequestExecutor} that shall be used to send the requests.
+     * @return A new {@link Builder} for a {@link MarketplaceFanOut}.
+     */
+    public static Builder builder(final RequestExecutor executor) {
+        return new Builder(executor);
+    }
+
+    /**
+     * Creates a {@link MarketplaceFanOut} with the default configuration, which sends the requests to all
+     * marketplaces, using the given {@link RequestExecutor}.
+     *
+     * @param executor The {@link RequestExecutor} that shall be used to send the requests.
+     * @return The created {@link MarketplaceFanOut}.
+     */
+    public static MarketplaceFanOut create(final RequestExecutor executor) {
+        return builder(executor).build();
+    }
+
+    /**
+     * Sends the given request to all configured marketplaces in parallel and waits for their responses until the
+     * timeout elapsed. Requests that are not answered in time are cancelled, if they weren't sent yet.
+     *
+     * @param request The request that shall be sent to every marketplace.
+     * @return The merged {@link Result} of all marketplaces.
+     * @throws InterruptedException If the calling thread is interrupted while waiting for the responses.
+     */
+    public Result execute(final AdvertisingApiRequest request) throws InterruptedException {
+        final Map<AmazonWebServiceLocation, ResponseFuture<AmazonWebServiceResponse>> pendingResponses =
+                new EnumMap<>(AmazonWebServiceLocation.class);
+        for (final AmazonWebServiceLocation serviceLocation : serviceLocations) {
+            pendingResponses.put(serviceLocation, executor.execute(request, serviceLocation));
+        }
+
+        final Result result = new Result();
+        final long deadline = System.nanoTime() + timeoutNanos;
+        for (final Map.Entry<AmazonWebServiceLocation, ResponseFuture<AmazonWebServiceResponse>> pendingResponse
+                : pendingResponses.entrySet()) {
+
+            final AmazonWebServiceLocation serviceLocation = pendingResponse.getKey();
+            try {
+                final long remainingNanos = deadline - System.nanoTime();
+                result.responses.put(serviceLocation,
+                        pendingResponse.getValue().get(remainingNanos, TimeUnit.NANOSECONDS));
+            } catch (final ExecutionException e) {
+                result.failures.put(serviceLocation, e.getCause());
+            } catch (final TimeoutException e) {
+                pendingResponse.getValue().cancel(false);
+                result.timedOutLocations.add(serviceLocation);
+            } catch (final InterruptedException e) {
+                for (final ResponseFuture<AmazonWebServiceResponse> response : pendingResponses.values()) {
+                    response.cancel(false);
+                }
+                throw e;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * The merged responses of all marketplaces a request was sent to.
+     *
+     * @author ISchwarz
+     */
+    public static final class Result {
+
+        private final Map<AmazonWebServiceLocation, AmazonWebServiceResponse> responses =
+                new EnumMap<>(AmazonWebServiceLocation.class);
+        private final Map<AmazonWebServiceLocation, Throwable> failures =
+                new EnumMap<>(AmazonWebServiceLocation.class);
+        private final Set<AmazonWebServiceLocation> timedOutLocations =
+                EnumSet.noneOf(AmazonWebServiceLocation.class);
+
+        private Result() {
+            //no public instance
+        }
+
+        /**
+         * Gives the received responses by the location of the answering service. Also responses with an error status
+         * code are contained.
+         *
+         * @return An unmodifiable map of the received responses.
+         */
+        public Map<AmazonWebServiceLocation, AmazonWebServiceResponse> getResponses() {
+            return Collections.unmodifiableMap(responses);
+        }
+
+        /**
+         * Gives the causes of the requests that could not be sent by the location of the service.
+         *
+         * @return An unmodifiable map of the failures.
+         */
+        public Map<AmazonWebServiceLocation, Throwable> getFailures() {
+            return Collections.unmodifiableMap(failures);
+        }
+
+        /**
+         * Gives the locations of the services that didn't answer before the timeout elapsed.
+         *
+         * @return An unmodifiable set of the locations of the services that didn't answer in time.
+         */
+        public Set<AmazonWebServiceLocation> getTimedOutLocations() {
+            return Collections.unmodifiableSet(timedOutLocations);
+        }
+
+        /**
+         * Checks whether every service answered in time.
+         *
+         * @return True if a response was received from every service.
+         */
+        public boolean isComplete() {
+            return failures.isEmpty() && timedOutLocations.isEmpty();
+        }
+    }
+
+    /**
+     * A builder for the configuration of a {@link MarketplaceFanOut}.
+     *
+     * @author ISchwarz
+     */
+    public static final class Builder {
+
+        private final RequestExecutor executor;
+
+        private Collection<AmazonWebServiceLocation> serviceLocations =
+                EnumSet.allOf(AmazonWebServiceLocation.class);
+        private long timeoutNanos = TimeUnit.MILLISECONDS.toNanos(DEFAULT_TIMEOUT_MILLIS);
+
+
+        private Builder(final RequestExecutor executor) {
+            this.executor = executor;
+        }
+
+        /**
+         * Sets the locations of the services the requests shall be sent to. By default all locations are used.
+         *
+         * @param serviceLocations The locations of the services the requests shall be sent to.
+         * @return The current {@link Builder}.
+         * @throws IllegalArgumentException If no location is given.
+         */
+        public Builder sendingTo(final AmazonWebServiceLocation... serviceLocations) {
+            if (serviceLocations.length == 0) {
+                throw new IllegalArgumentException("At least one service location is required, but none was given!");
+            }
+            this.serviceLocations = Arrays.asList(serviceLocations);
+            return this;
+        }
+
+        /**
+         * Sets the time to wait for the responses of all services. By default {@link #DEFAULT_TIMEOUT_MILLIS}
+         * milliseconds are waited.
+         *
+         * @param timeout The time to wait for the responses.
+         * @param unit    The {@link TimeUnit} of the given timeout.
+         * @return The current {@link Builder}.
+         * @throws IllegalArgumentException If the given timeout is negative.
+         */
+        public Builder timeout(final long timeout, final TimeUnit unit) {
+            if (timeout < 0) {
+                throw new IllegalArgumentException("The timeout must not be negative, but " + timeout
+                        + " was given!");
+            }
+            this.timeoutNanos = unit.toNanos(timeout);
+            return this;
+        }
+
+        /**
+         * Creates the {@link MarketplaceFanOut} with the current configuration.
+         *
+         * @return The created {@link MarketplaceFanOut}.
+         */
+        public MarketplaceFanOut build() {
+            return new MarketplaceFanOut(this);
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package de.codecrafters.apaarb;
+
+/**
+ * The source of the monotonic time used to measure time spans, e.g. by the {@link RateLimiter} and the
+ * {@link ResponseCache}. It can be replaced in tests to control the time.
+ *
+ * @author ISchwarz
+ */
+interface NanoClock {
+
+    /**
+     * The {@link NanoClock} that gives the value of {@link System#nanoTime()}.
+     */
+    NanoClock SYSTEM = new NanoClock() {
+        @Override
+        public long nanoTime() {
+            return System.nanoTime();
+        }
+    };
+
+    /**
+     * Gives the current value of the monotonic time source.
+     *
+     * @return The current value of the monotonic time source in nanoseconds.
+     */
+    long nanoTime();
+
+}
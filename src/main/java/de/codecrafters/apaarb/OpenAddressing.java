@@ -0,0 +1,109 @@
+package de.codecrafters.apaarb;
+
+/**
+ * Utility class for the open-addressing hash tables of packed IDs used by the {@link ItemIdSet} and the
+ * {@link ItemIdMap}. The tables use linear probing, have a power of two capacity and mark empty slots with
+ * {@link PackedItemId#NONE}. Removed entries are deleted by shifting the following entries back, so no tombstones
+ * are needed.
+ *
+ * @author ISchwarz
+ */
+final class OpenAddressing {
+
+    private static final int MIN_CAPACITY = 8;
+
+
+    private OpenAddressing() {
+        //no instance
+    }
+
+    /**
+     * Gives the capacity of a table that can hold the given number of entries without growing.
+     *
+     * @param expectedSize The expected number of entries.
+     * @return The power of two capacity of the table.
+     * @throws IllegalArgumentException If the given size is negative or too big.
+     */
+    static int capacityFor(final int expectedSize) {
+        if (expectedSize < 0 || expectedSize > (1 << 29)) {
+            throw new IllegalArgumentException("The expected size needs to be between 0 and " + (1 << 29)
+                    + ", but " + expectedSize + " was given!");
+        }
+        int capacity = MIN_CAPACITY;
+        while (maxSize(capacity) < expectedSize) {
+            capacity <<= 1;
+        }
+        return capacity;
+    }
+
+    /**
+     * Gives the number of entries a table of the given capacity holds before it has to grow.
+     *
+     * @param capacity The capacity of the table.
+     * @return The maximum number of entries.
+     */
+    static int maxSize(final int capacity) {
+        return capacity - (capacity >>> 2);
+    }
+
+    /**
+     * Gives the index of the slot containing the given key or of the empty slot the key has to be inserted at.
+     *
+     * @param keys The table of keys.
+     * @param key  The key to look for.
+     * @return The index of the slot.
+     */
+    static int indexOf(final long[] keys, final long key) {
+        final int mask = keys.length - 1;
+        int index = PackedItemId.hash(key) & mask;
+        while (keys[index] != PackedItemId.NONE && keys[index] != key) {
+            index = (index + 1) & mask;
+        }
+        return index;
+    }
+
+    /**
+     * Removes the entry at the given index and shifts the following entries back, so they are still found.
+     *
+     * @param keys   The table of keys.
+     * @param values The table of values or null if the table has no values.
+     * @param index  The index of the entry that shall be removed.
+     */
+    static void removeAt(final long[] keys, final Object[] values, final int index) {
+        final int mask = keys.length - 1;
+        int hole = index;
+        int current = index;
+        while (true) {
+            current = (current + 1) & mask;
+            final long key = keys[current];
+            if (key == PackedItemId.NONE) {
+                break;
+            }
+            // the entry can fill the hole if the hole lies between its home slot and its current slot
+            final int home = PackedItemId.hash(key) & mask;
+            if (((current - home) & mask) >= ((current - hole) & mask)) {
+                keys[hole] = key;
+                if (values != null) {
+                    values[hole] = values[current];
+                }
+                hole = current;
+            }
+        }
+        keys[hole] = PackedItemId.NONE;
+        if (values != null) {
+            values[hole] = null;
+        }
+    }
+
+    /**
+     * Checks whether the given key is a packed ID.
+     *
+     * @param packedId The key to check.
+     * @throws IllegalArgumentException If the given key isn't a packed ID.
+     */
+    static void checkKey(final long packedId) {
+        if (!PackedItemId.isPacked(packedId)) {
+            throw new IllegalArgumentException("A packed item ID is required, but " + packedId + " was given!");
+        }
+    }
+}
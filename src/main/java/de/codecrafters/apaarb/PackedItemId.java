@@ -0,0 +1,202 @@
+package de.codecrafters.apaarb;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Utility class to pack {@link ItemId}s into single {@code long}s, which allows to hold huge amounts of IDs without
+ * creating an object per ID. The two highest bits contain the {@link ItemId.Type}. ASINs consisting of 10 digits or
+ * upper case letters are packed as base-36 number. EANs, UPCs and ISBNs are packed as decimal number together with
+ * their length, so leading zeros are kept, and ISBN-10s may end with the check character 'X'. A packed ID is never
+ * {@link #NONE}, which is used for IDs that can't be packed.
+ *
+ * @author ISchwarz
+ */
+public final class PackedItemId {
+
+    /**
+     * The value given for IDs that can't be packed. It is never a valid packed ID.
+     */
+    public static final long NONE = 0;
+
+    /**
+     * The maximum number of digits of a packed EAN, UPC or ISBN.
+     */
+    public static final int MAX_NUMERIC_LENGTH = 16;
+
+    private static final int ASIN_LENGTH = 10;
+    private static final int ASIN_RADIX = 36;
+    private static final byte[] ASIN_DIGITS =
+            "0123456789ABCDEFGHIJKLMNOPQRSTUVWXYZ".getBytes(StandardCharsets.US_ASCII);
+    private static final long ASIN_NUMBER_MASK = (1L << 52) - 1;
+
+    private static final int TYPE_SHIFT = 62;
+    private static final long PRESENT_BIT = 1L << 61;
+    private static final long CHECK_CHARACTER_X_BIT = 1L << 59;
+    private static final int LENGTH_SHIFT = 54;
+    private static final long LENGTH_MASK = 0x1F;
+    private static final long NUMBER_MASK = (1L << LENGTH_SHIFT) - 1;
+
+    private static final ItemId.Type[] ID_TYPES = ItemId.Type.values();
+
+
+    private PackedItemId() {
+        //no instance
+    }
+
+    /**
+     * Packs the given {@link ItemId}.
+     *
+     * @param itemId The {@link ItemId} that shall be packed.
+     * @return The packed ID or {@link #NONE} if the given ID can't be packed.
+     */
+    public static long pack(final ItemId itemId) {
+        return pack(itemId.getValue(), itemId.getType());
+    }
+
+    /**
+     * Packs the ID with the given value and {@link ItemId.Type} without creating an {@link ItemId}.
+     *
+     * @param value  The value of the ID.
+     * @param idType The type of the ID.
+     * @return The packed ID or {@link #NONE} if the given ID can't be packed.
+     */
+    public static long pack(final CharSequence value, final ItemId.Type idType) {
+        final long typeBits = ((long) idType.ordinal() << TYPE_SHIFT) | PRESENT_BIT;
+        final int length = value.length();
+
+        if (idType == ItemId.Type.ASIN) {
+            if (length != ASIN_LENGTH) {
+                return NONE;
+            }
+            long number = 0;
+            for (int i = 0; i < length; i++) {
+                final int digit = asinDigit(value.charAt(i));
+                if (digit < 0) {
+                    return NONE;
+                }
+                number = number * ASIN_RADIX + digit;
+            }
+            return typeBits | number;
+        }
+
+        if (length == 0 || length > MAX_NUMERIC_LENGTH) {
+            return NONE;
+        }
+        long number = 0;
+        long checkCharacterBit = 0;
+        for (int i = 0; i < length; i++) {
+            final char c = value.charAt(i);
+            if (c >= '0' && c <= '9') {
+                number = number * 10 + (c - '0');
+            } else if (c == 'X' && i == length - 1 && idType == ItemId.Type.ISBN) {
+                checkCharacterBit = CHECK_CHARACTER_X_BIT;
+            } else {
+                return NONE;
+            }
+        }
+        return typeBits | checkCharacterBit | ((long) length << LENGTH_SHIFT) | number;
+    }
+
+    /**
+     * Creates the {@link ItemId} of the given packed ID.
+     *
+     * @param packedId The packed ID.
+     * @return The unpacked {@link ItemId}.
+     * @throws IllegalArgumentException If the given value isn't a packed ID.
+     */
+    public static ItemId unpack(final long packedId) {
+        final AsciiBuffer value = new AsciiBuffer(MAX_NUMERIC_LENGTH);
+        appendValue(value, packedId);
+        return ItemId.create(value.toString(), getType(packedId));
+    }
+
+    /**
+     * Checks whether the given value is a packed ID.
+     *
+     * @param value The value to check.
+     * @return True if the given value is a packed ID.
+     */
+    public static boolean isPacked(final long value) {
+        return (value & PRESENT_BIT) != 0;
+    }
+
+    /**
+     * Gives the {@link ItemId.Type} of the given packed ID.
+     *
+     * @param packedId The packed ID.
+     * @return The {@link ItemId.Type} of the given packed ID.
+     * @throws IllegalArgumentException If the given value isn't a packed ID.
+     */
+    public static ItemId.Type getType(final long packedId) {
+        if (!isPacked(packedId)) {
+            throw new IllegalArgumentException("A packed item ID is required, but " + packedId + " was given!");
+        }
+        return ID_TYPES[(int) (packedId >>> TYPE_SHIFT)];
+    }
+
+    /**
+     * Appends the value of the given packed ID to the given {@link AsciiBuffer}. As the values only consist of digits
+     * and letters, they don't need to be percent-encoded.
+     *
+     * @param target   The {@link AsciiBuffer} the value shall be appended to.
+     * @param packedId The packed ID.
+     * @throws IllegalArgumentException If the given value isn't a packed ID.
+     */
+    static void appendValue(final AsciiBuffer target, final long packedId) {
+        final int start = target.length();
+        if (getType(packedId) == ItemId.Type.ASIN) {
+            long number = packedId & ASIN_NUMBER_MASK;
+            appendZeros(target, ASIN_LENGTH);
+            for (int i = start + ASIN_LENGTH - 1; i >= start; i--) {
+                target.array()[i] = ASIN_DIGITS[(int) (number % ASIN_RADIX)];
+                number /= ASIN_RADIX;
+            }
+            return;
+        }
+
+        final int length = (int) ((packedId >>> LENGTH_SHIFT) & LENGTH_MASK);
+        long number = packedId & NUMBER_MASK;
+        appendZeros(target, length);
+        int end = start + length;
+        if ((packedId & CHECK_CHARACTER_X_BIT) != 0) {
+            target.array()[--end] = 'X';
+        }
+        for (int i = end - 1; i >= start; i--) {
+            target.array()[i] = (byte) ('0' + number % 10);
+            number /= 10;
+        }
+    }
+
+    /**
+     * Gives a well distributed hash of the given packed ID.
+     *
+     * @param packedId The packed ID.
+     * @return The hash of the given packed ID.
+     */
+    static int hash(final long packedId) {
+        // finalizer of MurmurHash3
+        long h = packedId;
+        h ^= h >>> 33;
+        h *= 0xFF51AFD7ED558CCDL;
+        h ^= h >>> 33;
+        h *= 0xC4CEB9FE1A85EC53L;
+        h ^= h >>> 33;
+        return (int) h;
+    }
+
+    private static int asinDigit(final char c) {
+        if (c >= '0' && c <= '9') {
+            return c - '0';
+        }
+        if (c >= 'A' && c <= 'Z') {
+            return c - 'A' + 10;
+        }
+        return -1;
+    }
+
+    private static void appendZeros(final AsciiBuffer target, final int count) {
+        for (int i = 0; i < count; i++) {
+            target.append('0');
+        }
+    }
+}
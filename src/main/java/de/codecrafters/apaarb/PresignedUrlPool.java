@@ -0,0 +1,392 @@
+package de.codecrafters.apaarb;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * A bounded pool of request urls that are signed ahead of time by a producer thread, so the threads sending the
+ * requests never have to wait for the signature calculation. The pool is lock-free: producers and senders only
+ * compete for atomic counters. A producer reserves a slot before it signs a url, so a url is never signed in vain and
+ * can always be added.
+ * <p>
+ * As the Amazon services reject requests whose timestamp is too old, the pool tracks the timestamp of every url, which
+ * is read from the signed url itself, so it is the one given by the {@link RequestClock} of the request. Urls
+ * that are older than the maximum age are signed again: by the producer while it waits for free space in
+ * {@link #put(AdvertisingApiRequest, AmazonWebServiceLocation)} or calls {@link #refreshExpiring()}, and by the
+ * sender as a last resort when it takes an expiring url. Refreshed urls are moved to the tail of the pool, so the
+ * order of the urls is only kept as long as none expires.
+ *
+ * @author ISchwarz
+ */
+public final class PresignedUrlPool {
+
+    /**
+     * The default number of urls that are signed ahead.
+     */
+    public static final int DEFAULT_LOOK_AHEAD = 64;
+
+    /**
+     * The default age in milliseconds after which a url is signed again. The Amazon services accept requests up to 15
+     * minutes after their timestamp.
+     */
+    public static final long DEFAULT_MAX_AGE_MILLIS = TimeUnit.MINUTES.toMillis(10);
+
+    private static final long PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(100);
+    private static final String TIMESTAMP_PARAMETER = "Timestamp=";
+
+    private final BoundedMpmcQueue<PresignedUrl> urls;
+    private final AtomicInteger freeSlots;
+    private final AmazonWebServiceAuthentication authentication;
+    private final RequestClock clock;
+    private final long maxAgeMillis;
+    private final boolean secure;
+    private final AtomicLong resignedUrlCount = new AtomicLong();
+
+
+    private PresignedUrlPool(final Builder builder) {
+        this.urls = new BoundedMpmcQueue<>(builder.lookAhead);
+        this.freeSlots = new AtomicInteger(builder.lookAhead);
+        this.authentication = builder.authentication;
+        this.clock = builder.clock;
+        this.maxAgeMillis = builder.maxAgeMillis;
+        this.secure = builder.secure;
+    }
+
+    /**
+     * Creates a {@link Builder} for a {@link PresignedUrlPool} that signs the urls using the given
+     * {@link AmazonWebServiceAuthentication}.
+     *
+     * @param authentication The {@link AmazonWebServiceAuthentication} that shall be used.
+     * @return A new {@link Builder} for a {@link PresignedUrlPool}.
+     */
+    public static Builder builder(final AmazonWebServiceAuthentication authentication) {
+        return new Builder(authentication);
+    }
+
+    /**
+     * Creates a {@link PresignedUrlPool} with the default configuration that signs the urls using the given
+     * {@link AmazonWebServiceAuthentication}.
+     *
+     * @param authentication The {@link AmazonWebServiceAuthentication} that shall be used.
+     * @return The created {@link PresignedUrlPool}.
+     */
+    public static PresignedUrlPool create(final AmazonWebServiceAuthentication authentication) {
+        return builder(authentication).build();
+    }
+
+    /**
+     * Signs the given request for the given service and adds its url to this pool, if the pool isn't full.
+     *
+     * @param request         The request that shall be signed.
+     * @param serviceLocation The location of the Amazon service the request shall be sent to.
+     * @return True if the url was added, false if the pool is full.
+     */
+    public boolean offer(final AdvertisingApiRequest request, final AmazonWebServiceLocation serviceLocation) {
+        if (!reserveSlot()) {
+            return false;
+        }
+        final PresignedUrl url;
+        try {
+            url = sign(request, serviceLocation);
+        } catch (final RuntimeException e) {
+            freeSlots.incrementAndGet();
+            throw e;
+        }
+        enqueue(url);
+        return true;
+    }
+
+    /**
+     * Signs the given request for the given service and adds its url to this pool. If the pool is full, the urls
+     * nearing expiry are signed again while waiting for free space.
+     *
+     * @param request         The request that shall be signed.
+     * @param serviceLocation The location of the Amazon service the request shall be sent to.
+     * @throws InterruptedException If the calling thread is interrupted while waiting for free space.
+     */
+    public void put(final AdvertisingApiRequest request, final AmazonWebServiceLocation serviceLocation)
+            throws InterruptedException {
+
+        while (!offer(request, serviceLocation)) {
+            refreshExpiring();
+            park();
+        }
+    }
+
+    /**
+     * Takes the oldest url of this pool without waiting. If it is nearing expiry, it is signed again.
+     *
+     * @return The taken {@link PresignedUrl} or null if the pool is empty.
+     */
+    public PresignedUrl poll() {
+        final PresignedUrl url = urls.poll();
+        if (url == null) {
+            return null;
+        }
+        freeSlots.incrementAndGet();
+        return isExpiring(url) ? resign(url) : url;
+    }
+
+    /**
+     * Takes the oldest url of this pool and waits until one is available. If it is nearing expiry, it is signed
+     * again.
+     *
+     * @return The taken {@link PresignedUrl}.
+     * @throws InterruptedException If the calling thread is interrupted while waiting for a url.
+     */
+    public PresignedUrl take() throws InterruptedException {
+        PresignedUrl url;
+        while ((url = poll()) == null) {
+            park();
+        }
+        return url;
+    }
+
+    /**
+     * Signs the urls nearing expiry again and moves them to the tail of this pool. This is done by
+     * {@link #put(AdvertisingApiRequest, AmazonWebServiceLocation)} while it waits for free space, but should also be
+     * called regularly by the producer if it doesn't add urls for a while.
+     *
+     * @return The number of urls that were signed again.
+     */
+    public int refreshExpiring() {
+        int refreshedUrlCount = 0;
+        for (int i = 0; i < urls.capacity(); i++) {
+            final PresignedUrl oldestUrl = urls.peek();
+            if (oldestUrl == null || !isExpiring(oldestUrl)) {
+                break;
+            }
+            // the slot of the taken url stays reserved, so no other producer can fill it meanwhile
+            final PresignedUrl url = urls.poll();
+            if (url == null) {
+                break;
+            }
+            final PresignedUrl refreshedUrl;
+            try {
+                refreshedUrl = isExpiring(url) ? resign(url) : url;
+            } catch (final RuntimeException e) {
+                freeSlots.incrementAndGet();
+                throw e;
+            }
+            if (refreshedUrl != url) {
+                refreshedUrlCount++;
+            }
+            enqueue(refreshedUrl);
+        }
+        return refreshedUrlCount;
+    }
+
+    /**
+     * Gives the number of urls in this pool.
+     *
+     * @return The number of urls in this pool.
+     */
+    public int size() {
+        return urls.size();
+    }
+
+    /**
+     * Gives the number of urls that were signed again because they were nearing expiry.
+     *
+     * @return The number of urls that were signed again.
+     */
+    public long getResignedUrlCount() {
+        return resignedUrlCount.get();
+    }
+
+    private boolean reserveSlot() {
+        int count;
+        do {
+            count = freeSlots.get();
+            if (count == 0) {
+                return false;
+            }
+        } while (!freeSlots.compareAndSet(count, count - 1));
+        return true;
+    }
+
+    private void enqueue(final PresignedUrl url) {
+        // the slot is reserved, so the queue can only appear full while a concurrent poll is still releasing it
+        while (!urls.offer(url)) {
+            Thread.yield();
+        }
+    }
+
+    private boolean isExpiring(final PresignedUrl url) {
+        return clock.currentTimeMillis() - url.getTimestampMillis() >= maxAgeMillis;
+    }
+
+    private PresignedUrl resign(final PresignedUrl url) {
+        resignedUrlCount.incrementAndGet();
+        return sign(url.getRequest(), url.getServiceLocation());
+    }
+
+    private PresignedUrl sign(final AdvertisingApiRequest request, final AmazonWebServiceLocation serviceLocation) {
+        final long signingMillis = clock.currentTimeMillis();
+        final String requestUrl = secure
+                ? request.createSecureRequestUrlFor(serviceLocation, authentication)
+                : request.createRequestUrlFor(serviceLocation, authentication);
+        // the timestamp of the url is given by the clock of the request, which may differ from the one of this pool
+        final int timestampIndex = requestUrl.indexOf(TIMESTAMP_PARAMETER);
+        final long timestampMillis = timestampIndex < 0 ? signingMillis
+                : TimestampFormatter.parsePercentEncoded(requestUrl, timestampIndex + TIMESTAMP_PARAMETER.length());
+        return new PresignedUrl(request, serviceLocation, requestUrl, timestampMillis);
+    }
+
+    private static void park() throws InterruptedException {
+        LockSupport.parkNanos(PARK_NANOS);
+        if (Thread.interrupted()) {
+            throw new InterruptedException();
+        }
+    }
+
+    /**
+     * A signed request url together with its timestamp.
+     *
+     * @author ISchwarz
+     */
+    public static final class PresignedUrl {
+
+        private final AdvertisingApiRequest request;
+        private final AmazonWebServiceLocation serviceLocation;
+        private final String requestUrl;
+        private final long timestampMillis;
+
+        private PresignedUrl(final AdvertisingApiRequest request, final AmazonWebServiceLocation serviceLocation,
+                             final String requestUrl, final long timestampMillis) {
+            this.request = request;
+            this.serviceLocation = serviceLocation;
+            this.requestUrl = requestUrl;
+            this.timestampMillis = timestampMillis;
+        }
+
+        /**
+         * Gives the request the url was created for.
+         *
+         * @return The request the url was created for.
+         */
+        public AdvertisingApiRequest getRequest() {
+            return request;
+        }
+
+        /**
+         * Gives the location of the Amazon service the url was created for.
+         *
+         * @return The location of the Amazon service the url was created for.
+         */
+        public AmazonWebServiceLocation getServiceLocation() {
+            return serviceLocation;
+        }
+
+        /**
+         * Gives the signed request url.
+         *
+         * @return The signed request url.
+         */
+        public String getRequestUrl() {
+            return requestUrl;
+        }
+
+        /**
+         * Gives the timestamp of the signed url.
+         *
+         * @return The timestamp of the signed url in milliseconds since the epoch.
+         */
+        public long getTimestampMillis() {
+            return timestampMillis;
+        }
+
+        @Override
+        public String toString() {
+            return requestUrl;
+        }
+    }
+
+    /**
+     * A builder for the configuration of a {@link PresignedUrlPool}.
+     *
+     * @author ISchwarz
+     */
+    public static final class Builder {
+
+        private final AmazonWebServiceAuthentication authentication;
+
+        private int lookAhead = DEFAULT_LOOK_AHEAD;
+        private long maxAgeMillis = DEFAULT_MAX_AGE_MILLIS;
+        private RequestClock clock = RequestClock.SYSTEM;
+        private boolean secure = true;
+
+
+        private Builder(final AmazonWebServiceAuthentication authentication) {
+            this.authentication = authentication;
+        }
+
+        /**
+         * Sets the maximum number of urls that are signed ahead and held by the pool.
+         *
+         * @param lookAhead The maximum number of urls in the pool.
+         * @return The current {@link Builder}.
+         * @throws IllegalArgumentException If the given look-ahead is smaller than 1.
+         */
+        public Builder lookAhead(final int lookAhead) {
+            if (lookAhead < 1) {
+                throw new IllegalArgumentException("The look-ahead needs to be at least 1, but " + lookAhead
+                        + " was given!");
+            }
+            this.lookAhead = lookAhead;
+            return this;
+        }
+
+        /**
+         * Sets the age after which a url is signed again. By default {@link #DEFAULT_MAX_AGE_MILLIS} is used.
+         *
+         * @param maxAge The age after which a url is signed again.
+         * @param unit   The {@link TimeUnit} of the given age.
+         * @return The current {@link Builder}.
+         * @throws IllegalArgumentException If the given age is negative.
+         */
+        public Builder maxAge(final long maxAge, final TimeUnit unit) {
+            if (maxAge < 0) {
+                throw new IllegalArgumentException("The maximum age must not be negative, but " + maxAge
+                        + " was given!");
+            }
+            this.maxAgeMillis = unit.toMillis(maxAge);
+            return this;
+        }
+
+        /**
+         * Sets the {@link RequestClock} the age of the urls is measured with. The timestamps of the urls are given by
+         * the clocks of the requests, so it should tell the same time. By default the {@link RequestClock#SYSTEM}
+         * clock is used.
+         *
+         * @param clock The {@link RequestClock} the age of the urls is measured with.
+         * @return The current {@link Builder}.
+         */
+        public Builder usingClock(final RequestClock clock) {
+            this.clock = clock;
+            return this;
+        }
+
+        /**
+         * Sets whether https-urls (default) or http-urls are created.
+         *
+         * @param secure True if https-urls shall be created.
+         * @return The current {@link Builder}.
+         */
+        public Builder usingSecureRequests(final boolean secure) {
+            this.secure = secure;
+            return this;
+        }
+
+        /**
+         * Creates the {@link PresignedUrlPool} with the current configuration.
+         *
+         * @return The created {@link PresignedUrlPool}.
+         */
+        public PresignedUrlPool build() {
+            return new PresignedUrlPool(this);
+        }
+    }
+}
@@ -0,0 +1,202 @@
+package de.codecrafters.apaarb;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A lock-free token bucket that hands out permits at a fixed rate and allows bursts of a configured size. The bucket
+ * is implemented as generic cell rate algorithm, so its whole state is a single timestamp that is updated using
+ * compare-and-set. Besides handing out permits, it records how long the callers had to wait for them.
+ *
+ * @author ISchwarz
+ */
+public final class RateLimiter {
+
+    private final AtomicLong theoreticalArrivalTime;
+    private final AtomicLong acquiredPermitCount = new AtomicLong();
+    private final AtomicLong delayedPermitCount = new AtomicLong();
+    private final AtomicLong totalWaitNanos = new AtomicLong();
+    private final AtomicLong maxWaitNanos = new AtomicLong();
+    private final NanoClock clock;
+    private final long emissionIntervalNanos;
+    private final long burstToleranceNanos;
+    private final double permitsPerSecond;
+    private final int burstSize;
+
+
+    RateLimiter(final double permitsPerSecond, final int burstSize, final NanoClock clock) {
+        checkLimit(permitsPerSecond, burstSize);
+        this.permitsPerSecond = permitsPerSecond;
+        this.burstSize = burstSize;
+        this.clock = clock;
+        this.emissionIntervalNanos = Math.max(1, (long) (TimeUnit.SECONDS.toNanos(1) / permitsPerSecond));
+        this.burstToleranceNanos = emissionIntervalNanos * (burstSize - 1);
+        this.theoreticalArrivalTime = new AtomicLong(clock.nanoTime());
+    }
+
+    /**
+     * Creates a new {@link RateLimiter} that hands out the given number of permits per second and allows bursts of
+     * the given size.
+     *
+     * @param permitsPerSecond The number of permits per second.
+     * @param burstSize        The number of permits that can be acquired at once without waiting.
+     * @return The created {@link RateLimiter}.
+     */
+    public static RateLimiter create(final double permitsPerSecond, final int burstSize) {
+        return new RateLimiter(permitsPerSecond, burstSize, NanoClock.SYSTEM);
+    }
+
+    /**
+     * Checks whether the given rate and burst size are valid.
+     *
+     * @param permitsPerSecond The number of permits per second.
+     * @param burstSize        The number of permits that can be acquired at once without waiting.
+     * @throws IllegalArgumentException If the rate is not positive or the burst size is smaller than 1.
+     */
+    static void checkLimit(final double permitsPerSecond, final int burstSize) {
+        if (!(permitsPerSecond > 0)) {
+            throw new IllegalArgumentException("The rate needs to be positive, but " + permitsPerSecond
+                    + " was given!");
+        }
+        if (burstSize < 1) {
+            throw new IllegalArgumentException("The burst size needs to be at least 1, but " + burstSize
+                    + " was given!");
+        }
+    }
+
+    /**
+     * Acquires a permit and blocks until it is available.
+     *
+     * @throws InterruptedException If the waiting thread was interrupted. The permit is still consumed in this case.
+     */
+    public void acquire() throws InterruptedException {
+        TimeUnit.NANOSECONDS.sleep(reserve());
+    }
+
+    /**
+     * Acquires a permit if it is available without waiting.
+     *
+     * @return True if the permit was acquired.
+     */
+    public boolean tryAcquire() {
+        while (true) {
+            final long now = clock.nanoTime();
+            final long tat = theoreticalArrivalTime.get();
+            final long base = Math.max(tat, now);
+            if (base - burstToleranceNanos > now) {
+                return false;
+            }
+            if (theoreticalArrivalTime.compareAndSet(tat, base + emissionIntervalNanos)) {
+                recordWait(0);
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Reserves a permit and gives the time the caller has to wait until it may be used. The reservation can't be
+     * undone, so the caller has to wait for the given time before sending the request.
+     *
+     * @return The time to wait in nanoseconds until the permit may be used.
+     */
+    public long reserve() {
+        while (true) {
+            final long now = clock.nanoTime();
+            final long tat = theoreticalArrivalTime.get();
+            final long base = Math.max(tat, now);
+            if (theoreticalArrivalTime.compareAndSet(tat, base + emissionIntervalNanos)) {
+                final long waitNanos = Math.max(0, base - burstToleranceNanos - now);
+                recordWait(waitNanos);
+                return waitNanos;
+            }
+        }
+    }
+
+    /**
+     * Gives the time until the next permit is available without waiting.
+     *
+     * @return The time in nanoseconds until the next permit is available without waiting.
+     */
+    public long getNanosUntilNextPermit() {
+        return Math.max(0, theoreticalArrivalTime.get() - burstToleranceNanos - clock.nanoTime());
+    }
+
+    /**
+     * Gives the number of permits per second handed out by this {@link RateLimiter}.
+     *
+     * @return The number of permits per second.
+     */
+    public double getPermitsPerSecond() {
+        return permitsPerSecond;
+    }
+
+    /**
+     * Gives the number of permits that can be acquired at once without waiting.
+     *
+     * @return The burst size of this {@link RateLimiter}.
+     */
+    public int getBurstSize() {
+        return burstSize;
+    }
+
+    /**
+     * Gives the number of permits that were acquired or reserved.
+     *
+     * @return The number of permits that were acquired or reserved.
+     */
+    public long getAcquiredPermitCount() {
+        return acquiredPermitCount.get();
+    }
+
+    /**
+     * Gives the number of permits the callers had to wait for.
+     *
+     * @return The number of permits the callers had to wait for.
+     */
+    public long getDelayedPermitCount() {
+        return delayedPermitCount.get();
+    }
+
+    /**
+     * Gives the total time the callers had to wait for their permits.
+     *
+     * @return The total wait time in nanoseconds.
+     */
+    public long getTotalWaitNanos() {
+        return totalWaitNanos.get();
+    }
+
+    /**
+     * Gives the longest time a caller had to wait for a permit.
+     *
+     * @return The maximum wait time in nanoseconds.
+     */
+    public long getMaxWaitNanos() {
+        return maxWaitNanos.get();
+    }
+
+    /**
+     * Gives the average time the callers had to wait for a permit.
+     *
+     * @return The average wait time in nanoseconds.
+     */
+    public long getAverageWaitNanos() {
+        final long permits = acquiredPermitCount.get();
+        return permits == 0 ? 0 : totalWaitNanos.get() / permits;
+    }
+
+    private void recordWait(final long waitNanos) {
+        acquiredPermitCount.incrementAndGet();
+        if (waitNanos == 0) {
+            return;
+        }
+        delayedPermitCount.incrementAndGet();
+        totalWaitNanos.addAndGet(waitNanos);
+        long max;
+        while (waitNanos > (max = maxWaitNanos.get())) {
+            if (maxWaitNanos.compareAndSet(max, waitNanos)) {
+                return;
+            }
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package de.codecrafters.apaarb;
+
+/**
+ * The source of the current time, which is used for the timestamp of the created requests. Replacing the
+ * {@link RequestClock#SYSTEM} clock allows to create requests for a fixed point in time (e.g. in tests or when
+ * replaying recorded requests).
+ *
+ * @author ISchwarz
+ */
+public interface RequestClock {
+
+    /**
+     * The {@link RequestClock} that gives the current time of the system.
+     */
+    RequestClock SYSTEM = new RequestClock() {
+        @Override
+        public long currentTimeMillis() {
+            return System.currentTimeMillis();
+        }
+    };
+
+    /**
+     * Gives the current time in milliseconds since the epoch (1970-01-01T00:00:00.000Z).
+     *
+     * @return The current time in milliseconds since the epoch.
+     */
+    long currentTimeMillis();
+
+}
@@ -0,0 +1,664 @@
+package de.codecrafters.apaarb;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * An executor that sends {@link AdvertisingApiRequest}s asynchronously to the Amazon services and gives the results as
+ * {@link ResponseFuture}s. The number of requests that are in flight at the same time is limited per
+ * {@link AmazonWebServiceLocation}. Requests exceeding this limit are queued and signed not before they are sent, so
+ * their timestamps never expire while waiting. Optionally the requests are paced by a {@link RequestRateLimiter}.
+ * <p>
+ * To cut the tail latency, throttled requests can be retried with exponential backoff, and slow requests can be hedged
+ * by a duplicate that is sent after a percentile of the recent latencies. Every retry and hedge is signed again, so it
+ * has a fresh timestamp, and is queued like any other request, so it respects the concurrency limit. Hedges are only
+ * sent if the {@link RequestRateLimiter} has a permit left.
+ *
+ * @author ISchwarz
+ */
+public final class RequestExecutor {
+
+    /**
+     * The default maximum number of requests that are in flight at the same time per {@link AmazonWebServiceLocation}.
+     */
+    public static final int DEFAULT_MAX_CONCURRENT_REQUESTS = 4;
+
+    private static final int SERVICE_UNAVAILABLE = 503;
+    private static final int MAX_BACKOFF_SHIFT = 16;
+
+    private final Map<AmazonWebServiceLocation, LocationQueue> queueByLocation =
+            new EnumMap<>(AmazonWebServiceLocation.class);
+    private final AmazonWebServiceAuthentication authentication;
+    private final HttpTransport transport;
+    private final RequestRateLimiter rateLimiter;
+    private final ResponseCache cache;
+    private final SingleFlight<RequestKey, AmazonWebServiceResponse> singleFlight;
+    private final ExecutorService executorService;
+    private final boolean ownsExecutorService;
+    private final boolean secure;
+    private final int maxRetries;
+    private final long initialBackoffNanos;
+    private final Map<AmazonWebServiceLocation, LatencyTracker> latencyTrackerByLocation;
+    private final ScheduledExecutorService scheduler;
+    private final long minHedgeDelayNanos;
+    private final AtomicLong retriedRequestCount = new AtomicLong();
+    private final AtomicLong hedgedRequestCount = new AtomicLong();
+
+
+    private RequestExecutor(final Builder builder) {
+        this.authentication = builder.authentication;
+        this.transport = builder.transport;
+        this.rateLimiter = builder.rateLimiter;
+        this.cache = builder.cache;
+        this.singleFlight = builder.coalescing ? new SingleFlight<RequestKey, AmazonWebServiceResponse>() : null;
+        this.secure = builder.secure;
+        this.ownsExecutorService = builder.executorService == null;
+        this.executorService = ownsExecutorService
+                ? Executors.newCachedThreadPool(new DaemonThreadFactory()) : builder.executorService;
+        for (final AmazonWebServiceLocation serviceLocation : AmazonWebServiceLocation.values()) {
+            final Integer maxConcurrentRequests = builder.maxConcurrentRequestsByLocation.get(serviceLocation);
+            queueByLocation.put(serviceLocation, new LocationQueue(maxConcurrentRequests != null
+                    ? maxConcurrentRequests : builder.maxConcurrentRequests));
+        }
+        this.maxRetries = builder.maxRetries;
+        this.initialBackoffNanos = builder.initialBackoffNanos;
+        if (builder.hedgePercentile > 0) {
+            this.latencyTrackerByLocation = new EnumMap<>(AmazonWebServiceLocation.class);
+            for (final AmazonWebServiceLocation serviceLocation : AmazonWebServiceLocation.values()) {
+                latencyTrackerByLocation.put(serviceLocation, new LatencyTracker(builder.hedgePercentile));
+            }
+        } else {
+            this.latencyTrackerByLocation = null;
+        }
+        this.scheduler = maxRetries > 0 || latencyTrackerByLocation != null
+                ? Executors.newSingleThreadScheduledExecutor(new DaemonThreadFactory()) : null;
+        this.minHedgeDelayNanos = builder.minHedgeDelayNanos;
+    }
+
+    /**
+     * Creates a {@link Builder} for a {@link RequestExecutor} that signs the requests using the given
+     * {@link AmazonWebServiceAuthentication}.
+     *
+     * @param authentication The {@link AmazonWebServiceAuthentication} that shall be used.
+     * @return A new {@link Builder} for a {@link RequestExecutor}.
+     */
+    public static Builder builder(final AmazonWebServiceAuthentication authentication) {
+        return new Builder(authentication);
+    }
+
+    /**
+     * Creates a {@link RequestExecutor} with the default configuration that signs the requests using the given
+     * {@link AmazonWebServiceAuthentication}.
+     *
+     * @param authentication The {@link AmazonWebServiceAuthentication} that shall be used.
+     * @return The created {@link RequestExecutor}.
+     */
+    public static RequestExecutor create(final AmazonWebServiceAuthentication authentication) {
+        return builder(authentication).build();
+    }
+
+    /**
+     * Gives the {@link AmazonWebServiceAuthentication} that is used to sign the requests.
+     *
+     * @return The {@link AmazonWebServiceAuthentication} that is used to sign the requests.
+     */
+    public AmazonWebServiceAuthentication getAuthentication() {
+        return authentication;
+    }
+
+    /**
+     * Sends the given request asynchronously to the given service. The returned {@link ResponseFuture} is completed
+     * with every received response, also if it has an error status code, and fails if the request could not be sent.
+     * Cancelling the {@link ResponseFuture} before the request is sent removes it from the queue. If a
+     * {@link ResponseCache} is used, a cached response is returned without sending the request. If an identical
+     * request to the same service is already in flight, its response is shared instead of sending the request again.
+     *
+     * @param request         The request that shall be sent.
+     * @param serviceLocation The location of the Amazon service the request shall be sent to.
+     * @return A {@link ResponseFuture} for the response of the Amazon service.
+     */
+    public ResponseFuture<AmazonWebServiceResponse> execute(final AdvertisingApiRequest request,
+                                                            final AmazonWebServiceLocation serviceLocation) {
+
+        final RequestKey key = cache != null || singleFlight != null
+                ? RequestKey.create(request, serviceLocation) : null;
+        if (cache != null) {
+            final AmazonWebServiceResponse cachedResponse = cache.get(key);
+            if (cachedResponse != null) {
+                return ResponseFuture.completed(cachedResponse);
+            }
+        }
+        if (singleFlight == null) {
+            return send(request, serviceLocation, key);
+        }
+        return singleFlight.execute(key, new SingleFlight.Call<AmazonWebServiceResponse>() {
+            @Override
+            public ResponseFuture<AmazonWebServiceResponse> execute() {
+                return send(request, serviceLocation, key);
+            }
+        });
+    }
+
+    /**
+     * Gives the number of requests that shared the response of an identical request in flight instead of being sent.
+     *
+     * @return The number of coalesced requests.
+     */
+    public long getCoalescedRequestCount() {
+        return singleFlight != null ? singleFlight.getCoalescedCallCount() : 0;
+    }
+
+    /**
+     * Gives the number of requests to the given service that are currently in flight.
+     *
+     * @param serviceLocation The location of the Amazon service.
+     * @return The number of requests to the given service that are currently in flight.
+     */
+    public int getInFlightRequestCount(final AmazonWebServiceLocation serviceLocation) {
+        return queueByLocation.get(serviceLocation).getInFlightCount();
+    }
+
+    /**
+     * Gives the number of retries of throttled requests.
+     *
+     * @return The number of retries of throttled requests.
+     */
+    public long getRetriedRequestCount() {
+        return retriedRequestCount.get();
+    }
+
+    /**
+     * Gives the number of duplicates that were sent to hedge slow requests.
+     *
+     * @return The number of sent hedges.
+     */
+    public long getHedgedRequestCount() {
+        return hedgedRequestCount.get();
+    }
+
+    /**
+     * Shuts this executor down. Requests that are in flight are completed, but no new requests are accepted. An
+     * {@link ExecutorService} that was given to the {@link Builder} is not shut down.
+     */
+    public void shutdown() {
+        if (ownsExecutorService) {
+            executorService.shutdown();
+        }
+        if (scheduler != null) {
+            // pending retries are still queued and then fail, if the executor service doesn't accept them anymore
+            scheduler.shutdown();
+        }
+    }
+
+    private ResponseFuture<AmazonWebServiceResponse> send(final AdvertisingApiRequest request,
+                                                          final AmazonWebServiceLocation serviceLocation,
+                                                          final RequestKey key) {
+
+        final ResponseFuture<AmazonWebServiceResponse> response = new ResponseFuture<>();
+        final PendingRequest pendingRequest = new PendingRequest(request, serviceLocation, key, response);
+        queueByLocation.get(serviceLocation).submit(new Attempt(pendingRequest, 0, false));
+        return response;
+    }
+
+    private void send(final Attempt attempt, final LocationQueue queue) {
+        try {
+            executorService.execute(new Runnable() {
+                @Override
+                public void run() {
+                    attempt.run(queue);
+                }
+            });
+        } catch (final RejectedExecutionException e) {
+            queue.onRequestFinished();
+            attempt.pendingRequest.finishAttempt(null, e);
+        }
+    }
+
+    private void scheduleHedge(final PendingRequest pendingRequest) {
+        final long delayNanos = Math.max(minHedgeDelayNanos,
+                latencyTrackerByLocation.get(pendingRequest.serviceLocation).getPercentileNanos());
+        try {
+            scheduler.schedule(new Runnable() {
+                @Override
+                public void run() {
+                    // a hedge is only started while another attempt is running, otherwise the response is done
+                    if (!scheduler.isShutdown() && !pendingRequest.isDone()
+                            && pendingRequest.startAttempt()) {
+                        queueByLocation.get(pendingRequest.serviceLocation)
+                                .submit(new Attempt(pendingRequest, 0, true));
+                    }
+                }
+            }, delayNanos, TimeUnit.NANOSECONDS);
+        } catch (final RejectedExecutionException e) {
+            // the executor was shut down, so the request isn't hedged
+        }
+    }
+
+    private void scheduleRetry(final PendingRequest pendingRequest, final int retry,
+                               final AmazonWebServiceResponse throttledResponse) {
+
+        // the retry waits for its backoff without holding a slot or a thread
+        try {
+            scheduler.schedule(new Runnable() {
+                @Override
+                public void run() {
+                    queueByLocation.get(pendingRequest.serviceLocation)
+                            .submit(new Attempt(pendingRequest, retry + 1, false));
+                }
+            }, initialBackoffNanos << Math.min(retry, MAX_BACKOFF_SHIFT), TimeUnit.NANOSECONDS);
+            retriedRequestCount.incrementAndGet();
+        } catch (final RejectedExecutionException e) {
+            pendingRequest.finishAttempt(throttledResponse, null);
+        }
+    }
+
+    private final class PendingRequest {
+
+        private final AdvertisingApiRequest request;
+        private final AmazonWebServiceLocation serviceLocation;
+        private final RequestKey key;
+        private final ResponseFuture<AmazonWebServiceResponse> response;
+        // the first attempt runs from the creation on, including the retries, until it is finished
+        private final AtomicInteger runningAttempts = new AtomicInteger(1);
+
+        private volatile AmazonWebServiceResponse lastResponse;
+        private volatile Exception lastFailure;
+        private volatile boolean answered;
+
+        private PendingRequest(final AdvertisingApiRequest request, final AmazonWebServiceLocation serviceLocation,
+                               final RequestKey key, final ResponseFuture<AmazonWebServiceResponse> response) {
+            this.request = request;
+            this.serviceLocation = serviceLocation;
+            this.key = key;
+            this.response = response;
+        }
+
+        private AmazonWebServiceResponse sendSigned() throws IOException {
+            // the request is signed right before it is sent, so the timestamp is as fresh as possible
+            final String requestUrl = secure
+                    ? request.createSecureRequestUrlFor(serviceLocation, authentication)
+                    : request.createRequestUrlFor(serviceLocation, authentication);
+            final long start = System.nanoTime();
+            final AmazonWebServiceResponse result = transport.execute(requestUrl);
+            if (latencyTrackerByLocation != null) {
+                latencyTrackerByLocation.get(serviceLocation).record(System.nanoTime() - start);
+            }
+            if (cache != null && result.isSuccessful()) {
+                cache.put(key, request.getResponseGroup(), result);
+            }
+            return result;
+        }
+
+        /**
+         * Checks whether no further attempt needs to be sent, because the response is done or an attempt received an
+         * answer, which completes the response as soon as the slot of the attempt is released.
+         */
+        private boolean isDone() {
+            return answered || response.isDone();
+        }
+
+        /**
+         * Starts a further attempt, if another attempt is still running. Once no attempt is running anymore, the
+         * response is done and no further attempt can be started.
+         */
+        private boolean startAttempt() {
+            int count;
+            do {
+                count = runningAttempts.get();
+                if (count == 0) {
+                    return false;
+                }
+            } while (!runningAttempts.compareAndSet(count, count + 1));
+            return true;
+        }
+
+        /**
+         * Completes the response with the result of an attempt. A throttled response or a failure only completes it,
+         * if no other attempt is running anymore. An attempt that wasn't sent finishes without result and failure.
+         */
+        private void finishAttempt(final AmazonWebServiceResponse result, final Exception failure) {
+            if (result != null) {
+                lastResponse = result;
+            } else if (failure != null) {
+                lastFailure = failure;
+            }
+            final boolean lastAttempt = runningAttempts.decrementAndGet() == 0;
+            if (result != null && (result.getStatusCode() != SERVICE_UNAVAILABLE || lastAttempt)) {
+                response.complete(result);
+            } else if (lastAttempt) {
+                if (lastResponse != null) {
+                    response.complete(lastResponse);
+                } else if (lastFailure != null) {
+                    response.fail(lastFailure);
+                }
+            }
+        }
+    }
+
+    /**
+     * A single try to send a {@link PendingRequest}: the first one, a retry after a throttled response or a hedge.
+     * Every attempt is queued in the {@link LocationQueue} of its location, so it respects the concurrency limit.
+     */
+    private final class Attempt {
+
+        private final PendingRequest pendingRequest;
+        private final int retry;
+        private final boolean hedge;
+
+        private Attempt(final PendingRequest pendingRequest, final int retry, final boolean hedge) {
+            this.pendingRequest = pendingRequest;
+            this.retry = retry;
+            this.hedge = hedge;
+        }
+
+        private void run(final LocationQueue queue) {
+            AmazonWebServiceResponse result = null;
+            Exception failure = null;
+            boolean retrying = false;
+            try {
+                if (prepare()) {
+                    result = pendingRequest.sendSigned();
+                    if (result.getStatusCode() != SERVICE_UNAVAILABLE) {
+                        pendingRequest.answered = true;
+                    }
+                    retrying = !hedge && result.getStatusCode() == SERVICE_UNAVAILABLE && retry < maxRetries
+                            && !pendingRequest.isDone();
+                }
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+                failure = e;
+            } catch (final Exception e) {
+                failure = e;
+            } finally {
+                // the slot is released first, so callbacks of the response can send follow-up requests
+                queue.onRequestFinished();
+            }
+            if (retrying) {
+                scheduleRetry(pendingRequest, retry, result);
+            } else {
+                pendingRequest.finishAttempt(result, failure);
+            }
+        }
+
+        /**
+         * Acquires the permit of the rate limiter and starts the hedge timer of the first try.
+         *
+         * @return False if this attempt shall not be sent.
+         */
+        private boolean prepare() throws InterruptedException {
+            final AmazonWebServiceLocation serviceLocation = pendingRequest.serviceLocation;
+            if (pendingRequest.isDone()) {
+                return false;
+            }
+            if (hedge) {
+                // a hedge must not exceed the rate limit, so it is dropped if no permit is left
+                if (rateLimiter != null && !rateLimiter.tryAcquire(authentication, serviceLocation)) {
+                    return false;
+                }
+                hedgedRequestCount.incrementAndGet();
+                return true;
+            }
+            if (rateLimiter != null) {
+                rateLimiter.acquire(authentication, serviceLocation);
+            }
+            // the hedge timer starts after the permit, so waiting for the rate limiter doesn't count as latency
+            if (retry == 0 && latencyTrackerByLocation != null) {
+                scheduleHedge(pendingRequest);
+            }
+            return true;
+        }
+    }
+
+    private final class LocationQueue {
+
+        private final Queue<Attempt> pendingAttempts = new ArrayDeque<>();
+        private final int maxConcurrentRequests;
+        private int inFlightCount;
+
+        private LocationQueue(final int maxConcurrentRequests) {
+            this.maxConcurrentRequests = maxConcurrentRequests;
+        }
+
+        private void submit(final Attempt attempt) {
+            synchronized (this) {
+                if (inFlightCount >= maxConcurrentRequests) {
+                    pendingAttempts.add(attempt);
+                    return;
+                }
+                inFlightCount++;
+            }
+            send(attempt, this);
+        }
+
+        private void onRequestFinished() {
+            Attempt nextAttempt;
+            synchronized (this) {
+                // attempts of cancelled or completed requests are skipped, so they don't occupy a slot
+                do {
+                    nextAttempt = pendingAttempts.poll();
+                } while (nextAttempt != null && nextAttempt.pendingRequest.isDone());
+                if (nextAttempt == null) {
+                    inFlightCount--;
+                    return;
+                }
+            }
+            send(nextAttempt, this);
+        }
+
+        private synchronized int getInFlightCount() {
+            return inFlightCount;
+        }
+    }
+
+    private static final class DaemonThreadFactory implements ThreadFactory {
+
+        private final AtomicInteger threadCount = new AtomicInteger();
+
+        @Override
+        public Thread newThread(final Runnable runnable) {
+            final Thread thread = new Thread(runnable, "apaarb-request-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+
+    /**
+     * A builder for the configuration of a {@link RequestExecutor}.
+     *
+     * @author ISchwarz
+     */
+    public static final class Builder {
+
+        private final Map<AmazonWebServiceLocation, Integer> maxConcurrentRequestsByLocation =
+                new EnumMap<>(AmazonWebServiceLocation.class);
+        private final AmazonWebServiceAuthentication authentication;
+
+        private HttpTransport transport = UrlConnectionTransport.create();
+        private RequestRateLimiter rateLimiter;
+        private ResponseCache cache;
+        private ExecutorService executorService;
+        private int maxConcurrentRequests = DEFAULT_MAX_CONCURRENT_REQUESTS;
+        private boolean secure = true;
+        private boolean coalescing = true;
+        private int maxRetries;
+        private long initialBackoffNanos;
+        private double hedgePercentile;
+        private long minHedgeDelayNanos;
+
+
+        private Builder(final AmazonWebServiceAuthentication authentication) {
+            this.authentication = authentication;
+        }
+
+        /**
+         * Sets the {@link HttpTransport} that is used to send the requests. By default a
+         * {@link UrlConnectionTransport} is used.
+         *
+         * @param transport The {@link HttpTransport} that shall be used.
+         * @return The current {@link Builder}.
+         */
+        public Builder usingTransport(final HttpTransport transport) {
+            this.transport = transport;
+            return this;
+        }
+
+        /**
+         * Sets the {@link RequestRateLimiter} that paces the requests. Every request acquires a permit for its access
+         * key and location right before it is signed. By default the requests are not paced.
+         *
+         * @param rateLimiter The {@link RequestRateLimiter} that shall be used.
+         * @return The current {@link Builder}.
+         */
+        public Builder usingRateLimiter(final RequestRateLimiter rateLimiter) {
+            this.rateLimiter = rateLimiter;
+            return this;
+        }
+
+        /**
+         * Sets the {@link ResponseCache} that is used to answer repeated requests. Only successful responses are
+         * cached. By default no cache is used.
+         *
+         * @param cache The {@link ResponseCache} that shall be used.
+         * @return The current {@link Builder}.
+         */
+        public Builder usingCache(final ResponseCache cache) {
+            this.cache = cache;
+            return this;
+        }
+
+        /**
+         * Sets the {@link ExecutorService} the requests are sent in. By default a cached thread pool is used, whose
+         * size is bounded by the concurrency limits of the locations.
+         *
+         * @param executorService The {@link ExecutorService} that shall be used.
+         * @return The current {@link Builder}.
+         */
+        public Builder usingExecutorService(final ExecutorService executorService) {
+            this.executorService = executorService;
+            return this;
+        }
+
+        /**
+         * Sets whether https-urls (default) or http-urls are requested.
+         *
+         * @param secure True if https-urls shall be requested.
+         * @return The current {@link Builder}.
+         */
+        public Builder usingSecureRequests(final boolean secure) {
+            this.secure = secure;
+            return this;
+        }
+
+        /**
+         * Sets whether identical requests to the same service, which are sent while the first one is in flight, share
+         * its response (default) or are sent separately.
+         *
+         * @param coalescing True if identical concurrent requests shall share one response.
+         * @return The current {@link Builder}.
+         */
+        public Builder coalescingIdenticalRequests(final boolean coalescing) {
+            this.coalescing = coalescing;
+            return this;
+        }
+
+        /**
+         * Sets the maximum number of requests that are in flight at the same time for every location, which has no
+         * own limit.
+         *
+         * @param maxConcurrentRequests The maximum number of concurrent requests per location.
+         * @return The current {@link Builder}.
+         */
+        public Builder limitConcurrentRequestsTo(final int maxConcurrentRequests) {
+            this.maxConcurrentRequests = checkMaxConcurrentRequests(maxConcurrentRequests);
+            return this;
+        }
+
+        /**
+         * Sets the maximum number of requests that are in flight at the same time for the given location.
+         *
+         * @param serviceLocation       The location of the Amazon service the limit shall be set for.
+         * @param maxConcurrentRequests The maximum number of concurrent requests to the given location.
+         * @return The current {@link Builder}.
+         */
+        public Builder limitConcurrentRequestsTo(final AmazonWebServiceLocation serviceLocation,
+                                                 final int maxConcurrentRequests) {
+            maxConcurrentRequestsByLocation.put(serviceLocation, checkMaxConcurrentRequests(maxConcurrentRequests));
+            return this;
+        }
+
+        /**
+         * Sets the number of times a request is retried, if the service answers with 503 because the request was
+         * throttled. The retries wait with exponential backoff starting with the given time, without occupying a
+         * slot of the concurrency limit, and are signed again, so they have a fresh timestamp. By default throttled
+         * requests are not retried.
+         *
+         * @param maxRetries     The maximum number of retries per request.
+         * @param initialBackoff The time to wait before the first retry, which is doubled for every further retry.
+         * @param unit           The {@link TimeUnit} of the given backoff.
+         * @return The current {@link Builder}.
+         * @throws IllegalArgumentException If the given number of retries or backoff is negative.
+         */
+        public Builder retryingThrottledRequests(final int maxRetries, final long initialBackoff,
+                                                 final TimeUnit unit) {
+            if (maxRetries < 0 || initialBackoff < 0) {
+                throw new IllegalArgumentException("The retries and backoff must not be negative, but " + maxRetries
+                        + " and " + initialBackoff + " were given!");
+            }
+            this.maxRetries = maxRetries;
+            this.initialBackoffNanos = unit.toNanos(initialBackoff);
+            return this;
+        }
+
+        /**
+         * Enables hedging of slow requests: if a request isn't answered after the given percentile of the recent
+         * latencies to its location, but at least after the given minimum delay, a freshly signed duplicate is sent
+         * and the first answer is taken. The latency is measured from the moment the request got its permit of the
+         * {@link RequestRateLimiter}. A hedge waits for a free slot of the concurrency limit and is only sent if the
+         * rate limiter has a permit available without waiting. By default requests are not hedged.
+         *
+         * @param percentile The percentile of the recent latencies after which a request is hedged, e.g. 0.95.
+         * @param minDelay   The minimum time after which a request is hedged, which is also used as long as too few
+         *                   latencies are known.
+         * @param unit       The {@link TimeUnit} of the given minimum delay.
+         * @return The current {@link Builder}.
+         * @throws IllegalArgumentException If the given percentile isn't between 0 and 1 or the delay is negative.
+         */
+        public Builder hedgingSlowRequests(final double percentile, final long minDelay, final TimeUnit unit) {
+            if (!(percentile > 0 && percentile <= 1) || minDelay < 0) {
+                throw new IllegalArgumentException("The percentile needs to be between 0 and 1 and the delay must not "
+                        + "be negative, but " + percentile + " and " + minDelay + " were given!");
+            }
+            this.hedgePercentile = percentile;
+            this.minHedgeDelayNanos = unit.toNanos(minDelay);
+            return this;
+        }
+
+        /**
+         * Creates the {@link RequestExecutor} with the current configuration.
+         *
+         * @return The created {@link RequestExecutor}.
+         */
+        public RequestExecutor build() {
+            return new RequestExecutor(this);
+        }
+
+        private static int checkMaxConcurrentRequests(final int maxConcurrentRequests) {
+            if (maxConcurrentRequests < 1) {
+                throw new IllegalArgumentException("At least one concurrent request is required, but "
+                        + maxConcurrentRequests + " was given!");
+            }
+            return maxConcurrentRequests;
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package de.codecrafters.apaarb;
+
+/**
+ * A value-based key that identifies the content of a request independent of its authentication and timestamp. It
+ * consists of the location of the Amazon service and the canonical parameters of the request.
+ *
+ * @author ISchwarz
+ */
+final class RequestKey {
+
+    private final AmazonWebServiceLocation serviceLocation;
+    private final String canonicalParameters;
+    private final int hashCode;
+
+
+    private RequestKey(final AmazonWebServiceLocation serviceLocation, final String canonicalParameters) {
+        this.serviceLocation = serviceLocation;
+        this.canonicalParameters = canonicalParameters;
+        this.hashCode = 31 * serviceLocation.hashCode() + canonicalParameters.hashCode();
+    }
+
+    /**
+     * Creates the {@link RequestKey} for the given request to the given service.
+     *
+     * @param request         The request the key shall be created for.
+     * @param serviceLocation The location of the Amazon service the request is sent to.
+     * @return The created {@link RequestKey}.
+     */
+    static RequestKey create(final AdvertisingApiRequest request, final AmazonWebServiceLocation serviceLocation) {
+        return new RequestKey(serviceLocation, request.getCanonicalParameters());
+    }
+
+    @Override
+    public boolean equals(final Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof RequestKey)) {
+            return false;
+        }
+        final RequestKey that = (RequestKey) o;
+        return hashCode == that.hashCode && serviceLocation == that.serviceLocation
+                && canonicalParameters.equals(that.canonicalParameters);
+    }
+
+    @Override
+    public int hashCode() {
+        return hashCode;
+    }
+
+    @Override
+    public String toString() {
+        return serviceLocation + ":" + canonicalParameters;
+    }
+}
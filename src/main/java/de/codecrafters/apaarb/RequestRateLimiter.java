@@ -0,0 +1,212 @@
+package de.codecrafters.apaarb;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Paces the requests to the Amazon services. The Amazon Product Advertising API throttles the requests per account
+ * and per location, so a separate {@link RateLimiter} is kept for every combination of AWS access key and
+ * {@link AmazonWebServiceLocation}. The limiters are created lazily with the rate and burst size configured for their
+ * location.
+ *
+ * @author ISchwarz
+ */
+public final class RequestRateLimiter {
+
+    /**
+     * The default number of requests per second, which is the initial limit of the Product Advertising API.
+     */
+    public static final double DEFAULT_REQUESTS_PER_SECOND = 1.0;
+
+    /**
+     * The default number of requests that can be sent at once.
+     */
+    public static final int DEFAULT_BURST_SIZE = 1;
+
+    private final ConcurrentMap<Key, RateLimiter> rateLimiters = new ConcurrentHashMap<>();
+    private final Map<AmazonWebServiceLocation, Limit> limitByLocation;
+    private final Limit defaultLimit;
+    private final NanoClock clock;
+
+
+    private RequestRateLimiter(final Builder builder, final NanoClock clock) {
+        this.limitByLocation = new EnumMap<>(builder.limitByLocation);
+        this.defaultLimit = builder.defaultLimit;
+        this.clock = clock;
+    }
+
+    /**
+     * Creates a {@link Builder} for a {@link RequestRateLimiter}.
+     *
+     * @return A new {@link Builder} for a {@link RequestRateLimiter}.
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Creates a {@link RequestRateLimiter} that allows {@link #DEFAULT_REQUESTS_PER_SECOND} requests per second for
+     * every access key and location.
+     *
+     * @return The created {@link RequestRateLimiter}.
+     */
+    public static RequestRateLimiter create() {
+        return builder().build();
+    }
+
+    /**
+     * Acquires a permit for a request to the given service using the given authentication and blocks until it is
+     * available.
+     *
+     * @param authentication  The {@link AmazonWebServiceAuthentication} the request is signed with.
+     * @param serviceLocation The location of the Amazon service the request is sent to.
+     * @throws InterruptedException If the waiting thread was interrupted.
+     */
+    public void acquire(final AmazonWebServiceAuthentication authentication,
+                        final AmazonWebServiceLocation serviceLocation) throws InterruptedException {
+
+        getRateLimiter(authentication, serviceLocation).acquire();
+    }
+
+    /**
+     * Acquires a permit for a request to the given service using the given authentication, if it is available
+     * without waiting.
+     *
+     * @param authentication  The {@link AmazonWebServiceAuthentication} the request is signed with.
+     * @param serviceLocation The location of the Amazon service the request is sent to.
+     * @return True if the permit was acquired.
+     */
+    public boolean tryAcquire(final AmazonWebServiceAuthentication authentication,
+                              final AmazonWebServiceLocation serviceLocation) {
+
+        return getRateLimiter(authentication, serviceLocation).tryAcquire();
+    }
+
+    /**
+     * Gives the {@link RateLimiter} for the given access key and location, which also exposes the wait time metrics.
+     *
+     * @param authentication  The {@link AmazonWebServiceAuthentication} whose access key is limited.
+     * @param serviceLocation The location of the Amazon service.
+     * @return The {@link RateLimiter} for the given access key and location.
+     */
+    public RateLimiter getRateLimiter(final AmazonWebServiceAuthentication authentication,
+                                      final AmazonWebServiceLocation serviceLocation) {
+
+        final Key key = new Key(authentication.getAwsAccessKey(), serviceLocation);
+        RateLimiter rateLimiter = rateLimiters.get(key);
+        if (rateLimiter == null) {
+            Limit limit = limitByLocation.get(serviceLocation);
+            if (limit == null) {
+                limit = defaultLimit;
+            }
+            final RateLimiter newRateLimiter = new RateLimiter(limit.requestsPerSecond, limit.burstSize, clock);
+            rateLimiter = rateLimiters.putIfAbsent(key, newRateLimiter);
+            if (rateLimiter == null) {
+                rateLimiter = newRateLimiter;
+            }
+        }
+        return rateLimiter;
+    }
+
+    private static final class Limit {
+
+        private final double requestsPerSecond;
+        private final int burstSize;
+
+        private Limit(final double requestsPerSecond, final int burstSize) {
+            RateLimiter.checkLimit(requestsPerSecond, burstSize);
+            this.requestsPerSecond = requestsPerSecond;
+            this.burstSize = burstSize;
+        }
+    }
+
+    private static final class Key {
+
+        private final String awsAccessKey;
+        private final AmazonWebServiceLocation serviceLocation;
+
+        private Key(final String awsAccessKey, final AmazonWebServiceLocation serviceLocation) {
+            this.awsAccessKey = awsAccessKey;
+            this.serviceLocation = serviceLocation;
+        }
+
+        @Override
+        public boolean equals(final Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            final Key key = (Key) o;
+            return serviceLocation == key.serviceLocation && awsAccessKey.equals(key.awsAccessKey);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * awsAccessKey.hashCode() + serviceLocation.hashCode();
+        }
+    }
+
+    /**
+     * A builder for the configuration of a {@link RequestRateLimiter}.
+     *
+     * @author ISchwarz
+     */
+    public static final class Builder {
+
+        private final Map<AmazonWebServiceLocation, Limit> limitByLocation =
+                new EnumMap<>(AmazonWebServiceLocation.class);
+
+        private Limit defaultLimit = new Limit(DEFAULT_REQUESTS_PER_SECOND, DEFAULT_BURST_SIZE);
+
+
+        private Builder() {
+            //use RequestRateLimiter.builder()
+        }
+
+        /**
+         * Sets the rate and burst size for every location, which has no own limit.
+         *
+         * @param requestsPerSecond The number of requests per second.
+         * @param burstSize         The number of requests that can be sent at once.
+         * @return The current {@link Builder}.
+         * @throws IllegalArgumentException If the rate is not positive or the burst size is smaller than 1.
+         */
+        public Builder limitTo(final double requestsPerSecond, final int burstSize) {
+            this.defaultLimit = new Limit(requestsPerSecond, burstSize);
+            return this;
+        }
+
+        /**
+         * Sets the rate and burst size for the given location.
+         *
+         * @param serviceLocation   The location of the Amazon service the limit shall be set for.
+         * @param requestsPerSecond The number of requests per second.
+         * @param burstSize         The number of requests that can be sent at once.
+         * @return The current {@link Builder}.
+         * @throws IllegalArgumentException If the rate is not positive or the burst size is smaller than 1.
+         */
+        public Builder limitTo(final AmazonWebServiceLocation serviceLocation, final double requestsPerSecond,
+                               final int burstSize) {
+
+            limitByLocation.put(serviceLocation, new Limit(requestsPerSecond, burstSize));
+            return this;
+        }
+
+        /**
+         * Creates the {@link RequestRateLimiter} with the current configuration.
+         *
+         * @return The created {@link RequestRateLimiter}.
+         */
+        public RequestRateLimiter build() {
+            return build(NanoClock.SYSTEM);
+        }
+
+        RequestRateLimiter build(final NanoClock clock) {
+            return new RequestRateLimiter(this, clock);
+        }
+    }
+}
@@ -0,0 +1,154 @@
+package de.codecrafters.apaarb;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.InvalidKeyException;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * A signer that creates the request signatures for a single AWS secret key. The secret key is only prepared once and
+ * every thread keeps its own initialized {@link Mac}, so signing a request is reduced to a single
+ * {@link Mac#doFinal(byte[])} call.
+ *
+ * @author ISchwarz
+ */
+final class RequestSigner {
+
+    private static final String HMAC_SHA256_ALGORITHM = "HmacSHA256";
+
+    private final SecretKeySpec secretKeySpec;
+    private final ThreadLocal<Mac> threadLocalMac = new ThreadLocal<Mac>() {
+        @Override
+        protected Mac initialValue() {
+            return createMac();
+        }
+    };
+
+
+    RequestSigner(final String awsSecretKey) {
+        final byte[] secretKeyBytes = awsSecretKey.getBytes(StandardCharsets.UTF_8);
+        this.secretKeySpec = new SecretKeySpec(secretKeyBytes, HMAC_SHA256_ALGORITHM);
+    }
+
+    /**
+     * Creates the Base64 encoded HMAC-SHA256 signature of the given string.
+     *
+     * @param stringToSign The string that shall be signed.
+     * @return The Base64 encoded signature.
+     */
+    String sign(final String stringToSign) {
+        final byte[] data = stringToSign.getBytes(StandardCharsets.UTF_8);
+        return new String(sign(data, 0, data.length), StandardCharsets.US_ASCII);
+    }
+
+    /**
+     * Creates the Base64 encoded HMAC-SHA256 signature of the given range of bytes.
+     *
+     * @param data   The array containing the bytes that shall be signed.
+     * @param offset The index of the first byte that shall be signed.
+     * @param length The number of bytes that shall be signed.
+     * @return The Base64 encoded signature as ASCII bytes.
+     */
+    byte[] sign(final byte[] data, final int offset, final int length) {
+        final Mac mac = threadLocalMac.get();
+        mac.update(data, offset, length);
+        return Base64.getEncoder().encode(mac.doFinal());
+    }
+
+    /**
+     * Creates a {@link PrefixSigner} for strings to sign that start with the given constant prefix.
+     *
+     * @param prefix The bytes every string to sign starts with.
+     * @return The created {@link PrefixSigner}.
+     */
+    PrefixSigner withPrefix(final byte[] prefix) {
+        return new PrefixSigner(prefix);
+    }
+
+    private Mac createMac() {
+        try {
+            final Mac mac = Mac.getInstance(HMAC_SHA256_ALGORITHM);
+            mac.init(secretKeySpec);
+            return mac;
+        } catch (final NoSuchAlgorithmException e) {
+            throw new RuntimeException(HMAC_SHA256_ALGORITHM + " is not supported!", e);
+        } catch (final InvalidKeyException e) {
+            throw new RuntimeException("Private Key is Invalid!", e);
+        }
+    }
+
+    /**
+     * A signer for strings to sign that start with a constant prefix. Every thread feeds the prefix only once into
+     * its own {@link Mac} and clones this partially updated {@link Mac} for each signature, so the work per signature
+     * only depends on the length of the variable suffix. If the {@link Mac} implementation can't be cloned, the whole
+     * string to sign is fed into the {@link Mac} of the {@link RequestSigner}.
+     *
+     * @author ISchwarz
+     */
+    final class PrefixSigner {
+
+        private final byte[] prefix;
+        private final boolean cloneable;
+        private final ThreadLocal<Mac> threadLocalPrefixMac = new ThreadLocal<Mac>() {
+            @Override
+            protected Mac initialValue() {
+                final Mac mac = createMac();
+                mac.update(prefix);
+                return mac;
+            }
+        };
+
+
+        private PrefixSigner(final byte[] prefix) {
+            this.prefix = prefix.clone();
+            this.cloneable = isCloneable(threadLocalPrefixMac.get());
+        }
+
+        /**
+         * Gives the number of bytes of the prefix.
+         *
+         * @return The number of bytes of the prefix.
+         */
+        int getPrefixLength() {
+            return prefix.length;
+        }
+
+        /**
+         * Creates the Base64 encoded HMAC-SHA256 signature of the prefix followed by the given range of bytes.
+         *
+         * @param suffix The array containing the bytes following the prefix.
+         * @param offset The index of the first byte following the prefix.
+         * @param length The number of bytes following the prefix.
+         * @return The Base64 encoded signature as ASCII bytes.
+         */
+        byte[] sign(final byte[] suffix, final int offset, final int length) {
+            final Mac mac;
+            if (cloneable) {
+                mac = clone(threadLocalPrefixMac.get());
+            } else {
+                mac = threadLocalMac.get();
+                mac.update(prefix);
+            }
+            mac.update(suffix, offset, length);
+            return Base64.getEncoder().encode(mac.doFinal());
+        }
+
+        private boolean isCloneable(final Mac mac) {
+            try {
+                mac.clone();
+                return true;
+            } catch (final CloneNotSupportedException e) {
+                return false;
+            }
+        }
+
+        private Mac clone(final Mac mac) {
+            try {
+                return (Mac) mac.clone();
+            } catch (final CloneNotSupportedException e) {
+                throw new IllegalStateException("Mac is not cloneable!", e);
+            }
+        }
+    }
+}
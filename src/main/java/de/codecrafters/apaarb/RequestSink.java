@@ -0,0 +1,21 @@
+package de.codecrafters.apaarb;
+
+/**
+ * A sink for the US-ASCII bytes of a signed request. It allows writing the path and query of a request directly into
+ * the buffers of the used HTTP library (e.g. a Netty ByteBuf) without creating a string first.
+ *
+ * @author ISchwarz
+ */
+public interface RequestSink {
+
+    /**
+     * Writes the given range of bytes to this sink. The given array is reused after this method returns, so the
+     * bytes need to be copied.
+     *
+     * @param source The array containing the bytes that shall be written.
+     * @param offset The index of the first byte that shall be written.
+     * @param length The number of bytes that shall be written.
+     */
+    void write(byte[] source, int offset, int length);
+
+}
@@ -3,7 +3,8 @@ package de.codecrafters.apaarb;
 import javax.crypto.Mac;
 import javax.crypto.spec.SecretKeySpec;
 import java.io.UnsupportedEncodingException;
-import java.net.URLEncoder;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
 import java.security.InvalidKeyException;
 import java.security.NoSuchAlgorithmException;
 import java.util.Iterator;
@@ -18,31 +19,151 @@ final class RequestUrlUtils {
     private static final String HMAC_SHA256_ALGORITHM = "HmacSHA256";
     private static final String UTF8_CHARSET = "UTF-8";
 
+    private static final String REQUEST_METHOD = "GET";
+    private static final String SIGNATURE_PARAMETER = "&Signature=";
+    private static final int INITIAL_BUFFER_CAPACITY = 512;
+
+    private static final ThreadLocal<AsciiBuffer> THREAD_LOCAL_BUFFER = new ThreadLocal<AsciiBuffer>() {
+        @Override
+        protected AsciiBuffer initialValue() {
+            return new AsciiBuffer(INITIAL_BUFFER_CAPACITY);
+        }
+    };
+
 
     private RequestUrlUtils() {
         //no instance
     }
 
+    /**
+     * Starts the string to sign for a request to the given service and route. The returned buffer is reused by the
+     * calling thread, so the canonical request parameters have to be appended in lexicographical order directly
+     * afterwards and the request has to be finished using
+     * {@link RequestUrlUtils#createSignedRequestUrl(String, String, String, AsciiBuffer, RequestSigner)}.
+     *
+     * @param amazonServiceUrl The url of the Amazon service.
+     * @param route            The route of the request.
+     * @return The buffer containing the start of the string to sign.
+     */
+    static AsciiBuffer beginStringToSign(final String amazonServiceUrl, final String route) {
+        return threadLocalBuffer()
+                .append(REQUEST_METHOD).append('\n')
+                .append(amazonServiceUrl).append('\n')
+                .append(route).append('\n');
+    }
+
+    /**
+     * Gives the empty buffer of the calling thread, which is used to create the string to sign.
+     *
+     * @return The empty buffer of the calling thread.
+     */
+    static AsciiBuffer threadLocalBuffer() {
+        return THREAD_LOCAL_BUFFER.get().truncate(0);
+    }
+
     static String createSignedRequestUrl(final String protocol, final String amazonServiceUrl, final String route,
-                                         final Map<String, String> requestParams, final String secretKey) {
+                                         final AsciiBuffer stringToSign, final RequestSigner signer) {
+
+        appendSignature(stringToSign, signer);
+        return createRequestUrl(protocol, amazonServiceUrl, route, stringToSign);
+    }
+
+    /**
+     * Signs the string to sign contained in the given buffer and appends the signature parameter to it.
+     *
+     * @param stringToSign The buffer containing the whole string to sign.
+     * @param signer       The {@link RequestSigner} that shall be used.
+     */
+    static void appendSignature(final AsciiBuffer stringToSign, final RequestSigner signer) {
+        final byte[] signature = signer.sign(stringToSign.array(), 0, stringToSign.length());
+        stringToSign.append(SIGNATURE_PARAMETER).appendPercentEncoded(signature);
+    }
+
+    /**
+     * Signs the string to sign contained in the given buffer, which starts with the prefix of the given
+     * {@link RequestSigner.PrefixSigner}, and appends the signature parameter to it.
+     *
+     * @param stringToSign The buffer containing the whole string to sign.
+     * @param signer       The {@link RequestSigner.PrefixSigner} for the prefix of the string to sign.
+     */
+    static void appendSignature(final AsciiBuffer stringToSign, final RequestSigner.PrefixSigner signer) {
+        final int prefixLength = signer.getPrefixLength();
+        final byte[] signature = signer.sign(stringToSign.array(), prefixLength, stringToSign.length() - prefixLength);
+        stringToSign.append(SIGNATURE_PARAMETER).appendPercentEncoded(signature);
+    }
+
+    /**
+     * Writes the path and query of the signed request (e.g. "/onca/xml?AWSAccessKeyId=...&amp;Signature=...") as
+     * US-ASCII bytes into the given {@link ByteBuffer}.
+     *
+     * @param amazonServiceUrl The url of the Amazon service.
+     * @param route            The route of the request.
+     * @param signedRequest    The buffer containing the string to sign followed by the signature parameter.
+     * @param target           The {@link ByteBuffer} the path and query shall be written to.
+     * @return The number of written bytes.
+     * @throws BufferOverflowException If the remaining space of the given {@link ByteBuffer} is too small. In this
+     *                                 case nothing is written.
+     */
+    static int writeRequestPath(final String amazonServiceUrl, final String route, final AsciiBuffer signedRequest,
+                                final ByteBuffer target) {
+
+        final int routeOffset = prepareRequestPath(amazonServiceUrl, route, signedRequest);
+        final int length = signedRequest.length() - routeOffset;
+        target.put(signedRequest.array(), routeOffset, length);
+        return length;
+    }
 
-        final String canonicalizeRequestParams = RequestUrlUtils.canonicalizeParameters(requestParams);
-        final String signature = RequestUrlUtils.createSignature(amazonServiceUrl, route, canonicalizeRequestParams, secretKey);
-        return protocol + amazonServiceUrl + route + "?" + canonicalizeRequestParams + "&Signature=" + signature;
+    /**
+     * Writes the path and query of the signed request (e.g. "/onca/xml?AWSAccessKeyId=...&amp;Signature=...") as
+     * US-ASCII bytes into the given {@link RequestSink}.
+     *
+     * @param amazonServiceUrl The url of the Amazon service.
+     * @param route            The route of the request.
+     * @param signedRequest    The buffer containing the string to sign followed by the signature parameter.
+     * @param target           The {@link RequestSink} the path and query shall be written to.
+     * @return The number of written bytes.
+     */
+    static int writeRequestPath(final String amazonServiceUrl, final String route, final AsciiBuffer signedRequest,
+                                final RequestSink target) {
+
+        final int routeOffset = prepareRequestPath(amazonServiceUrl, route, signedRequest);
+        final int length = signedRequest.length() - routeOffset;
+        target.write(signedRequest.array(), routeOffset, length);
+        return length;
     }
 
-    static String createSignature(final String amazonServiceUrl, final String route,
-                                  final String requestPairs, final String secretKey) {
+    /**
+     * Creates the request url for the given signed request.
+     *
+     * @param protocol         The protocol of the request url.
+     * @param amazonServiceUrl The url of the Amazon service.
+     * @param route            The route of the request.
+     * @param signedRequest    The buffer containing the string to sign followed by the signature parameter.
+     * @return The created request url.
+     */
+    static String createRequestUrl(final String protocol, final String amazonServiceUrl, final String route,
+                                   final AsciiBuffer signedRequest) {
+
+        final int queryOffset = getQueryOffset(amazonServiceUrl, route);
+        final StringBuilder requestUrl = new StringBuilder(protocol.length() + amazonServiceUrl.length()
+                + route.length() + 1 + signedRequest.length() - queryOffset);
+        requestUrl.append(protocol).append(amazonServiceUrl).append(route).append('?');
+        signedRequest.appendTo(requestUrl, queryOffset, signedRequest.length());
+        return requestUrl.toString();
+    }
+
+    private static int prepareRequestPath(final String amazonServiceUrl, final String route,
+                                          final AsciiBuffer signedRequest) {
 
-        // create the string upon which the signature is calculated
-        final String toSign = "GET" + "\n"
-                + amazonServiceUrl + "\n"
-                + route + "\n"
-                + requestPairs;
+        // the route and the query are only separated by a line break in the string to sign, which is replaced by
+        // the query separator, so the path and query can be written at once
+        final int queryOffset = getQueryOffset(amazonServiceUrl, route);
+        signedRequest.array()[queryOffset - 1] = '?';
+        return queryOffset - 1 - route.length();
+    }
 
-        // get the signature
-        final String hmac = hmac(toSign, secretKey);
-        return percentEncodeRfc3986(hmac);
+    private static int getQueryOffset(final String amazonServiceUrl, final String route) {
+        return REQUEST_METHOD.length() + amazonServiceUrl.length() + route.length() + 3;
     }
 
     static String hmac(final String stringToSign, final String awsSecretKey) {
@@ -77,32 +198,26 @@ final class RequestUrlUtils {
             return "";
         }
 
-        final StringBuilder buffer = new StringBuilder();
+        final AsciiBuffer buffer = new AsciiBuffer(INITIAL_BUFFER_CAPACITY);
         final Iterator<Map.Entry<String, String>> paramIterator = sortedParamMap.entrySet().iterator();
 
         while (paramIterator.hasNext()) {
             final Map.Entry<String, String> keyValuePair = paramIterator.next();
-            buffer.append(percentEncodeRfc3986(keyValuePair.getKey()));
-            buffer.append("=");
-            buffer.append(percentEncodeRfc3986(keyValuePair.getValue()));
+            buffer.appendPercentEncoded(keyValuePair.getKey());
+            buffer.append('=');
+            buffer.appendPercentEncoded(keyValuePair.getValue());
             if (paramIterator.hasNext()) {
-                buffer.append("&");
+                buffer.append('&');
             }
         }
         return buffer.toString();
     }
 
     static String percentEncodeRfc3986(final String s) {
-        String out;
-        try {
-            out = URLEncoder.encode(s, UTF8_CHARSET)
-                    .replace("+", "%20")
-                    .replace("*", "%2A")
-                    .replace("%7E", "~");
-        } catch (final UnsupportedEncodingException e) {
-            out = s;
+        if (AsciiBuffer.isUnreserved(s)) {
+            return s;
         }
-        return out;
+        return new AsciiBuffer(s.length() * 3).appendPercentEncoded(s).toString();
     }
 
 }
@@ -0,0 +1,263 @@
+package de.codecrafters.apaarb;
+
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A size-bounded cache for the responses of the Amazon services. As the timestamp and the signature of every request
+ * url are different, the responses are cached by the canonical parameters of the request and the location of the
+ * service. The time a response is valid depends on the requested {@link ItemInformation}: the response expires after
+ * the shortest time-to-live of its response group. If the cache is full, the least recently used response is evicted.
+ *
+ * @author ISchwarz
+ */
+public final class ResponseCache {
+
+    /**
+     * The default maximum number of cached responses.
+     */
+    public static final int DEFAULT_MAXIMUM_SIZE = 1000;
+
+    private static final long ONE_HOUR_NANOS = TimeUnit.HOURS.toNanos(1);
+    private static final long ONE_DAY_NANOS = TimeUnit.DAYS.toNanos(1);
+
+    private final AtomicLong hitCount = new AtomicLong();
+    private final AtomicLong missCount = new AtomicLong();
+    private final AtomicLong evictionCount = new AtomicLong();
+    private final Map<RequestKey, CacheEntry> entries;
+    private final Map<ItemInformation, Long> timeToLiveNanos;
+    private final NanoClock clock;
+
+
+    private ResponseCache(final Builder builder, final NanoClock clock) {
+        final int maximumSize = builder.maximumSize;
+        this.timeToLiveNanos = new EnumMap<>(builder.timeToLiveNanos);
+        this.clock = clock;
+        this.entries = new LinkedHashMap<RequestKey, CacheEntry>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(final Map.Entry<RequestKey, CacheEntry> eldest) {
+                if (size() > maximumSize) {
+                    evictionCount.incrementAndGet();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Creates a {@link Builder} for a {@link ResponseCache}.
+     *
+     * @return A new {@link Builder} for a {@link ResponseCache}.
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Creates a {@link ResponseCache} with the default configuration. By default responses containing price or offer
+     * information are kept for one hour and all other responses for one day. If the terms of your license allow
+     * different times, use {@link Builder#expireAfter(ItemInformation, long, TimeUnit)} instead.
+     *
+     * @return The created {@link ResponseCache}.
+     */
+    public static ResponseCache create() {
+        return builder().build();
+    }
+
+    /**
+     * Gives the cached response to the given request to the given service.
+     *
+     * @param request         The request whose response shall be returned.
+     * @param serviceLocation The location of the Amazon service the request is sent to.
+     * @return The cached response or null if no valid response is cached.
+     */
+    public AmazonWebServiceResponse get(final AdvertisingApiRequest request,
+                                        final AmazonWebServiceLocation serviceLocation) {
+
+        return get(RequestKey.create(request, serviceLocation));
+    }
+
+    /**
+     * Caches the given response to the given request to the given service.
+     *
+     * @param request         The request that was answered with the given response.
+     * @param serviceLocation The location of the Amazon service the request was sent to.
+     * @param response        The response that shall be cached.
+     */
+    public void put(final AdvertisingApiRequest request, final AmazonWebServiceLocation serviceLocation,
+                    final AmazonWebServiceResponse response) {
+
+        put(RequestKey.create(request, serviceLocation), request.getResponseGroup(), response);
+    }
+
+    AmazonWebServiceResponse get(final RequestKey key) {
+        final CacheEntry entry;
+        synchronized (entries) {
+            entry = entries.get(key);
+            if (entry != null && entry.expirationTime - clock.nanoTime() <= 0) {
+                entries.remove(key);
+                missCount.incrementAndGet();
+                return null;
+            }
+        }
+        if (entry == null) {
+            missCount.incrementAndGet();
+            return null;
+        }
+        hitCount.incrementAndGet();
+        return entry.response;
+    }
+
+    void put(final RequestKey key, final Set<ItemInformation> responseGroup, final AmazonWebServiceResponse response) {
+        final CacheEntry entry = new CacheEntry(response, clock.nanoTime() + getTimeToLiveNanos(responseGroup));
+        synchronized (entries) {
+            entries.put(key, entry);
+        }
+    }
+
+    /**
+     * Removes all cached responses.
+     */
+    public void invalidateAll() {
+        synchronized (entries) {
+            entries.clear();
+        }
+    }
+
+    /**
+     * Gives the number of cached responses, including expired responses that were not removed yet.
+     *
+     * @return The number of cached responses.
+     */
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    /**
+     * Gives the number of requests that were answered by this cache.
+     *
+     * @return The number of cache hits.
+     */
+    public long getHitCount() {
+        return hitCount.get();
+    }
+
+    /**
+     * Gives the number of requests that could not be answered by this cache.
+     *
+     * @return The number of cache misses.
+     */
+    public long getMissCount() {
+        return missCount.get();
+    }
+
+    /**
+     * Gives the number of responses that were evicted because the cache was full.
+     *
+     * @return The number of evicted responses.
+     */
+    public long getEvictionCount() {
+        return evictionCount.get();
+    }
+
+    /**
+     * Gives the ratio of requests that were answered by this cache.
+     *
+     * @return The ratio of cache hits between 0 and 1.
+     */
+    public double getHitRate() {
+        final long hits = hitCount.get();
+        final long requests = hits + missCount.get();
+        return requests == 0 ? 0 : (double) hits / requests;
+    }
+
+    private long getTimeToLiveNanos(final Set<ItemInformation> responseGroup) {
+        long minTimeToLive = Long.MAX_VALUE;
+        for (final ItemInformation itemInformation : responseGroup) {
+            minTimeToLive = Math.min(minTimeToLive, timeToLiveNanos.get(itemInformation));
+        }
+        return minTimeToLive;
+    }
+
+    private static final class CacheEntry {
+
+        private final AmazonWebServiceResponse response;
+        private final long expirationTime;
+
+        private CacheEntry(final AmazonWebServiceResponse response, final long expirationTime) {
+            this.response = response;
+            this.expirationTime = expirationTime;
+        }
+    }
+
+    /**
+     * A builder for the configuration of a {@link ResponseCache}.
+     *
+     * @author ISchwarz
+     */
+    public static final class Builder {
+
+        private final Map<ItemInformation, Long> timeToLiveNanos = new EnumMap<>(ItemInformation.class);
+        private int maximumSize = DEFAULT_MAXIMUM_SIZE;
+
+
+        private Builder() {
+            for (final ItemInformation itemInformation : ItemInformation.values()) {
+                timeToLiveNanos.put(itemInformation, ONE_DAY_NANOS);
+            }
+            timeToLiveNanos.put(ItemInformation.OFFER_FULL, ONE_HOUR_NANOS);
+            timeToLiveNanos.put(ItemInformation.OFFER_SUMMARY, ONE_HOUR_NANOS);
+            timeToLiveNanos.put(ItemInformation.OFFERS, ONE_HOUR_NANOS);
+            timeToLiveNanos.put(ItemInformation.VARIATION_SUMMARY, ONE_HOUR_NANOS);
+            timeToLiveNanos.put(ItemInformation.VARIATIONS, ONE_HOUR_NANOS);
+        }
+
+        /**
+         * Sets the maximum number of cached responses.
+         *
+         * @param maximumSize The maximum number of cached responses.
+         * @return The current {@link Builder}.
+         */
+        public Builder maximumSize(final int maximumSize) {
+            if (maximumSize < 1) {
+                throw new IllegalArgumentException("The maximum size needs to be at least 1, but " + maximumSize
+                        + " was given!");
+            }
+            this.maximumSize = maximumSize;
+            return this;
+        }
+
+        /**
+         * Sets the time after which responses containing the given {@link ItemInformation} expire.
+         *
+         * @param itemInformation The {@link ItemInformation} the time-to-live shall be set for.
+         * @param duration        The time-to-live in the given unit.
+         * @param unit            The unit of the given duration.
+         * @return The current {@link Builder}.
+         */
+        public Builder expireAfter(final ItemInformation itemInformation, final long duration, final TimeUnit unit) {
+            timeToLiveNanos.put(itemInformation, unit.toNanos(duration));
+            return this;
+        }
+
+        /**
+         * Creates the {@link ResponseCache} with the current configuration.
+         *
+         * @return The created {@link ResponseCache}.
+         */
+        public ResponseCache build() {
+            return build(NanoClock.SYSTEM);
+        }
+
+        ResponseCache build(final NanoClock clock) {
+            return new ResponseCache(this, clock);
+        }
+    }
+}
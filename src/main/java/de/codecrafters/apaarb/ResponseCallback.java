@@ -0,0 +1,26 @@
+package de.codecrafters.apaarb;
+
+/**
+ * A callback that is notified as soon as the result of a {@link ResponseFuture} is available.
+ *
+ * @param <V> The type of the result.
+ * @author ISchwarz
+ */
+public interface ResponseCallback<V> {
+
+    /**
+     * Called if the {@link ResponseFuture} was completed successfully.
+     *
+     * @param result The result of the {@link ResponseFuture}.
+     */
+    void onSuccess(V result);
+
+    /**
+     * Called if the {@link ResponseFuture} failed or was cancelled.
+     *
+     * @param cause The cause of the failure. A {@link java.util.concurrent.CancellationException} if the
+     *              {@link ResponseFuture} was cancelled.
+     */
+    void onFailure(Throwable cause);
+
+}
@@ -0,0 +1,207 @@
+package de.codecrafters.apaarb;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * A {@link Future} for the result of an asynchronously executed request. Besides waiting for the result, it allows to
+ * register {@link ResponseCallback}s that are notified as soon as the result is available.
+ *
+ * @param <V> The type of the result.
+ * @author ISchwarz
+ */
+public final class ResponseFuture<V> implements Future<V> {
+
+    private final List<ResponseCallback<? super V>> callbacks = new ArrayList<>();
+
+    private boolean done;
+    private boolean cancelled;
+    private V result;
+    private Throwable failure;
+
+
+    ResponseFuture() {
+        //package private
+    }
+
+    /**
+     * Creates a {@link ResponseFuture} that is already completed with the given result.
+     *
+     * @param result The result of the created {@link ResponseFuture}.
+     * @param <V>    The type of the result.
+     * @return The created {@link ResponseFuture}.
+     */
+    static <V> ResponseFuture<V> completed(final V result) {
+        final ResponseFuture<V> future = new ResponseFuture<>();
+        future.complete(result);
+        return future;
+    }
+
+    /**
+     * Creates a {@link ResponseFuture} that already failed with the given cause.
+     *
+     * @param cause The cause of the failure.
+     * @param <V>   The type of the result.
+     * @return The created {@link ResponseFuture}.
+     */
+    static <V> ResponseFuture<V> failed(final Throwable cause) {
+        final ResponseFuture<V> future = new ResponseFuture<>();
+        future.fail(cause);
+        return future;
+    }
+
+    /**
+     * Registers the given {@link ResponseCallback}. If this future is already done, the callback is notified
+     * immediately in the calling thread. Otherwise it is notified in the thread that completes this future.
+     *
+     * @param callback The {@link ResponseCallback} that shall be notified.
+     */
+    public void addCallback(final ResponseCallback<? super V> callback) {
+        synchronized (this) {
+            if (!done) {
+                callbacks.add(callback);
+                return;
+            }
+        }
+        notifyCallback(callback);
+    }
+
+    /**
+     * Completes this future with the given result, if it is not done yet.
+     *
+     * @param result The result of this future.
+     * @return True if this future was completed by this call.
+     */
+    boolean complete(final V result) {
+        synchronized (this) {
+            if (done) {
+                return false;
+            }
+            this.result = result;
+            this.done = true;
+            notifyAll();
+        }
+        notifyCallbacks();
+        return true;
+    }
+
+    /**
+     * Completes this future with the given failure, if it is not done yet.
+     *
+     * @param cause The cause of the failure.
+     * @return True if this future was completed by this call.
+     */
+    boolean fail(final Throwable cause) {
+        synchronized (this) {
+            if (done) {
+                return false;
+            }
+            this.failure = cause;
+            this.done = true;
+            notifyAll();
+        }
+        notifyCallbacks();
+        return true;
+    }
+
+    /**
+     * Completes this future the same way as the given future, as soon as the given future is done.
+     *
+     * @param source The future whose result shall be taken over.
+     */
+    void completeWith(final ResponseFuture<? extends V> source) {
+        source.addCallback(new ResponseCallback<V>() {
+            @Override
+            public void onSuccess(final V result) {
+                complete(result);
+            }
+
+            @Override
+            public void onFailure(final Throwable cause) {
+                fail(cause);
+            }
+        });
+    }
+
+    @Override
+    public boolean cancel(final boolean mayInterruptIfRunning) {
+        synchronized (this) {
+            if (done) {
+                return false;
+            }
+            this.failure = new CancellationException("Request was cancelled");
+            this.cancelled = true;
+            this.done = true;
+            notifyAll();
+        }
+        notifyCallbacks();
+        return true;
+    }
+
+    @Override
+    public synchronized boolean isCancelled() {
+        return cancelled;
+    }
+
+    @Override
+    public synchronized boolean isDone() {
+        return done;
+    }
+
+    @Override
+    public synchronized V get() throws InterruptedException, ExecutionException {
+        while (!done) {
+            wait();
+        }
+        return getResult();
+    }
+
+    @Override
+    public synchronized V get(final long timeout, final TimeUnit unit)
+            throws InterruptedException, ExecutionException, TimeoutException {
+
+        final long deadline = System.nanoTime() + unit.toNanos(timeout);
+        while (!done) {
+            final long remainingNanos = deadline - System.nanoTime();
+            if (remainingNanos <= 0) {
+                throw new TimeoutException();
+            }
+            TimeUnit.NANOSECONDS.timedWait(this, remainingNanos);
+        }
+        return getResult();
+    }
+
+    private V getResult() throws ExecutionException {
+        if (cancelled) {
+            throw (CancellationException) failure;
+        }
+        if (failure != null) {
+            throw new ExecutionException(failure);
+        }
+        return result;
+    }
+
+    private void notifyCallbacks() {
+        final List<ResponseCallback<? super V>> callbacksToNotify;
+        synchronized (this) {
+            callbacksToNotify = new ArrayList<>(callbacks);
+            callbacks.clear();
+        }
+        for (final ResponseCallback<? super V> callback : callbacksToNotify) {
+            notifyCallback(callback);
+        }
+    }
+
+    private void notifyCallback(final ResponseCallback<? super V> callback) {
+        if (failure != null) {
+            callback.onFailure(failure);
+        } else {
+            callback.onSuccess(result);
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package de.codecrafters.apaarb;
+
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Utility class for response groups represented as bit masks of {@link ItemInformation} ordinals. As there are only a
+ * few {@link ItemInformation}, every response group fits into an int, which deduplicates the added information and
+ * makes response groups cheap to copy and compare. The percent-encoded values of the ResponseGroup parameter are
+ * created once per mask and kept in a lazily populated table, so encoding a response group doesn't allocate after the
+ * first time it was used.
+ *
+ * @author ISchwarz
+ */
+final class ResponseGroup {
+
+    /**
+     * The empty response group, which requests the {@link ItemInformation#ATTRIBUTES}.
+     */
+    static final int EMPTY = 0;
+
+    private static final ItemInformation[] ITEM_INFORMATION = ItemInformation.values();
+    private static final int MASK_COUNT = 1 << ITEM_INFORMATION.length;
+
+    // the table is split into pages, which are only allocated when one of their masks is used
+    private static final int PAGE_BITS = 10;
+    private static final int PAGE_SIZE = 1 << PAGE_BITS;
+    private static final AtomicReferenceArray<String[]> ENCODED_VALUES =
+            new AtomicReferenceArray<>((MASK_COUNT + PAGE_SIZE - 1) >> PAGE_BITS);
+
+    private static final String ENCODED_SEPARATOR = "%2C";
+
+
+    private ResponseGroup() {
+        //no instance
+    }
+
+    /**
+     * Gives the mask of the response group containing only the given {@link ItemInformation}.
+     *
+     * @param itemInformation The {@link ItemInformation} contained in the response group.
+     * @return The mask of the response group.
+     */
+    static int of(final ItemInformation itemInformation) {
+        return 1 << itemInformation.ordinal();
+    }
+
+    /**
+     * Gives the mask of the response group containing all given {@link ItemInformation}.
+     *
+     * @param itemInformation The {@link ItemInformation} contained in the response group.
+     * @return The mask of the response group.
+     */
+    static int of(final Collection<ItemInformation> itemInformation) {
+        int mask = EMPTY;
+        for (final ItemInformation information : itemInformation) {
+            mask |= of(information);
+        }
+        return mask;
+    }
+
+    /**
+     * Gives the {@link ItemInformation} that is requested by the response group with the given mask.
+     *
+     * @param mask The mask of the response group.
+     * @return A new set of the requested {@link ItemInformation}, which contains {@link ItemInformation#ATTRIBUTES} if
+     * the response group is empty.
+     */
+    static Set<ItemInformation> toSet(final int mask) {
+        if (mask == EMPTY) {
+            return EnumSet.of(ItemInformation.ATTRIBUTES);
+        }
+        final Set<ItemInformation> itemInformation = EnumSet.noneOf(ItemInformation.class);
+        for (final ItemInformation information : ITEM_INFORMATION) {
+            if ((mask & of(information)) != 0) {
+                itemInformation.add(information);
+            }
+        }
+        return itemInformation;
+    }
+
+    /**
+     * Gives the percent-encoded value of the ResponseGroup parameter for the response group with the given mask. The
+     * values are ordered like the {@link ItemInformation} constants. If the response group is empty,
+     * {@link ItemInformation#ATTRIBUTES} is requested.
+     *
+     * @param mask The mask of the response group.
+     * @return The percent-encoded value of the ResponseGroup parameter.
+     * @throws IllegalArgumentException If the given mask contains unknown bits.
+     */
+    static String encode(final int mask) {
+        if (mask < 0 || mask >= MASK_COUNT) {
+            throw new IllegalArgumentException("The response group mask has to be between 0 and " + (MASK_COUNT - 1)
+                    + ", but " + mask + " was given!");
+        }
+
+        final int pageIndex = mask >>> PAGE_BITS;
+        String[] page = ENCODED_VALUES.get(pageIndex);
+        if (page == null) {
+            ENCODED_VALUES.compareAndSet(pageIndex, null, new String[PAGE_SIZE]);
+            page = ENCODED_VALUES.get(pageIndex);
+        }
+
+        // strings are immutable, so a racy write only causes the value to be created more than once
+        final int index = mask & (PAGE_SIZE - 1);
+        String encodedValue = page[index];
+        if (encodedValue == null) {
+            encodedValue = createEncodedValue(mask);
+            page[index] = encodedValue;
+        }
+        return encodedValue;
+    }
+
+    private static String createEncodedValue(final int mask) {
+        if (mask == EMPTY) {
+            return ItemInformation.ATTRIBUTES.getRequestValue();
+        }
+        final AsciiBuffer value = new AsciiBuffer(Integer.bitCount(mask) * 20);
+        for (final ItemInformation information : ITEM_INFORMATION) {
+            if ((mask & of(information)) != 0) {
+                if (value.length() != 0) {
+                    value.append(ENCODED_SEPARATOR);
+                }
+                value.append(information.getRequestValue());
+            }
+        }
+        return value.toString();
+    }
+}
@@ -0,0 +1,149 @@
+package de.codecrafters.apaarb;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Coalesces concurrent calls with the same key, so only the first call is executed and all others share its outcome.
+ * As soon as the shared call is done, the next call with the same key is executed again. Every caller gets its own
+ * {@link ResponseFuture}, so cancelling it doesn't affect the other callers. Only if every caller cancelled its
+ * {@link ResponseFuture}, the shared call is cancelled as well.
+ *
+ * @param <K> The type of the keys identifying equal calls.
+ * @param <V> The type of the results of the calls.
+ * @author ISchwarz
+ */
+final class SingleFlight<K, V> {
+
+    private final ConcurrentMap<K, Flight> inFlightCalls = new ConcurrentHashMap<>();
+    private final AtomicLong coalescedCallCount = new AtomicLong();
+
+
+    /**
+     * Executes the given call, if no call with the given key is in flight. Otherwise the outcome of the call in flight
+     * is shared.
+     *
+     * @param key  The key identifying equal calls.
+     * @param call The call that shall be executed.
+     * @return A {@link ResponseFuture} for the outcome of the call.
+     */
+    ResponseFuture<V> execute(final K key, final Call<V> call) {
+        while (true) {
+            final Flight flight = inFlightCalls.get(key);
+            if (flight == null) {
+                final Flight newFlight = new Flight();
+                if (inFlightCalls.putIfAbsent(key, newFlight) == null) {
+                    // the follower is created first, so the flight can't be cancelled before it is started
+                    final ResponseFuture<V> result = newFlight.follow();
+                    newFlight.start(key, call);
+                    return result;
+                }
+            } else if (flight.join()) {
+                coalescedCallCount.incrementAndGet();
+                return flight.follow();
+            } else {
+                // every follower cancelled the flight, so it is replaced by a new one
+                inFlightCalls.remove(key, flight);
+            }
+        }
+    }
+
+    /**
+     * Gives the number of calls that shared the outcome of a call in flight instead of being executed.
+     *
+     * @return The number of coalesced calls.
+     */
+    long getCoalescedCallCount() {
+        return coalescedCallCount.get();
+    }
+
+    /**
+     * A call in flight together with the number of its followers, which didn't cancel their {@link ResponseFuture}.
+     */
+    private final class Flight {
+
+        private final ResponseFuture<V> sharedResult = new ResponseFuture<>();
+        private final AtomicInteger followerCount = new AtomicInteger(1);
+
+        private volatile ResponseFuture<V> callResult;
+
+        private void start(final K key, final Call<V> call) {
+            sharedResult.addCallback(new ResponseCallback<V>() {
+                @Override
+                public void onSuccess(final V result) {
+                    inFlightCalls.remove(key, Flight.this);
+                }
+
+                @Override
+                public void onFailure(final Throwable cause) {
+                    inFlightCalls.remove(key, Flight.this);
+                }
+            });
+            try {
+                callResult = call.execute();
+            } catch (final RuntimeException e) {
+                sharedResult.fail(e);
+                return;
+            }
+            if (sharedResult.isCancelled()) {
+                callResult.cancel(false);
+            } else {
+                sharedResult.completeWith(callResult);
+            }
+        }
+
+        private boolean join() {
+            int count;
+            do {
+                count = followerCount.get();
+                if (count == 0) {
+                    return false;
+                }
+            } while (!followerCount.compareAndSet(count, count + 1));
+            return true;
+        }
+
+        private ResponseFuture<V> follow() {
+            final ResponseFuture<V> result = new ResponseFuture<>();
+            result.completeWith(sharedResult);
+            result.addCallback(new ResponseCallback<V>() {
+                @Override
+                public void onSuccess(final V value) {
+                    // nothing to release
+                }
+
+                @Override
+                public void onFailure(final Throwable cause) {
+                    if (result.isCancelled()) {
+                        leave();
+                    }
+                }
+            });
+            return result;
+        }
+
+        private void leave() {
+            if (followerCount.decrementAndGet() == 0) {
+                sharedResult.cancel(false);
+                final ResponseFuture<V> result = callResult;
+                if (result != null) {
+                    result.cancel(false);
+                }
+            }
+        }
+    }
+
+    /**
+     * A call whose outcome can be shared.
+     *
+     * @param <V> The type of the result of the call.
+     * @author ISchwarz
+     */
+    interface Call<V> {
+
+        ResponseFuture<V> execute();
+
+    }
+}
@@ -0,0 +1,155 @@
+package de.codecrafters.apaarb;
+
+/**
+ * A formatter that creates the ISO-8601 timestamps (e.g. "2016-10-08T13:30:38.123Z") used in the requests. Every
+ * thread formats into its own reusable char buffer, so no lock is needed. As consecutive requests are mostly created
+ * within the same second, the date and time part of the last timestamp is kept and only the milliseconds are
+ * rewritten in that case.
+ *
+ * @author ISchwarz
+ */
+final class TimestampFormatter {
+
+    private static final int TIMESTAMP_LENGTH = 24;
+    private static final int MILLIS_OFFSET = 20;
+    private static final long MILLIS_PER_SECOND = 1000;
+    private static final long SECONDS_PER_DAY = 86400;
+    private static final String ENCODED_TIME_SEPARATOR = "%3A";
+
+    private static final ThreadLocal<TimestampFormatter> THREAD_LOCAL_FORMATTER = new ThreadLocal<TimestampFormatter>() {
+        @Override
+        protected TimestampFormatter initialValue() {
+            return new TimestampFormatter();
+        }
+    };
+
+    private final char[] buffer = new char[TIMESTAMP_LENGTH];
+    private long cachedEpochSecond = Long.MIN_VALUE;
+
+
+    private TimestampFormatter() {
+        "0000-00-00T00:00:00.000Z".getChars(0, TIMESTAMP_LENGTH, buffer, 0);
+    }
+
+    /**
+     * Formats the given point in time as ISO-8601 timestamp in UTC with millisecond precision.
+     *
+     * @param epochMillis The point in time in milliseconds since the epoch.
+     * @return The formatted timestamp.
+     */
+    static String format(final long epochMillis) {
+        final TimestampFormatter formatter = THREAD_LOCAL_FORMATTER.get();
+        formatter.update(epochMillis);
+        return new String(formatter.buffer);
+    }
+
+    /**
+     * Appends the given point in time percent-encoded as ISO-8601 timestamp in UTC with millisecond precision to the
+     * given {@link AsciiBuffer}.
+     *
+     * @param target      The {@link AsciiBuffer} the timestamp shall be appended to.
+     * @param epochMillis The point in time in milliseconds since the epoch.
+     */
+    static void appendPercentEncoded(final AsciiBuffer target, final long epochMillis) {
+        final TimestampFormatter formatter = THREAD_LOCAL_FORMATTER.get();
+        formatter.update(epochMillis);
+        for (final char c : formatter.buffer) {
+            if (c == ':') {
+                target.append(ENCODED_TIME_SEPARATOR);
+            } else {
+                target.append(c);
+            }
+        }
+    }
+
+    /**
+     * Parses a percent-encoded ISO-8601 timestamp in UTC with millisecond precision as written by
+     * {@link #appendPercentEncoded(AsciiBuffer, long)}, e.g. "2016-10-08T13%3A30%3A38.123Z".
+     *
+     * @param source The characters containing the timestamp.
+     * @param offset The index of the first character of the timestamp.
+     * @return The point in time in milliseconds since the epoch.
+     * @throws IllegalArgumentException If the characters at the given offset are no percent-encoded timestamp.
+     */
+    static long parsePercentEncoded(final CharSequence source, final int offset) {
+        final int year = parseDigits(source, offset, 4);
+        final int month = parseDigits(source, offset + 5, 2);
+        final int day = parseDigits(source, offset + 8, 2);
+        final int hour = parseDigits(source, offset + 11, 2);
+        final int minute = parseDigits(source, offset + 16, 2);
+        final int second = parseDigits(source, offset + 21, 2);
+        final int millis = parseDigits(source, offset + 24, 3);
+
+        // convert the civil date to the days since the epoch (see http://howardhinnant.github.io/date_algorithms.html)
+        final long shiftedYear = month <= 2 ? year - 1 : year;
+        final long era = floorDiv(shiftedYear, 400);
+        final int yearOfEra = (int) (shiftedYear - era * 400);
+        final int dayOfYear = (153 * (month > 2 ? month - 3 : month + 9) + 2) / 5 + day - 1;
+        final int dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+        final long epochDay = era * 146097 + dayOfEra - 719468;
+
+        final long epochSecond = epochDay * SECONDS_PER_DAY + hour * 3600 + minute * 60 + second;
+        return epochSecond * MILLIS_PER_SECOND + millis;
+    }
+
+    private static int parseDigits(final CharSequence source, final int offset, final int digits) {
+        if (offset < 0 || offset + digits > source.length()) {
+            throw new IllegalArgumentException("A percent-encoded timestamp was expected at index " + offset
+                    + ", but " + source + " was given!");
+        }
+        int value = 0;
+        for (int i = offset; i < offset + digits; i++) {
+            final char c = source.charAt(i);
+            if (c < '0' || c > '9') {
+                throw new IllegalArgumentException("A digit was expected at index " + i + ", but " + c
+                        + " was given!");
+            }
+            value = value * 10 + (c - '0');
+        }
+        return value;
+    }
+
+    private void update(final long epochMillis) {
+        final long epochSecond = floorDiv(epochMillis, MILLIS_PER_SECOND);
+        if (epochSecond != cachedEpochSecond) {
+            writeDateAndTime(epochSecond);
+            cachedEpochSecond = epochSecond;
+        }
+        writeDigits((int) (epochMillis - epochSecond * MILLIS_PER_SECOND), MILLIS_OFFSET, 3);
+    }
+
+    private void writeDateAndTime(final long epochSecond) {
+        final long epochDay = floorDiv(epochSecond, SECONDS_PER_DAY);
+        final int secondOfDay = (int) (epochSecond - epochDay * SECONDS_PER_DAY);
+
+        // convert the days since the epoch to the civil date (see http://howardhinnant.github.io/date_algorithms.html)
+        final long shiftedDay = epochDay + 719468;
+        final long era = floorDiv(shiftedDay, 146097);
+        final int dayOfEra = (int) (shiftedDay - era * 146097);
+        final int yearOfEra = (dayOfEra - dayOfEra / 1460 + dayOfEra / 36524 - dayOfEra / 146096) / 365;
+        final int dayOfYear = dayOfEra - (365 * yearOfEra + yearOfEra / 4 - yearOfEra / 100);
+        final int shiftedMonth = (5 * dayOfYear + 2) / 153;
+        final int day = dayOfYear - (153 * shiftedMonth + 2) / 5 + 1;
+        final int month = shiftedMonth < 10 ? shiftedMonth + 3 : shiftedMonth - 9;
+        final long year = yearOfEra + era * 400 + (month <= 2 ? 1 : 0);
+
+        writeDigits((int) year, 0, 4);
+        writeDigits(month, 5, 2);
+        writeDigits(day, 8, 2);
+        writeDigits(secondOfDay / 3600, 11, 2);
+        writeDigits(secondOfDay / 60 % 60, 14, 2);
+        writeDigits(secondOfDay % 60, 17, 2);
+    }
+
+    private void writeDigits(int value, final int offset, final int digits) {
+        for (int i = offset + digits - 1; i >= offset; i--) {
+            buffer[i] = (char) ('0' + value % 10);
+            value /= 10;
+        }
+    }
+
+    private static long floorDiv(final long dividend, final long divisor) {
+        final long quotient = dividend / divisor;
+        return (dividend % divisor < 0) ? quotient - 1 : quotient;
+    }
+}
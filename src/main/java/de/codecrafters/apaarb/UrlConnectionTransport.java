@@ -0,0 +1,86 @@
+package de.codecrafters.apaarb;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * A {@link HttpTransport} based on the {@link HttpURLConnection} of the platform. The platform keeps the connections
+ * to the Amazon services alive and reuses them for subsequent requests, as long as every response is read completely,
+ * which is always done by this transport. Responses are requested gzip compressed to reduce the transferred bytes.
+ *
+ * @author ISchwarz
+ */
+public final class UrlConnectionTransport implements HttpTransport {
+
+    private static final int DEFAULT_CONNECT_TIMEOUT_MILLIS = 5000;
+    private static final int DEFAULT_READ_TIMEOUT_MILLIS = 10000;
+    private static final int READ_BUFFER_SIZE = 8192;
+
+    private final int connectTimeoutMillis;
+    private final int readTimeoutMillis;
+
+
+    private UrlConnectionTransport(final int connectTimeoutMillis, final int readTimeoutMillis) {
+        this.connectTimeoutMillis = connectTimeoutMillis;
+        this.readTimeoutMillis = readTimeoutMillis;
+    }
+
+    /**
+     * Creates a new {@link UrlConnectionTransport} with default timeouts.
+     *
+     * @return The created {@link UrlConnectionTransport}.
+     */
+    public static UrlConnectionTransport create() {
+        return create(DEFAULT_CONNECT_TIMEOUT_MILLIS, DEFAULT_READ_TIMEOUT_MILLIS);
+    }
+
+    /**
+     * Creates a new {@link UrlConnectionTransport} with the given timeouts.
+     *
+     * @param connectTimeoutMillis The timeout for establishing a connection in milliseconds.
+     * @param readTimeoutMillis    The timeout for reading the response in milliseconds.
+     * @return The created {@link UrlConnectionTransport}.
+     */
+    public static UrlConnectionTransport create(final int connectTimeoutMillis, final int readTimeoutMillis) {
+        return new UrlConnectionTransport(connectTimeoutMillis, readTimeoutMillis);
+    }
+
+    @Override
+    public AmazonWebServiceResponse execute(final String requestUrl) throws IOException {
+        final HttpURLConnection connection = (HttpURLConnection) new URL(requestUrl).openConnection();
+        connection.setConnectTimeout(connectTimeoutMillis);
+        connection.setReadTimeout(readTimeoutMillis);
+        connection.setRequestProperty("Accept-Encoding", "gzip");
+
+        final int statusCode = connection.getResponseCode();
+        InputStream body = statusCode >= HttpURLConnection.HTTP_BAD_REQUEST
+                ? connection.getErrorStream() : connection.getInputStream();
+        if (body == null) {
+            return AmazonWebServiceResponse.create(requestUrl, statusCode, new byte[0]);
+        }
+        // the connection is only given back to the keep-alive pool if the body is read completely and closed
+        try {
+            if ("gzip".equalsIgnoreCase(connection.getContentEncoding())) {
+                body = new GZIPInputStream(body);
+            }
+            return AmazonWebServiceResponse.create(requestUrl, statusCode, readFully(body,
+                    connection.getContentLength()));
+        } finally {
+            body.close();
+        }
+    }
+
+    private static byte[] readFully(final InputStream in, final int expectedLength) throws IOException {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream(expectedLength > 0 ? expectedLength : READ_BUFFER_SIZE);
+        final byte[] buffer = new byte[READ_BUFFER_SIZE];
+        int read;
+        while ((read = in.read(buffer)) != -1) {
+            out.write(buffer, 0, read);
+        }
+        return out.toByteArray();
+    }
+}
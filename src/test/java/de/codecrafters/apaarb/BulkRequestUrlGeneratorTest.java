@@ -0,0 +1,94 @@
+package de.codecrafters.apaarb;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static de.codecrafters.apaarb.TestFixtures.FIXED_CLOCK;
+import static de.codecrafters.apaarb.TestFixtures.createAsins;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.startsWith;
+import static org.junit.Assert.assertThat;
+
+/**
+ * Test and usage example of the {@link BulkRequestUrlGenerator}.
+ *
+ * @author ISchwarz
+ */
+public class BulkRequestUrlGeneratorTest {
+
+    private ItemLookupRequestTemplate template;
+    private BulkRequestUrlGenerator generator;
+
+    @Before
+    public void setUp() throws Exception {
+        final AmazonWebServiceAuthentication authentication =
+                AmazonWebServiceAuthentication.create("AssociateTag", "AccessKey", "SecretKey");
+        template = ItemLookupRequest.forItem(ItemId.createAsin("B000000000"))
+                .withInformationAbout(ItemInformation.OFFERS)
+                .withClock(FIXED_CLOCK)
+                .compile(AmazonWebServiceLocation.DE, authentication);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        if (generator != null) {
+            generator.shutdown();
+        }
+    }
+
+    @Test
+    public void shouldCreateSameUrlsAsTemplateInOrder() throws Exception {
+        final List<ItemId> itemIds = createAsins(1005);
+        generator = BulkRequestUrlGenerator.builder(template)
+                .parallelism(4)
+                .chunkSize(7)
+                .build();
+
+        final List<String> requestUrls = generator.generate(itemIds);
+
+        final List<String> expectedUrls = new ArrayList<>();
+        for (int i = 0; i < itemIds.size(); i += 10) {
+            expectedUrls.add(template.createSecureRequestUrlFor(itemIds.subList(i, Math.min(i + 10, itemIds.size()))));
+        }
+        assertThat(requestUrls, is(expectedUrls));
+    }
+
+    @Test
+    public void shouldCreateAllUrlsWithoutOrder() throws Exception {
+        final List<ItemId> itemIds = createAsins(2000);
+        generator = BulkRequestUrlGenerator.builder(template)
+                .parallelism(3)
+                .chunkSize(5)
+                .preservingOrder(false)
+                .usingSecureRequests(false)
+                .build();
+
+        final List<String> requestUrls = generator.generate(itemIds);
+
+        final List<String> expectedUrls = new ArrayList<>();
+        for (int i = 0; i < itemIds.size(); i += 10) {
+            expectedUrls.add(template.createRequestUrlFor(itemIds.subList(i, i + 10)));
+        }
+        Collections.sort(requestUrls);
+        Collections.sort(expectedUrls);
+        assertThat(requestUrls, is(expectedUrls));
+        assertThat(requestUrls.get(0), startsWith("http://"));
+    }
+
+    @Test
+    public void shouldCreateNoUrlsForNoItems() throws Exception {
+        generator = BulkRequestUrlGenerator.create(template);
+
+        assertThat(generator.generate(new ArrayList<ItemId>()).isEmpty(), is(true));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectInvalidChunkSize() throws Exception {
+        BulkRequestUrlGenerator.builder(template).chunkSize(0);
+    }
+}
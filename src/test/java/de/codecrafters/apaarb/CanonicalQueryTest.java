@@ -0,0 +1,115 @@
+package de.codecrafters.apaarb;
+
+import org.junit.Test;
+
+import java.net.URLEncoder;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+import static de.codecrafters.apaarb.TestFixtures.FIXED_CLOCK;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+/**
+ * Test of the canonical query creation, which has to produce the same request urls as the canonicalization of the
+ * request parameters using the {@link URLEncoder}.
+ *
+ * @author ISchwarz
+ */
+public class CanonicalQueryTest {
+
+    private static final String AWS_SECRET_KEY = "Secret/Key+";
+    private static final AmazonWebServiceAuthentication AUTHENTICATION =
+            AmazonWebServiceAuthentication.create("Associate Tag", "AccessKey", AWS_SECRET_KEY);
+
+    @Test
+    public void shouldPercentEncodeLikeUrlEncoder() throws Exception {
+        final String[] values = {"DeadPool", "Dead Pool", "a*b~c+d", "Gr\u00FC\u00DFe", "\u6771\u4EAC",
+                "\uD83D\uDE00", "broken\uD800", "-_.!'()", "%&=/?#", ""};
+        for (final String value : values) {
+            assertThat(RequestUrlUtils.percentEncodeRfc3986(value), is(encodeWithUrlEncoder(value)));
+        }
+    }
+
+    @Test
+    public void shouldCanonicalizeParametersInLexicographicalOrder() throws Exception {
+        final Map<String, String> parameters = new LinkedHashMap<>();
+        parameters.put("b", "2 3");
+        parameters.put("B", "1");
+        parameters.put("a", "~*");
+
+        assertThat(RequestUrlUtils.canonicalizeParameters(parameters), is("B=1&a=~%2A&b=2%203"));
+    }
+
+    @Test
+    public void shouldCreateSameItemSearchUrlAsUrlEncoder() throws Exception {
+        final String requestUrl = AmazonProductAdvertisingApiRequestBuilder.forItemSearch("Dead Pool \u00FCmlaut*")
+                .filterByMinimumPrice(100)
+                .filterByMaximumPrice(10000)
+                .includeInformationAbout(ItemInformation.OFFERS)
+                .includeInformationAbout(ItemInformation.IMAGES)
+                .usingClock(FIXED_CLOCK)
+                .createRequestUrlFor(AmazonWebServiceLocation.DE, AUTHENTICATION);
+
+        final Map<String, String> parameters = new LinkedHashMap<>();
+        parameters.put("AWSAccessKeyId", "AccessKey");
+        parameters.put("AssociateTag", "Associate Tag");
+        parameters.put("Condition", "All");
+        parameters.put("Keywords", "Dead Pool \u00FCmlaut*");
+        parameters.put("Operation", "ItemSearch");
+        parameters.put("ResponseGroup", "Images,Offers");
+        parameters.put("SearchIndex", "All");
+        parameters.put("Service", "AWSECommerceService");
+        parameters.put("Timestamp", "2016-10-08T13:30:38.123Z");
+        parameters.put("Version", "2011-08-01");
+        parameters.put("MaximumPrice", "10000");
+        parameters.put("MinimumPrice", "100");
+
+        assertThat(requestUrl, is(createRequestUrlWithUrlEncoder("webservices.amazon.de", parameters)));
+    }
+
+    @Test
+    public void shouldCreateSameItemLookupUrlAsUrlEncoder() throws Exception {
+        final String requestUrl = AmazonProductAdvertisingApiRequestBuilder.forItemLookup(ItemId.createAsin("B01BKISLYC"))
+                .filterByCondition(ItemCondition.NEW)
+                .usingClock(FIXED_CLOCK)
+                .createRequestUrlFor(AmazonWebServiceLocation.CO_JP, AUTHENTICATION);
+
+        final Map<String, String> parameters = new LinkedHashMap<>();
+        parameters.put("AWSAccessKeyId", "AccessKey");
+        parameters.put("AssociateTag", "Associate Tag");
+        parameters.put("Condition", "New");
+        parameters.put("IdType", "ASIN");
+        parameters.put("ItemId", "B01BKISLYC");
+        parameters.put("Operation", "ItemLookup");
+        parameters.put("ResponseGroup", "ItemAttributes");
+        parameters.put("Service", "AWSECommerceService");
+        parameters.put("Timestamp", "2016-10-08T13:30:38.123Z");
+        parameters.put("Version", "2011-08-01");
+
+        assertThat(requestUrl, is(createRequestUrlWithUrlEncoder("webservices.amazon.co.jp", parameters)));
+    }
+
+    private static String createRequestUrlWithUrlEncoder(final String host, final Map<String, String> parameters)
+            throws Exception {
+
+        final StringBuilder query = new StringBuilder();
+        for (final Map.Entry<String, String> parameter : new TreeMap<>(parameters).entrySet()) {
+            if (query.length() > 0) {
+                query.append('&');
+            }
+            query.append(encodeWithUrlEncoder(parameter.getKey())).append('=')
+                    .append(encodeWithUrlEncoder(parameter.getValue()));
+        }
+        final String signature = RequestUrlUtils.hmac("GET\n" + host + "\n/onca/xml\n" + query, AWS_SECRET_KEY);
+        return "http://" + host + "/onca/xml?" + query + "&Signature=" + encodeWithUrlEncoder(signature);
+    }
+
+    private static String encodeWithUrlEncoder(final String value) throws Exception {
+        return URLEncoder.encode(value, "UTF-8")
+                .replace("+", "%20")
+                .replace("*", "%2A")
+                .replace("%7E", "~");
+    }
+}
@@ -0,0 +1,98 @@
+package de.codecrafters.apaarb;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static de.codecrafters.apaarb.ItemInformation.OFFERS;
+import static de.codecrafters.apaarb.ItemInformation.SALES_RANK;
+import static de.codecrafters.apaarb.TestFixtures.FIXED_CLOCK;
+import static org.hamcrest.CoreMatchers.containsString;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.not;
+import static org.junit.Assert.assertThat;
+
+/**
+ * Test of the immutable {@link ItemLookupRequest} and {@link ItemSearchRequest}.
+ *
+ * @author ISchwarz
+ */
+public class ImmutableRequestTest {
+
+    private static final ItemId ITEM_ID = ItemId.createAsin("B01BKISLYC");
+    private static final AmazonWebServiceAuthentication AUTHENTICATION =
+            AmazonWebServiceAuthentication.create("AssociateTag", "AccessKey", "SecretKey");
+    @Test
+    public void shouldNotModifyBuilderWhenCreatingUrl() throws Exception {
+        final AmazonProductAdvertisingApiRequestBuilder.AdvertisingApiItemLookupRequestBuilder builder =
+                AmazonProductAdvertisingApiRequestBuilder.forItemLookup(ITEM_ID);
+        builder.createRequestUrlFor(AmazonWebServiceLocation.DE, AUTHENTICATION);
+
+        final String requestUrl = builder.includeInformationAbout(OFFERS)
+                .createRequestUrlFor(AmazonWebServiceLocation.DE, AUTHENTICATION);
+
+        assertThat(requestUrl, containsString("&ResponseGroup=Offers&"));
+    }
+
+    @Test
+    public void shouldCreateModifiedCopies() throws Exception {
+        final ItemLookupRequest request = ItemLookupRequest.forItem(ITEM_ID).withClock(FIXED_CLOCK);
+        final ItemLookupRequest modifiedRequest = request.withCondition(ItemCondition.NEW)
+                .withInformationAbout(OFFERS)
+                .withInformationAbout(SALES_RANK);
+
+        assertThat(request.getCanonicalParameters(), containsString("Condition=All&"));
+        assertThat(request.getCanonicalParameters(), containsString("&ResponseGroup=ItemAttributes"));
+        assertThat(modifiedRequest.getCanonicalParameters(), containsString("Condition=New&"));
+        assertThat(modifiedRequest.getCanonicalParameters(), containsString("&ResponseGroup=Offers%2CSalesRank"));
+        assertThat(modifiedRequest.withItemId(ItemId.createAsin("B00X4WHP5E")).getCanonicalParameters(),
+                not(containsString(ITEM_ID.getValue())));
+    }
+
+    @Test
+    public void shouldCreateSameUrlsAsBuilder() throws Exception {
+        final String builderUrl = AmazonProductAdvertisingApiRequestBuilder.forItemSearch("Harry Potter & co")
+                .filterByCategroy(ItemCategory.BOOKS)
+                .filterByMaximumPrice(2000)
+                .includeInformationAbout(OFFERS)
+                .usingClock(FIXED_CLOCK)
+                .createSecureRequestUrlFor(AmazonWebServiceLocation.DE, AUTHENTICATION);
+
+        final String requestUrl = ItemSearchRequest.forKeywords("Harry Potter & co")
+                .withCategory(ItemCategory.BOOKS)
+                .withMaximumPrice(2000)
+                .withInformationAbout(OFFERS)
+                .withClock(FIXED_CLOCK)
+                .createSecureRequestUrlFor(AmazonWebServiceLocation.DE, AUTHENTICATION);
+
+        assertThat(requestUrl, is(builderUrl));
+    }
+
+    @Test
+    public void shouldBeSharedBetweenThreads() throws Exception {
+        final ItemLookupRequest request = ItemLookupRequest.forItem(ITEM_ID)
+                .withInformationAbout(OFFERS)
+                .withClock(FIXED_CLOCK);
+        final String expectedUrl = request.createRequestUrlFor(AmazonWebServiceLocation.DE, AUTHENTICATION);
+
+        final ExecutorService executorService = Executors.newFixedThreadPool(8);
+        final List<Future<String>> requestUrls = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            requestUrls.add(executorService.submit(new Callable<String>() {
+                @Override
+                public String call() throws Exception {
+                    return request.createRequestUrlFor(AmazonWebServiceLocation.DE, AUTHENTICATION);
+                }
+            }));
+        }
+        for (final Future<String> requestUrl : requestUrls) {
+            assertThat(requestUrl.get(), is(expectedUrl));
+        }
+        executorService.shutdown();
+    }
+}
@@ -0,0 +1,199 @@
+package de.codecrafters.apaarb;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static de.codecrafters.apaarb.TestFixtures.FIXED_CLOCK;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+/**
+ * Test and usage example of the {@link ItemIdFile}, which has to create the same request urls as the
+ * {@link ItemLookupRequestTemplate} for the contained IDs.
+ *
+ * @author ISchwarz
+ */
+public class ItemIdFileTest {
+
+    @Rule
+    public final TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private ItemLookupRequestTemplate template;
+
+    @Before
+    public void setUp() throws Exception {
+        final AmazonWebServiceAuthentication authentication =
+                AmazonWebServiceAuthentication.create("AssociateTag", "AccessKey", "SecretKey");
+        template = ItemLookupRequest.forItem(ItemId.createEan("4010232066543"))
+                .withClock(FIXED_CLOCK)
+                .compile(AmazonWebServiceLocation.DE, authentication);
+    }
+
+    @Test
+    public void shouldCreateSameUrlsAsTemplate() throws Exception {
+        final List<ItemId> eans = createEans(23);
+        final ItemIdFile itemIdFile = ItemIdFile.open(writeLines(eans, "\n"), ItemId.Type.EAN);
+
+        final List<String> requestUrls = createRequestUrls(itemIdFile, itemIdFile.getRanges());
+
+        assertThat(requestUrls, is(createExpectedUrls(eans)));
+    }
+
+    @Test
+    public void shouldIgnoreWhitespaceAndEmptyLines() throws Exception {
+        final List<ItemId> eans = createEans(3);
+        final File file = temporaryFolder.newFile();
+        write(file, " " + eans.get(0).getValue() + "\r\n\r\n\t" + eans.get(1).getValue() + " \n"
+                + eans.get(2).getValue());
+
+        final ItemIdFile itemIdFile = ItemIdFile.open(file, ItemId.Type.EAN);
+
+        assertThat(createRequestUrls(itemIdFile, itemIdFile.getRanges()), is(createExpectedUrls(eans)));
+    }
+
+    @Test
+    public void shouldSplitIntoRangesOfWholeLines() throws Exception {
+        final List<ItemId> eans = createEans(100);
+        final ItemIdFile itemIdFile = ItemIdFile.open(writeLines(eans, "\r\n"), ItemId.Type.EAN);
+
+        final List<ItemIdFile.Range> ranges = itemIdFile.split(7);
+
+        long expectedStart = 0;
+        for (final ItemIdFile.Range range : ranges) {
+            assertThat(range.getStart(), is(expectedStart));
+            assertThat(range.getEnd() % 15, is(0L));
+            expectedStart = range.getEnd();
+        }
+        assertThat(expectedStart, is(itemIdFile.size()));
+        assertThat(ranges.size(), is(7));
+    }
+
+    @Test
+    public void shouldMapFileInSegmentsOfWholeLines() throws Exception {
+        final List<ItemId> eans = createEans(40);
+        final ItemIdFile itemIdFile = ItemIdFile.open(writeLines(eans, "\n"), ItemId.Type.EAN, 100);
+
+        final List<ItemIdFile.Range> ranges = itemIdFile.getRanges();
+
+        assertThat(ranges.size(), is(6));
+        assertThat(ranges.get(1).getStart(), is(98L));
+        final List<String> expectedUrls = new ArrayList<>();
+        for (int i = 0; i < eans.size(); i += 7) {
+            expectedUrls.addAll(createExpectedUrls(eans.subList(i, Math.min(i + 7, eans.size()))));
+        }
+        assertThat(createRequestUrls(itemIdFile, ranges), is(expectedUrls));
+    }
+
+    @Test
+    public void shouldCreateUrlsOfFileInParallel() throws Exception {
+        final List<ItemId> eans = createEans(5000);
+        final ItemIdFile itemIdFile = ItemIdFile.open(writeLines(eans, "\n"), ItemId.Type.EAN);
+        final BulkRequestUrlGenerator generator = BulkRequestUrlGenerator.builder(template)
+                .parallelism(4)
+                .chunkSize(3)
+                .usingSecureRequests(false)
+                .build();
+
+        final List<String> requestUrls = new ArrayList<>();
+        try {
+            generator.generate(itemIdFile, new BulkRequestUrlGenerator.RequestUrlConsumer() {
+                @Override
+                public void accept(final String requestUrl) {
+                    requestUrls.add(requestUrl);
+                }
+            });
+        } finally {
+            generator.shutdown();
+        }
+
+        // every range is packed on its own, so the requests are the same as when reading the ranges one by one
+        assertThat(requestUrls, is(createRequestUrls(itemIdFile, itemIdFile.splitBySize(3 * 10 * 12))));
+    }
+
+    @Test
+    public void shouldSkipInvalidIdsOfFile() throws Exception {
+        final ItemIdFile itemIdFile = ItemIdFile.open(writeLines(Arrays.asList(ItemId.createEan("4006381333931"),
+                ItemId.createEan("4006381333932"), ItemId.createEan("73513537")), "\n"), ItemId.Type.EAN);
+        final BulkRequestUrlGenerator generator = BulkRequestUrlGenerator.builder(template)
+                .rejectingInvalidIds(true)
+                .build();
+        final List<String> requestUrls = new ArrayList<>();
+        try {
+            generator.generate(itemIdFile, new BulkRequestUrlGenerator.RequestUrlConsumer() {
+                @Override
+                public void accept(final String requestUrl) {
+                    requestUrls.add(requestUrl);
+                }
+            });
+        } finally {
+            generator.shutdown();
+        }
+
+        assertThat(requestUrls, is(Arrays.asList(template.createSecureRequestUrlFor(
+                Arrays.asList(ItemId.createEan("4006381333931"), ItemId.createEan("73513537"))))));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectRangeOfOtherFile() throws Exception {
+        final ItemIdFile itemIdFile = ItemIdFile.open(writeLines(createEans(3), "\n"), ItemId.Type.EAN);
+        final ItemIdFile otherFile = ItemIdFile.open(writeLines(createEans(3), "\n"), ItemId.Type.EAN);
+
+        createRequestUrls(itemIdFile, otherFile.getRanges());
+    }
+
+    private List<String> createRequestUrls(final ItemIdFile itemIdFile, final List<ItemIdFile.Range> ranges) {
+        final List<String> requestUrls = new ArrayList<>();
+        for (final ItemIdFile.Range range : ranges) {
+            itemIdFile.createRequestUrlsFor(range, template, new BulkRequestUrlGenerator.RequestUrlConsumer() {
+                @Override
+                public void accept(final String requestUrl) {
+                    requestUrls.add(requestUrl);
+                }
+            });
+        }
+        return requestUrls;
+    }
+
+    private List<String> createExpectedUrls(final List<ItemId> itemIds) {
+        final List<String> requestUrls = new ArrayList<>();
+        for (int i = 0; i < itemIds.size(); i += 10) {
+            requestUrls.add(template.createRequestUrlFor(itemIds.subList(i, Math.min(i + 10, itemIds.size()))));
+        }
+        return requestUrls;
+    }
+
+    private File writeLines(final List<ItemId> itemIds, final String lineBreak) throws IOException {
+        final StringBuilder content = new StringBuilder();
+        for (final ItemId itemId : itemIds) {
+            content.append(itemId.getValue()).append(lineBreak);
+        }
+        final File file = temporaryFolder.newFile();
+        write(file, content.toString());
+        return file;
+    }
+
+    private static void write(final File file, final String content) throws IOException {
+        try (final OutputStream outputStream = new FileOutputStream(file)) {
+            outputStream.write(content.getBytes(StandardCharsets.US_ASCII));
+        }
+    }
+
+    private static List<ItemId> createEans(final int count) {
+        final ItemId[] eans = new ItemId[count];
+        for (int i = 0; i < count; i++) {
+            eans[i] = ItemId.createEan(String.format("4%012d", i));
+        }
+        return Arrays.asList(eans);
+    }
+}
@@ -0,0 +1,100 @@
+package de.codecrafters.apaarb;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.junit.Assert.assertThat;
+
+/**
+ * Test of the {@link ItemIdValidator}.
+ *
+ * @author ISchwarz
+ */
+public class ItemIdValidatorTest {
+
+    private static final AmazonWebServiceAuthentication AUTHENTICATION =
+            AmazonWebServiceAuthentication.create("AssociateTag", "AccessKey", "SecretKey");
+
+    @Test
+    public void shouldAcceptValidIds() throws Exception {
+        for (final ItemId itemId : Arrays.asList(ItemId.createAsin("B00BYPW00I"), ItemId.createIsbn("080442957X"),
+                ItemId.createIsbn("0306406152"), ItemId.createIsbn("9780306406157"),
+                ItemId.createIsbn("9791090636071"), ItemId.createEan("4006381333931"), ItemId.createEan("73513537"),
+                ItemId.createUpc("036000291452"))) {
+
+            assertThat(itemId.toString(), ItemIdValidator.isValid(itemId), is(true));
+        }
+    }
+
+    @Test
+    public void shouldRejectInvalidIds() throws Exception {
+        for (final ItemId itemId : Arrays.asList(ItemId.createAsin("b00bypw00i"), ItemId.createAsin("B00BYPW00"),
+                ItemId.createIsbn("0804429571"), ItemId.createIsbn("08044X2957"),
+                ItemId.createIsbn("9780306406158"), ItemId.createIsbn("4006381333931"),
+                ItemId.createEan("4006381333932"), ItemId.createEan("400638133393"), ItemId.createEan("40063813339X"),
+                ItemId.createUpc("036000291453"), ItemId.createUpc("4006381333931"), ItemId.createUpc(""))) {
+
+            assertThat(itemId.toString(), ItemIdValidator.isValid(itemId), is(false));
+        }
+    }
+
+    @Test
+    public void shouldNormalizeIds() throws Exception {
+        final ItemId normalizedIsbn = ItemId.createIsbn("080442957X");
+
+        assertThat(ItemIdValidator.normalize(ItemId.createIsbn("0-8044-2957-x")), is(normalizedIsbn));
+        assertThat(ItemIdValidator.normalize(ItemId.createAsin("b00bypw00i")), is(ItemId.createAsin("B00BYPW00I")));
+        assertThat(ItemIdValidator.normalize(normalizedIsbn), is(sameInstance(normalizedIsbn)));
+    }
+
+    @Test
+    public void shouldConvertIsbns() throws Exception {
+        assertThat(ItemIdValidator.toIsbn13(ItemId.createIsbn("080442957X")), is(ItemId.createIsbn("9780804429573")));
+        assertThat(ItemIdValidator.toIsbn10(ItemId.createIsbn("9780804429573")), is(ItemId.createIsbn("080442957X")));
+        assertThat(ItemIdValidator.toIsbn10(ItemId.createIsbn("9780306406157")), is(ItemId.createIsbn("0306406152")));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldNotConvertIsbn13WithPrefix979() throws Exception {
+        ItemIdValidator.toIsbn10(ItemId.createIsbn("9791090636071"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldNotConvertInvalidIsbn() throws Exception {
+        ItemIdValidator.toIsbn13(ItemId.createIsbn("0804429571"));
+    }
+
+    @Test
+    public void shouldFilterInvalidIds() throws Exception {
+        final List<ItemId> invalidIds = new ArrayList<>();
+        final List<ItemId> validIds = ItemIdValidator.filterValid(Arrays.asList(ItemId.createAsin("B00BYPW00I"),
+                ItemId.createAsin("invalid"), ItemId.createEan("4006381333931"), ItemId.createEan("4006381333932")),
+                invalidIds);
+
+        assertThat(validIds, is(Arrays.asList(ItemId.createAsin("B00BYPW00I"), ItemId.createEan("4006381333931"))));
+        assertThat(invalidIds, is(Arrays.asList(ItemId.createAsin("invalid"), ItemId.createEan("4006381333932"))));
+    }
+
+    @Test
+    public void shouldNotCreateRequestUrlsForInvalidIds() throws Exception {
+        final ItemLookupRequestTemplate template = ItemLookupRequest.forItem(ItemId.createAsin("B00BYPW00I"))
+                .compile(AmazonWebServiceLocation.DE, AUTHENTICATION);
+        final BulkRequestUrlGenerator generator = BulkRequestUrlGenerator.builder(template)
+                .rejectingInvalidIds(true)
+                .parallelism(2)
+                .build();
+        try {
+            final List<String> requestUrls = generator.generate(Arrays.asList(ItemId.createAsin("invalid"),
+                    ItemId.createUpc("036000291453")));
+
+            assertThat(requestUrls.isEmpty(), is(true));
+        } finally {
+            generator.shutdown();
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package de.codecrafters.apaarb;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+
+import static de.codecrafters.apaarb.TestFixtures.createAsins;
+import static org.hamcrest.CoreMatchers.containsString;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+/**
+ * Test and usage example of ItemLookup requests for multiple items and the {@link ItemIdPartitioner}.
+ *
+ * @author ISchwarz
+ */
+public class ItemLookupBatchTest {
+
+    private AmazonWebServiceAuthentication authentication;
+
+    @Before
+    public void setUp() throws Exception {
+        authentication = AmazonWebServiceAuthentication.create("AssociateTag", "AccessKey", "SecretKey");
+    }
+
+    @Test
+    public void shouldCreateRequestUrlForMultipleItems() throws Exception {
+        final List<ItemId> itemIds = Arrays.asList(ItemId.createAsin("B01BKISLYC"), ItemId.createAsin("B00TEST123"));
+
+        final String requestUrl = AmazonProductAdvertisingApiRequestBuilder.forItemLookup(itemIds)
+                .createRequestUrlFor(AmazonWebServiceLocation.DE, authentication);
+
+        assertThat(requestUrl, containsString("IdType=ASIN&ItemId=B01BKISLYC%2CB00TEST123&Operation=ItemLookup"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectItemsOfDifferentTypes() throws Exception {
+        AmazonProductAdvertisingApiRequestBuilder.forItemLookup(
+                Arrays.asList(ItemId.createAsin("B01BKISLYC"), ItemId.createEan("4010232066543")));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectTooManyItems() throws Exception {
+        AmazonProductAdvertisingApiRequestBuilder.forItemLookup(createAsins(11));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectNoItems() throws Exception {
+        AmazonProductAdvertisingApiRequestBuilder.forItemLookup(new ArrayList<ItemId>());
+    }
+
+    @Test
+    public void shouldPartitionItemsIntoFullPartitionsPerType() throws Exception {
+        final List<ItemId> itemIds = new ArrayList<>(createAsins(25));
+        itemIds.add(5, ItemId.createEan("4010232066543"));
+
+        final List<List<ItemId>> partitions = ItemIdPartitioner.partition(itemIds);
+
+        assertThat(partitions.size(), is(4));
+        assertThat(partitions.get(0).size(), is(10));
+        assertThat(partitions.get(1).size(), is(10));
+        assertThat(partitions.get(2).size(), is(5));
+        assertThat(partitions.get(3), is(Arrays.asList(ItemId.createEan("4010232066543"))));
+    }
+
+    @Test
+    public void shouldCreateRequestUrlsForAllItems() throws Exception {
+        final ItemLookupRequestTemplate template =
+                AmazonProductAdvertisingApiRequestBuilder.forItemLookup(ItemId.createAsin("B01BKISLYC"))
+                        .compile(AmazonWebServiceLocation.DE, authentication);
+
+        final Iterator<String> requestUrls = template.createRequestUrlsFor(createAsins(12).iterator());
+
+        assertThat(requestUrls.next(), containsString("ItemId=B000000000%2CB000000001%2CB000000002"));
+        assertThat(requestUrls.next(), containsString("ItemId=B000000010%2CB000000011&Operation"));
+        assertThat(requestUrls.hasNext(), is(false));
+    }
+}
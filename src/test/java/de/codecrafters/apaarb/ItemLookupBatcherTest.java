@@ -0,0 +1,133 @@
+package de.codecrafters.apaarb;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.CoreMatchers.containsString;
+import static org.hamcrest.CoreMatchers.instanceOf;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+
+/**
+ * Test of the {@link ItemLookupBatcher} against a local {@link StubAmazonService}.
+ *
+ * @author ISchwarz
+ */
+public class ItemLookupBatcherTest {
+
+    private StubAmazonService service;
+    private RequestExecutor executor;
+
+    @Before
+    public void setUp() throws Exception {
+        service = StubAmazonService.start();
+        service.respondWithFixture("item-lookup-offers.xml");
+        executor = RequestExecutor.builder(
+                AmazonWebServiceAuthentication.create("AssociateTag", "AccessKey", "SecretKey"))
+                .usingTransport(service.createTransport())
+                .build();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        executor.shutdown();
+        service.stop();
+    }
+
+    @Test
+    public void shouldCombineLookupsAndDemultiplexResults() throws Exception {
+        final ItemLookupBatcher batcher = ItemLookupBatcher.builder(executor)
+                .maxDelay(50, TimeUnit.MILLISECONDS)
+                .build();
+
+        final ResponseFuture<ItemRecord> first =
+                batcher.lookup(ItemId.createAsin("B01BKISLYC"), AmazonWebServiceLocation.DE);
+        final ResponseFuture<ItemRecord> second =
+                batcher.lookup(ItemId.createAsin("B00X4WHP5E"), AmazonWebServiceLocation.DE);
+        final ResponseFuture<ItemRecord> missing =
+                batcher.lookup(ItemId.createAsin("B000000000"), AmazonWebServiceLocation.DE);
+        final ResponseFuture<ItemRecord> otherLocation =
+                batcher.lookup(ItemId.createAsin("B01BKISLYC"), AmazonWebServiceLocation.COM);
+
+        assertThat(first.get(5, TimeUnit.SECONDS).getTitle(), is("Example Headphones & Case"));
+        assertThat(second.get(5, TimeUnit.SECONDS).getAsin(), is("B00X4WHP5E"));
+        try {
+            missing.get(5, TimeUnit.SECONDS);
+            fail("Expected an ExecutionException");
+        } catch (final ExecutionException e) {
+            assertThat(e.getCause(), instanceOf(ItemNotReturnedException.class));
+        }
+        assertThat(otherLocation.get(5, TimeUnit.SECONDS).getAsin(), is("B01BKISLYC"));
+        assertThat(batcher.getBatchCount(), is(2L));
+        assertThat(service.getReceivedQueries().size(), is(2));
+        assertThat(service.getReceivedQueries().toString(),
+                containsString("ItemId=B01BKISLYC%2CB00X4WHP5E%2CB000000000"));
+        batcher.shutdown();
+    }
+
+    @Test
+    public void shouldMatchIsbn10ToReturnedIsbn13() throws Exception {
+        service.respondWith(200, "<ItemLookupResponse><Items><Item><ASIN>316148410X</ASIN>"
+                + "<ItemAttributes><ISBN>9783161484100</ISBN><Title>Example Book</Title></ItemAttributes>"
+                + "</Item></Items></ItemLookupResponse>");
+        final ItemLookupBatcher batcher = ItemLookupBatcher.builder(executor)
+                .maxDelay(50, TimeUnit.MILLISECONDS)
+                .build();
+
+        final ResponseFuture<ItemRecord> book =
+                batcher.lookup(ItemId.createIsbn("3-16-148410-X"), AmazonWebServiceLocation.DE);
+        final ResponseFuture<ItemRecord> missingBook =
+                batcher.lookup(ItemId.createIsbn("0306406152"), AmazonWebServiceLocation.DE);
+
+        assertThat(book.get(5, TimeUnit.SECONDS).getTitle(), is("Example Book"));
+        try {
+            missingBook.get(5, TimeUnit.SECONDS);
+            fail("Expected an ExecutionException");
+        } catch (final ExecutionException e) {
+            assertThat(((ItemNotReturnedException) e.getCause()).getItemId().getValue(), is("0306406152"));
+        }
+        assertThat(batcher.getBatchCount(), is(1L));
+        batcher.shutdown();
+    }
+
+    @Test
+    public void shouldFailLookupAfterShutdown() throws Exception {
+        final ItemLookupBatcher batcher = ItemLookupBatcher.create(executor);
+        batcher.shutdown();
+
+        final ResponseFuture<ItemRecord> result =
+                batcher.lookup(ItemId.createAsin("B01BKISLYC"), AmazonWebServiceLocation.DE);
+
+        try {
+            result.get(5, TimeUnit.SECONDS);
+            fail("Expected an ExecutionException");
+        } catch (final ExecutionException e) {
+            assertThat(e.getCause(), instanceOf(RejectedExecutionException.class));
+        }
+        assertThat(service.getReceivedQueries().size(), is(0));
+    }
+
+    @Test
+    public void shouldSendFullBatchWithoutDelay() throws Exception {
+        final ItemLookupBatcher batcher = ItemLookupBatcher.builder(executor)
+                .maxDelay(1, TimeUnit.HOURS)
+                .maxBatchSize(2)
+                .build();
+
+        final ResponseFuture<ItemRecord> first =
+                batcher.lookup(ItemId.createAsin("B01BKISLYC"), AmazonWebServiceLocation.DE);
+        final ResponseFuture<ItemRecord> second =
+                batcher.lookup(ItemId.createAsin("B00X4WHP5E"), AmazonWebServiceLocation.DE);
+
+        assertThat(first.get(5, TimeUnit.SECONDS).getAsin(), is("B01BKISLYC"));
+        assertThat(second.get(5, TimeUnit.SECONDS).getAsin(), is("B00X4WHP5E"));
+        assertThat(service.getReceivedQueries().size(), is(1));
+        batcher.shutdown();
+    }
+}
@@ -0,0 +1,74 @@
+package de.codecrafters.apaarb;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static de.codecrafters.apaarb.ItemCondition.NEW;
+import static de.codecrafters.apaarb.ItemInformation.ATTRIBUTES;
+import static de.codecrafters.apaarb.ItemInformation.OFFERS;
+import static de.codecrafters.apaarb.TestFixtures.FIXED_CLOCK;
+import static org.hamcrest.CoreMatchers.containsString;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.startsWith;
+import static org.junit.Assert.assertThat;
+
+/**
+ * Test and usage example of the {@link ItemLookupRequestTemplate}, which has to create the same request urls as the
+ * {@link AmazonProductAdvertisingApiRequestBuilder}.
+ *
+ * @author ISchwarz
+ */
+public class ItemLookupRequestTemplateTest {
+
+    private static final ItemId ITEM_ID = ItemId.createAsin("B01BKISLYC");
+    private static final ItemId OTHER_ITEM_ID = ItemId.createEan("4010232066543");
+
+    private AmazonWebServiceAuthentication authentication;
+
+    @Before
+    public void setUp() throws Exception {
+        authentication = AmazonWebServiceAuthentication.create("AssociateTag", "AccessKey", "SecretKey");
+    }
+
+    @Test
+    public void shouldCreateSameRequestUrlAsBuilder() throws Exception {
+        final ItemLookupRequestTemplate template = AmazonProductAdvertisingApiRequestBuilder.forItemLookup(ITEM_ID)
+                .filterByCondition(NEW)
+                .includeInformationAbout(ATTRIBUTES)
+                .includeInformationAbout(OFFERS)
+                .usingClock(FIXED_CLOCK)
+                .compile(AmazonWebServiceLocation.DE, authentication);
+
+        final String requestUrl = AmazonProductAdvertisingApiRequestBuilder.forItemLookup(ITEM_ID)
+                .filterByCondition(NEW)
+                .includeInformationAbout(ATTRIBUTES)
+                .includeInformationAbout(OFFERS)
+                .usingClock(FIXED_CLOCK)
+                .createRequestUrlFor(AmazonWebServiceLocation.DE, authentication);
+
+        assertThat(template.createRequestUrl(), is(requestUrl));
+    }
+
+    @Test
+    public void shouldCreateRequestUrlForOtherItemId() throws Exception {
+        final ItemLookupRequestTemplate template = AmazonProductAdvertisingApiRequestBuilder.forItemLookup(ITEM_ID)
+                .usingClock(FIXED_CLOCK)
+                .compile(AmazonWebServiceLocation.DE, authentication);
+
+        final String requestUrl = AmazonProductAdvertisingApiRequestBuilder.forItemLookup(OTHER_ITEM_ID)
+                .usingClock(FIXED_CLOCK)
+                .createRequestUrlFor(AmazonWebServiceLocation.DE, authentication);
+
+        assertThat(template.createRequestUrlFor(OTHER_ITEM_ID), is(requestUrl));
+        assertThat(requestUrl, containsString("IdType=EAN&ItemId=4010232066543"));
+    }
+
+    @Test
+    public void shouldCreateSecureRequestUrl() throws Exception {
+        final ItemLookupRequestTemplate template = AmazonProductAdvertisingApiRequestBuilder.forItemLookup(ITEM_ID)
+                .compile(AmazonWebServiceLocation.DE, authentication);
+
+        assertThat(template.createSecureRequestUrl(), startsWith("https://webservices.amazon.de/onca/xml?"));
+        assertThat(template.createSecureRequestUrlFor(OTHER_ITEM_ID), containsString("ItemId=4010232066543"));
+    }
+}
@@ -0,0 +1,100 @@
+package de.codecrafters.apaarb;
+
+import org.junit.Test;
+
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import static de.codecrafters.apaarb.ItemInformation.ATTRIBUTES;
+import static de.codecrafters.apaarb.ItemInformation.OFFERS;
+import static de.codecrafters.apaarb.ItemInformation.SALES_RANK;
+import static de.codecrafters.apaarb.ItemRecord.NO_VALUE;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.junit.Assert.assertThat;
+
+/**
+ * Test of the {@link ItemResponseParser} using recorded responses of the Amazon service.
+ *
+ * @author ISchwarz
+ */
+public class ItemResponseParserTest {
+
+    @Test
+    public void shouldReadRequestedInformation() throws Exception {
+        final ItemResponse response = parse("item-lookup-offers.xml",
+                ItemResponseParser.forResponseGroup(ATTRIBUTES, OFFERS, SALES_RANK));
+
+        assertThat(response.hasErrors(), is(false));
+        assertThat(response.getItems().size(), is(2));
+
+        final ItemRecord item = response.getItems().get(0);
+        assertThat(item.getAsin(), is("B01BKISLYC"));
+        assertThat(item.getTitle(), is("Example Headphones & Case"));
+        assertThat(item.getCurrencyCode(), is("EUR"));
+        assertThat(item.getListPrice(), is(4999L));
+        assertThat(item.getLowestNewPrice(), is(3995L));
+        assertThat(item.getLowestUsedPrice(), is(2850L));
+        assertThat(item.getOfferPrice(), is(4195L));
+        assertThat(item.getSalesRank(), is(1523L));
+
+        final ItemRecord secondItem = response.getItems().get(1);
+        assertThat(secondItem.getAsin(), is("B00X4WHP5E"));
+        assertThat(secondItem.getOfferPrice(), is(NO_VALUE));
+        assertThat(secondItem.getSalesRank(), is(87L));
+    }
+
+    @Test
+    public void shouldSkipInformationThatWasNotRequested() throws Exception {
+        final ItemResponse response = parse("item-lookup-offers.xml", ItemResponseParser.forResponseGroup(OFFERS));
+
+        final ItemRecord item = response.getItems().get(0);
+        assertThat(item.getAsin(), is("B01BKISLYC"));
+        assertThat(item.getTitle(), is(nullValue()));
+        assertThat(item.getParentAsin(), is(nullValue()));
+        assertThat(item.getListPrice(), is(NO_VALUE));
+        assertThat(item.getSalesRank(), is(NO_VALUE));
+        assertThat(item.getOfferPrice(), is(4195L));
+    }
+
+    @Test
+    public void shouldReadSearchResultCounts() throws Exception {
+        final List<ItemRecord> items = new ArrayList<>();
+        final ItemResponse response;
+        try (final InputStream in = openFixture("item-search.xml")) {
+            response = ItemResponseParser.forResponseGroup().parse(in, new ItemResponseParser.ItemRecordConsumer() {
+                @Override
+                public void accept(final ItemRecord itemRecord) {
+                    items.add(itemRecord);
+                }
+            });
+        }
+
+        assertThat(response.getTotalResults(), is(2741L));
+        assertThat(response.getTotalPages(), is(275L));
+        assertThat(response.getItems().isEmpty(), is(true));
+        assertThat(items.size(), is(2));
+        assertThat(items.get(1).getTitle(), is("Second Item"));
+    }
+
+    @Test
+    public void shouldReadErrors() throws Exception {
+        final ItemResponse response = parse("item-lookup-error.xml", ItemResponseParser.forResponseGroup(ATTRIBUTES));
+
+        assertThat(response.hasErrors(), is(true));
+        assertThat(response.getErrorCodes().get(0), is("AWS.InvalidParameterValue"));
+        assertThat(response.getItems().isEmpty(), is(true));
+        assertThat(response.getTotalPages(), is(NO_VALUE));
+    }
+
+    private static ItemResponse parse(final String fixture, final ItemResponseParser parser) throws Exception {
+        try (final InputStream in = openFixture(fixture)) {
+            return parser.parse(in);
+        }
+    }
+
+    private static InputStream openFixture(final String fixture) {
+        return ItemResponseParserTest.class.getResourceAsStream("/responses/" + fixture);
+    }
+}
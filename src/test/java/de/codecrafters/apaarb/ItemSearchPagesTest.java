@@ -0,0 +1,104 @@
+package de.codecrafters.apaarb;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+
+import static org.hamcrest.CoreMatchers.containsString;
+import static org.hamcrest.CoreMatchers.instanceOf;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.not;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+
+/**
+ * Test of the {@link ItemSearchPages} against a local {@link StubAmazonService}.
+ *
+ * @author ISchwarz
+ */
+public class ItemSearchPagesTest {
+
+    private StubAmazonService service;
+    private RequestExecutor executor;
+
+    @Before
+    public void setUp() throws Exception {
+        service = StubAmazonService.start();
+        service.respondWithFixture("item-search.xml");
+        executor = RequestExecutor.builder(AmazonWebServiceAuthentication.create("AssociateTag", "AccessKey", "SecretKey"))
+                .usingTransport(service.createTransport())
+                .build();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        executor.shutdown();
+        service.stop();
+    }
+
+    @Test
+    public void shouldStopAtPageLimitOfAllCategories() throws Exception {
+        final ItemSearchPages pages = ItemSearchPages.create(executor, ItemSearchRequest.forKeywords("headphones"),
+                AmazonWebServiceLocation.DE);
+
+        final List<ItemResponse> responses = readAll(pages);
+
+        assertThat(responses.size(), is(ItemSearchRequest.MAX_ITEM_PAGE_OF_ALL_CATEGORIES));
+        assertThat(responses.get(0).getItems().get(0).getAsin(), is("B01BKISLYC"));
+        assertThat(service.getReceivedQueries().size(), is(5));
+        assertThat(service.getReceivedQueries().get(0), not(containsString("ItemPage=")));
+        assertThat(service.getReceivedQueries().get(4), containsString("ItemPage=5&"));
+    }
+
+    @Test
+    public void shouldStopAtGivenLastPage() throws Exception {
+        final ItemSearchRequest request = ItemSearchRequest.forKeywords("headphones")
+                .withCategory(ItemCategory.ELECTRONICS)
+                .withItemPage(2);
+
+        final List<ItemResponse> responses = readAll(ItemSearchPages.create(executor, request,
+                AmazonWebServiceLocation.DE, 4));
+
+        assertThat(responses.size(), is(3));
+        assertThat(service.getReceivedQueries().get(0), containsString("ItemPage=2&"));
+    }
+
+    @Test
+    public void shouldStopAtTotalPages() throws Exception {
+        service.respondWith(200, "<ItemSearchResponse><Items><TotalResults>12</TotalResults>"
+                + "<TotalPages>2</TotalPages></Items></ItemSearchResponse>");
+        final ItemSearchPages pages = ItemSearchPages.create(executor, ItemSearchRequest.forKeywords("headphones")
+                .withCategory(ItemCategory.ELECTRONICS), AmazonWebServiceLocation.DE);
+
+        assertThat(readAll(pages).size(), is(2));
+        assertThat(pages.hasNextPage(), is(false));
+        assertThat(service.getReceivedQueries().size(), is(2));
+    }
+
+    @Test
+    public void shouldFailWithErrorResponse() throws Exception {
+        service.respondWith(503, "<ItemSearchErrorResponse/>");
+        final ItemSearchPages pages = ItemSearchPages.create(executor, ItemSearchRequest.forKeywords("headphones"),
+                AmazonWebServiceLocation.DE);
+
+        try {
+            pages.nextPage();
+            fail("The error response should fail the page");
+        } catch (final ExecutionException e) {
+            assertThat(e.getCause(), instanceOf(AmazonWebServiceException.class));
+        }
+        assertThat(pages.hasNextPage(), is(false));
+    }
+
+    private static List<ItemResponse> readAll(final ItemSearchPages pages) throws Exception {
+        final List<ItemResponse> responses = new ArrayList<>();
+        while (pages.hasNextPage()) {
+            responses.add(pages.nextPage());
+        }
+        return responses;
+    }
+}
@@ -0,0 +1,170 @@
+package de.codecrafters.apaarb;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.CoreMatchers.containsString;
+import static org.hamcrest.CoreMatchers.instanceOf;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+
+/**
+ * Test of the {@link ItemSearchPlanner} against a simulated catalog that answers ItemSearch requests like the Amazon
+ * service, including the limit of the requestable pages.
+ *
+ * @author ISchwarz
+ */
+public class ItemSearchPlannerTest {
+
+    private static final int ITEMS_PER_PAGE = 10;
+
+    private RequestExecutor executor;
+
+    @Before
+    public void setUp() throws Exception {
+        executor = RequestExecutor.builder(AmazonWebServiceAuthentication.create("AssociateTag", "AccessKey", "SecretKey"))
+                .usingTransport(new CatalogTransport())
+                .build();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        executor.shutdown();
+    }
+
+    @Test
+    public void shouldFindAllItemsOfSaturatedSearch() throws Exception {
+        final ItemSearchPlanner planner = ItemSearchPlanner.builder(executor)
+                .splittingInto(ItemCategory.ELECTRONICS, ItemCategory.BOOKS)
+                .initialSplitPrice(1000)
+                .build();
+
+        final List<ItemRecord> items = planner.search(ItemSearchRequest.forKeywords("headphones"),
+                AmazonWebServiceLocation.DE).get(5, TimeUnit.SECONDS);
+
+        final Set<String> asins = new HashSet<>();
+        for (final ItemRecord item : items) {
+            asins.add(item.getAsin());
+        }
+        assertThat(items.size(), is(230));
+        assertThat(asins.size(), is(230));
+    }
+
+    @Test
+    public void shouldReadSearchThatFitsWithoutSplitting() throws Exception {
+        final ItemSearchPlanner planner = ItemSearchPlanner.create(executor);
+
+        final List<ItemRecord> items = planner.search(ItemSearchRequest.forKeywords("headphones")
+                .withCategory(ItemCategory.BOOKS), AmazonWebServiceLocation.DE).get(5, TimeUnit.SECONDS);
+
+        assertThat(items.size(), is(80));
+        assertThat(planner.getRequestCount(), is(8L));
+    }
+
+    @Test
+    public void shouldTreatUnavailableCategoryAsEmpty() throws Exception {
+        final ItemSearchPlanner planner = ItemSearchPlanner.builder(executor)
+                .splittingInto(ItemCategory.ELECTRONICS, ItemCategory.BOOKS, ItemCategory.TOOLS)
+                .initialSplitPrice(1000)
+                .build();
+
+        final List<ItemRecord> items = planner.search(ItemSearchRequest.forKeywords("headphones"),
+                AmazonWebServiceLocation.DE).get(5, TimeUnit.SECONDS);
+
+        assertThat(items.size(), is(230));
+    }
+
+    @Test
+    public void shouldFailSearchOnErrorResponse() throws Exception {
+        final ItemSearchPlanner planner = ItemSearchPlanner.create(executor);
+
+        final ResponseFuture<List<ItemRecord>> result = planner.search(ItemSearchRequest.forKeywords("headphones")
+                .withCategory(ItemCategory.ELECTRONICS).withMinimumPrice(200000), AmazonWebServiceLocation.DE);
+
+        try {
+            result.get(5, TimeUnit.SECONDS);
+            fail("The search should have failed");
+        } catch (final ExecutionException e) {
+            assertThat(e.getCause(), instanceOf(IOException.class));
+            assertThat(e.getCause().getMessage(), containsString("AWS.InvalidParameterValue"));
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldNotSplitIntoAllCategories() throws Exception {
+        ItemSearchPlanner.builder(executor).splittingInto(ItemCategory.BOOKS, ItemCategory.ALL);
+    }
+
+    /**
+     * Answers ItemSearch requests from a catalog of 160 electronics items and 80 books, of which 10 items are in both
+     * categories. Every item has its own price.
+     */
+    private static final class CatalogTransport implements HttpTransport {
+
+        @Override
+        public AmazonWebServiceResponse execute(final String requestUrl) {
+            final Map<String, String> parameters = new HashMap<>();
+            for (final String parameter : requestUrl.substring(requestUrl.indexOf('?') + 1).split("&")) {
+                final int separator = parameter.indexOf('=');
+                parameters.put(parameter.substring(0, separator), parameter.substring(separator + 1));
+            }
+            final String category = parameters.get("SearchIndex");
+            final int minimumPrice = parameters.containsKey("MinimumPrice")
+                    ? Integer.parseInt(parameters.get("MinimumPrice")) : 0;
+            final int maximumPrice = parameters.containsKey("MaximumPrice")
+                    ? Integer.parseInt(parameters.get("MaximumPrice")) : Integer.MAX_VALUE;
+            final int itemPage = parameters.containsKey("ItemPage") ? Integer.parseInt(parameters.get("ItemPage")) : 1;
+            if (category.equals("Tools")) {
+                return createErrorResponse(requestUrl, "AWS.InvalidEnumeratedParameter");
+            }
+            if (minimumPrice > 100000) {
+                return createErrorResponse(requestUrl, "AWS.InvalidParameterValue");
+            }
+
+            final List<Integer> matchingItems = new ArrayList<>();
+            for (int item = 0; item < 230; item++) {
+                final boolean inCategory = category.equals("All")
+                        || category.equals("Electronics") && item < 160
+                        || category.equals("Books") && item >= 150;
+                final int price = item * 97;
+                if (inCategory && price >= minimumPrice && price <= maximumPrice) {
+                    matchingItems.add(item);
+                }
+            }
+
+            final int totalPages = (matchingItems.size() + ITEMS_PER_PAGE - 1) / ITEMS_PER_PAGE;
+            final StringBuilder body = new StringBuilder("<ItemSearchResponse><Items><TotalResults>")
+                    .append(matchingItems.size()).append("</TotalResults><TotalPages>").append(totalPages)
+                    .append("</TotalPages>");
+            final int maxItemPage = category.equals("All") ? 5 : 10;
+            if (itemPage <= maxItemPage) {
+                final int from = (itemPage - 1) * ITEMS_PER_PAGE;
+                for (int i = from; i < Math.min(from + ITEMS_PER_PAGE, matchingItems.size()); i++) {
+                    body.append("<Item><ASIN>").append(String.format("B%09d", matchingItems.get(i)))
+                            .append("</ASIN></Item>");
+                }
+            }
+            body.append("</Items></ItemSearchResponse>");
+            return AmazonWebServiceResponse.create(requestUrl, 200, body.toString().getBytes(StandardCharsets.UTF_8));
+        }
+
+        private static AmazonWebServiceResponse createErrorResponse(final String requestUrl, final String errorCode) {
+            final String body = "<ItemSearchResponse><Items><Request><Errors><Error><Code>" + errorCode
+                    + "</Code></Error></Errors></Request></Items></ItemSearchResponse>";
+            return AmazonWebServiceResponse.create(requestUrl, 200, body.getBytes(StandardCharsets.UTF_8));
+        }
+    }
+}
@@ -142,6 +142,22 @@ public class ItemSearchTest {
         assertThat(requestUrl, containsString("MaximumPrice=10000"));
     }
 
+    @Test
+    public void shouldCreateRequestUrlForItemPage() throws Exception {
+        final String requestUrl = AmazonProductAdvertisingApiRequestBuilder.forItemSearch(KEYWORDS)
+                .atItemPage(3)
+                .createRequestUrlFor(AmazonWebServiceLocation.DE, authentication);
+
+        checkRequestUrl(requestUrl, "http", "amazon.de", "All", "ItemAttributes", "All");
+        assertThat(requestUrl, containsString("Condition=All&ItemPage=3&Keywords="));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectItemPageAboveLimit() throws Exception {
+        AmazonProductAdvertisingApiRequestBuilder.forItemSearch(KEYWORDS)
+                .atItemPage(ItemSearchRequest.MAX_ITEM_PAGE + 1);
+    }
+
     private static void checkRequestUrl(final String requestUrl, final String protocol, final String domain,
                                         final String condition, final String responseGroup, final String searchIndex) {
 
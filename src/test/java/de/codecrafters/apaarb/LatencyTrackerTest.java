@@ -0,0 +1,42 @@
+package de.codecrafters.apaarb;
+
+import org.junit.Test;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+/**
+ * Test of the {@link LatencyTracker}.
+ *
+ * @author ISchwarz
+ */
+public class LatencyTrackerTest {
+
+    @Test
+    public void shouldGiveNoPercentileForTooFewLatencies() throws Exception {
+        final LatencyTracker tracker = new LatencyTracker(0.95);
+        for (int i = 1; i < LatencyTracker.MIN_SAMPLE_COUNT; i++) {
+            tracker.record(i);
+        }
+
+        assertThat(tracker.getPercentileNanos(), is(0L));
+    }
+
+    @Test
+    public void shouldGivePercentileOfRecentLatencies() throws Exception {
+        final LatencyTracker tracker = new LatencyTracker(0.95);
+        for (int i = 0; i < LatencyTracker.WINDOW_SIZE; i++) {
+            tracker.record(1000000);
+        }
+        for (int i = 1; i <= LatencyTracker.WINDOW_SIZE; i++) {
+            tracker.record(i);
+        }
+
+        assertThat(tracker.getPercentileNanos(), is(244L));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectInvalidPercentile() throws Exception {
+        new LatencyTracker(1.5);
+    }
+}
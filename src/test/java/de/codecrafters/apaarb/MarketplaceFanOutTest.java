@@ -0,0 +1,91 @@
+package de.codecrafters.apaarb;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.EnumSet;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.CoreMatchers.containsString;
+import static org.hamcrest.CoreMatchers.instanceOf;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test of the {@link MarketplaceFanOut} using a transport that answers per marketplace.
+ *
+ * @author ISchwarz
+ */
+public class MarketplaceFanOutTest {
+
+    private final CountDownLatch slowMarketplace = new CountDownLatch(1);
+    private RequestExecutor executor;
+
+    @Before
+    public void setUp() throws Exception {
+        executor = RequestExecutor.builder(AmazonWebServiceAuthentication.create("AssociateTag", "AccessKey", "SecretKey"))
+                .usingTransport(new HttpTransport() {
+                    @Override
+                    public AmazonWebServiceResponse execute(final String requestUrl) throws IOException {
+                        if (requestUrl.contains("amazon.co.jp")) {
+                            try {
+                                slowMarketplace.await(5, TimeUnit.SECONDS);
+                            } catch (final InterruptedException e) {
+                                Thread.currentThread().interrupt();
+                            }
+                        } else if (requestUrl.contains("amazon.cn")) {
+                            throw new IOException("Connection refused");
+                        }
+                        return AmazonWebServiceResponse.create(requestUrl, 200,
+                                "<ItemLookupResponse/>".getBytes(StandardCharsets.UTF_8));
+                    }
+                })
+                .build();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        slowMarketplace.countDown();
+        executor.shutdown();
+    }
+
+    @Test
+    public void shouldSendRequestToAllMarketplaces() throws Exception {
+        final MarketplaceFanOut fanOut = MarketplaceFanOut.builder(executor)
+                .sendingTo(AmazonWebServiceLocation.DE, AmazonWebServiceLocation.COM, AmazonWebServiceLocation.FR)
+                .build();
+
+        final MarketplaceFanOut.Result result = fanOut.execute(ItemLookupRequest.forItem(
+                ItemId.createAsin("B00BYPW00I")));
+
+        assertThat(result.isComplete(), is(true));
+        assertThat(result.getResponses().keySet(), is((Set<AmazonWebServiceLocation>) EnumSet.of(
+                AmazonWebServiceLocation.COM, AmazonWebServiceLocation.DE, AmazonWebServiceLocation.FR)));
+        assertThat(result.getResponses().get(AmazonWebServiceLocation.FR).getRequestUrl(),
+                containsString("webservices.amazon.fr"));
+    }
+
+    @Test
+    public void shouldNotWaitForSlowMarketplace() throws Exception {
+        final MarketplaceFanOut fanOut = MarketplaceFanOut.builder(executor)
+                .timeout(200, TimeUnit.MILLISECONDS)
+                .build();
+
+        final long start = System.nanoTime();
+        final MarketplaceFanOut.Result result = fanOut.execute(ItemLookupRequest.forItem(
+                ItemId.createAsin("B00BYPW00I")));
+
+        assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(2));
+        assertThat(result.isComplete(), is(false));
+        assertThat(result.getTimedOutLocations(), is((Set<AmazonWebServiceLocation>) EnumSet.of(
+                AmazonWebServiceLocation.CO_JP)));
+        assertThat(result.getFailures().get(AmazonWebServiceLocation.CN), instanceOf(IOException.class));
+        assertThat(result.getResponses().size(), is(AmazonWebServiceLocation.values().length - 2));
+    }
+}
@@ -0,0 +1,150 @@
+package de.codecrafters.apaarb;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import static de.codecrafters.apaarb.TestFixtures.FIXED_CLOCK;
+import static de.codecrafters.apaarb.TestFixtures.createAsin;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.junit.Assert.assertThat;
+
+/**
+ * Test of the {@link PackedItemId} and the {@link ItemIdSet} and {@link ItemIdMap} holding packed IDs.
+ *
+ * @author ISchwarz
+ */
+public class PackedItemIdTest {
+
+    private static final AmazonWebServiceAuthentication AUTHENTICATION =
+            AmazonWebServiceAuthentication.create("AssociateTag", "AccessKey", "SecretKey");
+
+    @Test
+    public void shouldPackAndUnpackIds() throws Exception {
+        for (final ItemId itemId : Arrays.asList(ItemId.createAsin("B00BYPW00I"), ItemId.createAsin("0000000000"),
+                ItemId.createAsin("ZZZZZZZZZZ"), ItemId.createEan("0004010232066"), ItemId.createUpc("012345678905"),
+                ItemId.createIsbn("080442957X"), ItemId.createIsbn("9780804429573"),
+                ItemId.createEan("9999999999999999"))) {
+
+            final long packedId = PackedItemId.pack(itemId);
+
+            assertThat(PackedItemId.isPacked(packedId), is(true));
+            assertThat(PackedItemId.getType(packedId), is(itemId.getType()));
+            assertThat(PackedItemId.unpack(packedId), is(itemId));
+        }
+    }
+
+    @Test
+    public void shouldNotPackUnsupportedIds() throws Exception {
+        for (final ItemId itemId : Arrays.asList(ItemId.createAsin("b00bypw00i"), ItemId.createAsin("B00BYPW00"),
+                ItemId.createEan("12345678901234567"), ItemId.createEan("401023206654X"), ItemId.createUpc(""),
+                ItemId.createIsbn("08044X2957"))) {
+
+            assertThat(PackedItemId.pack(itemId), is(PackedItemId.NONE));
+        }
+    }
+
+    @Test
+    public void shouldDistinguishTypesAndLeadingZeros() throws Exception {
+        assertThat(PackedItemId.pack("012345678905", ItemId.Type.UPC)
+                == PackedItemId.pack("012345678905", ItemId.Type.EAN), is(false));
+        assertThat(PackedItemId.pack("012345678905", ItemId.Type.EAN)
+                == PackedItemId.pack("12345678905", ItemId.Type.EAN), is(false));
+    }
+
+    @Test
+    public void shouldCreateSameUrlForPackedIds() throws Exception {
+        final ItemLookupRequestTemplate template = ItemLookupRequest.forItem(ItemId.createIsbn("080442957X"))
+                .withClock(FIXED_CLOCK)
+                .compile(AmazonWebServiceLocation.DE, AUTHENTICATION);
+        final long[] packedIds = {
+                PackedItemId.pack(ItemId.createAsin("B00BYPW00I")),
+                PackedItemId.pack(ItemId.createIsbn("080442957X")),
+                PackedItemId.pack(ItemId.createIsbn("9780804429573"))
+        };
+
+        assertThat(template.createSecureRequestUrlFor(packedIds, 1, 2), is(template.createSecureRequestUrlFor(
+                Arrays.asList(ItemId.createIsbn("080442957X"), ItemId.createIsbn("9780804429573")))));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectPackedIdsOfDifferentTypes() throws Exception {
+        final ItemLookupRequestTemplate template = ItemLookupRequest.forItem(ItemId.createAsin("B00BYPW00I"))
+                .compile(AmazonWebServiceLocation.DE, AUTHENTICATION);
+        final long[] packedIds = {
+                PackedItemId.pack(ItemId.createAsin("B00BYPW00I")),
+                PackedItemId.pack(ItemId.createIsbn("080442957X"))
+        };
+
+        template.createRequestUrlFor(packedIds, 0, 2);
+    }
+
+    @Test
+    public void shouldBehaveLikeHashSet() throws Exception {
+        final ItemIdSet itemIdSet = new ItemIdSet();
+        final Set<ItemId> expectedSet = new HashSet<>();
+        final Random random = new Random(42);
+
+        for (int i = 0; i < 20000; i++) {
+            final ItemId itemId = createRandomId(random);
+            if (random.nextInt(3) == 0) {
+                assertThat(itemIdSet.remove(itemId), is(expectedSet.remove(itemId)));
+            } else {
+                assertThat(itemIdSet.add(itemId), is(expectedSet.add(itemId)));
+            }
+            assertThat(itemIdSet.size(), is(expectedSet.size()));
+        }
+
+        for (int i = 0; i < 1000; i++) {
+            final ItemId itemId = createRandomId(random);
+            assertThat(itemIdSet.contains(itemId), is(expectedSet.contains(itemId)));
+        }
+        assertThat(new HashSet<>(itemIdSet.toList()), is(expectedSet));
+    }
+
+    @Test
+    public void shouldBehaveLikeHashMap() throws Exception {
+        final ItemIdMap<Integer> itemIdMap = new ItemIdMap<>(4);
+        final Map<ItemId, Integer> expectedMap = new HashMap<>();
+        final Random random = new Random(42);
+
+        for (int i = 0; i < 20000; i++) {
+            final ItemId itemId = createRandomId(random);
+            if (random.nextInt(3) == 0) {
+                assertThat(itemIdMap.remove(itemId), is(expectedMap.remove(itemId)));
+            } else {
+                assertThat(itemIdMap.put(itemId, i), is(expectedMap.put(itemId, i)));
+            }
+            assertThat(itemIdMap.size(), is(expectedMap.size()));
+        }
+
+        for (int i = 0; i < 1000; i++) {
+            final ItemId itemId = createRandomId(random);
+            assertThat(itemIdMap.get(itemId), is(expectedMap.get(itemId)));
+        }
+        assertThat(itemIdMap.toMap(), is(expectedMap));
+        itemIdMap.clear();
+        assertThat(itemIdMap.get(ItemId.createAsin("B00BYPW00I")), is(nullValue()));
+        assertThat(itemIdMap.isEmpty(), is(true));
+    }
+
+    private static ItemId createRandomId(final Random random) {
+        // a small range of values, so IDs are added and removed repeatedly
+        final int number = random.nextInt(5000);
+        switch (random.nextInt(3)) {
+            case 0:
+                return createAsin(number);
+            case 1:
+                return ItemId.createEan(String.format("%013d", number));
+            default:
+                // IDs that can't be packed
+                return ItemId.createAsin("b" + number);
+        }
+    }
+}
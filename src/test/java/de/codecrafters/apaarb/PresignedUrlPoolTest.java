@@ -0,0 +1,177 @@
+package de.codecrafters.apaarb;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static de.codecrafters.apaarb.TestFixtures.FIXED_TIME_MILLIS;
+import static de.codecrafters.apaarb.TestFixtures.createAsin;
+import static org.hamcrest.CoreMatchers.containsString;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.junit.Assert.assertThat;
+
+/**
+ * Test and usage example of the {@link PresignedUrlPool}.
+ *
+ * @author ISchwarz
+ */
+public class PresignedUrlPoolTest {
+
+    private final AtomicLong currentMillis = new AtomicLong(FIXED_TIME_MILLIS);
+    private final RequestClock clock = new RequestClock() {
+        @Override
+        public long currentTimeMillis() {
+            return currentMillis.get();
+        }
+    };
+
+    private AmazonWebServiceAuthentication authentication;
+    private PresignedUrlPool pool;
+
+    @Before
+    public void setUp() throws Exception {
+        authentication = AmazonWebServiceAuthentication.create("AssociateTag", "AccessKey", "SecretKey");
+        pool = PresignedUrlPool.builder(authentication)
+                .lookAhead(3)
+                .maxAge(10, TimeUnit.MINUTES)
+                .usingClock(clock)
+                .build();
+    }
+
+    @Test
+    public void shouldHoldSignedUrlsUpToLookAhead() throws Exception {
+        for (int i = 0; i < 3; i++) {
+            assertThat(pool.offer(createRequest(i), AmazonWebServiceLocation.DE), is(true));
+        }
+        assertThat(pool.offer(createRequest(3), AmazonWebServiceLocation.DE), is(false));
+        assertThat(pool.size(), is(3));
+
+        for (int i = 0; i < 3; i++) {
+            final PresignedUrlPool.PresignedUrl url = pool.poll();
+            assertThat(url.getRequestUrl(), is(createRequest(i)
+                    .createSecureRequestUrlFor(AmazonWebServiceLocation.DE, authentication)));
+            assertThat(url.getTimestampMillis(), is(FIXED_TIME_MILLIS));
+        }
+        assertThat(pool.poll(), is(nullValue()));
+        assertThat(pool.getResignedUrlCount(), is(0L));
+    }
+
+    @Test
+    public void shouldResignExpiringUrlWhenTaken() throws Exception {
+        pool.put(createRequest(0), AmazonWebServiceLocation.DE);
+        final String staleUrl = createRequest(0).createSecureRequestUrlFor(AmazonWebServiceLocation.DE, authentication);
+
+        currentMillis.addAndGet(TimeUnit.MINUTES.toMillis(10));
+        final PresignedUrlPool.PresignedUrl url = pool.take();
+
+        assertThat(url.getTimestampMillis(), is(currentMillis.get()));
+        assertThat(url.getRequestUrl(), is(not(staleUrl)));
+        assertThat(url.getRequestUrl(), containsString("Timestamp=2016-10-08T13%3A40%3A38.123Z"));
+        assertThat(pool.getResignedUrlCount(), is(1L));
+    }
+
+    @Test
+    public void shouldRefreshOnlyExpiringUrls() throws Exception {
+        pool.put(createRequest(0), AmazonWebServiceLocation.DE);
+        pool.put(createRequest(1), AmazonWebServiceLocation.DE);
+        currentMillis.addAndGet(TimeUnit.MINUTES.toMillis(5));
+        pool.put(createRequest(2), AmazonWebServiceLocation.DE);
+        currentMillis.addAndGet(TimeUnit.MINUTES.toMillis(6));
+
+        assertThat(pool.refreshExpiring(), is(2));
+        assertThat(pool.size(), is(3));
+        assertThat(pool.refreshExpiring(), is(0));
+
+        final Set<Long> timestamps = new HashSet<>();
+        for (int i = 0; i < 3; i++) {
+            timestamps.add(pool.poll().getTimestampMillis());
+        }
+        final Set<Long> expectedTimestamps = new HashSet<>();
+        expectedTimestamps.add(currentMillis.get());
+        expectedTimestamps.add(FIXED_TIME_MILLIS + TimeUnit.MINUTES.toMillis(5));
+        assertThat(timestamps, is(expectedTimestamps));
+        assertThat(pool.getResignedUrlCount(), is(2L));
+    }
+
+    @Test
+    public void shouldHandOutEveryUrlOnceToConcurrentSenders() throws Exception {
+        final int requestCount = 2000;
+        final PresignedUrlPool concurrentPool = PresignedUrlPool.builder(authentication)
+                .lookAhead(16)
+                .build();
+        final Set<String> takenUrls = new HashSet<>();
+        final List<Thread> senders = new ArrayList<>();
+        final AtomicLong remainingUrls = new AtomicLong(requestCount);
+        for (int i = 0; i < 4; i++) {
+            final Thread sender = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        while (remainingUrls.getAndDecrement() > 0) {
+                            final String requestUrl = concurrentPool.take().getRequestUrl();
+                            synchronized (takenUrls) {
+                                takenUrls.add(requestUrl);
+                            }
+                        }
+                    } catch (final InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+            });
+            sender.start();
+            senders.add(sender);
+        }
+
+        for (int i = 0; i < requestCount; i++) {
+            concurrentPool.put(createRequest(i), AmazonWebServiceLocation.DE);
+        }
+        for (final Thread sender : senders) {
+            sender.join(TimeUnit.SECONDS.toMillis(10));
+        }
+
+        assertThat(takenUrls.size(), is(requestCount));
+        assertThat(concurrentPool.size(), is(0));
+    }
+
+    @Test
+    public void shouldTrackTimestampOfRequestClock() throws Exception {
+        final PresignedUrlPool systemClockPool = PresignedUrlPool.create(authentication);
+
+        systemClockPool.put(createRequest(0), AmazonWebServiceLocation.DE);
+        final PresignedUrlPool.PresignedUrl url = systemClockPool.take();
+
+        // the request signs with its own clock, which lies far in the past of the clock of the pool
+        assertThat(url.getTimestampMillis(), is(FIXED_TIME_MILLIS));
+        assertThat(systemClockPool.getResignedUrlCount(), is(1L));
+    }
+
+    @Test
+    public void shouldKeepRefreshedUrlsWhileProducersFillThePool() throws Exception {
+        pool.put(createRequest(0), AmazonWebServiceLocation.DE);
+        pool.put(createRequest(1), AmazonWebServiceLocation.DE);
+        currentMillis.addAndGet(TimeUnit.MINUTES.toMillis(10));
+        pool.put(createRequest(2), AmazonWebServiceLocation.DE);
+
+        assertThat(pool.offer(createRequest(3), AmazonWebServiceLocation.DE), is(false));
+        assertThat(pool.refreshExpiring(), is(2));
+        assertThat(pool.offer(createRequest(3), AmazonWebServiceLocation.DE), is(false));
+        assertThat(pool.size(), is(3));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectLookAheadOfZero() throws Exception {
+        PresignedUrlPool.builder(authentication).lookAhead(0);
+    }
+
+    private ItemLookupRequest createRequest(final int index) {
+        return ItemLookupRequest.forItem(createAsin(index)).withClock(clock);
+    }
+}
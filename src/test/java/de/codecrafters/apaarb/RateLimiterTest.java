@@ -0,0 +1,98 @@
+package de.codecrafters.apaarb;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.junit.Assert.assertThat;
+
+/**
+ * Test of the {@link RateLimiter} and the {@link RequestRateLimiter} using a manually advanced clock.
+ *
+ * @author ISchwarz
+ */
+public class RateLimiterTest {
+
+    private static final long ONE_SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    private long now;
+    private NanoClock clock;
+
+    @Before
+    public void setUp() throws Exception {
+        now = 42;
+        clock = new NanoClock() {
+            @Override
+            public long nanoTime() {
+                return now;
+            }
+        };
+    }
+
+    @Test
+    public void shouldAllowBurstAndThenPace() throws Exception {
+        final RateLimiter rateLimiter = new RateLimiter(1, 3, clock);
+
+        assertThat(rateLimiter.reserve(), is(0L));
+        assertThat(rateLimiter.reserve(), is(0L));
+        assertThat(rateLimiter.reserve(), is(0L));
+        assertThat(rateLimiter.reserve(), is(ONE_SECOND));
+        assertThat(rateLimiter.reserve(), is(2 * ONE_SECOND));
+
+        assertThat(rateLimiter.getAcquiredPermitCount(), is(5L));
+        assertThat(rateLimiter.getDelayedPermitCount(), is(2L));
+        assertThat(rateLimiter.getTotalWaitNanos(), is(3 * ONE_SECOND));
+        assertThat(rateLimiter.getMaxWaitNanos(), is(2 * ONE_SECOND));
+    }
+
+    @Test
+    public void shouldRefillAfterTime() throws Exception {
+        final RateLimiter rateLimiter = new RateLimiter(2, 2, clock);
+        assertThat(rateLimiter.tryAcquire(), is(true));
+        assertThat(rateLimiter.tryAcquire(), is(true));
+        assertThat(rateLimiter.tryAcquire(), is(false));
+        assertThat(rateLimiter.getNanosUntilNextPermit(), is(ONE_SECOND / 2));
+
+        now += ONE_SECOND / 2;
+        assertThat(rateLimiter.tryAcquire(), is(true));
+        assertThat(rateLimiter.tryAcquire(), is(false));
+
+        // idle time only refills the bucket up to the burst size
+        now += 10 * ONE_SECOND;
+        assertThat(rateLimiter.tryAcquire(), is(true));
+        assertThat(rateLimiter.tryAcquire(), is(true));
+        assertThat(rateLimiter.tryAcquire(), is(false));
+    }
+
+    @Test
+    public void shouldKeepRateLimiterPerAccessKeyAndLocation() throws Exception {
+        final RequestRateLimiter requestRateLimiter = RequestRateLimiter.builder()
+                .limitTo(AmazonWebServiceLocation.COM, 10, 5)
+                .build(clock);
+        final AmazonWebServiceAuthentication authentication =
+                AmazonWebServiceAuthentication.create("AssociateTag", "AccessKey", "SecretKey");
+        final AmazonWebServiceAuthentication sameAccessKey =
+                AmazonWebServiceAuthentication.create("OtherTag", "AccessKey", "SecretKey");
+        final AmazonWebServiceAuthentication otherAccessKey =
+                AmazonWebServiceAuthentication.create("AssociateTag", "OtherKey", "SecretKey");
+
+        final RateLimiter comLimiter = requestRateLimiter.getRateLimiter(authentication, AmazonWebServiceLocation.COM);
+
+        assertThat(requestRateLimiter.getRateLimiter(sameAccessKey, AmazonWebServiceLocation.COM),
+                sameInstance(comLimiter));
+        assertThat(requestRateLimiter.getRateLimiter(otherAccessKey, AmazonWebServiceLocation.COM),
+                not(sameInstance(comLimiter)));
+        assertThat(comLimiter.getBurstSize(), is(5));
+        assertThat(requestRateLimiter.getRateLimiter(authentication, AmazonWebServiceLocation.DE).getBurstSize(),
+                is(RequestRateLimiter.DEFAULT_BURST_SIZE));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectInvalidBurstSize() throws Exception {
+        RequestRateLimiter.builder().limitTo(1, 0);
+    }
+}
@@ -0,0 +1,395 @@
+package de.codecrafters.apaarb;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.CoreMatchers.containsString;
+import static org.hamcrest.CoreMatchers.instanceOf;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+
+/**
+ * Test of the {@link RequestExecutor} against a local {@link StubAmazonService}.
+ *
+ * @author ISchwarz
+ */
+public class RequestExecutorTest {
+
+    private static final ItemId ITEM_ID = ItemId.createAsin("B01BKISLYC");
+
+    private AmazonWebServiceAuthentication authentication;
+    private StubAmazonService service;
+
+    @Before
+    public void setUp() throws Exception {
+        authentication = AmazonWebServiceAuthentication.create("AssociateTag", "AccessKey", "SecretKey");
+        service = StubAmazonService.start();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        service.stop();
+    }
+
+    @Test
+    public void shouldSendSignedRequest() throws Exception {
+        final RequestExecutor executor = RequestExecutor.builder(authentication)
+                .usingTransport(service.createTransport()).build();
+
+        final AmazonWebServiceResponse response = executor.execute(
+                AmazonProductAdvertisingApiRequestBuilder.forItemLookup(ITEM_ID), AmazonWebServiceLocation.DE)
+                .get(5, TimeUnit.SECONDS);
+
+        assertThat(response.isSuccessful(), is(true));
+        assertThat(response.getBodyAsString(), is("<ItemLookupResponse/>"));
+        assertThat(service.getReceivedQueries().get(0), containsString("ItemId=B01BKISLYC"));
+        assertThat(service.getReceivedQueries().get(0), containsString("&Signature="));
+        executor.shutdown();
+    }
+
+    @Test
+    public void shouldCompleteWithErrorResponse() throws Exception {
+        service.respondWith(503, "<ItemLookupErrorResponse/>");
+        final RequestExecutor executor = RequestExecutor.builder(authentication)
+                .usingTransport(service.createTransport()).build();
+
+        final AmazonWebServiceResponse response = executor.execute(
+                AmazonProductAdvertisingApiRequestBuilder.forItemLookup(ITEM_ID), AmazonWebServiceLocation.DE)
+                .get(5, TimeUnit.SECONDS);
+
+        assertThat(response.getStatusCode(), is(503));
+        assertThat(response.isSuccessful(), is(false));
+        executor.shutdown();
+    }
+
+    @Test
+    public void shouldLimitConcurrentRequestsPerLocation() throws Exception {
+        service.delayResponsesBy(50);
+        final RequestExecutor executor = RequestExecutor.builder(authentication)
+                .usingTransport(service.createTransport())
+                .limitConcurrentRequestsTo(AmazonWebServiceLocation.DE, 2)
+                .build();
+
+        final List<ResponseFuture<AmazonWebServiceResponse>> responses = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            responses.add(executor.execute(createLookup(i), AmazonWebServiceLocation.DE));
+        }
+        for (final ResponseFuture<AmazonWebServiceResponse> response : responses) {
+            assertThat(response.get(5, TimeUnit.SECONDS).isSuccessful(), is(true));
+        }
+
+        assertThat(service.getReceivedQueries().size(), is(8));
+        assertThat(service.getMaxConcurrentRequests() <= 2, is(true));
+        assertThat(executor.getInFlightRequestCount(AmazonWebServiceLocation.DE), is(0));
+        executor.shutdown();
+    }
+
+    @Test
+    public void shouldPaceRequestsWithRateLimiter() throws Exception {
+        final RequestRateLimiter rateLimiter = RequestRateLimiter.builder().limitTo(50, 1).build();
+        final RequestExecutor executor = RequestExecutor.builder(authentication)
+                .usingTransport(service.createTransport())
+                .usingRateLimiter(rateLimiter)
+                .build();
+
+        final long start = System.nanoTime();
+        final List<ResponseFuture<AmazonWebServiceResponse>> responses = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            responses.add(executor.execute(createLookup(i), AmazonWebServiceLocation.DE));
+        }
+        for (final ResponseFuture<AmazonWebServiceResponse> response : responses) {
+            response.get(5, TimeUnit.SECONDS);
+        }
+
+        // six requests at 50 requests per second need at least five intervals of 20ms
+        assertThat(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(100), is(true));
+        final RateLimiter deLimiter = rateLimiter.getRateLimiter(authentication, AmazonWebServiceLocation.DE);
+        assertThat(deLimiter.getAcquiredPermitCount(), is(6L));
+        assertThat(deLimiter.getDelayedPermitCount() > 0, is(true));
+        executor.shutdown();
+    }
+
+    @Test
+    public void shouldAnswerRepeatedRequestFromCache() throws Exception {
+        final ResponseCache cache = ResponseCache.create();
+        final RequestExecutor executor = RequestExecutor.builder(authentication)
+                .usingTransport(service.createTransport())
+                .usingCache(cache)
+                .build();
+
+        final AmazonWebServiceResponse response = executor.execute(
+                AmazonProductAdvertisingApiRequestBuilder.forItemLookup(ITEM_ID), AmazonWebServiceLocation.DE)
+                .get(5, TimeUnit.SECONDS);
+        final ResponseFuture<AmazonWebServiceResponse> cachedResponse = executor.execute(
+                AmazonProductAdvertisingApiRequestBuilder.forItemLookup(ITEM_ID), AmazonWebServiceLocation.DE);
+
+        assertThat(cachedResponse.isDone(), is(true));
+        assertThat(cachedResponse.get() == response, is(true));
+        assertThat(service.getReceivedQueries().size(), is(1));
+        executor.shutdown();
+    }
+
+    @Test
+    public void shouldCoalesceIdenticalConcurrentRequests() throws Exception {
+        service.delayResponsesBy(100);
+        final RequestExecutor executor = RequestExecutor.builder(authentication)
+                .usingTransport(service.createTransport()).build();
+
+        final List<ResponseFuture<AmazonWebServiceResponse>> responses = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            responses.add(executor.execute(
+                    AmazonProductAdvertisingApiRequestBuilder.forItemLookup(ITEM_ID), AmazonWebServiceLocation.DE));
+        }
+        responses.get(4).cancel(true);
+
+        final AmazonWebServiceResponse response = responses.get(0).get(5, TimeUnit.SECONDS);
+        for (int i = 1; i < 4; i++) {
+            assertThat(responses.get(i).get(5, TimeUnit.SECONDS) == response, is(true));
+        }
+        assertThat(service.getReceivedQueries().size(), is(1));
+        assertThat(executor.getCoalescedRequestCount(), is(4L));
+        executor.shutdown();
+    }
+
+    @Test
+    public void shouldNotSendCancelledQueuedRequestWhileCoalescing() throws Exception {
+        service.delayResponsesBy(100);
+        final RequestExecutor executor = RequestExecutor.builder(authentication)
+                .usingTransport(service.createTransport())
+                .limitConcurrentRequestsTo(1)
+                .build();
+
+        final ResponseFuture<AmazonWebServiceResponse> firstResponse =
+                executor.execute(createLookup(1), AmazonWebServiceLocation.DE);
+        final ResponseFuture<AmazonWebServiceResponse> queuedResponse =
+                executor.execute(createLookup(2), AmazonWebServiceLocation.DE);
+        final ResponseFuture<AmazonWebServiceResponse> coalescedResponse =
+                executor.execute(createLookup(2), AmazonWebServiceLocation.DE);
+        queuedResponse.cancel(true);
+        coalescedResponse.cancel(true);
+
+        firstResponse.get(5, TimeUnit.SECONDS);
+        Thread.sleep(200);
+
+        assertThat(service.getReceivedQueries().size(), is(1));
+        assertThat(service.getReceivedQueries().get(0), containsString("ItemId=B00000001"));
+        assertThat(executor.getInFlightRequestCount(AmazonWebServiceLocation.DE), is(0));
+        executor.shutdown();
+    }
+
+    @Test
+    public void shouldFailIfRequestCannotBeSent() throws Exception {
+        final RequestExecutor executor = RequestExecutor.builder(authentication)
+                .usingTransport(new HttpTransport() {
+                    @Override
+                    public AmazonWebServiceResponse execute(final String requestUrl) throws IOException {
+                        throw new IOException("Connection refused");
+                    }
+                }).build();
+
+        final ResponseFuture<AmazonWebServiceResponse> response = executor.execute(
+                AmazonProductAdvertisingApiRequestBuilder.forItemLookup(ITEM_ID), AmazonWebServiceLocation.DE);
+
+        try {
+            response.get(5, TimeUnit.SECONDS);
+            fail("Expected an ExecutionException");
+        } catch (final ExecutionException e) {
+            assertThat(e.getCause(), instanceOf(IOException.class));
+        }
+        executor.shutdown();
+    }
+
+    @Test
+    public void shouldRetryThrottledRequestWithFreshSignature() throws Exception {
+        final List<String> requestUrls = new CopyOnWriteArrayList<>();
+        final RequestExecutor executor = RequestExecutor.builder(authentication)
+                .usingTransport(new HttpTransport() {
+                    @Override
+                    public AmazonWebServiceResponse execute(final String requestUrl) {
+                        requestUrls.add(requestUrl);
+                        return AmazonWebServiceResponse.create(requestUrl, requestUrls.size() < 3 ? 503 : 200,
+                                new byte[0]);
+                    }
+                })
+                .retryingThrottledRequests(3, 5, TimeUnit.MILLISECONDS)
+                .build();
+
+        final AmazonWebServiceResponse response = executor.execute(
+                AmazonProductAdvertisingApiRequestBuilder.forItemLookup(ITEM_ID), AmazonWebServiceLocation.DE)
+                .get(5, TimeUnit.SECONDS);
+
+        assertThat(response.getStatusCode(), is(200));
+        assertThat(executor.getRetriedRequestCount(), is(2L));
+        assertThat(new HashSet<>(requestUrls).size(), is(3));
+        executor.shutdown();
+    }
+
+    @Test
+    public void shouldGiveUpRetryingThrottledRequest() throws Exception {
+        service.respondWith(503, "<ItemLookupErrorResponse/>");
+        final RequestExecutor executor = RequestExecutor.builder(authentication)
+                .usingTransport(service.createTransport())
+                .retryingThrottledRequests(2, 1, TimeUnit.MILLISECONDS)
+                .build();
+
+        final AmazonWebServiceResponse response = executor.execute(
+                AmazonProductAdvertisingApiRequestBuilder.forItemLookup(ITEM_ID), AmazonWebServiceLocation.DE)
+                .get(5, TimeUnit.SECONDS);
+
+        assertThat(response.getStatusCode(), is(503));
+        assertThat(service.getReceivedQueries().size(), is(3));
+        executor.shutdown();
+    }
+
+    @Test
+    public void shouldHedgeSlowRequest() throws Exception {
+        final CountDownLatch slowResponse = new CountDownLatch(1);
+        final AtomicInteger attempts = new AtomicInteger();
+        final RequestExecutor executor = RequestExecutor.builder(authentication)
+                .usingTransport(createTransportWithSlowFirstResponse(slowResponse, attempts))
+                .hedgingSlowRequests(0.95, 50, TimeUnit.MILLISECONDS)
+                .build();
+
+        final AmazonWebServiceResponse response = executor.execute(
+                AmazonProductAdvertisingApiRequestBuilder.forItemLookup(ITEM_ID), AmazonWebServiceLocation.DE)
+                .get(2, TimeUnit.SECONDS);
+
+        assertThat(response.getBodyAsString(), is("hedge"));
+        assertThat(executor.getHedgedRequestCount(), is(1L));
+        slowResponse.countDown();
+        executor.shutdown();
+    }
+
+    @Test
+    public void shouldNotHedgeBeyondRateLimit() throws Exception {
+        final CountDownLatch slowResponse = new CountDownLatch(1);
+        final AtomicInteger attempts = new AtomicInteger();
+        final RequestExecutor executor = RequestExecutor.builder(authentication)
+                .usingTransport(createTransportWithSlowFirstResponse(slowResponse, attempts))
+                .usingRateLimiter(RequestRateLimiter.builder().limitTo(0.01, 1).build())
+                .hedgingSlowRequests(0.95, 10, TimeUnit.MILLISECONDS)
+                .build();
+
+        final ResponseFuture<AmazonWebServiceResponse> response = executor.execute(
+                AmazonProductAdvertisingApiRequestBuilder.forItemLookup(ITEM_ID), AmazonWebServiceLocation.DE);
+        Thread.sleep(200);
+        slowResponse.countDown();
+
+        assertThat(response.get(5, TimeUnit.SECONDS).getBodyAsString(), is("first"));
+        assertThat(executor.getHedgedRequestCount(), is(0L));
+        assertThat(attempts.get(), is(1));
+        executor.shutdown();
+    }
+
+    @Test
+    public void shouldNotHedgeBeyondConcurrencyLimit() throws Exception {
+        final CountDownLatch slowResponse = new CountDownLatch(1);
+        final AtomicInteger attempts = new AtomicInteger();
+        final RequestExecutor executor = RequestExecutor.builder(authentication)
+                .usingTransport(createTransportWithSlowFirstResponse(slowResponse, attempts))
+                .limitConcurrentRequestsTo(1)
+                .hedgingSlowRequests(0.95, 10, TimeUnit.MILLISECONDS)
+                .build();
+
+        final ResponseFuture<AmazonWebServiceResponse> response = executor.execute(
+                AmazonProductAdvertisingApiRequestBuilder.forItemLookup(ITEM_ID), AmazonWebServiceLocation.DE);
+        Thread.sleep(200);
+
+        assertThat(attempts.get(), is(1));
+        assertThat(executor.getInFlightRequestCount(AmazonWebServiceLocation.DE), is(1));
+        slowResponse.countDown();
+        assertThat(response.get(5, TimeUnit.SECONDS).getBodyAsString(), is("first"));
+        executor.shutdown();
+    }
+
+    @Test
+    public void shouldReleaseSlotWhileWaitingForRetry() throws Exception {
+        final RequestExecutor executor = RequestExecutor.builder(authentication)
+                .usingTransport(new HttpTransport() {
+                    private final AtomicInteger throttledCount = new AtomicInteger();
+
+                    @Override
+                    public AmazonWebServiceResponse execute(final String requestUrl) {
+                        final boolean throttled = requestUrl.contains("ItemId=B00000001")
+                                && throttledCount.getAndIncrement() == 0;
+                        return AmazonWebServiceResponse.create(requestUrl, throttled ? 503 : 200, new byte[0]);
+                    }
+                })
+                .limitConcurrentRequestsTo(1)
+                .retryingThrottledRequests(1, 500, TimeUnit.MILLISECONDS)
+                .build();
+
+        final ResponseFuture<AmazonWebServiceResponse> throttledResponse =
+                executor.execute(createLookup(1), AmazonWebServiceLocation.DE);
+        final ResponseFuture<AmazonWebServiceResponse> otherResponse =
+                executor.execute(createLookup(2), AmazonWebServiceLocation.DE);
+
+        assertThat(otherResponse.get(5, TimeUnit.SECONDS).getStatusCode(), is(200));
+        assertThat(throttledResponse.isDone(), is(false));
+        assertThat(throttledResponse.get(5, TimeUnit.SECONDS).getStatusCode(), is(200));
+        assertThat(executor.getRetriedRequestCount(), is(1L));
+        executor.shutdown();
+    }
+
+    @Test
+    public void shouldCompleteQueuedRequestWithoutHedgeAfterShutdown() throws Exception {
+        final CountDownLatch slowResponse = new CountDownLatch(1);
+        final AtomicInteger attempts = new AtomicInteger();
+        final ExecutorService executorService = Executors.newCachedThreadPool();
+        final RequestExecutor executor = RequestExecutor.builder(authentication)
+                .usingTransport(createTransportWithSlowFirstResponse(slowResponse, attempts))
+                .usingExecutorService(executorService)
+                .limitConcurrentRequestsTo(1)
+                .hedgingSlowRequests(0.95, 1, TimeUnit.SECONDS)
+                .build();
+
+        final ResponseFuture<AmazonWebServiceResponse> firstResponse =
+                executor.execute(createLookup(1), AmazonWebServiceLocation.DE);
+        final ResponseFuture<AmazonWebServiceResponse> queuedResponse =
+                executor.execute(createLookup(2), AmazonWebServiceLocation.DE);
+        executor.shutdown();
+        slowResponse.countDown();
+
+        assertThat(firstResponse.get(5, TimeUnit.SECONDS).getBodyAsString(), is("first"));
+        assertThat(queuedResponse.get(5, TimeUnit.SECONDS).getBodyAsString(), is("hedge"));
+        assertThat(executor.getInFlightRequestCount(AmazonWebServiceLocation.DE), is(0));
+        executorService.shutdown();
+    }
+
+    private static HttpTransport createTransportWithSlowFirstResponse(final CountDownLatch slowResponse,
+                                                                      final AtomicInteger attempts) {
+        return new HttpTransport() {
+            @Override
+            public AmazonWebServiceResponse execute(final String requestUrl) throws IOException {
+                if (attempts.incrementAndGet() == 1) {
+                    try {
+                        slowResponse.await(5, TimeUnit.SECONDS);
+                    } catch (final InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    return AmazonWebServiceResponse.create(requestUrl, 200, "first".getBytes(StandardCharsets.UTF_8));
+                }
+                return AmazonWebServiceResponse.create(requestUrl, 200, "hedge".getBytes(StandardCharsets.UTF_8));
+            }
+        };
+    }
+
+    private static AdvertisingApiRequest createLookup(final int index) {
+        return AmazonProductAdvertisingApiRequestBuilder.forItemLookup(ItemId.createAsin("B0000000" + index));
+    }
+}
@@ -0,0 +1,89 @@
+package de.codecrafters.apaarb;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import static de.codecrafters.apaarb.TestFixtures.FIXED_CLOCK;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+
+/**
+ * Test and usage example of writing the path and query of signed requests directly into byte buffers.
+ *
+ * @author ISchwarz
+ */
+public class RequestPathTest {
+
+    private static final String URL_PREFIX = "http://webservices.amazon.de";
+    private static final ItemId ITEM_ID = ItemId.createAsin("B01BKISLYC");
+
+    private AmazonWebServiceAuthentication authentication;
+
+    @Before
+    public void setUp() throws Exception {
+        authentication = AmazonWebServiceAuthentication.create("AssociateTag", "AccessKey", "SecretKey");
+    }
+
+    @Test
+    public void shouldWriteItemSearchRequestPathToByteBuffer() throws Exception {
+        final AmazonProductAdvertisingApiRequestBuilder.AdvertisingApiItemSearchRequestBuilder builder =
+                AmazonProductAdvertisingApiRequestBuilder.forItemSearch("Dead Pool").usingClock(FIXED_CLOCK);
+        final ByteBuffer target = ByteBuffer.allocate(1024);
+
+        final int length = builder.writeRequestPathTo(AmazonWebServiceLocation.DE, authentication, target);
+
+        final String requestUrl = builder.createRequestUrlFor(AmazonWebServiceLocation.DE, authentication);
+        assertThat(length, is(target.position()));
+        assertThat(URL_PREFIX + new String(target.array(), 0, length, StandardCharsets.US_ASCII), is(requestUrl));
+    }
+
+    @Test
+    public void shouldWriteItemLookupRequestPathToSink() throws Exception {
+        final AmazonProductAdvertisingApiRequestBuilder.AdvertisingApiItemLookupRequestBuilder builder =
+                AmazonProductAdvertisingApiRequestBuilder.forItemLookup(ITEM_ID).usingClock(FIXED_CLOCK);
+        final ByteArrayOutputStream target = new ByteArrayOutputStream();
+
+        builder.writeRequestPathTo(AmazonWebServiceLocation.DE, authentication, new RequestSink() {
+            @Override
+            public void write(final byte[] source, final int offset, final int length) {
+                target.write(source, offset, length);
+            }
+        });
+
+        final String requestUrl = builder.createRequestUrlFor(AmazonWebServiceLocation.DE, authentication);
+        assertThat(URL_PREFIX + target.toString("US-ASCII"), is(requestUrl));
+    }
+
+    @Test
+    public void shouldWriteTemplateRequestPathToByteBuffer() throws Exception {
+        final ItemLookupRequestTemplate template = AmazonProductAdvertisingApiRequestBuilder.forItemLookup(ITEM_ID)
+                .usingClock(FIXED_CLOCK)
+                .compile(AmazonWebServiceLocation.DE, authentication);
+        final ByteBuffer target = ByteBuffer.allocateDirect(1024);
+
+        final int length = template.writeRequestPathTo(target);
+
+        final byte[] requestPath = new byte[length];
+        ((ByteBuffer) target.flip()).get(requestPath);
+        assertThat(URL_PREFIX + new String(requestPath, StandardCharsets.US_ASCII), is(template.createRequestUrl()));
+    }
+
+    @Test
+    public void shouldNotWriteAnythingIfByteBufferIsTooSmall() throws Exception {
+        final ByteBuffer target = ByteBuffer.allocate(16);
+
+        try {
+            AmazonProductAdvertisingApiRequestBuilder.forItemLookup(ITEM_ID)
+                    .writeRequestPathTo(AmazonWebServiceLocation.DE, authentication, target);
+            fail("BufferOverflowException expected");
+        } catch (final BufferOverflowException e) {
+            assertThat(target.position(), is(0));
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package de.codecrafters.apaarb;
+
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+/**
+ * Test of the {@link RequestSigner}, which has to create the same signatures as the plain HMAC calculation.
+ *
+ * @author ISchwarz
+ */
+public class RequestSignerTest {
+
+    private static final String AWS_SECRET_KEY = "SecretKey";
+    private static final String STRING_TO_SIGN = "GET\nwebservices.amazon.de\n/onca/xml\nAWSAccessKeyId=AccessKey";
+
+    @Test
+    public void shouldCreateSameSignatureAsHmac() throws Exception {
+        final RequestSigner signer = new RequestSigner(AWS_SECRET_KEY);
+
+        assertThat(signer.sign(STRING_TO_SIGN), is(RequestUrlUtils.hmac(STRING_TO_SIGN, AWS_SECRET_KEY)));
+    }
+
+    @Test
+    public void shouldCreateSameSignatureWhenReused() throws Exception {
+        final RequestSigner signer = new RequestSigner(AWS_SECRET_KEY);
+        final String firstSignature = signer.sign(STRING_TO_SIGN);
+
+        signer.sign("SomethingElse");
+
+        assertThat(signer.sign(STRING_TO_SIGN), is(firstSignature));
+    }
+
+    @Test
+    public void shouldCreateSameSignatureWithPrefixSigner() throws Exception {
+        final RequestSigner signer = new RequestSigner(AWS_SECRET_KEY);
+        final byte[] stringToSign = STRING_TO_SIGN.getBytes(StandardCharsets.US_ASCII);
+        final int prefixLength = STRING_TO_SIGN.indexOf("AWSAccessKeyId");
+        final RequestSigner.PrefixSigner prefixSigner =
+                signer.withPrefix(Arrays.copyOf(stringToSign, prefixLength));
+
+        final byte[] signature = prefixSigner.sign(stringToSign, prefixLength, stringToSign.length - prefixLength);
+
+        assertThat(new String(signature, StandardCharsets.US_ASCII), is(signer.sign(STRING_TO_SIGN)));
+        assertThat(prefixSigner.sign(stringToSign, prefixLength, stringToSign.length - prefixLength), is(signature));
+    }
+
+    @Test
+    public void shouldReuseSignerOfAuthentication() throws Exception {
+        final AmazonWebServiceAuthentication authentication =
+                AmazonWebServiceAuthentication.create("AssociateTag", "AccessKey", AWS_SECRET_KEY);
+
+        assertThat(authentication.getRequestSigner() == authentication.getRequestSigner(), is(true));
+    }
+}
@@ -0,0 +1,99 @@
+package de.codecrafters.apaarb;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static de.codecrafters.apaarb.ItemInformation.ATTRIBUTES;
+import static de.codecrafters.apaarb.ItemInformation.OFFERS;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.junit.Assert.assertThat;
+
+/**
+ * Test of the {@link ResponseCache} using a manually advanced clock.
+ *
+ * @author ISchwarz
+ */
+public class ResponseCacheTest {
+
+    private static final ItemId ITEM_ID = ItemId.createAsin("B01BKISLYC");
+    private static final AmazonWebServiceResponse RESPONSE =
+            AmazonWebServiceResponse.create("http://webservices.amazon.de/onca/xml", 200, new byte[0]);
+
+    private long now;
+    private NanoClock clock;
+
+    @Before
+    public void setUp() throws Exception {
+        clock = new NanoClock() {
+            @Override
+            public long nanoTime() {
+                return now;
+            }
+        };
+    }
+
+    @Test
+    public void shouldIgnoreTimestampOfRequests() throws Exception {
+        final ResponseCache cache = ResponseCache.builder().build(clock);
+        cache.put(AmazonProductAdvertisingApiRequestBuilder.forItemLookup(ITEM_ID)
+                .usingClock(fixedClock(1000)), AmazonWebServiceLocation.DE, RESPONSE);
+
+        assertThat(cache.get(AmazonProductAdvertisingApiRequestBuilder.forItemLookup(ITEM_ID)
+                .usingClock(fixedClock(2000)), AmazonWebServiceLocation.DE), sameInstance(RESPONSE));
+        assertThat(cache.get(AmazonProductAdvertisingApiRequestBuilder.forItemLookup(ITEM_ID),
+                AmazonWebServiceLocation.COM), is(nullValue()));
+        assertThat(cache.get(AmazonProductAdvertisingApiRequestBuilder.forItemLookup(ITEM_ID)
+                .includeInformationAbout(OFFERS), AmazonWebServiceLocation.DE), is(nullValue()));
+        assertThat(cache.getHitCount(), is(1L));
+        assertThat(cache.getMissCount(), is(2L));
+    }
+
+    @Test
+    public void shouldExpireAfterShortestTimeToLiveOfResponseGroup() throws Exception {
+        final ResponseCache cache = ResponseCache.builder()
+                .expireAfter(OFFERS, 5, TimeUnit.MINUTES)
+                .build(clock);
+        final AdvertisingApiRequest attributesRequest = AmazonProductAdvertisingApiRequestBuilder
+                .forItemLookup(ITEM_ID).includeInformationAbout(ATTRIBUTES);
+        final AdvertisingApiRequest offersRequest = AmazonProductAdvertisingApiRequestBuilder
+                .forItemLookup(ITEM_ID).includeInformationAbout(ATTRIBUTES).includeInformationAbout(OFFERS);
+        cache.put(attributesRequest, AmazonWebServiceLocation.DE, RESPONSE);
+        cache.put(offersRequest, AmazonWebServiceLocation.DE, RESPONSE);
+
+        now += TimeUnit.MINUTES.toNanos(6);
+
+        assertThat(cache.get(attributesRequest, AmazonWebServiceLocation.DE), sameInstance(RESPONSE));
+        assertThat(cache.get(offersRequest, AmazonWebServiceLocation.DE), is(nullValue()));
+        assertThat(cache.size(), is(1));
+    }
+
+    @Test
+    public void shouldEvictLeastRecentlyUsedResponse() throws Exception {
+        final ResponseCache cache = ResponseCache.builder().maximumSize(2).build(clock);
+        final AdvertisingApiRequest first = AmazonProductAdvertisingApiRequestBuilder.forItemLookup("1", ItemId.Type.ASIN);
+        final AdvertisingApiRequest second = AmazonProductAdvertisingApiRequestBuilder.forItemLookup("2", ItemId.Type.ASIN);
+        final AdvertisingApiRequest third = AmazonProductAdvertisingApiRequestBuilder.forItemLookup("3", ItemId.Type.ASIN);
+        cache.put(first, AmazonWebServiceLocation.DE, RESPONSE);
+        cache.put(second, AmazonWebServiceLocation.DE, RESPONSE);
+        cache.get(first, AmazonWebServiceLocation.DE);
+
+        cache.put(third, AmazonWebServiceLocation.DE, RESPONSE);
+
+        assertThat(cache.get(first, AmazonWebServiceLocation.DE), sameInstance(RESPONSE));
+        assertThat(cache.get(second, AmazonWebServiceLocation.DE), is(nullValue()));
+        assertThat(cache.getEvictionCount(), is(1L));
+    }
+
+    private static RequestClock fixedClock(final long time) {
+        return new RequestClock() {
+            @Override
+            public long currentTimeMillis() {
+                return time;
+            }
+        };
+    }
+}
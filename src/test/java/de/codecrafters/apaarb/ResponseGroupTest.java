@@ -0,0 +1,70 @@
+package de.codecrafters.apaarb;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.Set;
+
+import static org.hamcrest.CoreMatchers.containsString;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.junit.Assert.assertThat;
+
+/**
+ * Test of the {@link ResponseGroup}, which represents response groups as bit masks with cached encoded values.
+ *
+ * @author ISchwarz
+ */
+public class ResponseGroupTest {
+
+    private static final ItemId ITEM_ID = ItemId.createAsin("B00BYPW00I");
+
+    @Test
+    public void shouldRequestAttributesForEmptyResponseGroup() throws Exception {
+        assertThat(ResponseGroup.encode(ResponseGroup.EMPTY), is("ItemAttributes"));
+        assertThat(ResponseGroup.toSet(ResponseGroup.EMPTY), is((Set<ItemInformation>) EnumSet.of(
+                ItemInformation.ATTRIBUTES)));
+    }
+
+    @Test
+    public void shouldEncodeInformationInDeclarationOrder() throws Exception {
+        final int mask = ResponseGroup.of(Arrays.asList(ItemInformation.VARIATIONS, ItemInformation.OFFERS,
+                ItemInformation.ACCESSORIES));
+
+        assertThat(ResponseGroup.encode(mask), is("Accessories%2COffers%2CVariations"));
+        assertThat(ResponseGroup.toSet(mask), is((Set<ItemInformation>) EnumSet.of(ItemInformation.ACCESSORIES,
+                ItemInformation.OFFERS, ItemInformation.VARIATIONS)));
+    }
+
+    @Test
+    public void shouldReuseEncodedValue() throws Exception {
+        final int mask = ResponseGroup.of(Arrays.asList(ItemInformation.IMAGES, ItemInformation.SALES_RANK));
+
+        assertThat(ResponseGroup.encode(mask), is(sameInstance(ResponseGroup.encode(mask))));
+    }
+
+    @Test
+    public void shouldEncodeAllInformation() throws Exception {
+        final int mask = ResponseGroup.of(Arrays.asList(ItemInformation.values()));
+
+        assertThat(ResponseGroup.toSet(mask), is((Set<ItemInformation>) EnumSet.allOf(ItemInformation.class)));
+        assertThat(ResponseGroup.encode(mask), containsString("%2CVariations"));
+    }
+
+    @Test
+    public void shouldIgnoreDuplicateInformation() throws Exception {
+        final String requestUrl = AmazonProductAdvertisingApiRequestBuilder.forItemLookup(ITEM_ID)
+                .includeInformationAbout(ItemInformation.OFFERS)
+                .includeInformationAbout(ItemInformation.OFFERS)
+                .createRequestUrlFor(AmazonWebServiceLocation.DE, AmazonWebServiceAuthentication.create("Tag", "Key",
+                        "Secret"));
+
+        assertThat(requestUrl, containsString("&ResponseGroup=Offers&"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectUnknownBits() throws Exception {
+        ResponseGroup.encode(1 << ItemInformation.values().length);
+    }
+}
@@ -0,0 +1,121 @@
+package de.codecrafters.apaarb;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A local HTTP server that stands in for the Amazon services in tests. It answers every request with the configured
+ * status code and body and records the received requests.
+ *
+ * @author ISchwarz
+ */
+final class StubAmazonService {
+
+    private final List<String> receivedQueries = new CopyOnWriteArrayList<>();
+    private final AtomicInteger concurrentRequests = new AtomicInteger();
+    private final AtomicInteger maxConcurrentRequests = new AtomicInteger();
+    private final HttpServer server;
+
+    private volatile int statusCode = 200;
+    private volatile String body = "<ItemLookupResponse/>";
+    private volatile long responseDelayMillis;
+
+
+    private StubAmazonService() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.createContext(AmazonProductAdvertisingApiRequestBuilder.ROUTE, new HttpHandler() {
+            @Override
+            public void handle(final HttpExchange exchange) throws IOException {
+                receivedQueries.add(exchange.getRequestURI().getRawQuery());
+                final int concurrent = concurrentRequests.incrementAndGet();
+                updateMaxConcurrentRequests(concurrent);
+                try {
+                    Thread.sleep(responseDelayMillis);
+                    final byte[] responseBody = body.getBytes(StandardCharsets.UTF_8);
+                    exchange.sendResponseHeaders(statusCode, responseBody.length);
+                    try (final OutputStream out = exchange.getResponseBody()) {
+                        out.write(responseBody);
+                    }
+                } catch (final InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    concurrentRequests.decrementAndGet();
+                }
+            }
+        });
+        server.start();
+    }
+
+    static StubAmazonService start() throws IOException {
+        return new StubAmazonService();
+    }
+
+    /**
+     * Creates a transport that sends all requests to this stub instead of the Amazon service of the request url.
+     */
+    HttpTransport createTransport() {
+        final HttpTransport delegate = UrlConnectionTransport.create();
+        final String stubUrl = "http://localhost:" + server.getAddress().getPort();
+        return new HttpTransport() {
+            @Override
+            public AmazonWebServiceResponse execute(final String requestUrl) throws IOException {
+                return delegate.execute(requestUrl.replaceFirst("^https?://[^/]+", stubUrl));
+            }
+        };
+    }
+
+    void respondWith(final int statusCode, final String body) {
+        this.statusCode = statusCode;
+        this.body = body;
+    }
+
+    void respondWithFixture(final String fixture) throws IOException {
+        try (final InputStream in = StubAmazonService.class.getResourceAsStream("/responses/" + fixture)) {
+            final ByteArrayOutputStream out = new ByteArrayOutputStream();
+            final byte[] buffer = new byte[4096];
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                out.write(buffer, 0, read);
+            }
+            respondWith(200, new String(out.toByteArray(), StandardCharsets.UTF_8));
+        }
+    }
+
+    void delayResponsesBy(final long responseDelayMillis) {
+        this.responseDelayMillis = responseDelayMillis;
+    }
+
+    List<String> getReceivedQueries() {
+        return receivedQueries;
+    }
+
+    int getMaxConcurrentRequests() {
+        return maxConcurrentRequests.get();
+    }
+
+    void stop() {
+        server.stop(0);
+    }
+
+    private void updateMaxConcurrentRequests(final int concurrent) {
+        int max;
+        while (concurrent > (max = maxConcurrentRequests.get())) {
+            if (maxConcurrentRequests.compareAndSet(max, concurrent)) {
+                return;
+            }
+        }
+    }
+}
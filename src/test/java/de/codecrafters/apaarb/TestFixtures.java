@@ -0,0 +1,57 @@
+package de.codecrafters.apaarb;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Shared values for the tests: a {@link RequestClock} at a fixed point in time, so the created request urls are
+ * reproducible, and a factory for distinct ASINs.
+ *
+ * @author ISchwarz
+ */
+final class TestFixtures {
+
+    /**
+     * The point in time of the {@link #FIXED_CLOCK}, which is formatted as "2016-10-08T13:30:38.123Z".
+     */
+    static final long FIXED_TIME_MILLIS = 1475933438123L;
+
+    /**
+     * A {@link RequestClock} that always gives {@link #FIXED_TIME_MILLIS}.
+     */
+    static final RequestClock FIXED_CLOCK = new RequestClock() {
+        @Override
+        public long currentTimeMillis() {
+            return FIXED_TIME_MILLIS;
+        }
+    };
+
+
+    private TestFixtures() {
+        //no instance
+    }
+
+    /**
+     * Creates the ASIN with the given index, e.g. "B000000042" for 42.
+     *
+     * @param index The index of the ASIN.
+     * @return The created ASIN.
+     */
+    static ItemId createAsin(final int index) {
+        return ItemId.createAsin(String.format("B%09d", index));
+    }
+
+    /**
+     * Creates the given number of distinct ASINs starting with index 0.
+     *
+     * @param count The number of ASINs that shall be created.
+     * @return The created ASINs.
+     */
+    static List<ItemId> createAsins(final int count) {
+        final List<ItemId> itemIds = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            itemIds.add(createAsin(i));
+        }
+        return itemIds;
+    }
+}
@@ -0,0 +1,86 @@
+package de.codecrafters.apaarb;
+
+import org.junit.Test;
+
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.Random;
+import java.util.TimeZone;
+
+import static de.codecrafters.apaarb.TestFixtures.FIXED_CLOCK;
+import static de.codecrafters.apaarb.TestFixtures.FIXED_TIME_MILLIS;
+import static org.hamcrest.CoreMatchers.containsString;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+/**
+ * Test of the request timestamp creation using the {@link TimestampFormatter} and a custom {@link RequestClock}.
+ *
+ * @author ISchwarz
+ */
+public class TimestampTest {
+
+    private static final AmazonWebServiceAuthentication AUTHENTICATION =
+            AmazonWebServiceAuthentication.create("AssociateTag", "AccessKey", "SecretKey");
+
+    @Test
+    public void shouldFormatTimestamp() throws Exception {
+        assertThat(TimestampFormatter.format(FIXED_TIME_MILLIS), is("2016-10-08T13:30:38.123Z"));
+    }
+
+    @Test
+    public void shouldFormatTimestampWithinSameSecond() throws Exception {
+        assertThat(TimestampFormatter.format(FIXED_TIME_MILLIS), is("2016-10-08T13:30:38.123Z"));
+        assertThat(TimestampFormatter.format(FIXED_TIME_MILLIS + 5), is("2016-10-08T13:30:38.128Z"));
+        assertThat(TimestampFormatter.format(FIXED_TIME_MILLIS + 877), is("2016-10-08T13:30:39.000Z"));
+    }
+
+    @Test
+    public void shouldFormatTimestampLikeSimpleDateFormat() throws Exception {
+        final SimpleDateFormat dateFormat = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss.SSS'Z'");
+        dateFormat.setTimeZone(TimeZone.getTimeZone("GMT"));
+
+        final Random random = new Random(42);
+        for (int i = 0; i < 10000; i++) {
+            final long time = (long) (random.nextDouble() * 253402300799999L);
+            assertThat(TimestampFormatter.format(time), is(dateFormat.format(new Date(time))));
+        }
+    }
+
+    @Test
+    public void shouldParsePercentEncodedTimestamp() throws Exception {
+        final Random random = new Random(42);
+        for (int i = 0; i < 10000; i++) {
+            final long time = (long) (random.nextDouble() * 253402300799999L);
+            final String encodedTimestamp = "Timestamp=" + TimestampFormatter.format(time).replace(":", "%3A");
+            assertThat(TimestampFormatter.parsePercentEncoded(encodedTimestamp, 10), is(time));
+        }
+    }
+
+    @Test
+    public void shouldUseClockForItemLookupTimestamp() throws Exception {
+        final String requestUrl = AmazonProductAdvertisingApiRequestBuilder.forItemLookup(ItemId.createAsin("B01BKISLYC"))
+                .usingClock(FIXED_CLOCK)
+                .createRequestUrlFor(AmazonWebServiceLocation.DE, AUTHENTICATION);
+
+        assertThat(requestUrl, containsString("Timestamp=2016-10-08T13%3A30%3A38.123Z"));
+    }
+
+    @Test
+    public void shouldUseClockForItemSearchTimestamp() throws Exception {
+        final String requestUrl = AmazonProductAdvertisingApiRequestBuilder.forItemSearch("Dead Pool")
+                .usingClock(FIXED_CLOCK)
+                .createRequestUrlFor(AmazonWebServiceLocation.DE, AUTHENTICATION);
+
+        assertThat(requestUrl, containsString("Timestamp=2016-10-08T13%3A30%3A38.123Z"));
+    }
+
+    @Test
+    public void shouldCreateSameRequestUrlForSameTime() throws Exception {
+        final AmazonProductAdvertisingApiRequestBuilder.AdvertisingApiItemSearchRequestBuilder builder =
+                AmazonProductAdvertisingApiRequestBuilder.forItemSearch("Dead Pool").usingClock(FIXED_CLOCK);
+
+        assertThat(builder.createRequestUrlFor(AmazonWebServiceLocation.DE, AUTHENTICATION),
+                is(builder.createRequestUrlFor(AmazonWebServiceLocation.DE, AUTHENTICATION)));
+    }
+}